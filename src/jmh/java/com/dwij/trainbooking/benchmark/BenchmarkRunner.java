@@ -0,0 +1,44 @@
+package com.dwij.trainbooking.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Runs the benchmarks once per requested thread count and writes one JSON result file per run, so results can
+ * be diffed against a stored baseline. Configured through the {@code jmh.*} system properties set by the
+ * {@code benchmark} Maven profile.
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        Path resultDir = Path.of(System.getProperty("jmh.resultDir", "target/jmh"));
+        Files.createDirectories(resultDir);
+        for (String threads : System.getProperty("jmh.threads", "1").split(",")) {
+            ChainedOptionsBuilder options = new OptionsBuilder()
+                    .include(System.getProperty("jmh.include", ".*"))
+                    .threads(Integer.parseInt(threads.trim()))
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(resultDir.resolve("results-t" + threads.trim() + ".json").toString());
+            param(options, "seats");
+            param(options, "tickets");
+            new Runner(options.build()).run();
+        }
+    }
+
+    private static void param(ChainedOptionsBuilder options, String name) {
+        String values = System.getProperty("jmh." + name, "");
+        if (!values.isBlank()) {
+            options.param(name, values.split(","));
+        }
+    }
+}
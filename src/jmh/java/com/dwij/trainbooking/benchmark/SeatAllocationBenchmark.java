@@ -0,0 +1,73 @@
+package com.dwij.trainbooking.benchmark;
+
+import com.dwij.trainbooking.models.Departure;
+import com.dwij.trainbooking.models.Seat;
+import com.dwij.trainbooking.models.Section;
+import com.dwij.trainbooking.service.impl.SimpleSeatAllocationService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SeatAllocationBenchmark {
+
+    @Param({"64", "1024", "8192"})
+    int seats;
+
+    private SimpleSeatAllocationService seatService;
+    private Departure departure;
+    private final AtomicInteger threadIds = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        seatService = new SimpleSeatAllocationService(seats);
+        departure = seatService.defaultDeparture();
+        for (int i = 1; i <= seats / 2; i++) {
+            seatService.claimSeat(departure, Seat.of(Section.A, i * 2), null);
+        }
+    }
+
+    /**
+     * Each thread owns two seats at the top of section B and moves between them.
+     */
+    @State(Scope.Thread)
+    public static class OwnSeats {
+        Seat current;
+        Seat other;
+
+        @Setup(Level.Trial)
+        public void setUp(SeatAllocationBenchmark benchmark) {
+            int id = benchmark.threadIds.getAndIncrement();
+            current = Seat.of(Section.B, benchmark.seats - 2 * id);
+            other = Seat.of(Section.B, benchmark.seats - 2 * id - 1);
+            benchmark.seatService.claimSeat(benchmark.departure, current, null);
+        }
+    }
+
+    @Benchmark
+    public Seat allocateAndRelease() {
+        Seat seat = seatService.allocateSeat(departure, Section.A, null);
+        seatService.releaseSeat(departure, seat, null);
+        return seat;
+    }
+
+    @Benchmark
+    public Seat reallocate(OwnSeats own) {
+        Seat moved = seatService.reallocateSeat(departure, own.current, own.other, null);
+        own.other = own.current;
+        own.current = moved;
+        return moved;
+    }
+
+    @Benchmark
+    public List<Seat> getAvailableSeats() {
+        return seatService.getAvailableSeats(departure, Section.A, null);
+    }
+}
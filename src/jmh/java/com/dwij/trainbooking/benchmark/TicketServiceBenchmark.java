@@ -0,0 +1,96 @@
+package com.dwij.trainbooking.benchmark;
+
+import com.dwij.trainbooking.models.Seat;
+import com.dwij.trainbooking.models.Section;
+import com.dwij.trainbooking.models.Ticket;
+import com.dwij.trainbooking.models.User;
+import com.dwij.trainbooking.repository.InMemoryTicketRepository;
+import com.dwij.trainbooking.repository.InMemoryUserRepository;
+import com.dwij.trainbooking.service.impl.SimpleSeatAllocationService;
+import com.dwij.trainbooking.service.impl.TicketServiceImpl;
+import com.dwij.trainbooking.service.impl.UserServiceImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ticket lifecycle against a section already holding {@code tickets} bookings. Threads work on their own users
+ * and seats, so the numbers measure the service's overhead rather than seat exhaustion.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TicketServiceBenchmark {
+    private static final int MAX_THREADS = 256;
+
+    @Param({"2048", "16384"})
+    int seats;
+
+    @Param({"100", "1000"})
+    int tickets;
+
+    private UserServiceImpl userService;
+    private TicketServiceImpl ticketService;
+    private final AtomicInteger threadIds = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if (tickets + 2 * MAX_THREADS > seats) {
+            throw new IllegalArgumentException("Need at least " + (tickets + 2 * MAX_THREADS) + " seats");
+        }
+        userService = new UserServiceImpl(new InMemoryUserRepository());
+        ticketService = new TicketServiceImpl(new InMemoryTicketRepository(), new SimpleSeatAllocationService(seats),
+                userService);
+        for (int i = 0; i < tickets; i++) {
+            String email = "passenger" + i + "@example.com";
+            userService.addUser(User.builder().firstName("Passenger").lastName(String.valueOf(i)).email(email).build());
+            ticketService.purchaseTicket(email, Section.A);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Traveller {
+        String purchaser;
+        String mover;
+        Seat current;
+        Seat other;
+
+        @Setup(Level.Trial)
+        public void setUp(TicketServiceBenchmark benchmark) {
+            int id = benchmark.threadIds.getAndIncrement();
+            purchaser = "purchaser" + id + "@example.com";
+            mover = "mover" + id + "@example.com";
+            benchmark.userService.addUser(User.builder().firstName("Purchaser").lastName("" + id).email(purchaser).build());
+            benchmark.userService.addUser(User.builder().firstName("Mover").lastName("" + id).email(mover).build());
+            current = Seat.of(Section.B, benchmark.seats - 2 * id);
+            other = Seat.of(Section.B, benchmark.seats - 2 * id - 1);
+            benchmark.ticketService.purchaseTicket(mover, Section.B);
+            benchmark.ticketService.modifySeat(mover, current);
+        }
+    }
+
+    @Benchmark
+    public Ticket purchaseAndCancel(Traveller traveller) {
+        Ticket ticket = ticketService.purchaseTicket(traveller.purchaser, Section.A);
+        ticketService.cancelTicket(traveller.purchaser);
+        return ticket;
+    }
+
+    @Benchmark
+    public Ticket modifySeat(Traveller traveller) {
+        Ticket ticket = ticketService.modifySeat(traveller.mover, traveller.other);
+        traveller.other = traveller.current;
+        traveller.current = ticket.getSeat();
+        return ticket;
+    }
+
+    @Benchmark
+    public List<String> getUsersAndSeatsBySection() {
+        return ticketService.getUsersAndSeatsBySection(Section.A);
+    }
+}
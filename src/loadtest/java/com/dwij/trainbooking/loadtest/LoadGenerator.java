@@ -0,0 +1,173 @@
+package com.dwij.trainbooking.loadtest;
+
+import com.dwij.trainbooking.TrainBookingManagerApplication;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Drives the REST API with many concurrent clients and reports throughput and latency percentiles. By default it
+ * starts the application once per thread mode (platform, then virtual) on a random port, so both runs see the same
+ * workload. Each client loops purchase, receipt and cancel for its own user.
+ *
+ * <p>Configured with {@code load.*} system properties: {@code load.clients}, {@code load.warmup},
+ * {@code load.duration}, {@code load.modes} and {@code load.target} (drive an already running server instead).
+ */
+public final class LoadGenerator {
+    private static final long MAX_LATENCY_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+    private final HttpClient http;
+    private final String baseUrl;
+    private final Recorder recorder = new Recorder(MAX_LATENCY_NANOS, 3);
+    private final LongAdder errors = new LongAdder();
+
+    private LoadGenerator(HttpClient http, String baseUrl) {
+        this.http = http;
+        this.baseUrl = baseUrl;
+    }
+
+    record Result(long requests, long errors, Duration elapsed, Histogram latencies) {
+        double throughput() {
+            return requests / (elapsed.toNanos() / 1e9);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int clients = Integer.getInteger("load.clients", 2000);
+        Duration warmup = Duration.parse(System.getProperty("load.warmup", "PT5S"));
+        Duration duration = Duration.parse(System.getProperty("load.duration", "PT20S"));
+        String target = System.getProperty("load.target", "");
+
+        Map<String, Result> results = new LinkedHashMap<>();
+        if (!target.isBlank()) {
+            results.put(target, run(target, clients, warmup, duration));
+        } else {
+            for (String mode : System.getProperty("load.modes", "platform,virtual").split(",")) {
+                try (ConfigurableApplicationContext context = start(mode.trim(), clients)) {
+                    String port = context.getEnvironment().getProperty("local.server.port");
+                    results.put(mode.trim(), run("http://localhost:" + port, clients, warmup, duration));
+                }
+            }
+        }
+        report(clients, results);
+    }
+
+    private static ConfigurableApplicationContext start(String mode, int clients) {
+        return new SpringApplicationBuilder(TrainBookingManagerApplication.class).run(
+                "--server.port=0",
+                "--spring.threads.virtual.enabled=" + "virtual".equals(mode),
+                "--server.tomcat.max-connections=" + Math.max(8192, clients * 2),
+                "--booking.journal.enabled=false",
+                "--booking.snapshot.enabled=false",
+                "--booking.trains.LF100.sections.A=" + clients,
+                "--booking.trains.LF100.sections.B=" + clients,
+                "--logging.level.root=WARN");
+    }
+
+    private static Result run(String baseUrl, int clients, Duration warmup, Duration duration) throws Exception {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient http = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(executor)
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build();
+            LoadGenerator generator = new LoadGenerator(http, baseUrl);
+            String runId = Long.toString(System.nanoTime(), 36);
+            for (int i = 0; i < clients; i++) {
+                generator.send("POST", "/api/users", """
+                        {"firstName":"Load","lastName":"Client%d","email":"%s"}""".formatted(i, email(runId, i)));
+            }
+
+            AtomicBoolean running = new AtomicBoolean(true);
+            List<Future<?>> workers = new ArrayList<>(clients);
+            for (int i = 0; i < clients; i++) {
+                String email = email(runId, i);
+                String section = i % 2 == 0 ? "A" : "B";
+                workers.add(executor.submit(() -> generator.client(email, section, running)));
+            }
+            Thread.sleep(warmup);
+            generator.recorder.reset();
+            generator.errors.reset();
+            long start = System.nanoTime();
+            Thread.sleep(duration);
+            Histogram latencies = generator.recorder.getIntervalHistogram();
+            long errors = generator.errors.sum();
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+            running.set(false);
+            for (var worker : workers) {
+                worker.get();
+            }
+            return new Result(latencies.getTotalCount(), errors, elapsed, latencies);
+        }
+    }
+
+    private void client(String email, String section, AtomicBoolean running) {
+        while (running.get()) {
+            send("POST", "/api/tickets/purchase?email=" + email + "&section=" + section, null);
+            send("GET", "/api/tickets/" + email + "/receipt", null);
+            send("DELETE", "/api/tickets/" + email + "/remove", null);
+        }
+    }
+
+    private void send(String method, String path, String json) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30));
+        if (json != null) {
+            request.header("Content-Type", "application/json").method(method, HttpRequest.BodyPublishers.ofString(json));
+        } else {
+            request.method(method, HttpRequest.BodyPublishers.noBody());
+        }
+        long start = System.nanoTime();
+        try {
+            HttpResponse<Void> response = http.send(request.build(), HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() >= 400) {
+                errors.increment();
+            }
+        } catch (Exception e) {
+            errors.increment();
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        recorder.recordValue(Math.min(System.nanoTime() - start, MAX_LATENCY_NANOS));
+    }
+
+    private static String email(String runId, int client) {
+        return "client" + client + "-" + runId + "@load.test";
+    }
+
+    private static void report(int clients, Map<String, Result> results) {
+        System.out.printf("%nLoad test with %d concurrent clients%n", clients);
+        System.out.printf("%-10s %12s %8s %9s %9s %9s %9s %9s%n",
+                "mode", "req/s", "errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        results.forEach((mode, result) -> {
+            Histogram h = result.latencies();
+            System.out.printf("%-10s %12.0f %8d %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    mode, result.throughput(), result.errors(),
+                    millis(h.getValueAtPercentile(50)), millis(h.getValueAtPercentile(90)),
+                    millis(h.getValueAtPercentile(99)), millis(h.getValueAtPercentile(99.9)),
+                    millis(h.getMaxValue()));
+        });
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+}
@@ -0,0 +1,75 @@
+package com.dwij.trainbooking.config;
+
+import com.dwij.trainbooking.models.Route;
+import com.dwij.trainbooking.models.Train;
+import com.dwij.trainbooking.repository.CompactUserRepository;
+import com.dwij.trainbooking.repository.InMemoryTicketRepository;
+import com.dwij.trainbooking.repository.InMemoryUserRepository;
+import com.dwij.trainbooking.repository.OffHeapTicketRepository;
+import com.dwij.trainbooking.repository.TicketRepository;
+import com.dwij.trainbooking.repository.UserRepository;
+import com.dwij.trainbooking.service.IdempotencyCache;
+import com.dwij.trainbooking.service.TrainCatalog;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(BookingProperties.class)
+public class BookingConfiguration {
+
+    @Bean
+    public Clock clock() {
+        return Clock.systemDefaultZone();
+    }
+
+    @Bean
+    public TrainCatalog trainCatalog(BookingProperties properties) {
+        Map<String, BookingProperties.TrainProperties> configured = properties.getTrains();
+        if (configured.isEmpty()) {
+            return TrainCatalog.singleTrain(Route.of("London", "France"), 10);
+        }
+        List<Train> trains = new ArrayList<>();
+        configured.forEach((number, train) ->
+                trains.add(new Train(number, new Route(train.getStations()), train.getSections())));
+        return new TrainCatalog(trains, properties.getDefaultTrain());
+    }
+
+    @Bean
+    public IdempotencyCache idempotencyCache(BookingProperties properties, Clock clock) {
+        BookingProperties.IdempotencyProperties idempotency = properties.getIdempotency();
+        return new IdempotencyCache(idempotency.getMaxEntries(), idempotency.getTtl(), clock);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "booking.users", name = "store", havingValue = "heap", matchIfMissing = true)
+    public UserRepository userRepository() {
+        return new InMemoryUserRepository();
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "booking.users", name = "store", havingValue = "compact")
+    public UserRepository compactUserRepository(BookingProperties properties) {
+        return new CompactUserRepository(properties.getUsers().getExpectedUsers());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "booking.tickets", name = "store", havingValue = "heap", matchIfMissing = true)
+    public TicketRepository ticketRepository() {
+        return new InMemoryTicketRepository();
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "booking.tickets", name = "store", havingValue = "offheap")
+    public TicketRepository offHeapTicketRepository(UserRepository userRepository, BookingProperties properties) {
+        return new OffHeapTicketRepository(userRepository, properties.getTickets().getExpectedTickets());
+    }
+}
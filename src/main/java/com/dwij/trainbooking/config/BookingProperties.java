@@ -0,0 +1,220 @@
+package com.dwij.trainbooking.config;
+
+import com.dwij.trainbooking.journal.FsyncPolicy;
+import com.dwij.trainbooking.models.Section;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+
+@ConfigurationProperties(prefix = "booking")
+public class BookingProperties {
+    private String defaultTrain = "LF100";
+    private Map<String, TrainProperties> trains = new LinkedHashMap<>();
+    private JournalProperties journal = new JournalProperties();
+    private IdempotencyProperties idempotency = new IdempotencyProperties();
+    private HoldProperties holds = new HoldProperties();
+    private UserStoreProperties users = new UserStoreProperties();
+    private TicketStoreProperties tickets = new TicketStoreProperties();
+
+    public String getDefaultTrain() {
+        return defaultTrain;
+    }
+
+    public void setDefaultTrain(String defaultTrain) {
+        this.defaultTrain = defaultTrain;
+    }
+
+    public Map<String, TrainProperties> getTrains() {
+        return trains;
+    }
+
+    public void setTrains(Map<String, TrainProperties> trains) {
+        this.trains = trains;
+    }
+
+    public JournalProperties getJournal() {
+        return journal;
+    }
+
+    public void setJournal(JournalProperties journal) {
+        this.journal = journal;
+    }
+
+    public IdempotencyProperties getIdempotency() {
+        return idempotency;
+    }
+
+    public void setIdempotency(IdempotencyProperties idempotency) {
+        this.idempotency = idempotency;
+    }
+
+    public HoldProperties getHolds() {
+        return holds;
+    }
+
+    public void setHolds(HoldProperties holds) {
+        this.holds = holds;
+    }
+
+    public UserStoreProperties getUsers() {
+        return users;
+    }
+
+    public void setUsers(UserStoreProperties users) {
+        this.users = users;
+    }
+
+    public TicketStoreProperties getTickets() {
+        return tickets;
+    }
+
+    public void setTickets(TicketStoreProperties tickets) {
+        this.tickets = tickets;
+    }
+
+    public static class TrainProperties {
+        private List<String> stations = new ArrayList<>();
+        private Map<Section, Integer> sections = new EnumMap<>(Section.class);
+
+        public List<String> getStations() {
+            return stations;
+        }
+
+        public void setStations(List<String> stations) {
+            this.stations = stations;
+        }
+
+        public Map<Section, Integer> getSections() {
+            return sections;
+        }
+
+        public void setSections(Map<Section, Integer> sections) {
+            this.sections = sections;
+        }
+    }
+
+    public static class JournalProperties {
+        private boolean enabled = false;
+        private Path directory = Path.of("data");
+        private FsyncPolicy fsyncPolicy = FsyncPolicy.BATCHED;
+        private Duration flushInterval = Duration.ofMillis(10);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Path getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(Path directory) {
+            this.directory = directory;
+        }
+
+        public FsyncPolicy getFsyncPolicy() {
+            return fsyncPolicy;
+        }
+
+        public void setFsyncPolicy(FsyncPolicy fsyncPolicy) {
+            this.fsyncPolicy = fsyncPolicy;
+        }
+
+        public Duration getFlushInterval() {
+            return flushInterval;
+        }
+
+        public void setFlushInterval(Duration flushInterval) {
+            this.flushInterval = flushInterval;
+        }
+    }
+
+    public static class IdempotencyProperties {
+        private int maxEntries = 100_000;
+        private Duration ttl = Duration.ofHours(1);
+
+        public int getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+    }
+
+    public static class HoldProperties {
+        private Duration ttl = Duration.ofMinutes(10);
+        private Duration tick = Duration.ofMillis(100);
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        public Duration getTick() {
+            return tick;
+        }
+
+        public void setTick(Duration tick) {
+            this.tick = tick;
+        }
+    }
+
+    public static class UserStoreProperties {
+        private String store = "heap";
+        private int expectedUsers = 0;
+
+        public String getStore() {
+            return store;
+        }
+
+        public void setStore(String store) {
+            this.store = store;
+        }
+
+        public int getExpectedUsers() {
+            return expectedUsers;
+        }
+
+        public void setExpectedUsers(int expectedUsers) {
+            this.expectedUsers = expectedUsers;
+        }
+    }
+
+    public static class TicketStoreProperties {
+        private String store = "heap";
+        private int expectedTickets = 0;
+
+        public String getStore() {
+            return store;
+        }
+
+        public void setStore(String store) {
+            this.store = store;
+        }
+
+        public int getExpectedTickets() {
+            return expectedTickets;
+        }
+
+        public void setExpectedTickets(int expectedTickets) {
+            this.expectedTickets = expectedTickets;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.dwij.trainbooking.config;
+
+import com.dwij.trainbooking.journal.*;
+import com.dwij.trainbooking.repository.TicketRepository;
+import com.dwij.trainbooking.repository.UserRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.time.Clock;
+
+@Configuration
+public class JournalConfiguration {
+
+    @Bean
+    public SnapshotStore snapshotStore(BookingProperties properties) {
+        return new SnapshotStore(properties.getJournal().getDirectory());
+    }
+
+    @Bean
+    public BookingRecovery bookingRecovery(SnapshotStore snapshotStore, JournalReplayer replayer, Clock clock) {
+        return new BookingRecovery(snapshotStore, replayer, clock);
+    }
+
+    @Bean
+    public BookingJournal bookingJournal(BookingProperties properties, BookingRecovery recovery) throws IOException {
+        BookingProperties.JournalProperties journal = properties.getJournal();
+        if (!journal.isEnabled()) {
+            return BookingJournal.disabled();
+        }
+        return recovery.recover(journal.getDirectory().resolve("bookings.journal"), journal.getFsyncPolicy(),
+                journal.getFlushInterval());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "booking.snapshot", name = "enabled", havingValue = "true")
+    public SnapshotScheduler snapshotScheduler(SnapshotStore snapshotStore, BookingJournal journal,
+            UserRepository userRepository, TicketRepository ticketRepository) {
+        return new SnapshotScheduler(snapshotStore, journal, userRepository, ticketRepository);
+    }
+}
@@ -0,0 +1,108 @@
+package com.dwij.trainbooking.config;
+
+import com.dwij.trainbooking.journal.BookingRecovery;
+import com.dwij.trainbooking.journal.RecoveryReport;
+import com.dwij.trainbooking.models.Section;
+import com.dwij.trainbooking.service.IdempotencyCache;
+import com.dwij.trainbooking.service.TrainCatalog;
+import com.dwij.trainbooking.service.impl.SeatAvailabilityFeed;
+import com.dwij.trainbooking.service.impl.SeatHoldServiceImpl;
+import com.dwij.trainbooking.service.impl.SimpleSeatAllocationService;
+import com.dwij.trainbooking.service.impl.TicketServiceImpl;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class MetricsConfiguration {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+
+    /**
+     * Free seats per section on today's departure of the default train, counted straight from the bitmaps when
+     * scraped, plus the allocator's CAS retry count.
+     */
+    @Bean
+    public MeterBinder seatInventoryMetrics(SimpleSeatAllocationService seatAllocationService,
+            TrainCatalog trainCatalog) {
+        return registry -> {
+            for (Section section : trainCatalog.getDefaultTrain().getSeatsPerSection().keySet()) {
+                Gauge.builder("booking.seats.free", seatAllocationService,
+                                service -> service.countAvailableSeats(service.defaultDeparture(), section, null))
+                        .description("Free seats on today's departure of the default train")
+                        .tag("section", section.name())
+                        .register(registry);
+            }
+            FunctionCounter.builder("booking.allocator.contention", seatAllocationService,
+                            SimpleSeatAllocationService::getContentionCount)
+                    .description("Seat claims that lost a race to a concurrent booking and retried")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder recoveryMetrics(BookingRecovery recovery) {
+        return registry -> {
+            Gauge.builder("booking.recovery.replayed.records", recovery,
+                            r -> r.getReport().replayedRecords())
+                    .description("Journal records replayed on startup after the snapshot")
+                    .register(registry);
+            TimeGauge.builder("booking.recovery.duration", recovery, TimeUnit.MILLISECONDS,
+                            r -> r.getReport().replayDuration().toMillis())
+                    .description("Time taken to load the snapshot and replay the journal on startup")
+                    .register(registry);
+            TimeGauge.builder("booking.recovery.snapshot.age", recovery, TimeUnit.SECONDS,
+                            r -> snapshotAge(r.getReport()).toSeconds())
+                    .description("Age of the snapshot recovery started from")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder checkoutMetrics(SeatHoldServiceImpl seatHoldService, TicketServiceImpl ticketService,
+                                       SeatAvailabilityFeed seatAvailabilityFeed) {
+        return registry -> {
+            Gauge.builder("booking.holds.active", seatHoldService, SeatHoldServiceImpl::activeHoldCount)
+                    .description("Seats held and waiting for confirmation")
+                    .register(registry);
+            Gauge.builder("booking.waitlist.size", ticketService, TicketServiceImpl::waitlistSize)
+                    .description("Customers waiting for a seat to be released")
+                    .register(registry);
+            FunctionCounter.builder("booking.tickets.conflicts", ticketService, TicketServiceImpl::getConflictCount)
+                    .description("Seat changes and cancellations retried because the ticket changed underneath them")
+                    .register(registry);
+            Gauge.builder("booking.seat-feed.subscribers", seatAvailabilityFeed,
+                            SeatAvailabilityFeed::subscriberCount)
+                    .description("Clients streaming seat availability")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder idempotencyMetrics(IdempotencyCache idempotencyCache) {
+        return registry -> {
+            Gauge.builder("booking.idempotency.entries", idempotencyCache, IdempotencyCache::size)
+                    .description("Idempotency keys currently remembered")
+                    .register(registry);
+            FunctionCounter.builder("booking.idempotency.replays", idempotencyCache,
+                            IdempotencyCache::getReplayCount)
+                    .description("Retried requests answered without running the operation again")
+                    .register(registry);
+        };
+    }
+
+    private static Duration snapshotAge(RecoveryReport report) {
+        return report.hasSnapshot() ? report.snapshotAge() : Duration.ZERO;
+    }
+}
@@ -0,0 +1,37 @@
+package com.dwij.trainbooking.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.Executors;
+
+/**
+ * The "reactive" profile serves the API from WebFlux on Netty instead of Spring MVC on Tomcat.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveConfiguration {
+
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    /**
+     * Runs booking writes, which may wait for the journal to become durable, off the Netty event loops: on virtual
+     * threads when they are enabled, otherwise on Reactor's bounded elastic pool.
+     */
+    @Bean(destroyMethod = "dispose")
+    public Scheduler bookingScheduler(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        if (virtualThreads) {
+            return Schedulers.fromExecutorService(Executors.newVirtualThreadPerTaskExecutor(), "booking");
+        }
+        return Schedulers.newBoundedElastic(Schedulers.DEFAULT_BOUNDED_ELASTIC_SIZE,
+                Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE, "booking");
+    }
+}
@@ -1,32 +1,70 @@
 package com.dwij.trainbooking.controller;
 
-import com.dwij.trainbooking.models.Seat;
-import com.dwij.trainbooking.models.Section;
+import com.dwij.trainbooking.models.*;
 import com.dwij.trainbooking.service.SeatAllocationStrategy;
 import com.dwij.trainbooking.service.TicketService;
+import com.dwij.trainbooking.service.impl.SeatAvailabilityFeed;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/seats")
 public class SeatController {
 
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int FLUSH_EVERY = 256;
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     private final SeatAllocationStrategy seatAllocationService;
     private final TicketService ticketService;
+    private final ObjectMapper objectMapper;
+    private final SeatAvailabilityFeed availabilityFeed;
+    private final Duration feedTimeout;
 
     @Autowired
-    public SeatController(SeatAllocationStrategy seatAllocationService, TicketService ticketService) {
+    public SeatController(SeatAllocationStrategy seatAllocationService, TicketService ticketService,
+            ObjectMapper objectMapper, SeatAvailabilityFeed availabilityFeed,
+            @Value("${booking.seat-feed.timeout:PT30M}") Duration feedTimeout) {
         this.seatAllocationService = seatAllocationService;
         this.ticketService = ticketService;
+        this.objectMapper = objectMapper;
+        this.availabilityFeed = availabilityFeed;
+        this.feedTimeout = feedTimeout;
     }
 
     @GetMapping("/available/{section}")
-    public ResponseEntity<List<Seat>> getAvailableSeats(@PathVariable Section section) {
-        List<Seat> availableSeats = seatAllocationService.getAvailableSeats(section);
-        return ResponseEntity.ok(availableSeats);
+    public ResponseEntity<List<Seat>> getAvailableSeats(@PathVariable Section section,
+            @RequestParam(required = false) String from, @RequestParam(required = false) String to,
+            WebRequest request) {
+        return availableSeats(seatAllocationService.getAvailabilityVersion(section), request,
+                () -> from == null && to == null
+                        ? seatAllocationService.getAvailableSeats(section)
+                        : seatAllocationService.getAvailableSeats(section, Journey.of(from, to)));
+    }
+
+    @GetMapping(value = "/available/{section}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAvailability(@PathVariable Section section,
+            @RequestParam(required = false) String from, @RequestParam(required = false) String to) {
+        return availabilityEvents(seatAllocationService.defaultDeparture(), section, from, to);
     }
 
     @GetMapping("/allocated/{section}")
@@ -34,4 +72,114 @@ public class SeatController {
         List<String> usersAndSeats = ticketService.getUsersAndSeatsBySection(section);
         return ResponseEntity.ok(usersAndSeats);
     }
-}
\ No newline at end of file
+
+    @GetMapping("/allocated/{section}/page")
+    public ResponseEntity<ManifestPage> getManifestPage(@PathVariable Section section,
+            @RequestParam(required = false) String cursor, @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(ticketService.getManifestPage(section, cursor, pageSize(limit)));
+    }
+
+    @GetMapping("/allocated/{section}/stream")
+    public ResponseEntity<StreamingResponseBody> streamManifest(@PathVariable Section section) {
+        return ndjson(() -> ticketService.streamManifest(section));
+    }
+
+    @GetMapping("/trains/{trainNumber}/{date}/available/{section}")
+    public ResponseEntity<List<Seat>> getAvailableSeats(@PathVariable String trainNumber,
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @PathVariable Section section,
+            @RequestParam(required = false) String from, @RequestParam(required = false) String to,
+            WebRequest request) {
+        Departure departure = Departure.of(trainNumber, date);
+        return availableSeats(seatAllocationService.getAvailabilityVersion(departure, section), request,
+                () -> seatAllocationService.getAvailableSeats(departure, section, Journey.of(from, to)));
+    }
+
+    @GetMapping(value = "/trains/{trainNumber}/{date}/available/{section}/events",
+            produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAvailability(@PathVariable String trainNumber,
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @PathVariable Section section,
+            @RequestParam(required = false) String from, @RequestParam(required = false) String to) {
+        return availabilityEvents(Departure.of(trainNumber, date), section, from, to);
+    }
+
+    @GetMapping("/trains/{trainNumber}/{date}/allocated/{section}")
+    public ResponseEntity<List<String>> getUsersAndSeatsBySection(@PathVariable String trainNumber,
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @PathVariable Section section) {
+        List<String> usersAndSeats = ticketService.getUsersAndSeatsBySection(Departure.of(trainNumber, date), section);
+        return ResponseEntity.ok(usersAndSeats);
+    }
+
+    @GetMapping("/trains/{trainNumber}/{date}/allocated/{section}/page")
+    public ResponseEntity<ManifestPage> getManifestPage(@PathVariable String trainNumber,
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @PathVariable Section section,
+            @RequestParam(required = false) String cursor, @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(ticketService.getManifestPage(Departure.of(trainNumber, date), section, cursor,
+                pageSize(limit)));
+    }
+
+    @GetMapping("/trains/{trainNumber}/{date}/allocated/{section}/stream")
+    public ResponseEntity<StreamingResponseBody> streamManifest(@PathVariable String trainNumber,
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @PathVariable Section section) {
+        return ndjson(() -> ticketService.streamManifest(Departure.of(trainNumber, date), section));
+    }
+
+    /**
+     * Availability feed as server-sent events: a {@code snapshot} event, then {@code delta} events. Clients
+     * reconnect when the emitter times out and receive a fresh snapshot.
+     */
+    private SseEmitter availabilityEvents(Departure departure, Section section, String from, String to) {
+        SseEmitter emitter = new SseEmitter(feedTimeout.toMillis());
+        SeatAvailabilityFeed.Subscription subscription = availabilityFeed.subscribe(departure, section, from, to,
+                (event, data) -> emitter.send(SseEmitter.event().name(event).data(data, MediaType.APPLICATION_JSON)));
+        emitter.onCompletion(subscription::cancel);
+        emitter.onTimeout(subscription::cancel);
+        emitter.onError(e -> subscription.cancel());
+        return emitter;
+    }
+
+    /**
+     * Answers with the section's availability version as the ETag. A client that already holds that version gets
+     * 304 Not Modified without the inventory being read.
+     */
+    private static ResponseEntity<List<Seat>> availableSeats(long version, WebRequest request,
+            Supplier<List<Seat>> seats) {
+        String eTag = "\"" + Long.toHexString(version) + "\"";
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        return ResponseEntity.ok().eTag(eTag).body(seats.get());
+    }
+
+    private static int pageSize(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+
+    /**
+     * Writes one JSON object per line straight to the response as the manifest is walked, so memory use does not
+     * grow with the number of passengers.
+     */
+    private ResponseEntity<StreamingResponseBody> ndjson(Supplier<Stream<ManifestEntry>> manifest) {
+        StreamingResponseBody body = out -> {
+            try (Stream<ManifestEntry> entries = manifest.get();
+                 JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.setRootValueSeparator(null);
+                Iterator<ManifestEntry> iterator = entries.iterator();
+                int written = 0;
+                while (iterator.hasNext()) {
+                    generator.writeObject(iterator.next());
+                    generator.writeRaw('\n');
+                    if (++written % FLUSH_EVERY == 0) {
+                        generator.flush();
+                    }
+                }
+            }
+        };
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+}
@@ -0,0 +1,57 @@
+package com.dwij.trainbooking.controller;
+
+import com.dwij.trainbooking.models.Departure;
+import com.dwij.trainbooking.models.SeatHold;
+import com.dwij.trainbooking.models.Section;
+import com.dwij.trainbooking.models.Ticket;
+import com.dwij.trainbooking.service.SeatHoldService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+
+@RestController
+@Profile("!reactive")
+@RequestMapping("/api/holds")
+public class SeatHoldController {
+
+    private final SeatHoldService seatHoldService;
+
+    @Autowired
+    public SeatHoldController(SeatHoldService seatHoldService) {
+        this.seatHoldService = seatHoldService;
+    }
+
+    @PostMapping
+    public ResponseEntity<SeatHold> placeHold(@RequestParam String email, @RequestParam Section section,
+            @RequestParam(required = false) String from, @RequestParam(required = false) String to) {
+        return ResponseEntity.ok(seatHoldService.placeHold(email, section, from, to));
+    }
+
+    @PostMapping("/trains/{trainNumber}/{date}")
+    public ResponseEntity<SeatHold> placeHold(@PathVariable String trainNumber,
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam String email, @RequestParam Section section,
+            @RequestParam(required = false) String from, @RequestParam(required = false) String to) {
+        return ResponseEntity.ok(seatHoldService.placeHold(Departure.of(trainNumber, date), email, section, from, to));
+    }
+
+    @GetMapping("/{holdId}")
+    public ResponseEntity<SeatHold> getHold(@PathVariable String holdId) {
+        return ResponseEntity.ok(seatHoldService.getHold(holdId));
+    }
+
+    @PostMapping("/{holdId}/confirm")
+    public ResponseEntity<Ticket> confirmHold(@PathVariable String holdId) {
+        return ResponseEntity.ok(seatHoldService.confirmHold(holdId));
+    }
+
+    @DeleteMapping("/{holdId}")
+    public ResponseEntity<Void> releaseHold(@PathVariable String holdId) {
+        seatHoldService.releaseHold(holdId);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,26 +1,67 @@
 package com.dwij.trainbooking.controller;
 
-import com.dwij.trainbooking.models.Seat;
-import com.dwij.trainbooking.models.Section;
-import com.dwij.trainbooking.models.Ticket;
+import com.dwij.trainbooking.models.*;
+import com.dwij.trainbooking.service.IdempotencyCache;
+import com.dwij.trainbooking.service.IdempotencyKeys;
 import com.dwij.trainbooking.service.TicketService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.util.List;
+
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/tickets")
 public class TicketController {
 
     @Autowired
     private TicketService ticketService;
 
+    @Autowired
+    private IdempotencyCache idempotencyCache;
+
     @PostMapping("/purchase")
-    public ResponseEntity<Ticket> purchaseTicket(@RequestParam String email, @RequestParam Section section) {
-        Ticket ticket = ticketService.purchaseTicket(email, section);
+    public ResponseEntity<Ticket> purchaseTicket(@RequestParam String email, @RequestParam Section section,
+            @RequestParam(required = false) String from, @RequestParam(required = false) String to,
+            @RequestHeader(value = IdempotencyKeys.HEADER, required = false) String idempotencyKey) {
+        Ticket ticket = idempotencyCache.execute(idempotencyKey,
+                IdempotencyKeys.purchase(null, email, section, from, to),
+                () -> ticketService.purchaseTicket(email, section, from, to));
         return ResponseEntity.ok(ticket);
     }
 
+    @PostMapping("/trains/{trainNumber}/{date}/purchase")
+    public ResponseEntity<Ticket> purchaseTicket(@PathVariable String trainNumber,
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam String email, @RequestParam Section section,
+            @RequestParam(required = false) String from, @RequestParam(required = false) String to,
+            @RequestHeader(value = IdempotencyKeys.HEADER, required = false) String idempotencyKey) {
+        Departure departure = Departure.of(trainNumber, date);
+        Ticket ticket = idempotencyCache.execute(idempotencyKey,
+                IdempotencyKeys.purchase(departure, email, section, from, to),
+                () -> ticketService.purchaseTicket(departure, email, section, from, to));
+        return ResponseEntity.ok(ticket);
+    }
+
+    @PostMapping("/purchase/batch")
+    public ResponseEntity<BatchPurchaseResult> purchaseTickets(@RequestBody List<BatchPurchaseEntry> entries,
+            @RequestParam(required = false) String from, @RequestParam(required = false) String to) {
+        return batchResponse(ticketService.purchaseTickets(entries, from, to));
+    }
+
+    @PostMapping("/trains/{trainNumber}/{date}/purchase/batch")
+    public ResponseEntity<BatchPurchaseResult> purchaseTickets(@PathVariable String trainNumber,
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestBody List<BatchPurchaseEntry> entries,
+            @RequestParam(required = false) String from, @RequestParam(required = false) String to) {
+        return batchResponse(ticketService.purchaseTickets(Departure.of(trainNumber, date), entries, from, to));
+    }
+
     @GetMapping("/{email}/receipt")
     public ResponseEntity<Ticket> getReceipt(@PathVariable String email) {
         Ticket ticket = ticketService.getTicket(email);
@@ -34,8 +75,23 @@ public class TicketController {
     }
 
     @PutMapping("/{email}/modify-seat")
-    public ResponseEntity<Ticket> modifySeat(@PathVariable String email, @RequestBody Seat requestedSeat) {
-        Ticket ticket = ticketService.modifySeat(email, requestedSeat);
+    public ResponseEntity<Ticket> modifySeat(@PathVariable String email, @RequestBody Seat requestedSeat,
+            @RequestHeader(value = IdempotencyKeys.HEADER, required = false) String idempotencyKey) {
+        Ticket ticket = idempotencyCache.execute(idempotencyKey, IdempotencyKeys.modifySeat(email, requestedSeat),
+                () -> ticketService.modifySeat(email, requestedSeat));
         return ResponseEntity.ok(ticket);
     }
-}
\ No newline at end of file
+
+    @PostMapping("/swap")
+    public ResponseEntity<List<Ticket>> swapSeats(@RequestParam String firstEmail, @RequestParam String secondEmail,
+            @RequestHeader(value = IdempotencyKeys.HEADER, required = false) String idempotencyKey) {
+        List<Ticket> tickets = idempotencyCache.execute(idempotencyKey,
+                IdempotencyKeys.swapSeats(firstEmail, secondEmail),
+                () -> ticketService.swapSeats(firstEmail, secondEmail));
+        return ResponseEntity.ok(tickets);
+    }
+
+    private static ResponseEntity<BatchPurchaseResult> batchResponse(BatchPurchaseResult result) {
+        return ResponseEntity.status(result.isBooked() ? HttpStatus.OK : HttpStatus.CONFLICT).body(result);
+    }
+}
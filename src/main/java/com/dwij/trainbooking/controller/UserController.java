@@ -1,20 +1,37 @@
 package com.dwij.trainbooking.controller;
 
+import com.dwij.trainbooking.exception.InvalidImportException;
 import com.dwij.trainbooking.models.User;
+import com.dwij.trainbooking.models.UserImportResult;
 import com.dwij.trainbooking.service.UserService;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/users")
 public class UserController {
 
     private final UserService userService;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public UserController(UserService userService) {
+    public UserController(UserService userService, ObjectMapper objectMapper) {
         this.userService = userService;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping
@@ -23,9 +40,88 @@ public class UserController {
         return ResponseEntity.ok(user);
     }
 
+    /**
+     * Imports users from a JSON array or from newline-delimited JSON objects. The body is parsed one user at a time
+     * as it arrives, so the payload is never held in memory.
+     */
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_JSON_VALUE, "application/x-ndjson"})
+    public ResponseEntity<UserImportResult> importUsers(InputStream body) throws IOException {
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            return ResponseEntity.ok(userService.importUsers(new UserReader(parser)));
+        }
+    }
+
     @GetMapping("/{email}")
     public ResponseEntity<User> getUserByEmail(@PathVariable String email) {
         User user = userService.getUserByEmail(email);
         return ResponseEntity.ok(user);
     }
-}
\ No newline at end of file
+
+    /**
+     * Reads the objects of a top-level JSON array, or a sequence of top-level objects, as users.
+     */
+    private static final class UserReader implements Iterator<User> {
+        private final JsonParser parser;
+        private boolean started;
+        private boolean inArray;
+        private JsonToken next;
+        private long row;
+
+        private UserReader(JsonParser parser) {
+            this.parser = parser;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null) {
+                next = advance();
+            }
+            return next == JsonToken.START_OBJECT;
+        }
+
+        @Override
+        public User next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            next = null;
+            try {
+                return parser.readValueAs(User.class);
+            } catch (JsonProcessingException e) {
+                throw stopped(row, "not a valid user: " + e.getOriginalMessage());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private JsonToken advance() {
+            try {
+                JsonToken token = parser.nextToken();
+                if (!started) {
+                    started = true;
+                    if (token == JsonToken.START_ARRAY) {
+                        inArray = true;
+                        token = parser.nextToken();
+                    }
+                }
+                if (token == null || (inArray && token == JsonToken.END_ARRAY)) {
+                    return JsonToken.NOT_AVAILABLE;
+                }
+                row++;
+                if (token != JsonToken.START_OBJECT) {
+                    throw stopped(row, "not a JSON object");
+                }
+                return token;
+            } catch (JsonProcessingException e) {
+                throw stopped(row + 1, "not valid JSON: " + e.getOriginalMessage());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private static InvalidImportException stopped(long row, String reason) {
+            return new InvalidImportException("Import stopped at row " + row + ", " + reason
+                    + ". Earlier rows were imported.");
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.dwij.trainbooking.controller;
+
+import com.dwij.trainbooking.models.Departure;
+import com.dwij.trainbooking.models.Section;
+import com.dwij.trainbooking.models.WaitlistEntry;
+import com.dwij.trainbooking.service.TicketService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+
+@RestController
+@Profile("!reactive")
+@RequestMapping("/api/waitlist")
+public class WaitlistController {
+
+    private final TicketService ticketService;
+
+    @Autowired
+    public WaitlistController(TicketService ticketService) {
+        this.ticketService = ticketService;
+    }
+
+    @PostMapping
+    public ResponseEntity<WaitlistEntry> joinWaitlist(@RequestParam String email, @RequestParam Section section,
+            @RequestParam(required = false) String from, @RequestParam(required = false) String to) {
+        return ResponseEntity.ok(ticketService.joinWaitlist(email, section, from, to));
+    }
+
+    @PostMapping("/trains/{trainNumber}/{date}")
+    public ResponseEntity<WaitlistEntry> joinWaitlist(@PathVariable String trainNumber,
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam String email, @RequestParam Section section,
+            @RequestParam(required = false) String from, @RequestParam(required = false) String to) {
+        return ResponseEntity.ok(ticketService.joinWaitlist(Departure.of(trainNumber, date), email, section, from, to));
+    }
+
+    @GetMapping("/{email}")
+    public ResponseEntity<WaitlistEntry> getWaitlistEntry(@PathVariable String email) {
+        return ResponseEntity.ok(ticketService.getWaitlistEntry(email));
+    }
+
+    @DeleteMapping("/{email}")
+    public ResponseEntity<Void> leaveWaitlist(@PathVariable String email) {
+        ticketService.leaveWaitlist(email);
+        return ResponseEntity.noContent().build();
+    }
+}
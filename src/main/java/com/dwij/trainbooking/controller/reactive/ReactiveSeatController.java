@@ -0,0 +1,162 @@
+package com.dwij.trainbooking.controller.reactive;
+
+import com.dwij.trainbooking.models.*;
+import com.dwij.trainbooking.service.reactive.ReactiveSeatService;
+import com.dwij.trainbooking.service.reactive.ReactiveTicketService;
+import com.dwij.trainbooking.service.impl.SeatAvailabilityFeed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+@RestController
+@Profile("reactive")
+@RequestMapping("/api/seats")
+public class ReactiveSeatController {
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final SeatAvailabilityFeed.Subscription ENDED = () -> { };
+
+    private final ReactiveSeatService seatService;
+    private final ReactiveTicketService ticketService;
+    private final SeatAvailabilityFeed availabilityFeed;
+    private final Duration feedTimeout;
+
+    public ReactiveSeatController(ReactiveSeatService seatService, ReactiveTicketService ticketService,
+            SeatAvailabilityFeed availabilityFeed, @Value("${booking.seat-feed.timeout:PT30M}") Duration feedTimeout) {
+        this.seatService = seatService;
+        this.ticketService = ticketService;
+        this.availabilityFeed = availabilityFeed;
+        this.feedTimeout = feedTimeout;
+    }
+
+    @GetMapping("/available/{section}")
+    public Mono<ResponseEntity<List<Seat>>> getAvailableSeats(@PathVariable Section section,
+            @RequestParam(required = false) String from, @RequestParam(required = false) String to,
+            ServerWebExchange exchange) {
+        Journey journey = from == null && to == null ? null : Journey.of(from, to);
+        return seatService.getAvailabilityVersion(section).flatMap(version -> availableSeats(version, exchange,
+                () -> seatService.getAvailableSeats(section, journey)));
+    }
+
+    @GetMapping(value = "/available/{section}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<?>> streamAvailability(@PathVariable Section section,
+            @RequestParam(required = false) String from, @RequestParam(required = false) String to) {
+        return seatService.defaultDeparture()
+                .flatMapMany(departure -> availabilityEvents(departure, section, from, to));
+    }
+
+    @GetMapping("/allocated/{section}")
+    public Mono<List<String>> getUsersAndSeatsBySection(@PathVariable Section section) {
+        return ticketService.getUsersAndSeatsBySection(section);
+    }
+
+    @GetMapping("/allocated/{section}/page")
+    public Mono<ManifestPage> getManifestPage(@PathVariable Section section,
+            @RequestParam(required = false) String cursor, @RequestParam(defaultValue = "100") int limit) {
+        return ticketService.getManifestPage(section, cursor, pageSize(limit));
+    }
+
+    @GetMapping(value = "/allocated/{section}/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<ManifestEntry> streamManifest(@PathVariable Section section) {
+        return ticketService.streamManifest(section);
+    }
+
+    @GetMapping("/trains/{trainNumber}/{date}/available/{section}")
+    public Mono<ResponseEntity<List<Seat>>> getAvailableSeats(@PathVariable String trainNumber,
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @PathVariable Section section,
+            @RequestParam(required = false) String from, @RequestParam(required = false) String to,
+            ServerWebExchange exchange) {
+        Departure departure = Departure.of(trainNumber, date);
+        return seatService.getAvailabilityVersion(departure, section).flatMap(version -> availableSeats(version,
+                exchange, () -> seatService.getAvailableSeats(departure, section, Journey.of(from, to))));
+    }
+
+    @GetMapping(value = "/trains/{trainNumber}/{date}/available/{section}/events",
+            produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<?>> streamAvailability(@PathVariable String trainNumber,
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @PathVariable Section section,
+            @RequestParam(required = false) String from, @RequestParam(required = false) String to) {
+        return availabilityEvents(Departure.of(trainNumber, date), section, from, to);
+    }
+
+    @GetMapping("/trains/{trainNumber}/{date}/allocated/{section}")
+    public Mono<List<String>> getUsersAndSeatsBySection(@PathVariable String trainNumber,
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @PathVariable Section section) {
+        return ticketService.getUsersAndSeatsBySection(Departure.of(trainNumber, date), section);
+    }
+
+    @GetMapping("/trains/{trainNumber}/{date}/allocated/{section}/page")
+    public Mono<ManifestPage> getManifestPage(@PathVariable String trainNumber,
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @PathVariable Section section,
+            @RequestParam(required = false) String cursor, @RequestParam(defaultValue = "100") int limit) {
+        return ticketService.getManifestPage(Departure.of(trainNumber, date), section, cursor, pageSize(limit));
+    }
+
+    @GetMapping(value = "/trains/{trainNumber}/{date}/allocated/{section}/stream",
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<ManifestEntry> streamManifest(@PathVariable String trainNumber,
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @PathVariable Section section) {
+        return ticketService.streamManifest(Departure.of(trainNumber, date), section);
+    }
+
+    /**
+     * Availability feed as server-sent events: a {@code snapshot} event, then {@code delta} events. The stream
+     * completes after the feed timeout and clients reconnect for a fresh snapshot; the feed subscription is cancelled
+     * however the stream ends.
+     */
+    private Flux<ServerSentEvent<?>> availabilityEvents(Departure departure, Section section, String from,
+            String to) {
+        return Flux.defer(() -> {
+            AtomicReference<SeatAvailabilityFeed.Subscription> subscription = new AtomicReference<>();
+            return Flux.<ServerSentEvent<?>>create(sink -> {
+                        SeatAvailabilityFeed.Subscription opened = availabilityFeed.subscribe(departure, section, from,
+                                to, (event, data) -> sink.next(ServerSentEvent.builder(data).event(event).build()));
+                        if (!subscription.compareAndSet(null, opened)) {
+                            opened.cancel();
+                        }
+                    })
+                    .take(feedTimeout)
+                    .doFinally(signal -> {
+                        SeatAvailabilityFeed.Subscription opened = subscription.getAndSet(ENDED);
+                        if (opened != null) {
+                            opened.cancel();
+                        }
+                    });
+        });
+    }
+
+    /**
+     * Answers with the section's availability version as the ETag, like the MVC controller. A client that already
+     * holds that version gets 304 Not Modified without the inventory being read.
+     */
+    private static Mono<ResponseEntity<List<Seat>>> availableSeats(long version, ServerWebExchange exchange,
+            Supplier<Flux<Seat>> seats) {
+        String eTag = "\"" + Long.toHexString(version) + "\"";
+        if (exchange.checkNotModified(eTag)) {
+            return Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build());
+        }
+        return seats.get().collectList().map(list -> ResponseEntity.ok().eTag(eTag).body(list));
+    }
+
+    private static int pageSize(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+}
@@ -0,0 +1,56 @@
+package com.dwij.trainbooking.controller.reactive;
+
+import com.dwij.trainbooking.models.Departure;
+import com.dwij.trainbooking.models.SeatHold;
+import com.dwij.trainbooking.models.Section;
+import com.dwij.trainbooking.models.Ticket;
+import com.dwij.trainbooking.service.reactive.ReactiveSeatHoldService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+@RestController
+@Profile("reactive")
+@RequestMapping("/api/holds")
+public class ReactiveSeatHoldController {
+
+    private final ReactiveSeatHoldService seatHoldService;
+
+    public ReactiveSeatHoldController(ReactiveSeatHoldService seatHoldService) {
+        this.seatHoldService = seatHoldService;
+    }
+
+    @PostMapping
+    public Mono<SeatHold> placeHold(@RequestParam String email, @RequestParam Section section,
+            @RequestParam(required = false) String from, @RequestParam(required = false) String to) {
+        return seatHoldService.placeHold(email, section, from, to);
+    }
+
+    @PostMapping("/trains/{trainNumber}/{date}")
+    public Mono<SeatHold> placeHold(@PathVariable String trainNumber,
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam String email, @RequestParam Section section,
+            @RequestParam(required = false) String from, @RequestParam(required = false) String to) {
+        return seatHoldService.placeHold(Departure.of(trainNumber, date), email, section, from, to);
+    }
+
+    @GetMapping("/{holdId}")
+    public Mono<SeatHold> getHold(@PathVariable String holdId) {
+        return seatHoldService.getHold(holdId);
+    }
+
+    @PostMapping("/{holdId}/confirm")
+    public Mono<Ticket> confirmHold(@PathVariable String holdId) {
+        return seatHoldService.confirmHold(holdId);
+    }
+
+    @DeleteMapping("/{holdId}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public Mono<Void> releaseHold(@PathVariable String holdId) {
+        return seatHoldService.releaseHold(holdId);
+    }
+}
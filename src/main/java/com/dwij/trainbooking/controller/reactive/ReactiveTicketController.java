@@ -0,0 +1,85 @@
+package com.dwij.trainbooking.controller.reactive;
+
+import com.dwij.trainbooking.models.*;
+import com.dwij.trainbooking.service.IdempotencyKeys;
+import com.dwij.trainbooking.service.reactive.ReactiveTicketService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@Profile("reactive")
+@RequestMapping("/api/tickets")
+public class ReactiveTicketController {
+
+    private final ReactiveTicketService ticketService;
+
+    public ReactiveTicketController(ReactiveTicketService ticketService) {
+        this.ticketService = ticketService;
+    }
+
+    @PostMapping("/purchase")
+    public Mono<Ticket> purchaseTicket(@RequestParam String email, @RequestParam Section section,
+            @RequestParam(required = false) String from, @RequestParam(required = false) String to,
+            @RequestHeader(value = IdempotencyKeys.HEADER, required = false) String idempotencyKey) {
+        return ticketService.purchaseTicket(email, section, from, to, idempotencyKey);
+    }
+
+    @PostMapping("/trains/{trainNumber}/{date}/purchase")
+    public Mono<Ticket> purchaseTicket(@PathVariable String trainNumber,
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam String email, @RequestParam Section section,
+            @RequestParam(required = false) String from, @RequestParam(required = false) String to,
+            @RequestHeader(value = IdempotencyKeys.HEADER, required = false) String idempotencyKey) {
+        return ticketService.purchaseTicket(Departure.of(trainNumber, date), email, section, from, to,
+                idempotencyKey);
+    }
+
+    @PostMapping("/purchase/batch")
+    public Mono<ResponseEntity<BatchPurchaseResult>> purchaseTickets(@RequestBody List<BatchPurchaseEntry> entries,
+            @RequestParam(required = false) String from, @RequestParam(required = false) String to) {
+        return ticketService.purchaseTickets(entries, from, to).map(ReactiveTicketController::batchResponse);
+    }
+
+    @PostMapping("/trains/{trainNumber}/{date}/purchase/batch")
+    public Mono<ResponseEntity<BatchPurchaseResult>> purchaseTickets(@PathVariable String trainNumber,
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestBody List<BatchPurchaseEntry> entries,
+            @RequestParam(required = false) String from, @RequestParam(required = false) String to) {
+        return ticketService.purchaseTickets(Departure.of(trainNumber, date), entries, from, to)
+                .map(ReactiveTicketController::batchResponse);
+    }
+
+    @GetMapping("/{email}/receipt")
+    public Mono<Ticket> getReceipt(@PathVariable String email) {
+        return ticketService.getTicket(email);
+    }
+
+    @DeleteMapping("/{email}/remove")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public Mono<Void> removeUserFromTrain(@PathVariable String email) {
+        return ticketService.cancelTicket(email);
+    }
+
+    @PutMapping("/{email}/modify-seat")
+    public Mono<Ticket> modifySeat(@PathVariable String email, @RequestBody Seat requestedSeat,
+            @RequestHeader(value = IdempotencyKeys.HEADER, required = false) String idempotencyKey) {
+        return ticketService.modifySeat(email, requestedSeat, idempotencyKey);
+    }
+
+    @PostMapping("/swap")
+    public Mono<List<Ticket>> swapSeats(@RequestParam String firstEmail, @RequestParam String secondEmail,
+            @RequestHeader(value = IdempotencyKeys.HEADER, required = false) String idempotencyKey) {
+        return ticketService.swapSeats(firstEmail, secondEmail, idempotencyKey);
+    }
+
+    private static ResponseEntity<BatchPurchaseResult> batchResponse(BatchPurchaseResult result) {
+        return ResponseEntity.status(result.isBooked() ? HttpStatus.OK : HttpStatus.CONFLICT).body(result);
+    }
+}
@@ -0,0 +1,40 @@
+package com.dwij.trainbooking.controller.reactive;
+
+import com.dwij.trainbooking.models.User;
+import com.dwij.trainbooking.models.UserImportResult;
+import com.dwij.trainbooking.service.reactive.ReactiveUserService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RestController
+@Profile("reactive")
+@RequestMapping("/api/users")
+public class ReactiveUserController {
+
+    private final ReactiveUserService userService;
+
+    public ReactiveUserController(ReactiveUserService userService) {
+        this.userService = userService;
+    }
+
+    @PostMapping
+    public Mono<User> addUser(@RequestBody User user) {
+        return userService.addUser(user);
+    }
+
+    /**
+     * Imports users from a JSON array or from newline-delimited JSON objects, decoded one user at a time.
+     */
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Mono<UserImportResult> importUsers(@RequestBody Flux<User> users) {
+        return userService.importUsers(users);
+    }
+
+    @GetMapping("/{email}")
+    public Mono<User> getUserByEmail(@PathVariable String email) {
+        return userService.getUserByEmail(email);
+    }
+}
@@ -0,0 +1,50 @@
+package com.dwij.trainbooking.controller.reactive;
+
+import com.dwij.trainbooking.models.Departure;
+import com.dwij.trainbooking.models.Section;
+import com.dwij.trainbooking.models.WaitlistEntry;
+import com.dwij.trainbooking.service.reactive.ReactiveTicketService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+@RestController
+@Profile("reactive")
+@RequestMapping("/api/waitlist")
+public class ReactiveWaitlistController {
+
+    private final ReactiveTicketService ticketService;
+
+    public ReactiveWaitlistController(ReactiveTicketService ticketService) {
+        this.ticketService = ticketService;
+    }
+
+    @PostMapping
+    public Mono<WaitlistEntry> joinWaitlist(@RequestParam String email, @RequestParam Section section,
+            @RequestParam(required = false) String from, @RequestParam(required = false) String to) {
+        return ticketService.joinWaitlist(email, section, from, to);
+    }
+
+    @PostMapping("/trains/{trainNumber}/{date}")
+    public Mono<WaitlistEntry> joinWaitlist(@PathVariable String trainNumber,
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam String email, @RequestParam Section section,
+            @RequestParam(required = false) String from, @RequestParam(required = false) String to) {
+        return ticketService.joinWaitlist(Departure.of(trainNumber, date), email, section, from, to);
+    }
+
+    @GetMapping("/{email}")
+    public Mono<WaitlistEntry> getWaitlistEntry(@PathVariable String email) {
+        return ticketService.getWaitlistEntry(email);
+    }
+
+    @DeleteMapping("/{email}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public Mono<Void> leaveWaitlist(@PathVariable String email) {
+        return ticketService.leaveWaitlist(email);
+    }
+}
@@ -0,0 +1,7 @@
+package com.dwij.trainbooking.exception;
+
+public class DepartureNotFoundException extends RuntimeException {
+    public DepartureNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -1,40 +1,133 @@
 package com.dwij.trainbooking.exception;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 @RestControllerAdvice
 public class GlobalExceptionHandler {
+    private final MeterRegistry meterRegistry;
+    private final Map<Class<?>, Counter> counters = new ConcurrentHashMap<>();
+
+    public GlobalExceptionHandler(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+    }
 
     @ExceptionHandler(UserAlreadyExistsException.class)
     public ResponseEntity<String> handleUserAlreadyExistsException(UserAlreadyExistsException ex) {
+        count(ex);
         return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
     }
 
     @ExceptionHandler(UserNotFoundException.class)
     public ResponseEntity<String> handleUserNotFoundException(UserNotFoundException ex) {
+        count(ex);
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
     }
 
     @ExceptionHandler(SeatUnavailableException.class)
     public ResponseEntity<String> handleSeatUnavailableException(SeatUnavailableException ex) {
+        count(ex);
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
     }
 
     @ExceptionHandler(TicketAlreadyExistsException.class)
     public ResponseEntity<String> handleTicketAlreadyExistsException(TicketAlreadyExistsException ex) {
+        count(ex);
         return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
     }
 
     @ExceptionHandler(TicketNotFoundException.class)
     public ResponseEntity<String> handleTicketNotFoundException(TicketNotFoundException ex) {
+        count(ex);
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
+    }
+
+    @ExceptionHandler(TicketConflictException.class)
+    public ResponseEntity<String> handleTicketConflictException(TicketConflictException ex) {
+        count(ex);
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
+    }
+
+    @ExceptionHandler(DepartureNotFoundException.class)
+    public ResponseEntity<String> handleDepartureNotFoundException(DepartureNotFoundException ex) {
+        count(ex);
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
     }
 
+    @ExceptionHandler(InvalidJourneyException.class)
+    public ResponseEntity<String> handleInvalidJourneyException(InvalidJourneyException ex) {
+        count(ex);
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
+    }
+
+    @ExceptionHandler(InvalidSwapException.class)
+    public ResponseEntity<String> handleInvalidSwapException(InvalidSwapException ex) {
+        count(ex);
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
+    }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<String> handleInvalidCursorException(InvalidCursorException ex) {
+        count(ex);
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
+    }
+
+    @ExceptionHandler(InvalidImportException.class)
+    public ResponseEntity<String> handleInvalidImportException(InvalidImportException ex) {
+        count(ex);
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
+    }
+
+    @ExceptionHandler(HoldNotFoundException.class)
+    public ResponseEntity<String> handleHoldNotFoundException(HoldNotFoundException ex) {
+        count(ex);
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
+    }
+
+    @ExceptionHandler(HoldAlreadyExistsException.class)
+    public ResponseEntity<String> handleHoldAlreadyExistsException(HoldAlreadyExistsException ex) {
+        count(ex);
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
+    }
+
+    @ExceptionHandler(WaitlistEntryNotFoundException.class)
+    public ResponseEntity<String> handleWaitlistEntryNotFoundException(WaitlistEntryNotFoundException ex) {
+        count(ex);
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
+    }
+
+    @ExceptionHandler(WaitlistEntryAlreadyExistsException.class)
+    public ResponseEntity<String> handleWaitlistEntryAlreadyExistsException(WaitlistEntryAlreadyExistsException ex) {
+        count(ex);
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
+    }
+
+    @ExceptionHandler(IdempotencyKeyReuseException.class)
+    public ResponseEntity<String> handleIdempotencyKeyReuseException(IdempotencyKeyReuseException ex) {
+        count(ex);
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(ex.getMessage());
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<String> handleGenericException(Exception ex) {
+        count(ex);
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("An unexpected error occurred: " + ex.getMessage());
     }
+
+    private void count(Exception ex) {
+        counters.computeIfAbsent(ex.getClass(), type -> Counter.builder("booking.errors")
+                        .description("Exceptions turned into error responses")
+                        .tag("exception", type.getSimpleName())
+                        .register(meterRegistry))
+                .increment();
+    }
 }
@@ -0,0 +1,7 @@
+package com.dwij.trainbooking.exception;
+
+public class HoldAlreadyExistsException extends RuntimeException {
+    public HoldAlreadyExistsException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.dwij.trainbooking.exception;
+
+public class InvalidJourneyException extends RuntimeException {
+    public InvalidJourneyException(String message) {
+        super(message);
+    }
+}
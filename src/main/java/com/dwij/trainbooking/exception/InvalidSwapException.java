@@ -0,0 +1,7 @@
+package com.dwij.trainbooking.exception;
+
+public class InvalidSwapException extends RuntimeException {
+    public InvalidSwapException(String message) {
+        super(message);
+    }
+}
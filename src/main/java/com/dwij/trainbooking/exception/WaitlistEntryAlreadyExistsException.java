@@ -0,0 +1,7 @@
+package com.dwij.trainbooking.exception;
+
+public class WaitlistEntryAlreadyExistsException extends RuntimeException {
+    public WaitlistEntryAlreadyExistsException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,37 @@
+package com.dwij.trainbooking.journal;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+public interface BookingJournal extends AutoCloseable {
+
+    /**
+     * Records an event. Events are made durable in append order; the returned future completes once this
+     * event is durable according to the configured {@link FsyncPolicy}.
+     */
+    CompletableFuture<Void> append(JournalEvent event);
+
+    /**
+     * Journal offset up to which every record has been written. Every event before this offset has already been
+     * applied to the in-memory state, which makes it a safe replay start for a snapshot taken afterwards.
+     */
+    default long writtenPosition() {
+        return 0;
+    }
+
+    @Override
+    default void close() {
+    }
+
+    static void awaitDurable(CompletableFuture<Void> commit) {
+        try {
+            commit.join();
+        } catch (CompletionException e) {
+            throw new JournalException("Failed to persist booking change", e.getCause());
+        }
+    }
+
+    static BookingJournal disabled() {
+        return event -> CompletableFuture.completedFuture(null);
+    }
+}
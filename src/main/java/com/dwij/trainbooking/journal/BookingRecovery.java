@@ -0,0 +1,57 @@
+package com.dwij.trainbooking.journal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Restores state on startup: maps the latest snapshot, replays only the journal tail written after it and then
+ * rebuilds the seat inventory from the recovered tickets.
+ */
+public class BookingRecovery {
+    private static final Logger log = LoggerFactory.getLogger(BookingRecovery.class);
+
+    private final SnapshotStore snapshotStore;
+    private final JournalReplayer replayer;
+    private final Clock clock;
+    private volatile RecoveryReport report = RecoveryReport.none();
+
+    public BookingRecovery(SnapshotStore snapshotStore, JournalReplayer replayer, Clock clock) {
+        this.snapshotStore = snapshotStore;
+        this.replayer = replayer;
+        this.clock = clock;
+    }
+
+    public FileBookingJournal recover(Path journalFile, FsyncPolicy policy, Duration flushInterval) throws IOException {
+        long start = System.nanoTime();
+        Optional<SnapshotStore.SnapshotInfo> snapshot = snapshotStore.loadLatest(replayer::apply);
+        long replayFrom = snapshot.map(SnapshotStore.SnapshotInfo::journalPosition).orElse(0L);
+        FileBookingJournal journal = FileBookingJournal.open(journalFile, policy, flushInterval, replayFrom,
+                replayer::apply);
+        replayer.rebuildSeatInventory();
+        Duration replayDuration = Duration.ofNanos(System.nanoTime() - start);
+
+        report = snapshot.map(info -> new RecoveryReport(info.createdAt(),
+                        Duration.between(info.createdAt(), clock.instant()), info.journalPosition(), info.users(),
+                        info.tickets(), journal.getReplayedRecords(), replayDuration))
+                .orElseGet(() -> new RecoveryReport(null, null, 0, 0, 0, journal.getReplayedRecords(), replayDuration));
+        if (report.hasSnapshot()) {
+            log.info("Recovered {} users and {} tickets from snapshot {} (age {}s) plus {} journal records in {} ms",
+                    report.snapshotUsers(), report.snapshotTickets(), snapshot.get().file().getFileName(),
+                    report.snapshotAge().toSeconds(), report.replayedRecords(), replayDuration.toMillis());
+        } else {
+            log.info("No snapshot found; replayed {} journal records in {} ms", report.replayedRecords(),
+                    replayDuration.toMillis());
+        }
+        return journal;
+    }
+
+    public RecoveryReport getReport() {
+        return report;
+    }
+}
@@ -0,0 +1,237 @@
+package com.dwij.trainbooking.journal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Append-only journal file written through a {@link FileChannel}. Under {@link FsyncPolicy#BATCHED} and
+ * {@link FsyncPolicy#ASYNC} a single writer thread drains every record queued since its last pass and writes them
+ * as one batch, so concurrent bookings share one fsync instead of paying for one each.
+ */
+public final class FileBookingJournal implements BookingJournal {
+    private static final Logger log = LoggerFactory.getLogger(FileBookingJournal.class);
+    private static final int MAX_BATCH_RECORDS = 4096;
+    private static final PendingRecord SHUTDOWN = new PendingRecord(new byte[0], null);
+
+    private final FileChannel channel;
+    private final FsyncPolicy policy;
+    private final long flushIntervalNanos;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final BlockingQueue<PendingRecord> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private final long replayedRecords;
+    private final AtomicLong writtenPosition;
+    private ByteBuffer batchBuffer = ByteBuffer.allocateDirect(64 * 1024);
+    private volatile boolean closed;
+
+    private FileBookingJournal(FileChannel channel, FsyncPolicy policy, Duration flushInterval, long replayedRecords,
+            long position) {
+        this.channel = channel;
+        this.policy = policy;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.replayedRecords = replayedRecords;
+        this.writtenPosition = new AtomicLong(position);
+        if (policy == FsyncPolicy.PER_OP) {
+            this.writer = null;
+        } else {
+            this.writer = Thread.ofPlatform().name("booking-journal-writer").daemon().start(this::runWriter);
+        }
+    }
+
+    public static FileBookingJournal open(Path file, FsyncPolicy policy, Duration flushInterval,
+            Consumer<JournalEvent> replay) throws IOException {
+        return open(file, policy, flushInterval, 0, replay);
+    }
+
+    /**
+     * Opens (or creates) the journal, replays every intact record from {@code replayFrom} onwards through
+     * {@code replay} in append order and truncates a torn tail left by a crash before accepting new appends.
+     */
+    public static FileBookingJournal open(Path file, FsyncPolicy policy, Duration flushInterval, long replayFrom,
+            Consumer<JournalEvent> replay) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        long size = channel.size();
+        if (replayFrom > size) {
+            log.warn("Journal {} is shorter than the snapshot position {}; replaying it from the start", file, replayFrom);
+            replayFrom = 0;
+        }
+        long validEnd = replayFrom;
+        long records = 0;
+        if (size > replayFrom) {
+            MappedByteBuffer contents = channel.map(FileChannel.MapMode.READ_ONLY, replayFrom, size - replayFrom);
+            JournalEvent event;
+            while ((event = JournalCodec.decode(contents)) != null) {
+                replay.accept(event);
+                records++;
+            }
+            validEnd = replayFrom + contents.position();
+        }
+        if (validEnd < size) {
+            log.warn("Truncating {} bytes of torn journal tail in {}", size - validEnd, file);
+            channel.truncate(validEnd);
+            channel.force(true);
+        }
+        channel.position(validEnd);
+        return new FileBookingJournal(channel, policy, flushInterval, records, validEnd);
+    }
+
+    public long getReplayedRecords() {
+        return replayedRecords;
+    }
+
+    @Override
+    public long writtenPosition() {
+        return writtenPosition.get();
+    }
+
+    @Override
+    public CompletableFuture<Void> append(JournalEvent event) {
+        if (closed) {
+            throw new IllegalStateException("Journal is closed");
+        }
+        byte[] record = JournalCodec.encode(event);
+        switch (policy) {
+            case PER_OP -> {
+                writeLock.lock();
+                try {
+                    writeFully(ByteBuffer.wrap(record));
+                    writtenPosition.addAndGet(record.length);
+                    channel.force(false);
+                    return CompletableFuture.completedFuture(null);
+                } catch (IOException e) {
+                    return CompletableFuture.failedFuture(e);
+                } finally {
+                    writeLock.unlock();
+                }
+            }
+            case BATCHED -> {
+                CompletableFuture<Void> commit = new CompletableFuture<>();
+                queue.add(new PendingRecord(record, commit));
+                return commit;
+            }
+            default -> {
+                queue.add(new PendingRecord(record, null));
+                return CompletableFuture.completedFuture(null);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (writer != null) {
+                queue.add(SHUTDOWN);
+                writer.join();
+            }
+            channel.force(true);
+            channel.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void runWriter() {
+        List<PendingRecord> batch = new ArrayList<>();
+        boolean unforced = false;
+        long lastForce = System.nanoTime();
+        while (true) {
+            PendingRecord first;
+            try {
+                first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            boolean shutdown = first == SHUTDOWN;
+            if (first != null && !shutdown) {
+                batch.add(first);
+                queue.drainTo(batch, MAX_BATCH_RECORDS);
+                shutdown = batch.remove(SHUTDOWN);
+            }
+            try {
+                if (!batch.isEmpty()) {
+                    writeBatch(batch);
+                    unforced = true;
+                }
+                long now = System.nanoTime();
+                boolean forceNow = policy == FsyncPolicy.BATCHED || now - lastForce >= flushIntervalNanos || shutdown;
+                if (unforced && forceNow) {
+                    channel.force(false);
+                    unforced = false;
+                    lastForce = now;
+                }
+                for (PendingRecord record : batch) {
+                    if (record.commit() != null) {
+                        record.commit().complete(null);
+                    }
+                }
+            } catch (IOException e) {
+                log.error("Failed to write {} journal records", batch.size(), e);
+                for (PendingRecord record : batch) {
+                    if (record.commit() != null) {
+                        record.commit().completeExceptionally(e);
+                    }
+                }
+            }
+            batch.clear();
+            if (shutdown) {
+                return;
+            }
+        }
+    }
+
+    private void writeBatch(List<PendingRecord> batch) throws IOException {
+        int total = 0;
+        for (PendingRecord record : batch) {
+            total += record.bytes().length;
+        }
+        if (batchBuffer.capacity() < total) {
+            batchBuffer = ByteBuffer.allocateDirect(Integer.highestOneBit(total) << 1);
+        }
+        batchBuffer.clear();
+        for (PendingRecord record : batch) {
+            batchBuffer.put(record.bytes());
+        }
+        batchBuffer.flip();
+        writeFully(batchBuffer);
+        writtenPosition.addAndGet(total);
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private record PendingRecord(byte[] bytes, CompletableFuture<Void> commit) {
+    }
+}
@@ -0,0 +1,10 @@
+package com.dwij.trainbooking.journal;
+
+public enum FsyncPolicy {
+    /** Every append is written and forced before the caller continues. */
+    PER_OP,
+    /** Appends are coalesced by the writer thread and each batch is forced once before callers are released. */
+    BATCHED,
+    /** Callers never wait; the writer forces the file at most once per flush interval. */
+    ASYNC
+}
@@ -0,0 +1,142 @@
+package com.dwij.trainbooking.journal;
+
+import com.dwij.trainbooking.journal.JournalEvent.SeatModified;
+import com.dwij.trainbooking.journal.JournalEvent.SeatsSwapped;
+import com.dwij.trainbooking.journal.JournalEvent.TicketCancelled;
+import com.dwij.trainbooking.journal.JournalEvent.TicketPurchased;
+import com.dwij.trainbooking.journal.JournalEvent.UserCreated;
+import com.dwij.trainbooking.models.Section;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary framing for journal records: {@code [int length][int crc32c][payload]}, where the payload starts with
+ * a one-byte event type.
+ */
+final class JournalCodec {
+    static final int HEADER_BYTES = 8;
+
+    private static final byte USER_CREATED = 1;
+    private static final byte TICKET_PURCHASED = 2;
+    private static final byte SEAT_MODIFIED = 3;
+    private static final byte TICKET_CANCELLED = 4;
+    private static final byte SEATS_SWAPPED = 5;
+
+    private JournalCodec() {
+    }
+
+    static byte[] encode(JournalEvent event) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(0);
+            out.writeInt(0);
+            switch (event) {
+                case UserCreated e -> {
+                    out.writeByte(USER_CREATED);
+                    writeString(out, e.email());
+                    writeString(out, e.firstName());
+                    writeString(out, e.lastName());
+                }
+                case TicketPurchased e -> {
+                    out.writeByte(TICKET_PURCHASED);
+                    writeString(out, e.id());
+                    writeString(out, e.email());
+                    writeString(out, e.trainNumber());
+                    out.writeLong(e.departureDate() == null ? Long.MIN_VALUE : e.departureDate().toEpochDay());
+                    writeString(out, e.from());
+                    writeString(out, e.to());
+                    out.writeDouble(e.pricePaid());
+                    out.writeByte(e.section().ordinal());
+                    writeString(out, e.seatNumber());
+                }
+                case SeatModified e -> {
+                    out.writeByte(SEAT_MODIFIED);
+                    writeString(out, e.email());
+                    out.writeByte(e.section().ordinal());
+                    writeString(out, e.seatNumber());
+                }
+                case TicketCancelled e -> {
+                    out.writeByte(TICKET_CANCELLED);
+                    writeString(out, e.email());
+                }
+                case SeatsSwapped e -> {
+                    out.writeByte(SEATS_SWAPPED);
+                    writeString(out, e.firstEmail());
+                    out.writeByte(e.firstSection().ordinal());
+                    writeString(out, e.firstSeatNumber());
+                    writeString(out, e.secondEmail());
+                    out.writeByte(e.secondSection().ordinal());
+                    writeString(out, e.secondSeatNumber());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        byte[] record = bytes.toByteArray();
+        int payloadLength = record.length - HEADER_BYTES;
+        CRC32C crc = new CRC32C();
+        crc.update(record, HEADER_BYTES, payloadLength);
+        ByteBuffer.wrap(record).putInt(payloadLength).putInt((int) crc.getValue());
+        return record;
+    }
+
+    /**
+     * Decodes the record at the buffer's position, or returns {@code null} (leaving the position unchanged) when
+     * the remaining bytes hold a torn or corrupt record.
+     */
+    static JournalEvent decode(ByteBuffer buffer) {
+        if (buffer.remaining() < HEADER_BYTES) {
+            return null;
+        }
+        int start = buffer.position();
+        int length = buffer.getInt(start);
+        int checksum = buffer.getInt(start + 4);
+        if (length <= 0 || length > buffer.remaining() - HEADER_BYTES) {
+            return null;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(start + HEADER_BYTES, length));
+        if ((int) crc.getValue() != checksum) {
+            return null;
+        }
+        byte[] payload = new byte[length];
+        buffer.get(start + HEADER_BYTES, payload);
+        buffer.position(start + HEADER_BYTES + length);
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            byte type = in.readByte();
+            return switch (type) {
+                case USER_CREATED -> new UserCreated(readString(in), readString(in), readString(in));
+                case TICKET_PURCHASED -> {
+                    String id = readString(in);
+                    String email = readString(in);
+                    String trainNumber = readString(in);
+                    long epochDay = in.readLong();
+                    LocalDate date = epochDay == Long.MIN_VALUE ? null : LocalDate.ofEpochDay(epochDay);
+                    yield new TicketPurchased(id, email, trainNumber, date, readString(in), readString(in),
+                            in.readDouble(), Section.values()[in.readByte()], readString(in));
+                }
+                case SEAT_MODIFIED -> new SeatModified(readString(in), Section.values()[in.readByte()], readString(in));
+                case TICKET_CANCELLED -> new TicketCancelled(readString(in));
+                case SEATS_SWAPPED -> new SeatsSwapped(readString(in), Section.values()[in.readByte()],
+                        readString(in), readString(in), Section.values()[in.readByte()], readString(in));
+                default -> throw new IOException("Unknown journal record type " + type);
+            };
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
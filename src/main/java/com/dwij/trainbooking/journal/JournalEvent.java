@@ -0,0 +1,48 @@
+package com.dwij.trainbooking.journal;
+
+import com.dwij.trainbooking.models.Section;
+import com.dwij.trainbooking.models.Ticket;
+import com.dwij.trainbooking.models.User;
+
+import java.time.LocalDate;
+
+/**
+ * State changes recorded in the booking journal. Each event carries the resulting state rather than the request,
+ * so replaying the journal never re-runs seat allocation.
+ */
+public sealed interface JournalEvent {
+
+    record UserCreated(String email, String firstName, String lastName) implements JournalEvent {
+        public static UserCreated of(User user) {
+            return new UserCreated(user.getEmail(), user.getFirstName(), user.getLastName());
+        }
+    }
+
+    record TicketPurchased(String id, String email, String trainNumber, LocalDate departureDate, String from,
+            String to, double pricePaid, Section section, String seatNumber) implements JournalEvent {
+        public static TicketPurchased of(Ticket ticket) {
+            return new TicketPurchased(ticket.getId(), ticket.getUser().getEmail(), ticket.getTrainNumber(),
+                    ticket.getDepartureDate(), ticket.getFrom(), ticket.getTo(), ticket.getPricePaid(),
+                    ticket.getSeat().getSection(), ticket.getSeat().getSeatNumber());
+        }
+    }
+
+    record SeatModified(String email, Section section, String seatNumber) implements JournalEvent {
+    }
+
+    record TicketCancelled(String email) implements JournalEvent {
+    }
+
+    /**
+     * The tickets of the two emails exchanged seats, recorded with the seat each ended up on. One record, so
+     * recovery never sees only half of a swap.
+     */
+    record SeatsSwapped(String firstEmail, Section firstSection, String firstSeatNumber, String secondEmail,
+            Section secondSection, String secondSeatNumber) implements JournalEvent {
+        public static SeatsSwapped of(Ticket first, Ticket second) {
+            return new SeatsSwapped(first.getUser().getEmail(), first.getSeat().getSection(),
+                    first.getSeat().getSeatNumber(), second.getUser().getEmail(), second.getSeat().getSection(),
+                    second.getSeat().getSeatNumber());
+        }
+    }
+}
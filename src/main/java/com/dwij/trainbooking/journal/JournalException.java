@@ -0,0 +1,7 @@
+package com.dwij.trainbooking.journal;
+
+public class JournalException extends RuntimeException {
+    public JournalException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,129 @@
+package com.dwij.trainbooking.journal;
+
+import com.dwij.trainbooking.exception.DepartureNotFoundException;
+import com.dwij.trainbooking.exception.SeatUnavailableException;
+import com.dwij.trainbooking.exception.UserAlreadyExistsException;
+import com.dwij.trainbooking.journal.JournalEvent.SeatModified;
+import com.dwij.trainbooking.journal.JournalEvent.SeatsSwapped;
+import com.dwij.trainbooking.journal.JournalEvent.TicketCancelled;
+import com.dwij.trainbooking.journal.JournalEvent.TicketPurchased;
+import com.dwij.trainbooking.journal.JournalEvent.UserCreated;
+import com.dwij.trainbooking.models.*;
+import com.dwij.trainbooking.repository.TicketRepository;
+import com.dwij.trainbooking.repository.UserRepository;
+import com.dwij.trainbooking.service.SeatAllocationStrategy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Applies recovered journal events to the repositories. Seat inventory is derived state, so it is rebuilt from the
+ * recovered tickets once replay finishes instead of being replayed event by event.
+ * <p>
+ * A ticket can be replayed before its holder, for example when the holder registered while a snapshot was being
+ * written and so only appears in the journal tail. Such a ticket gets a placeholder user holding just the email, and
+ * is re-linked to the real user when that user is replayed.
+ */
+@Component
+public class JournalReplayer {
+    private static final Logger log = LoggerFactory.getLogger(JournalReplayer.class);
+
+    private final UserRepository userRepository;
+    private final TicketRepository ticketRepository;
+    private final SeatAllocationStrategy seatAllocationService;
+    private final Set<String> placeholderEmails = new HashSet<>();
+
+    public JournalReplayer(UserRepository userRepository, TicketRepository ticketRepository,
+            SeatAllocationStrategy seatAllocationService) {
+        this.userRepository = userRepository;
+        this.ticketRepository = ticketRepository;
+        this.seatAllocationService = seatAllocationService;
+    }
+
+    public void apply(JournalEvent event) {
+        switch (event) {
+            case UserCreated e -> {
+                try {
+                    userRepository.save(new User(e.firstName(), e.lastName(), e.email()));
+                } catch (UserAlreadyExistsException ignored) {
+                    // replaying over state that already contains the user
+                }
+                if (placeholderEmails.remove(e.email())) {
+                    linkUser(e.email());
+                }
+            }
+            case TicketPurchased e -> ticketRepository.save(Ticket.builder()
+                    .id(e.id())
+                    .user(userFor(e.email()))
+                    .trainNumber(e.trainNumber())
+                    .departureDate(e.departureDate())
+                    .from(e.from())
+                    .to(e.to())
+                    .pricePaid(e.pricePaid())
+                    .seat(Seat.of(e.seatNumber(), e.section()))
+                    .build());
+            case SeatModified e -> moveTicket(e.email(), e.section(), e.seatNumber());
+            case TicketCancelled e -> ticketRepository.deleteByUserEmail(e.email());
+            case SeatsSwapped e -> {
+                moveTicket(e.firstEmail(), e.firstSection(), e.firstSeatNumber());
+                moveTicket(e.secondEmail(), e.secondSection(), e.secondSeatNumber());
+            }
+        }
+    }
+
+    public void rebuildSeatInventory() {
+        for (Ticket ticket : ticketRepository.findAll()) {
+            Departure departure = Departure.of(ticket.getTrainNumber(), ticket.getDepartureDate());
+            try {
+                Seat seat = seatAllocationService.claimSeat(departure, ticket.getSeat(),
+                        Journey.of(ticket.getFrom(), ticket.getTo()));
+                if (seat != ticket.getSeat()) {
+                    ticketRepository.save(ticket.withSeat(seat));
+                }
+            } catch (DepartureNotFoundException e) {
+                log.debug("Skipping inventory for ticket {} on {}: {}", ticket.getId(), departure, e.getMessage());
+            } catch (SeatUnavailableException e) {
+                log.warn("Recovered ticket {} conflicts with another booking of seat {} on {}", ticket.getId(),
+                        ticket.getSeat().getSeatNumber(), departure);
+            }
+        }
+    }
+
+    private void moveTicket(String email, Section section, String seatNumber) {
+        Ticket ticket = ticketRepository.findByUserEmail(email);
+        if (ticket != null) {
+            ticketRepository.save(ticket.withSeat(Seat.of(seatNumber, section)));
+        }
+    }
+
+    private User userFor(String email) {
+        User user = userRepository.findByEmailOrNull(email);
+        if (user != null) {
+            return user;
+        }
+        placeholderEmails.add(email);
+        return User.builder().email(email).build();
+    }
+
+    private void linkUser(String email) {
+        Ticket ticket = ticketRepository.findByUserEmail(email);
+        User user = userRepository.findByEmailOrNull(email);
+        if (ticket == null || user == null) {
+            return;
+        }
+        ticketRepository.save(Ticket.builder()
+                .id(ticket.getId())
+                .user(user)
+                .trainNumber(ticket.getTrainNumber())
+                .departureDate(ticket.getDepartureDate())
+                .from(ticket.getFrom())
+                .to(ticket.getTo())
+                .pricePaid(ticket.getPricePaid())
+                .seat(ticket.getSeat())
+                .version(ticket.getVersion())
+                .build());
+    }
+}
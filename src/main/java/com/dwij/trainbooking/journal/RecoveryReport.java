@@ -0,0 +1,20 @@
+package com.dwij.trainbooking.journal;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * What startup recovery did: which snapshot it started from, how old that snapshot was, and how long replaying
+ * the journal tail took.
+ */
+public record RecoveryReport(Instant snapshotCreatedAt, Duration snapshotAge, long snapshotJournalPosition,
+        long snapshotUsers, long snapshotTickets, long replayedRecords, Duration replayDuration) {
+
+    public static RecoveryReport none() {
+        return new RecoveryReport(null, null, 0, 0, 0, 0, Duration.ZERO);
+    }
+
+    public boolean hasSnapshot() {
+        return snapshotCreatedAt != null;
+    }
+}
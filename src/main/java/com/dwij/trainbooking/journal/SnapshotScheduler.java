@@ -0,0 +1,50 @@
+package com.dwij.trainbooking.journal;
+
+import com.dwij.trainbooking.repository.TicketRepository;
+import com.dwij.trainbooking.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Periodically snapshots users and tickets while bookings keep running. Snapshots are skipped when nothing has
+ * been journaled since the previous one.
+ */
+public class SnapshotScheduler {
+    private static final Logger log = LoggerFactory.getLogger(SnapshotScheduler.class);
+
+    private final SnapshotStore snapshotStore;
+    private final BookingJournal journal;
+    private final UserRepository userRepository;
+    private final TicketRepository ticketRepository;
+    private final AtomicLong lastSnapshotPosition = new AtomicLong(-1);
+
+    public SnapshotScheduler(SnapshotStore snapshotStore, BookingJournal journal, UserRepository userRepository,
+            TicketRepository ticketRepository) {
+        this.snapshotStore = snapshotStore;
+        this.journal = journal;
+        this.userRepository = userRepository;
+        this.ticketRepository = ticketRepository;
+    }
+
+    @Scheduled(initialDelayString = "${booking.snapshot.interval:PT5M}", fixedDelayString = "${booking.snapshot.interval:PT5M}")
+    public void snapshot() {
+        long position = journal.writtenPosition();
+        if (position == lastSnapshotPosition.get()) {
+            return;
+        }
+        try {
+            long start = System.nanoTime();
+            SnapshotStore.SnapshotInfo info = snapshotStore.write(position, userRepository.findAll(),
+                    ticketRepository.findAll());
+            lastSnapshotPosition.set(position);
+            log.info("Wrote snapshot {} with {} users and {} tickets in {} ms", info.file().getFileName(), info.users(),
+                    info.tickets(), (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException e) {
+            log.error("Failed to write snapshot", e);
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package com.dwij.trainbooking.journal;
+
+import com.dwij.trainbooking.journal.JournalEvent.TicketPurchased;
+import com.dwij.trainbooking.journal.JournalEvent.UserCreated;
+import com.dwij.trainbooking.models.Section;
+import com.dwij.trainbooking.models.Ticket;
+import com.dwij.trainbooking.models.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Compact binary snapshots of users and tickets, written and read through memory-mapped files. A snapshot records
+ * the journal offset it was taken at, so recovery only replays the journal tail written after it.
+ * <p>
+ * A snapshot is a single mapping, so it is capped at {@link #MAX_SNAPSHOT_BYTES}. Writing a bigger one fails and
+ * leaves the previous snapshots in place; a bigger file is skipped on load, and recovery replays more journal.
+ */
+public final class SnapshotStore {
+    private static final Logger log = LoggerFactory.getLogger(SnapshotStore.class);
+    private static final int MAGIC = 0x54425353;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 40;
+    private static final byte USER = 1;
+    private static final byte TICKET = 2;
+    private static final String PREFIX = "snapshot-";
+    private static final String SUFFIX = ".snap";
+    private static final int SNAPSHOTS_TO_KEEP = 2;
+    public static final long MAX_SNAPSHOT_BYTES = Integer.MAX_VALUE;
+
+    private final Path directory;
+    private final long maxBytes;
+
+    public SnapshotStore(Path directory) {
+        this(directory, MAX_SNAPSHOT_BYTES);
+    }
+
+    SnapshotStore(Path directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = Math.min(maxBytes, MAX_SNAPSHOT_BYTES);
+    }
+
+    public record SnapshotInfo(Path file, long journalPosition, Instant createdAt, int users, int tickets) {
+    }
+
+    /**
+     * Writes a snapshot while bookings continue. The collections are iterated once and may reflect changes made
+     * during the iteration; those changes are also in the journal after {@code journalPosition}.
+     */
+    public SnapshotInfo write(long journalPosition, Collection<User> users, Collection<Ticket> tickets) throws IOException {
+        Files.createDirectories(directory);
+        Instant createdAt = Instant.now();
+        Path target = directory.resolve(String.format("%s%020d%s", PREFIX, journalPosition, SUFFIX));
+        Path temporary = directory.resolve(target.getFileName() + ".tmp");
+        int userCount = 0;
+        int ticketCount = 0;
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedRegion region = new MappedRegion(channel, HEADER_BYTES + 128L * (users.size() + tickets.size()),
+                    maxBytes);
+            region.buffer.position(HEADER_BYTES);
+            for (User user : users) {
+                byte[][] fields = encode(user.getEmail(), user.getFirstName(), user.getLastName());
+                region.ensure(1 + size(fields)).put(USER);
+                putAll(region.buffer, fields);
+                userCount++;
+            }
+            for (Ticket ticket : tickets) {
+                TicketPurchased t = TicketPurchased.of(ticket);
+                byte[][] fields = encode(t.id(), t.email(), t.trainNumber(), t.from(), t.to(), t.seatNumber());
+                region.ensure(1 + 8 + 8 + 1 + size(fields)).put(TICKET);
+                putAll(region.buffer, fields);
+                region.buffer.putLong(t.departureDate() == null ? Long.MIN_VALUE : t.departureDate().toEpochDay());
+                region.buffer.putDouble(t.pricePaid());
+                region.buffer.put((byte) t.section().ordinal());
+                ticketCount++;
+            }
+            int end = region.buffer.position();
+            CRC32C crc = new CRC32C();
+            crc.update(region.buffer.slice(HEADER_BYTES, end - HEADER_BYTES));
+            region.buffer.putInt(0, MAGIC)
+                    .putInt(4, FORMAT_VERSION)
+                    .putLong(8, journalPosition)
+                    .putLong(16, createdAt.toEpochMilli())
+                    .putInt(24, userCount)
+                    .putInt(28, ticketCount)
+                    .putInt(32, end)
+                    .putInt(36, (int) crc.getValue());
+            region.buffer.force();
+            channel.truncate(end);
+        } catch (IOException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        deleteOlderSnapshots();
+        return new SnapshotInfo(target, journalPosition, createdAt, userCount, ticketCount);
+    }
+
+    public Optional<SnapshotInfo> latest() throws IOException {
+        for (Path file : snapshotsNewestFirst()) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                if (channel.size() > maxBytes) {
+                    continue;
+                }
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                if (isValid(buffer)) {
+                    return Optional.of(info(file, buffer));
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Maps the newest intact snapshot and streams its users and tickets to {@code sink} as journal events.
+     */
+    public Optional<SnapshotInfo> loadLatest(Consumer<JournalEvent> sink) throws IOException {
+        for (Path file : snapshotsNewestFirst()) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                if (channel.size() > maxBytes) {
+                    log.warn("Ignoring snapshot {}: {} bytes is over the {} byte limit", file, channel.size(),
+                            maxBytes);
+                    continue;
+                }
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                if (!isValid(buffer)) {
+                    log.warn("Ignoring corrupt snapshot {}", file);
+                    continue;
+                }
+                int end = buffer.getInt(32);
+                buffer.position(HEADER_BYTES);
+                while (buffer.position() < end) {
+                    byte type = buffer.get();
+                    if (type == USER) {
+                        sink.accept(new UserCreated(getString(buffer), getString(buffer), getString(buffer)));
+                    } else {
+                        String id = getString(buffer);
+                        String email = getString(buffer);
+                        String trainNumber = getString(buffer);
+                        String from = getString(buffer);
+                        String to = getString(buffer);
+                        String seatNumber = getString(buffer);
+                        long epochDay = buffer.getLong();
+                        double pricePaid = buffer.getDouble();
+                        Section section = Section.values()[buffer.get()];
+                        sink.accept(new TicketPurchased(id, email, trainNumber,
+                                epochDay == Long.MIN_VALUE ? null : LocalDate.ofEpochDay(epochDay), from, to, pricePaid,
+                                section, seatNumber));
+                    }
+                }
+                return Optional.of(info(file, buffer));
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static SnapshotInfo info(Path file, ByteBuffer buffer) {
+        return new SnapshotInfo(file, buffer.getLong(8), Instant.ofEpochMilli(buffer.getLong(16)), buffer.getInt(24),
+                buffer.getInt(28));
+    }
+
+    private static boolean isValid(ByteBuffer buffer) {
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION) {
+            return false;
+        }
+        int end = buffer.getInt(32);
+        if (end < HEADER_BYTES || end > buffer.capacity()) {
+            return false;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(HEADER_BYTES, end - HEADER_BYTES));
+        return (int) crc.getValue() == buffer.getInt(36);
+    }
+
+    private List<Path> snapshotsNewestFirst() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> {
+                        String name = file.getFileName().toString();
+                        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+                    })
+                    .sorted(Comparator.comparing((Path file) -> file.getFileName().toString()).reversed())
+                    .toList();
+        }
+    }
+
+    private void deleteOlderSnapshots() throws IOException {
+        List<Path> snapshots = snapshotsNewestFirst();
+        for (Path old : snapshots.subList(Math.min(SNAPSHOTS_TO_KEEP, snapshots.size()), snapshots.size())) {
+            Files.deleteIfExists(old);
+        }
+    }
+
+    private static byte[][] encode(String... values) {
+        byte[][] encoded = new byte[values.length][];
+        for (int i = 0; i < values.length; i++) {
+            encoded[i] = values[i] == null ? null : values[i].getBytes(StandardCharsets.UTF_8);
+        }
+        return encoded;
+    }
+
+    private static int size(byte[][] fields) {
+        int size = 0;
+        for (byte[] field : fields) {
+            size += 4 + (field == null ? 0 : field.length);
+        }
+        return size;
+    }
+
+    private static void putAll(ByteBuffer buffer, byte[][] fields) {
+        for (byte[] field : fields) {
+            if (field == null) {
+                buffer.putInt(-1);
+            } else {
+                buffer.putInt(field.length).put(field);
+            }
+        }
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static final class MappedRegion {
+        private final FileChannel channel;
+        private final long maxBytes;
+        private MappedByteBuffer buffer;
+
+        private MappedRegion(FileChannel channel, long capacity, long maxBytes) throws IOException {
+            this.channel = channel;
+            this.maxBytes = maxBytes;
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.min(capacity, maxBytes));
+        }
+
+        private ByteBuffer ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                int position = buffer.position();
+                long needed = (long) position + bytes;
+                if (needed > maxBytes) {
+                    throw new IOException("Snapshot exceeds the " + maxBytes + " byte limit of a single mapping");
+                }
+                long capacity = Math.min(Math.max(2L * buffer.capacity(), needed), maxBytes);
+                buffer.force();
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+                buffer.position(position);
+            }
+            return buffer;
+        }
+    }
+}
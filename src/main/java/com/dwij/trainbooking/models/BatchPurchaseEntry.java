@@ -0,0 +1,27 @@
+package com.dwij.trainbooking.models;
+
+public class BatchPurchaseEntry {
+    private final String email;
+    private final Section section;
+
+    public BatchPurchaseEntry(String email, Section section) {
+        this.email = email;
+        this.section = section;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public Section getSection() {
+        return section;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchPurchaseEntry{" +
+                "email='" + email + '\'' +
+                ", section=" + section +
+                '}';
+    }
+}
@@ -0,0 +1,71 @@
+package com.dwij.trainbooking.models;
+
+import java.util.List;
+
+/**
+ * Outcome of an all-or-nothing batch purchase. Either every entry is {@code BOOKED}, or none is: the entries that
+ * caused the failure are {@code REJECTED} and the rest are {@code ROLLED_BACK}.
+ */
+public class BatchPurchaseResult {
+    public enum Status {
+        BOOKED, REJECTED, ROLLED_BACK
+    }
+
+    private final boolean booked;
+    private final List<EntryResult> results;
+
+    public BatchPurchaseResult(boolean booked, List<EntryResult> results) {
+        this.booked = booked;
+        this.results = results;
+    }
+
+    public boolean isBooked() {
+        return booked;
+    }
+
+    public List<EntryResult> getResults() {
+        return results;
+    }
+
+    public static class EntryResult {
+        private final String email;
+        private final Status status;
+        private final Ticket ticket;
+        private final String error;
+
+        public EntryResult(String email, Status status, Ticket ticket, String error) {
+            this.email = email;
+            this.status = status;
+            this.ticket = ticket;
+            this.error = error;
+        }
+
+        public static EntryResult booked(Ticket ticket) {
+            return new EntryResult(ticket.getUser().getEmail(), Status.BOOKED, ticket, null);
+        }
+
+        public static EntryResult rejected(String email, String error) {
+            return new EntryResult(email, Status.REJECTED, null, error);
+        }
+
+        public static EntryResult rolledBack(String email, String error) {
+            return new EntryResult(email, Status.ROLLED_BACK, null, error);
+        }
+
+        public String getEmail() {
+            return email;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public Ticket getTicket() {
+            return ticket;
+        }
+
+        public String getError() {
+            return error;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.dwij.trainbooking.models;
+
+import java.time.LocalDate;
+import java.util.Objects;
+
+public class Departure {
+    private final String trainNumber;
+    private final LocalDate date;
+
+    public Departure(String trainNumber, LocalDate date) {
+        this.trainNumber = trainNumber;
+        this.date = date;
+    }
+
+    public static Departure of(String trainNumber, LocalDate date) {
+        return new Departure(trainNumber, date);
+    }
+
+    public String getTrainNumber() {
+        return trainNumber;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    @Override
+    public String toString() {
+        return trainNumber + "@" + date;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Departure departure = (Departure) o;
+        return Objects.equals(trainNumber, departure.trainNumber) && Objects.equals(date, departure.date);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(trainNumber, date);
+    }
+}
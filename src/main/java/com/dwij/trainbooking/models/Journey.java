@@ -0,0 +1,46 @@
+package com.dwij.trainbooking.models;
+
+import java.util.Objects;
+
+public class Journey {
+    private final String from;
+    private final String to;
+
+    public Journey(String from, String to) {
+        this.from = from;
+        this.to = to;
+    }
+
+    public static Journey of(String from, String to) {
+        return new Journey(from, to);
+    }
+
+    public String getFrom() {
+        return from;
+    }
+
+    public String getTo() {
+        return to;
+    }
+
+    @Override
+    public String toString() {
+        return "Journey{" +
+                "from='" + from + '\'' +
+                ", to='" + to + '\'' +
+                '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Journey journey = (Journey) o;
+        return Objects.equals(from, journey.from) && Objects.equals(to, journey.to);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(from, to);
+    }
+}
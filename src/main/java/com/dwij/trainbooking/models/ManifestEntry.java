@@ -0,0 +1,31 @@
+package com.dwij.trainbooking.models;
+
+public class ManifestEntry {
+    private final String email;
+    private final String seatNumber;
+
+    public ManifestEntry(String email, String seatNumber) {
+        this.email = email;
+        this.seatNumber = seatNumber;
+    }
+
+    public static ManifestEntry of(Ticket ticket) {
+        return new ManifestEntry(ticket.getUser().getEmail(), ticket.getSeat().getSeatNumber());
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getSeatNumber() {
+        return seatNumber;
+    }
+
+    @Override
+    public String toString() {
+        return "ManifestEntry{" +
+                "email='" + email + '\'' +
+                ", seatNumber='" + seatNumber + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,24 @@
+package com.dwij.trainbooking.models;
+
+import java.util.List;
+
+/**
+ * One page of a seat-ordered manifest. {@code nextCursor} is null on the last page.
+ */
+public class ManifestPage {
+    private final List<ManifestEntry> entries;
+    private final String nextCursor;
+
+    public ManifestPage(List<ManifestEntry> entries, String nextCursor) {
+        this.entries = entries;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<ManifestEntry> getEntries() {
+        return entries;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
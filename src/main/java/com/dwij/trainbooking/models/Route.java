@@ -0,0 +1,96 @@
+package com.dwij.trainbooking.models;
+
+import com.dwij.trainbooking.exception.InvalidJourneyException;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ordered list of stations served by a train. Segment {@code i} is the leg between station {@code i}
+ * and station {@code i + 1}.
+ */
+public class Route {
+    private final List<String> stations;
+    private final Map<String, Integer> stationIndexes = new HashMap<>();
+
+    public Route(List<String> stations) {
+        if (stations == null || stations.size() < 2) {
+            throw new IllegalArgumentException("A route needs at least two stations: " + stations);
+        }
+        this.stations = List.copyOf(stations);
+        for (int i = 0; i < this.stations.size(); i++) {
+            if (stationIndexes.putIfAbsent(this.stations.get(i), i) != null) {
+                throw new IllegalArgumentException("Duplicate station on route: " + this.stations.get(i));
+            }
+        }
+    }
+
+    public static Route of(String... stations) {
+        return new Route(List.of(stations));
+    }
+
+    public List<String> getStations() {
+        return stations;
+    }
+
+    public String getOrigin() {
+        return stations.get(0);
+    }
+
+    public String getDestination() {
+        return stations.get(stations.size() - 1);
+    }
+
+    public int getSegmentCount() {
+        return stations.size() - 1;
+    }
+
+    public Journey fullJourney() {
+        return Journey.of(getOrigin(), getDestination());
+    }
+
+    /**
+     * Fills in a missing origin or destination with the route terminus.
+     */
+    public Journey resolve(String from, String to) {
+        return Journey.of(from == null ? getOrigin() : from, to == null ? getDestination() : to);
+    }
+
+    public int departureIndex(Journey journey) {
+        validate(journey);
+        return stationIndexes.get(journey.getFrom());
+    }
+
+    public int arrivalIndex(Journey journey) {
+        validate(journey);
+        return stationIndexes.get(journey.getTo());
+    }
+
+    /**
+     * Whether every leg of {@code inner} is also a leg of {@code outer}.
+     */
+    public boolean covers(Journey outer, Journey inner) {
+        return departureIndex(outer) <= departureIndex(inner) && arrivalIndex(inner) <= arrivalIndex(outer);
+    }
+
+    public void validate(Journey journey) {
+        Integer from = stationIndexes.get(journey.getFrom());
+        Integer to = stationIndexes.get(journey.getTo());
+        if (from == null || to == null) {
+            throw new InvalidJourneyException("Unknown station in journey " + journey.getFrom() + " -> " + journey.getTo()
+                    + ". Route stations: " + stations);
+        }
+        if (from >= to) {
+            throw new InvalidJourneyException("Journey must travel forward along the route: "
+                    + journey.getFrom() + " -> " + journey.getTo());
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Route{" +
+                "stations=" + stations +
+                '}';
+    }
+}
@@ -1,14 +1,83 @@
 package com.dwij.trainbooking.models;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
 
+/**
+ * A seat such as "A7". The number after the section letter is parsed once into {@link #getOrdinal()}, and the
+ * coach, row and position are derived from it, so comparisons never touch the string. {@link #of(Section, int)}
+ * returns one shared instance per seat up to {@link #MAX_INTERNED_ORDINAL}; seat numbers arrive from clients, so
+ * anything above that bound gets a fresh instance rather than growing the shared table.
+ */
 public class Seat {
+    public static final int SEATS_PER_ROW = 4;
+    public static final int ROWS_PER_COACH = 16;
+    private static final int SEATS_PER_COACH = SEATS_PER_ROW * ROWS_PER_COACH;
+    public static final int MAX_INTERNED_ORDINAL = 64 * SEATS_PER_COACH;
+    private static final Map<Section, AtomicReference<Seat[]>> CANONICAL = new EnumMap<>(Section.class);
+
+    static {
+        for (Section section : Section.values()) {
+            CANONICAL.put(section, new AtomicReference<>(new Seat[0]));
+        }
+    }
+
     private final String seatNumber;
     private final Section section;
+    private final int ordinal;
 
     public Seat(String seatNumber, Section section) {
         this.seatNumber = seatNumber;
         this.section = section;
+        this.ordinal = parseOrdinal(seatNumber, section);
+    }
+
+    /**
+     * The canonical instance of seat {@code ordinal} (1-based) in {@code section}, or a new instance when the
+     * ordinal is above {@link #MAX_INTERNED_ORDINAL}.
+     */
+    public static Seat of(Section section, int ordinal) {
+        if (ordinal < 1) {
+            throw new IllegalArgumentException("Seat ordinal must be positive: " + ordinal);
+        }
+        if (ordinal > MAX_INTERNED_ORDINAL) {
+            return new Seat(section.name() + ordinal, section);
+        }
+        AtomicReference<Seat[]> cache = CANONICAL.get(section);
+        Seat[] seats = cache.get();
+        while (ordinal > seats.length) {
+            Seat[] grown = new Seat[Math.min(MAX_INTERNED_ORDINAL, Math.max(ordinal, seats.length * 2))];
+            System.arraycopy(seats, 0, grown, 0, seats.length);
+            for (int i = seats.length; i < grown.length; i++) {
+                grown[i] = new Seat(section.name() + (i + 1), section);
+            }
+            if (cache.compareAndSet(seats, grown)) {
+                seats = grown;
+            } else {
+                seats = cache.get();
+            }
+        }
+        return seats[ordinal - 1];
+    }
+
+    /**
+     * Resolves a seat from its number, returning the canonical instance when the number is well formed.
+     */
+    @JsonCreator
+    public static Seat of(@JsonProperty("seatNumber") String seatNumber, @JsonProperty("section") Section section) {
+        int ordinal = parseOrdinal(seatNumber, section);
+        if (ordinal > 0) {
+            Seat canonical = of(section, ordinal);
+            if (canonical.seatNumber.equals(seatNumber)) {
+                return canonical;
+            }
+        }
+        return new Seat(seatNumber, section);
     }
 
     public String getSeatNumber() {
@@ -19,6 +88,45 @@ public class Seat {
         return section;
     }
 
+    /**
+     * 1-based seat number within the section, or -1 if the seat number is not the section letter followed by digits.
+     */
+    public int getOrdinal() {
+        return ordinal;
+    }
+
+    public int getCoach() {
+        return ordinal < 1 ? -1 : (ordinal - 1) / SEATS_PER_COACH + 1;
+    }
+
+    public int getRow() {
+        return ordinal < 1 ? -1 : (ordinal - 1) % SEATS_PER_COACH / SEATS_PER_ROW + 1;
+    }
+
+    public int getPosition() {
+        return ordinal < 1 ? -1 : (ordinal - 1) % SEATS_PER_ROW + 1;
+    }
+
+    private static int parseOrdinal(String seatNumber, Section section) {
+        if (seatNumber == null || section == null) {
+            return -1;
+        }
+        String prefix = section.name();
+        if (!seatNumber.startsWith(prefix) || seatNumber.length() == prefix.length()
+                || seatNumber.length() - prefix.length() > 9) {
+            return -1;
+        }
+        int number = 0;
+        for (int i = prefix.length(); i < seatNumber.length(); i++) {
+            char c = seatNumber.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            number = number * 10 + (c - '0');
+        }
+        return number > 0 ? number : -1;
+    }
+
     @Override
     public String toString() {
         return "Seat{" +
@@ -32,11 +140,13 @@ public class Seat {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Seat seat = (Seat) o;
-        return seatNumber.equals(seat.seatNumber) && section == seat.section;
+        if (section != seat.section || ordinal != seat.ordinal) return false;
+        return ordinal > 0 || Objects.equals(seatNumber, seat.seatNumber);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(seatNumber, section);
+        int sectionHash = section == null ? 0 : section.ordinal() + 1;
+        return 31 * sectionHash + (ordinal > 0 ? ordinal : Objects.hashCode(seatNumber));
     }
 }
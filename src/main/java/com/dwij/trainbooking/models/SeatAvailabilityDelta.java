@@ -0,0 +1,32 @@
+package com.dwij.trainbooking.models;
+
+import java.util.List;
+
+/**
+ * Seat ordinals that became taken or free since the previous event of an availability feed.
+ */
+public class SeatAvailabilityDelta {
+    private final List<Integer> taken;
+    private final List<Integer> freed;
+
+    public SeatAvailabilityDelta(List<Integer> taken, List<Integer> freed) {
+        this.taken = taken;
+        this.freed = freed;
+    }
+
+    public List<Integer> getTaken() {
+        return taken;
+    }
+
+    public List<Integer> getFreed() {
+        return freed;
+    }
+
+    @Override
+    public String toString() {
+        return "SeatAvailabilityDelta{" +
+                "taken=" + taken +
+                ", freed=" + freed +
+                '}';
+    }
+}
@@ -0,0 +1,30 @@
+package com.dwij.trainbooking.models;
+
+import java.util.List;
+
+/**
+ * First event of an availability feed: the section size and the ordinals of the seats free for the journey.
+ */
+public class SeatAvailabilitySnapshot {
+    private final Section section;
+    private final int capacity;
+    private final List<Integer> free;
+
+    public SeatAvailabilitySnapshot(Section section, int capacity, List<Integer> free) {
+        this.section = section;
+        this.capacity = capacity;
+        this.free = free;
+    }
+
+    public Section getSection() {
+        return section;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public List<Integer> getFree() {
+        return free;
+    }
+}
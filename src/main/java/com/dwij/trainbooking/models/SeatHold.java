@@ -0,0 +1,73 @@
+package com.dwij.trainbooking.models;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * A seat taken out of the inventory for one customer until {@code expiresAt}, waiting to be confirmed into a ticket.
+ */
+public class SeatHold {
+    private final String id;
+    private final String email;
+    private final String trainNumber;
+    private final LocalDate departureDate;
+    private final String from;
+    private final String to;
+    private final Seat seat;
+    private final Instant expiresAt;
+
+    public SeatHold(String id, String email, Departure departure, Journey journey, Seat seat, Instant expiresAt) {
+        this.id = id;
+        this.email = email;
+        this.trainNumber = departure.getTrainNumber();
+        this.departureDate = departure.getDate();
+        this.from = journey.getFrom();
+        this.to = journey.getTo();
+        this.seat = seat;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getTrainNumber() {
+        return trainNumber;
+    }
+
+    public LocalDate getDepartureDate() {
+        return departureDate;
+    }
+
+    public String getFrom() {
+        return from;
+    }
+
+    public String getTo() {
+        return to;
+    }
+
+    public Seat getSeat() {
+        return seat;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    @Override
+    public String toString() {
+        return "SeatHold{" +
+                "id='" + id + '\'' +
+                ", email='" + email + '\'' +
+                ", trainNumber='" + trainNumber + '\'' +
+                ", departureDate=" + departureDate +
+                ", seat=" + seat +
+                ", expiresAt=" + expiresAt +
+                '}';
+    }
+}
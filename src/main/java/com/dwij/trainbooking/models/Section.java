@@ -1,5 +1,5 @@
 package com.dwij.trainbooking.models;
 
 public enum Section {
-    A, B
-}
\ No newline at end of file
+    A, B, C, D, E, F, G, H
+}
@@ -1,20 +1,28 @@
 package com.dwij.trainbooking.models;
 
+import java.time.LocalDate;
+
 public class Ticket {
     private final String id;
     private final User user;
+    private final String trainNumber;
+    private final LocalDate departureDate;
     private final String from;
     private final String to;
     private final double pricePaid;
     private final Seat seat;
+    private final long version;
 
     private Ticket(Builder builder) {
         this.id = builder.id;
         this.user = builder.user;
+        this.trainNumber = builder.trainNumber;
+        this.departureDate = builder.departureDate;
         this.from = builder.from;
         this.to = builder.to;
         this.pricePaid = builder.pricePaid;
         this.seat = builder.seat;
+        this.version = builder.version;
     }
 
     public String getId() {
@@ -25,6 +33,14 @@ public class Ticket {
         return user;
     }
 
+    public String getTrainNumber() {
+        return trainNumber;
+    }
+
+    public LocalDate getDepartureDate() {
+        return departureDate;
+    }
+
     public String getFrom() {
         return from;
     }
@@ -41,14 +57,27 @@ public class Ticket {
         return seat;
     }
 
+    /**
+     * Incremented by every change to the ticket, so a writer can tell whether the ticket it read is still current.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * A copy of this ticket on {@code newSeat}, one version on.
+     */
     public Ticket withSeat(Seat newSeat) {
         return Ticket.builder()
                 .id(this.id)
                 .user(this.user)
+                .trainNumber(this.trainNumber)
+                .departureDate(this.departureDate)
                 .from(this.from)
                 .to(this.to)
                 .pricePaid(this.pricePaid)
                 .seat(newSeat)
+                .version(this.version + 1)
                 .build();
     }
 
@@ -59,10 +88,13 @@ public class Ticket {
     public static class Builder {
         private String id;
         private User user;
+        private String trainNumber;
+        private LocalDate departureDate;
         private String from;
         private String to;
         private double pricePaid;
         private Seat seat;
+        private long version;
 
         public Builder id(String id) {
             this.id = id;
@@ -74,6 +106,16 @@ public class Ticket {
             return this;
         }
 
+        public Builder trainNumber(String trainNumber) {
+            this.trainNumber = trainNumber;
+            return this;
+        }
+
+        public Builder departureDate(LocalDate departureDate) {
+            this.departureDate = departureDate;
+            return this;
+        }
+
         public Builder from(String from) {
             this.from = from;
             return this;
@@ -94,6 +136,11 @@ public class Ticket {
             return this;
         }
 
+        public Builder version(long version) {
+            this.version = version;
+            return this;
+        }
+
         public Ticket build() {
             return new Ticket(this);
         }
@@ -104,10 +151,13 @@ public class Ticket {
         return "Ticket{" +
                 "id='" + id + '\'' +
                 ", user=" + user +
+                ", trainNumber='" + trainNumber + '\'' +
+                ", departureDate=" + departureDate +
                 ", from='" + from + '\'' +
                 ", to='" + to + '\'' +
                 ", pricePaid=" + pricePaid +
                 ", seat=" + seat +
+                ", version=" + version +
                 '}';
     }
 }
@@ -0,0 +1,41 @@
+package com.dwij.trainbooking.models;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+public class Train {
+    private final String number;
+    private final Route route;
+    private final Map<Section, Integer> seatsPerSection;
+
+    public Train(String number, Route route, Map<Section, Integer> seatsPerSection) {
+        if (seatsPerSection.isEmpty()) {
+            throw new IllegalArgumentException("Train " + number + " must have at least one section");
+        }
+        this.number = number;
+        this.route = route;
+        this.seatsPerSection = Collections.unmodifiableMap(new EnumMap<>(seatsPerSection));
+    }
+
+    public String getNumber() {
+        return number;
+    }
+
+    public Route getRoute() {
+        return route;
+    }
+
+    public Map<Section, Integer> getSeatsPerSection() {
+        return seatsPerSection;
+    }
+
+    @Override
+    public String toString() {
+        return "Train{" +
+                "number='" + number + '\'' +
+                ", route=" + route +
+                ", seatsPerSection=" + seatsPerSection +
+                '}';
+    }
+}
@@ -0,0 +1,55 @@
+package com.dwij.trainbooking.models;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk user import. Rows are numbered from 1 in payload order. Every rejected row is counted, but at
+ * most a fixed number of them are listed, so the summary stays small however bad the payload is.
+ */
+public class UserImportResult {
+    private final long created;
+    private final long rejected;
+    private final List<Rejection> rejections;
+
+    public UserImportResult(long created, long rejected, List<Rejection> rejections) {
+        this.created = created;
+        this.rejected = rejected;
+        this.rejections = rejections;
+    }
+
+    public long getCreated() {
+        return created;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public List<Rejection> getRejections() {
+        return rejections;
+    }
+
+    public static class Rejection {
+        private final long row;
+        private final String email;
+        private final String error;
+
+        public Rejection(long row, String email, String error) {
+            this.row = row;
+            this.email = email;
+            this.error = error;
+        }
+
+        public long getRow() {
+            return row;
+        }
+
+        public String getEmail() {
+            return email;
+        }
+
+        public String getError() {
+            return error;
+        }
+    }
+}
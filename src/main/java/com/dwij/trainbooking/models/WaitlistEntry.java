@@ -0,0 +1,77 @@
+package com.dwij.trainbooking.models;
+
+import java.time.LocalDate;
+
+public class WaitlistEntry {
+    public enum Status {
+        WAITING, PROMOTED
+    }
+
+    private final String email;
+    private final String trainNumber;
+    private final LocalDate departureDate;
+    private final Section section;
+    private final String from;
+    private final String to;
+    private final Status status;
+    private final int position;
+
+    public WaitlistEntry(String email, Departure departure, Section section, Journey journey, Status status,
+            int position) {
+        this.email = email;
+        this.trainNumber = departure.getTrainNumber();
+        this.departureDate = departure.getDate();
+        this.section = section;
+        this.from = journey.getFrom();
+        this.to = journey.getTo();
+        this.status = status;
+        this.position = position;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getTrainNumber() {
+        return trainNumber;
+    }
+
+    public LocalDate getDepartureDate() {
+        return departureDate;
+    }
+
+    public Section getSection() {
+        return section;
+    }
+
+    public String getFrom() {
+        return from;
+    }
+
+    public String getTo() {
+        return to;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * One-based place in the section's queue; 0 once promoted.
+     */
+    public int getPosition() {
+        return position;
+    }
+
+    @Override
+    public String toString() {
+        return "WaitlistEntry{" +
+                "email='" + email + '\'' +
+                ", trainNumber='" + trainNumber + '\'' +
+                ", departureDate=" + departureDate +
+                ", section=" + section +
+                ", status=" + status +
+                ", position=" + position +
+                '}';
+    }
+}
@@ -0,0 +1,432 @@
+package com.dwij.trainbooking.repository;
+
+import com.dwij.trainbooking.models.User;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Stores users as packed UTF-8 records instead of objects, for account counts where per-object overhead would
+ * dominate the heap. A {@link User} is only materialized when one is returned.
+ * <p>
+ * Users are spread over segments by email hash. Each segment appends records to fixed-size byte pages and indexes
+ * them with an open-addressing table of longs, each holding the email's 32-bit hash above the record's address, so
+ * most probes are settled without touching the record. A record holds the email's local part, a reference to its
+ * domain, then the first and last name. Fields are length-prefixed, with a length of 0 meaning null. Domains are
+ * shared by most accounts, so the first few thousand are kept once in a dictionary and referenced by id; rarer
+ * ones are stored inline.
+ * <p>
+ * Writes take their segment's lock. Reads take no lock: a record is complete before its index entry is published
+ * with a volatile write, and a resize publishes the new table only once it is filled. Users are never removed.
+ */
+public class CompactUserRepository implements UserRepository {
+    private static final int SEGMENT_BITS = 4;
+    private static final int PAGE_BITS = 16;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final long ADDRESS_MASK = 0xFFFF_FFFFL;
+    private static final int MIN_SLOTS = 16;
+    private static final int MAX_DOMAINS = 4096;
+    // Domain references: no '@' in the email, domain stored inline, or dictionary id + INTERNED.
+    private static final int NO_DOMAIN = 0;
+    private static final int INLINE_DOMAIN = 1;
+    private static final int INTERNED = 2;
+
+    private final Segment[] segments = new Segment[1 << SEGMENT_BITS];
+    private final Domains domains = new Domains();
+
+    public CompactUserRepository() {
+        this(0);
+    }
+
+    /**
+     * @param expectedUsers number of users to size the index for up front, avoiding resizes while loading
+     */
+    public CompactUserRepository(int expectedUsers) {
+        long perSegment = (Math.max(0, expectedUsers) + segments.length - 1) / segments.length;
+        int slots = MIN_SLOTS;
+        while (slots * 3L < perSegment * 4L) {
+            slots <<= 1;
+        }
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = new Segment(slots);
+        }
+    }
+
+    @Override
+    public boolean saveIfAbsent(User user) {
+        if (user.getEmail() == null) {
+            throw new IllegalArgumentException("User email is required");
+        }
+        byte[] email = user.getEmail().getBytes(StandardCharsets.UTF_8);
+        int hash = hash(email);
+        return segment(hash).insert(hash, email, encode(user.getFirstName()), encode(user.getLastName()));
+    }
+
+    @Override
+    public User findByEmailOrNull(String email) {
+        if (email == null) {
+            return null;
+        }
+        byte[] key = email.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(key);
+        return segment(hash).find(hash, key);
+    }
+
+    @Override
+    public Collection<User> findAll() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<User> iterator() {
+                return new UserIterator();
+            }
+
+            @Override
+            public int size() {
+                int size = 0;
+                for (Segment segment : segments) {
+                    size += segment.size;
+                }
+                return size;
+            }
+        };
+    }
+
+    private Segment segment(int hash) {
+        return segments[hash >>> (Integer.SIZE - SEGMENT_BITS)];
+    }
+
+    private static byte[] encode(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Upper half of the {@link EmailHash}, so the segment is still picked by its top bits.
+     */
+    private static int hash(byte[] email) {
+        return (int) (EmailHash.of(email) >>> 32);
+    }
+
+    private static int lastAt(byte[] email) {
+        for (int i = email.length - 1; i >= 0; i--) {
+            if (email[i] == '@') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private final class Segment {
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile AtomicLongArray table;
+        private volatile byte[][] pages = new byte[0][];
+        private volatile int size;
+        // Address of the next record; only read and written under the lock.
+        private long next;
+
+        private Segment(int slots) {
+            this.table = new AtomicLongArray(slots);
+        }
+
+        private User find(int hash, byte[] email) {
+            AtomicLongArray slots = table;
+            int mask = slots.length() - 1;
+            for (int i = hash & mask; ; i = (i + 1) & mask) {
+                long entry = slots.get(i);
+                if (entry == 0) {
+                    return null;
+                }
+                if ((int) (entry >>> 32) == hash) {
+                    long address = (entry & ADDRESS_MASK) - 1;
+                    if (emailEquals(address, email)) {
+                        return read(address);
+                    }
+                }
+            }
+        }
+
+        private boolean insert(int hash, byte[] email, byte[] firstName, byte[] lastName) {
+            lock.lock();
+            try {
+                if (find(hash, email) != null) {
+                    return false;
+                }
+                if ((size + 1) * 4L > table.length() * 3L) {
+                    resize();
+                }
+                long address = append(email, firstName, lastName);
+                place(table, ((long) hash << 32) | (address + 1));
+                size++;
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private long append(byte[] email, byte[] firstName, byte[] lastName) {
+            int at = lastAt(email);
+            int local = at < 0 ? email.length : at;
+            int domainLength = at < 0 ? 0 : email.length - at - 1;
+            int domainId = at < 0 ? -1 : domains.intern(email, at + 1);
+            int reference = at < 0 ? NO_DOMAIN : domainId < 0 ? INLINE_DOMAIN : domainId + INTERNED;
+
+            int length = fieldSize(local) + varintSize(reference)
+                    + (reference == INLINE_DOMAIN ? fieldSize(domainLength) : 0)
+                    + fieldSize(firstName == null ? -1 : firstName.length)
+                    + fieldSize(lastName == null ? -1 : lastName.length);
+            if (length > PAGE_SIZE) {
+                throw new IllegalArgumentException("User record of " + length + " bytes exceeds " + PAGE_SIZE);
+            }
+            int offset = (int) (next & (PAGE_SIZE - 1));
+            if (offset + length > PAGE_SIZE) {
+                next += PAGE_SIZE - offset;
+                offset = 0;
+            }
+            if (next >= ADDRESS_MASK) {
+                throw new IllegalStateException("User segment is full");
+            }
+            int page = (int) (next >>> PAGE_BITS);
+            byte[][] current = pages;
+            if (page == current.length) {
+                current = Arrays.copyOf(current, Math.max(4, current.length * 2));
+                current[page] = new byte[PAGE_SIZE];
+            } else if (current[page] == null) {
+                current = current.clone();
+                current[page] = new byte[PAGE_SIZE];
+            }
+            byte[] target = current[page];
+            offset = writeField(target, offset, email, 0, local);
+            offset = writeVarint(target, offset, reference);
+            if (reference == INLINE_DOMAIN) {
+                offset = writeField(target, offset, email, at + 1, domainLength);
+            }
+            offset = writeField(target, offset, firstName, 0, firstName == null ? -1 : firstName.length);
+            writeField(target, offset, lastName, 0, lastName == null ? -1 : lastName.length);
+            pages = current;
+            long address = next;
+            next += length;
+            return address;
+        }
+
+        private void resize() {
+            AtomicLongArray old = table;
+            AtomicLongArray bigger = new AtomicLongArray(old.length() * 2);
+            for (int i = 0; i < old.length(); i++) {
+                long entry = old.get(i);
+                if (entry != 0) {
+                    place(bigger, entry);
+                }
+            }
+            table = bigger;
+        }
+
+        private static void place(AtomicLongArray slots, long entry) {
+            int mask = slots.length() - 1;
+            int i = (int) (entry >>> 32) & mask;
+            while (slots.get(i) != 0) {
+                i = (i + 1) & mask;
+            }
+            slots.set(i, entry);
+        }
+
+        /**
+         * Whether the record's email is {@code key}: its local part, then '@' and the domain if it has one.
+         */
+        private boolean emailEquals(long address, byte[] key) {
+            byte[] page = pages[(int) (address >>> PAGE_BITS)];
+            int offset = (int) (address & (PAGE_SIZE - 1));
+            int local = readVarint(page, offset) - 1;
+            offset += varintSize(local + 1);
+            if (local > key.length || !Arrays.equals(page, offset, offset + local, key, 0, local)) {
+                return false;
+            }
+            offset += local;
+            int reference = readVarint(page, offset);
+            offset += varintSize(reference);
+            if (reference == NO_DOMAIN) {
+                return key.length == local;
+            }
+            if (key.length == local || key[local] != '@') {
+                return false;
+            }
+            if (reference == INLINE_DOMAIN) {
+                int domainLength = readVarint(page, offset) - 1;
+                offset += varintSize(domainLength + 1);
+                return Arrays.equals(page, offset, offset + domainLength, key, local + 1, key.length);
+            }
+            byte[] domain = domains.get(reference - INTERNED);
+            return Arrays.equals(domain, 0, domain.length, key, local + 1, key.length);
+        }
+
+        private User read(long address) {
+            byte[] page = pages[(int) (address >>> PAGE_BITS)];
+            int offset = (int) (address & (PAGE_SIZE - 1));
+            int local = readVarint(page, offset) - 1;
+            offset += varintSize(local + 1);
+            int localStart = offset;
+            offset += local;
+            int reference = readVarint(page, offset);
+            offset += varintSize(reference);
+
+            byte[] domain = null;
+            int domainStart = 0;
+            int domainLength = 0;
+            if (reference == INLINE_DOMAIN) {
+                domainLength = readVarint(page, offset) - 1;
+                offset += varintSize(domainLength + 1);
+                domain = page;
+                domainStart = offset;
+                offset += domainLength;
+            } else if (reference != NO_DOMAIN) {
+                domain = domains.get(reference - INTERNED);
+                domainLength = domain.length;
+            }
+            String email;
+            if (domain == null) {
+                email = new String(page, localStart, local, StandardCharsets.UTF_8);
+            } else {
+                byte[] bytes = new byte[local + 1 + domainLength];
+                System.arraycopy(page, localStart, bytes, 0, local);
+                bytes[local] = '@';
+                System.arraycopy(domain, domainStart, bytes, local + 1, domainLength);
+                email = new String(bytes, StandardCharsets.UTF_8);
+            }
+
+            int firstLength = readVarint(page, offset) - 1;
+            offset += varintSize(firstLength + 1);
+            String firstName = firstLength < 0 ? null : new String(page, offset, firstLength, StandardCharsets.UTF_8);
+            offset += Math.max(0, firstLength);
+            int lastLength = readVarint(page, offset) - 1;
+            offset += varintSize(lastLength + 1);
+            String lastName = lastLength < 0 ? null : new String(page, offset, lastLength, StandardCharsets.UTF_8);
+            return new User(firstName, lastName, email);
+        }
+    }
+
+    /**
+     * Email domains seen so far, up to {@link #MAX_DOMAINS}. An id is visible to readers of a record that uses it,
+     * since the domain is stored before the id is handed out and the record is published after that.
+     */
+    private static final class Domains {
+        private final ConcurrentMap<String, Integer> ids = new ConcurrentHashMap<>();
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile byte[][] bytes = new byte[16][];
+        private int count;
+
+        /**
+         * Id of the domain starting at {@code from}, interning it if there is room, or -1 if the dictionary is full.
+         */
+        private int intern(byte[] email, int from) {
+            String domain = new String(email, from, email.length - from, StandardCharsets.UTF_8);
+            Integer id = ids.get(domain);
+            if (id != null) {
+                return id;
+            }
+            lock.lock();
+            try {
+                id = ids.get(domain);
+                if (id != null) {
+                    return id;
+                }
+                if (count == MAX_DOMAINS) {
+                    return -1;
+                }
+                byte[][] current = bytes;
+                if (count == current.length) {
+                    current = Arrays.copyOf(current, count * 2);
+                }
+                current[count] = Arrays.copyOfRange(email, from, email.length);
+                bytes = current;
+                ids.put(domain, count);
+                return count++;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private byte[] get(int id) {
+            return bytes[id];
+        }
+    }
+
+    private final class UserIterator implements Iterator<User> {
+        private int segment;
+        private int slot;
+        private AtomicLongArray slots = segments[0].table;
+        private long nextEntry;
+
+        @Override
+        public boolean hasNext() {
+            while (nextEntry == 0) {
+                if (slot == slots.length()) {
+                    if (++segment == segments.length) {
+                        return false;
+                    }
+                    slots = segments[segment].table;
+                    slot = 0;
+                    continue;
+                }
+                nextEntry = slots.get(slot++);
+            }
+            return true;
+        }
+
+        @Override
+        public User next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            long address = (nextEntry & ADDRESS_MASK) - 1;
+            nextEntry = 0;
+            return segments[segment].read(address);
+        }
+    }
+
+    /**
+     * Bytes taken by a field of {@code length} bytes, or by a null field if {@code length} is -1.
+     */
+    private static int fieldSize(int length) {
+        return varintSize(length + 1) + Math.max(0, length);
+    }
+
+    private static int writeField(byte[] page, int offset, byte[] source, int from, int length) {
+        offset = writeVarint(page, offset, length + 1);
+        if (length > 0) {
+            System.arraycopy(source, from, page, offset, length);
+            offset += length;
+        }
+        return offset;
+    }
+
+    private static int writeVarint(byte[] page, int offset, int value) {
+        while ((value & ~0x7F) != 0) {
+            page[offset++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        page[offset++] = (byte) value;
+        return offset;
+    }
+
+    private static int readVarint(byte[] page, int offset) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = page[offset++];
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+
+    private static int varintSize(int value) {
+        return value < 1 << 7 ? 1 : value < 1 << 14 ? 2 : value < 1 << 21 ? 3 : 4;
+    }
+}
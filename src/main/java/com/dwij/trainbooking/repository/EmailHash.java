@@ -0,0 +1,23 @@
+package com.dwij.trainbooking.repository;
+
+/**
+ * Hash of a UTF-8 email shared by the packed stores: FNV-1a over the bytes, finished with the murmur3 mixer so both
+ * the top bits (segment) and the low bits (table slot) are well spread.
+ */
+final class EmailHash {
+
+    private EmailHash() {
+    }
+
+    static long of(byte[] email) {
+        long h = 0xCBF29CE484222325L;
+        for (byte b : email) {
+            h = (h ^ (b & 0xFF)) * 0x100000001B3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB93FE1A85EC5L;
+        return h ^ (h >>> 33);
+    }
+}
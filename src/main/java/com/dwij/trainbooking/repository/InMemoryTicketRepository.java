@@ -0,0 +1,142 @@
+package com.dwij.trainbooking.repository;
+
+import com.dwij.trainbooking.models.Departure;
+import com.dwij.trainbooking.models.Seat;
+import com.dwij.trainbooking.models.Section;
+import com.dwij.trainbooking.models.Ticket;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Tickets keyed by email, plus a secondary index from departure and section to tickets in seat order. Both are
+ * updated inside the per-email {@code compute}, so concurrent writes to one ticket cannot leave the index stale.
+ */
+public class InMemoryTicketRepository implements TicketRepository {
+    private final ConcurrentMap<String, Ticket> tickets = new ConcurrentHashMap<>();
+    private final ConcurrentMap<SectionKey, ConcurrentNavigableMap<SeatKey, Ticket>> bySection = new ConcurrentHashMap<>();
+
+    private record SectionKey(Departure departure, Section section) {
+    }
+
+    private record SeatKey(int ordinal, String seatNumber, String email) {
+        private static final Comparator<SeatKey> ORDER = Comparator.comparingInt(SeatKey::ordinal)
+                .thenComparing(SeatKey::seatNumber)
+                .thenComparing(SeatKey::email);
+    }
+
+    @Override
+    public void save(Ticket ticket) {
+        tickets.compute(ticket.getUser().getEmail(), (email, existing) -> replace(existing, ticket));
+    }
+
+    @Override
+    public Ticket findByUserEmail(String email) {
+        return tickets.get(email);
+    }
+
+    @Override
+    public void deleteByUserEmail(String email) {
+        tickets.computeIfPresent(email, (key, existing) -> {
+            unindex(existing, null);
+            return null;
+        });
+    }
+
+    @Override
+    public boolean compareAndSet(Ticket expected, Ticket replacement) {
+        boolean[] replaced = new boolean[1];
+        tickets.computeIfPresent(expected.getUser().getEmail(), (email, existing) -> {
+            if (!isSameVersion(existing, expected)) {
+                return existing;
+            }
+            replaced[0] = true;
+            return replace(existing, replacement);
+        });
+        return replaced[0];
+    }
+
+    @Override
+    public boolean compareAndDelete(Ticket expected) {
+        boolean[] deleted = new boolean[1];
+        tickets.computeIfPresent(expected.getUser().getEmail(), (email, existing) -> {
+            if (!isSameVersion(existing, expected)) {
+                return existing;
+            }
+            deleted[0] = true;
+            unindex(existing, null);
+            return null;
+        });
+        return deleted[0];
+    }
+
+    /**
+     * Live view straight from the index, so a manifest page is walked without copying it.
+     */
+    @Override
+    public Collection<Ticket> findByDepartureAndSection(Departure departure, Section section, Seat afterSeat,
+            String afterEmail) {
+        ConcurrentNavigableMap<SeatKey, Ticket> index = bySection.get(new SectionKey(departure, section));
+        if (index == null) {
+            return List.of();
+        }
+        if (afterSeat == null) {
+            return Collections.unmodifiableCollection(index.values());
+        }
+        return Collections.unmodifiableCollection(index.tailMap(seatKey(afterSeat, afterEmail), false).values());
+    }
+
+    @Override
+    public Collection<Ticket> findAll() {
+        return Collections.unmodifiableCollection(tickets.values());
+    }
+
+    private Ticket replace(Ticket existing, Ticket ticket) {
+        index(ticket).put(seatKey(ticket), ticket);
+        if (existing != null) {
+            unindex(existing, ticket);
+        }
+        return ticket;
+    }
+
+    private static boolean isSameVersion(Ticket existing, Ticket expected) {
+        return Objects.equals(existing.getId(), expected.getId()) && existing.getVersion() == expected.getVersion();
+    }
+
+    private ConcurrentNavigableMap<SeatKey, Ticket> index(Ticket ticket) {
+        return bySection.computeIfAbsent(sectionKey(ticket), key -> new ConcurrentSkipListMap<>(SeatKey.ORDER));
+    }
+
+    private void unindex(Ticket existing, Ticket replacement) {
+        SeatKey key = seatKey(existing);
+        if (replacement != null && sectionKey(existing).equals(sectionKey(replacement))
+                && key.equals(seatKey(replacement))) {
+            return;
+        }
+        ConcurrentNavigableMap<SeatKey, Ticket> index = bySection.get(sectionKey(existing));
+        if (index != null) {
+            index.remove(key);
+        }
+    }
+
+    private static SectionKey sectionKey(Ticket ticket) {
+        return new SectionKey(Departure.of(ticket.getTrainNumber(), ticket.getDepartureDate()),
+                ticket.getSeat().getSection());
+    }
+
+    private static SeatKey seatKey(Ticket ticket) {
+        return seatKey(ticket.getSeat(), ticket.getUser().getEmail());
+    }
+
+    private static SeatKey seatKey(Seat seat, String email) {
+        int ordinal = seat.getOrdinal() > 0 ? seat.getOrdinal() : Integer.MAX_VALUE;
+        return new SeatKey(ordinal, seat.getSeatNumber(), email);
+    }
+}
@@ -0,0 +1,29 @@
+package com.dwij.trainbooking.repository;
+
+import com.dwij.trainbooking.models.User;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the {@link User} objects themselves in a concurrent map.
+ */
+public class InMemoryUserRepository implements UserRepository {
+    private final Map<String, User> users = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean saveIfAbsent(User user) {
+        return users.putIfAbsent(user.getEmail(), user) == null;
+    }
+
+    @Override
+    public User findByEmailOrNull(String email) {
+        return users.get(email);
+    }
+
+    @Override
+    public Collection<User> findAll() {
+        return users.values();
+    }
+}
@@ -0,0 +1,905 @@
+package com.dwij.trainbooking.repository;
+
+import com.dwij.trainbooking.models.Departure;
+import com.dwij.trainbooking.models.Seat;
+import com.dwij.trainbooking.models.Section;
+import com.dwij.trainbooking.models.Ticket;
+import com.dwij.trainbooking.models.User;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Keeps tickets in fixed-width slots of direct memory instead of object graphs, so the heap holds no per-ticket
+ * objects and its old generation stays flat however many tickets are booked. A {@link Ticket} is only
+ * materialized when one is returned, with its user looked up by email in the {@link UserRepository}.
+ * <p>
+ * Tickets are spread over segments by email hash. A segment carves 128-byte slots out of 1 MiB direct buffers
+ * and finds them with an open-addressing table of longs, itself in a direct buffer, each holding the email's
+ * 32-bit hash above the slot number. Freed slots are chained through the slots themselves and reused before the
+ * segment grows. A slot holds the id as a UUID, the email, the train, stations and date, the price, the seat
+ * ordinal and the version; trains and stations are few, so they are kept once in a dictionary and referenced by
+ * id. The rare field that does not fit its fixed width (a non-UUID id, an email over 52 bytes, a seat number that
+ * is not canonical) goes to a per-segment overflow map, counted by {@link #overflowCount()}.
+ * <p>
+ * Each departure and section has a copy-on-write, chunked array of (seat ordinal, email hash, slot) entries in
+ * seat order, so manifests are walked without scanning the store. These stay on the heap, as readers iterate the
+ * chunks they last saw without locking; at 16 bytes per ticket they are the heap the store still needs, reported by
+ * {@link #heapIndexBytes()}, alongside the overflow entries. Tickets on one seat are ordered by email hash
+ * rather than by email. Writes take their segment's write lock, then the section's lock; reads take the segment's
+ * read lock while a slot is copied out, since a freed slot may be reused.
+ */
+public class OffHeapTicketRepository implements TicketRepository {
+    private static final int SEGMENT_BITS = 4;
+    private static final int SLOT_BITS = Integer.SIZE - 1 - SEGMENT_BITS;
+    private static final int SLOT_MASK = (1 << SLOT_BITS) - 1;
+    private static final int SLOT_SIZE = 128;
+    private static final int BUFFER_BITS = 13;
+    private static final int BUFFER_SLOTS = 1 << BUFFER_BITS;
+    private static final int MIN_TABLE = 16;
+    private static final int NO_DATE = Integer.MIN_VALUE;
+    private static final int ARRAY_HEADER = 16;
+
+    // Slot layout. A free slot keeps only the next free slot.
+    private static final int FLAGS = 0;
+    private static final int NEXT_FREE = 4;
+    private static final int EMAIL_HASH = 8;
+    private static final int ID_HIGH = 16;
+    private static final int ID_LOW = 24;
+    private static final int TRAIN = 32;
+    private static final int DATE = 36;
+    private static final int FROM = 40;
+    private static final int TO = 44;
+    private static final int PRICE = 48;
+    private static final int SECTION = 56;
+    private static final int SEAT = 60;
+    private static final int VERSION = 64;
+    private static final int EMAIL_LENGTH = 72;
+    private static final int EMAIL = 76;
+    private static final int INLINE_EMAIL = SLOT_SIZE - EMAIL;
+
+    private static final int USED = 1;
+    private static final int OVERFLOW_ID = 2;
+    private static final int OVERFLOW_EMAIL = 4;
+    private static final int OVERFLOW_SEAT = 8;
+    private static final int OVERFLOW = OVERFLOW_ID | OVERFLOW_EMAIL | OVERFLOW_SEAT;
+
+    private static final Section[] SECTIONS = Section.values();
+
+    private final UserRepository userRepository;
+    private final Segment[] segments = new Segment[1 << SEGMENT_BITS];
+    private final Names names = new Names();
+    private final ConcurrentMap<SectionKey, SeatIndex> bySection = new ConcurrentHashMap<>();
+
+    public OffHeapTicketRepository(UserRepository userRepository) {
+        this(userRepository, 0);
+    }
+
+    /**
+     * @param expectedTickets number of tickets to size the index for up front, avoiding resizes while loading
+     */
+    public OffHeapTicketRepository(UserRepository userRepository, int expectedTickets) {
+        this.userRepository = userRepository;
+        long perSegment = (Math.max(0, expectedTickets) + segments.length - 1) / segments.length;
+        int slots = MIN_TABLE;
+        while (slots * 3L < perSegment * 4L) {
+            slots <<= 1;
+        }
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = new Segment(i, slots);
+        }
+    }
+
+    private record SectionKey(int train, int date, Section section) {
+    }
+
+    private record Overflow(String id, String email, String seatNumber) {
+    }
+
+    @Override
+    public void save(Ticket ticket) {
+        String email = ticket.getUser().getEmail();
+        if (email == null) {
+            throw new IllegalArgumentException("Ticket holder email is required");
+        }
+        byte[] key = email.getBytes(StandardCharsets.UTF_8);
+        long hash = EmailHash.of(key);
+        segment(hash).save(hash, key, email, ticket, null);
+    }
+
+    @Override
+    public Ticket findByUserEmail(String email) {
+        if (email == null) {
+            return null;
+        }
+        byte[] key = email.getBytes(StandardCharsets.UTF_8);
+        long hash = EmailHash.of(key);
+        return segment(hash).find(hash, key, email);
+    }
+
+    @Override
+    public void deleteByUserEmail(String email) {
+        if (email == null) {
+            return;
+        }
+        byte[] key = email.getBytes(StandardCharsets.UTF_8);
+        long hash = EmailHash.of(key);
+        segment(hash).delete(hash, key, email, null);
+    }
+
+    @Override
+    public boolean compareAndSet(Ticket expected, Ticket replacement) {
+        String email = expected.getUser().getEmail();
+        byte[] key = email.getBytes(StandardCharsets.UTF_8);
+        long hash = EmailHash.of(key);
+        return segment(hash).save(hash, key, email, replacement, expected);
+    }
+
+    @Override
+    public boolean compareAndDelete(Ticket expected) {
+        String email = expected.getUser().getEmail();
+        byte[] key = email.getBytes(StandardCharsets.UTF_8);
+        long hash = EmailHash.of(key);
+        return segment(hash).delete(hash, key, email, expected);
+    }
+
+    /**
+     * Snapshot of the section's entries taken when called; each ticket is read when the iterator reaches it, and
+     * tickets moved or cancelled in between are skipped.
+     */
+    @Override
+    public Collection<Ticket> findByDepartureAndSection(Departure departure, Section section, Seat afterSeat,
+            String afterEmail) {
+        int train = names.find(departure.getTrainNumber());
+        if (train < 0) {
+            return List.of();
+        }
+        SectionKey sectionKey = new SectionKey(train, epochDay(departure.getDate()), section);
+        SeatIndex index = bySection.get(sectionKey);
+        if (index == null) {
+            return List.of();
+        }
+        long[][] chunks = index.chunks;
+        int chunk = 0;
+        int offset = 0;
+        if (afterSeat != null) {
+            int ordinal = ordinalKey(afterSeat.getOrdinal());
+            long afterHash = afterEmail == null ? Long.MIN_VALUE
+                    : EmailHash.of(afterEmail.getBytes(StandardCharsets.UTF_8));
+            chunk = SeatIndex.chunkFor(chunks, ordinal, afterHash);
+            if (chunk < chunks.length) {
+                offset = SeatIndex.after(chunks[chunk], ordinal, afterHash);
+            }
+        }
+        int firstChunk = chunk;
+        int firstOffset = offset;
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<Ticket> iterator() {
+                return new SectionIterator(sectionKey, chunks, firstChunk, firstOffset);
+            }
+
+            @Override
+            public int size() {
+                int entries = -firstOffset;
+                for (int c = firstChunk; c < chunks.length; c++) {
+                    entries += chunks[c].length;
+                }
+                return Math.max(0, entries / 2);
+            }
+        };
+    }
+
+    @Override
+    public Collection<Ticket> findAll() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<Ticket> iterator() {
+                return new TicketIterator();
+            }
+
+            @Override
+            public int size() {
+                int size = 0;
+                for (Segment segment : segments) {
+                    size += segment.size;
+                }
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Bytes of direct memory reserved for slots, used or free.
+     */
+    public long reservedBytes() {
+        long bytes = 0;
+        for (Segment segment : segments) {
+            bytes += (long) segment.buffers.length * BUFFER_SLOTS * SLOT_SIZE;
+        }
+        return bytes;
+    }
+
+    /**
+     * Heap bytes held by the per-section seat indexes: their chunk arrays and the arrays of chunks, counting a
+     * 16-byte array header and 4-byte references.
+     */
+    public long heapIndexBytes() {
+        long bytes = 0;
+        for (SeatIndex index : bySection.values()) {
+            long[][] chunks = index.chunks;
+            bytes += ARRAY_HEADER + 4L * chunks.length;
+            for (long[] chunk : chunks) {
+                bytes += ARRAY_HEADER + (long) Long.BYTES * chunk.length;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Tickets with a field too wide for its slot, each kept as an entry in its segment's heap overflow map.
+     */
+    public int overflowCount() {
+        int count = 0;
+        for (Segment segment : segments) {
+            segment.lock.readLock().lock();
+            try {
+                count += segment.overflow.size();
+            } finally {
+                segment.lock.readLock().unlock();
+            }
+        }
+        return count;
+    }
+
+    private Segment segment(long hash) {
+        return segments[(int) (hash >>> (Long.SIZE - SEGMENT_BITS))];
+    }
+
+    private User user(String email) {
+        User user = userRepository.findByEmailOrNull(email);
+        return user != null ? user : User.builder().email(email).build();
+    }
+
+    private static ByteBuffer newTable(int entries) {
+        return ByteBuffer.allocateDirect(entries * Long.BYTES).order(ByteOrder.nativeOrder());
+    }
+
+    private static int entries(ByteBuffer table) {
+        return table.capacity() / Long.BYTES;
+    }
+
+    private static int ordinalKey(int ordinal) {
+        return ordinal > 0 ? ordinal : Integer.MAX_VALUE;
+    }
+
+    private static int epochDay(LocalDate date) {
+        return date == null ? NO_DATE : (int) date.toEpochDay();
+    }
+
+    /**
+     * The UUID when {@code id} is one in canonical form, so it can be stored as two longs and printed back as is.
+     */
+    private static UUID uuidOf(String id) {
+        if (id == null || id.length() != 36) {
+            return null;
+        }
+        try {
+            UUID uuid = UUID.fromString(id);
+            return uuid.toString().equals(id) ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private final class Segment {
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final int number;
+        private final Map<Integer, Overflow> overflow = new HashMap<>();
+        private volatile ByteBuffer[] buffers = new ByteBuffer[0];
+        private ByteBuffer table;
+        private int allocated;
+        private int freeHead = -1;
+        private volatile int size;
+
+        private Segment(int number, int tableSize) {
+            this.number = number;
+            this.table = newTable(tableSize);
+        }
+
+        private Ticket find(long hash, byte[] key, String email) {
+            lock.readLock().lock();
+            try {
+                int position = position(hash, key, email);
+                return position < 0 ? null : read(slotAt(position));
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        /**
+         * Stores the ticket, or with {@code expected} set, replaces it only if the stored ticket is still that one.
+         */
+        private boolean save(long hash, byte[] key, String email, Ticket ticket, Ticket expected) {
+            lock.writeLock().lock();
+            try {
+                int position = position(hash, key, email);
+                if (expected != null && (position < 0 || !isSameVersion(slotAt(position), expected))) {
+                    return false;
+                }
+                int slot;
+                SectionKey previous = null;
+                int previousOrdinal = 0;
+                if (position >= 0) {
+                    slot = slotAt(position);
+                    previous = sectionKey(slot);
+                    previousOrdinal = ordinalKey(buffer(slot).getInt(offset(slot) + SEAT));
+                } else {
+                    if ((size + 1) * 4L > entries(table) * 3L) {
+                        resize();
+                    }
+                    slot = allocate();
+                    place(table, ((long) (int) hash << 32) | (slot + 1));
+                    size++;
+                }
+                write(slot, hash, key, email, ticket);
+                SectionKey current = sectionKey(slot);
+                int currentOrdinal = ordinalKey(ticket.getSeat().getOrdinal());
+                if (current.equals(previous) && currentOrdinal == previousOrdinal) {
+                    return true;
+                }
+                int reference = number << SLOT_BITS | slot;
+                if (previous != null) {
+                    SeatIndex index = bySection.get(previous);
+                    if (index != null) {
+                        index.remove(previousOrdinal, reference, hash);
+                    }
+                }
+                bySection.computeIfAbsent(current, k -> new SeatIndex()).add(currentOrdinal, reference, hash);
+                return true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private boolean delete(long hash, byte[] key, String email, Ticket expected) {
+            lock.writeLock().lock();
+            try {
+                int position = position(hash, key, email);
+                if (position < 0) {
+                    return false;
+                }
+                int slot = slotAt(position);
+                if (expected != null && !isSameVersion(slot, expected)) {
+                    return false;
+                }
+                SeatIndex index = bySection.get(sectionKey(slot));
+                if (index != null) {
+                    index.remove(ordinalKey(buffer(slot).getInt(offset(slot) + SEAT)), number << SLOT_BITS | slot,
+                            hash);
+                }
+                removeAt(position);
+                free(slot);
+                size--;
+                return true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        /**
+         * The ticket in {@code slot} if it is still the one the section index entry was made for, otherwise null.
+         */
+        private Ticket readIndexed(int slot, SectionKey sectionKey, int ordinal, long hash) {
+            lock.readLock().lock();
+            try {
+                if (slot >= allocated) {
+                    return null;
+                }
+                ByteBuffer buffer = buffer(slot);
+                int at = offset(slot);
+                if ((buffer.getInt(at + FLAGS) & USED) == 0 || buffer.getLong(at + EMAIL_HASH) != hash
+                        || ordinalKey(buffer.getInt(at + SEAT)) != ordinal || !sectionKey.equals(sectionKey(slot))) {
+                    return null;
+                }
+                return read(slot);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private Ticket readIfUsed(int slot) {
+            lock.readLock().lock();
+            try {
+                if (slot >= allocated || (buffer(slot).getInt(offset(slot) + FLAGS) & USED) == 0) {
+                    return null;
+                }
+                return read(slot);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private int allocatedSlots() {
+            lock.readLock().lock();
+            try {
+                return allocated;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        /**
+         * Table position of the email's entry, or -1 if the email has no ticket.
+         */
+        private int position(long hash, byte[] key, String email) {
+            ByteBuffer slots = table;
+            int mask = entries(slots) - 1;
+            int tag = (int) hash;
+            for (int i = tag & mask; ; i = (i + 1) & mask) {
+                long entry = slots.getLong(i * Long.BYTES);
+                if (entry == 0) {
+                    return -1;
+                }
+                if ((int) (entry >>> 32) == tag && emailEquals((int) entry - 1, hash, key, email)) {
+                    return i;
+                }
+            }
+        }
+
+        private boolean isSameVersion(int slot, Ticket expected) {
+            ByteBuffer buffer = buffer(slot);
+            int at = offset(slot);
+            if (buffer.getLong(at + VERSION) != expected.getVersion()) {
+                return false;
+            }
+            if ((buffer.getInt(at + FLAGS) & OVERFLOW_ID) != 0) {
+                return Objects.equals(overflow.get(slot).id(), expected.getId());
+            }
+            UUID id = uuidOf(expected.getId());
+            return id != null && buffer.getLong(at + ID_HIGH) == id.getMostSignificantBits()
+                    && buffer.getLong(at + ID_LOW) == id.getLeastSignificantBits();
+        }
+
+        private boolean emailEquals(int slot, long hash, byte[] key, String email) {
+            ByteBuffer buffer = buffer(slot);
+            int at = offset(slot);
+            if (buffer.getLong(at + EMAIL_HASH) != hash || buffer.getInt(at + EMAIL_LENGTH) != key.length) {
+                return false;
+            }
+            if ((buffer.getInt(at + FLAGS) & OVERFLOW_EMAIL) != 0) {
+                return email.equals(overflow.get(slot).email());
+            }
+            for (int i = 0; i < key.length; i++) {
+                if (buffer.get(at + EMAIL + i) != key[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void write(int slot, long hash, byte[] key, String email, Ticket ticket) {
+            ByteBuffer buffer = buffer(slot);
+            int at = offset(slot);
+            int flags = USED;
+
+            UUID id = uuidOf(ticket.getId());
+            if (id != null) {
+                buffer.putLong(at + ID_HIGH, id.getMostSignificantBits());
+                buffer.putLong(at + ID_LOW, id.getLeastSignificantBits());
+            } else {
+                flags |= OVERFLOW_ID;
+            }
+            buffer.putLong(at + EMAIL_HASH, hash);
+            buffer.putInt(at + EMAIL_LENGTH, key.length);
+            if (key.length <= INLINE_EMAIL) {
+                buffer.put(at + EMAIL, key);
+            } else {
+                flags |= OVERFLOW_EMAIL;
+            }
+            buffer.putInt(at + TRAIN, names.intern(ticket.getTrainNumber()));
+            buffer.putInt(at + DATE, epochDay(ticket.getDepartureDate()));
+            buffer.putInt(at + FROM, names.intern(ticket.getFrom()));
+            buffer.putInt(at + TO, names.intern(ticket.getTo()));
+            buffer.putDouble(at + PRICE, ticket.getPricePaid());
+            buffer.putLong(at + VERSION, ticket.getVersion());
+
+            Seat seat = ticket.getSeat();
+            Section section = seat.getSection();
+            buffer.putInt(at + SECTION, section == null ? 0 : section.ordinal() + 1);
+            buffer.putInt(at + SEAT, seat.getOrdinal());
+            if (section == null || seat.getOrdinal() < 1
+                    || !Seat.of(section, seat.getOrdinal()).getSeatNumber().equals(seat.getSeatNumber())) {
+                flags |= OVERFLOW_SEAT;
+            }
+            buffer.putInt(at + FLAGS, flags);
+            if ((flags & OVERFLOW) != 0) {
+                overflow.put(slot, new Overflow(ticket.getId(), email, seat.getSeatNumber()));
+            } else {
+                overflow.remove(slot);
+            }
+        }
+
+        private Ticket read(int slot) {
+            ByteBuffer buffer = buffer(slot);
+            int at = offset(slot);
+            int flags = buffer.getInt(at + FLAGS);
+            Overflow spilled = (flags & OVERFLOW) != 0 ? overflow.get(slot) : null;
+
+            String email;
+            if ((flags & OVERFLOW_EMAIL) != 0) {
+                email = spilled.email();
+            } else {
+                byte[] bytes = new byte[buffer.getInt(at + EMAIL_LENGTH)];
+                buffer.get(at + EMAIL, bytes);
+                email = new String(bytes, StandardCharsets.UTF_8);
+            }
+            String id = (flags & OVERFLOW_ID) != 0 ? spilled.id()
+                    : new UUID(buffer.getLong(at + ID_HIGH), buffer.getLong(at + ID_LOW)).toString();
+            int sectionCode = buffer.getInt(at + SECTION);
+            Section section = sectionCode == 0 ? null : SECTIONS[sectionCode - 1];
+            Seat seat = (flags & OVERFLOW_SEAT) != 0 ? new Seat(spilled.seatNumber(), section)
+                    : Seat.of(section, buffer.getInt(at + SEAT));
+            int date = buffer.getInt(at + DATE);
+
+            return Ticket.builder()
+                    .id(id)
+                    .user(user(email))
+                    .trainNumber(names.get(buffer.getInt(at + TRAIN)))
+                    .departureDate(date == NO_DATE ? null : LocalDate.ofEpochDay(date))
+                    .from(names.get(buffer.getInt(at + FROM)))
+                    .to(names.get(buffer.getInt(at + TO)))
+                    .pricePaid(buffer.getDouble(at + PRICE))
+                    .seat(seat)
+                    .version(buffer.getLong(at + VERSION))
+                    .build();
+        }
+
+        private SectionKey sectionKey(int slot) {
+            ByteBuffer buffer = buffer(slot);
+            int at = offset(slot);
+            int sectionCode = buffer.getInt(at + SECTION);
+            return new SectionKey(buffer.getInt(at + TRAIN), buffer.getInt(at + DATE),
+                    sectionCode == 0 ? null : SECTIONS[sectionCode - 1]);
+        }
+
+        private int allocate() {
+            if (freeHead >= 0) {
+                int slot = freeHead;
+                freeHead = buffer(slot).getInt(offset(slot) + NEXT_FREE);
+                return slot;
+            }
+            if (allocated > SLOT_MASK) {
+                throw new IllegalStateException("Ticket segment is full");
+            }
+            int slot = allocated;
+            int index = slot >>> BUFFER_BITS;
+            if (index == buffers.length) {
+                ByteBuffer[] grown = Arrays.copyOf(buffers, index + 1);
+                grown[index] = ByteBuffer.allocateDirect(BUFFER_SLOTS * SLOT_SIZE).order(ByteOrder.nativeOrder());
+                buffers = grown;
+            }
+            allocated++;
+            return slot;
+        }
+
+        private void free(int slot) {
+            ByteBuffer buffer = buffer(slot);
+            int at = offset(slot);
+            buffer.putInt(at + FLAGS, 0);
+            buffer.putInt(at + NEXT_FREE, freeHead);
+            freeHead = slot;
+            overflow.remove(slot);
+        }
+
+        private void resize() {
+            ByteBuffer old = table;
+            ByteBuffer bigger = newTable(entries(old) * 2);
+            for (int i = 0; i < entries(old); i++) {
+                long entry = old.getLong(i * Long.BYTES);
+                if (entry != 0) {
+                    place(bigger, entry);
+                }
+            }
+            table = bigger;
+        }
+
+        private int slotAt(int position) {
+            return (int) table.getLong(position * Long.BYTES) - 1;
+        }
+
+        private static void place(ByteBuffer slots, long entry) {
+            int mask = entries(slots) - 1;
+            int i = (int) (entry >>> 32) & mask;
+            while (slots.getLong(i * Long.BYTES) != 0) {
+                i = (i + 1) & mask;
+            }
+            slots.putLong(i * Long.BYTES, entry);
+        }
+
+        /**
+         * Empties a table position, shifting later entries of the probe run back so no lookup stops early.
+         */
+        private void removeAt(int hole) {
+            ByteBuffer slots = table;
+            int mask = entries(slots) - 1;
+            long entry;
+            for (int i = (hole + 1) & mask; (entry = slots.getLong(i * Long.BYTES)) != 0; i = (i + 1) & mask) {
+                int home = (int) (entry >>> 32) & mask;
+                if (((i - home) & mask) >= ((i - hole) & mask)) {
+                    slots.putLong(hole * Long.BYTES, entry);
+                    hole = i;
+                }
+            }
+            slots.putLong(hole * Long.BYTES, 0);
+        }
+
+        private ByteBuffer buffer(int slot) {
+            return buffers[slot >>> BUFFER_BITS];
+        }
+
+        private static int offset(int slot) {
+            return (slot & (BUFFER_SLOTS - 1)) * SLOT_SIZE;
+        }
+    }
+
+    /**
+     * One section's tickets as (seat ordinal << 32 | slot reference, email hash) pairs, sorted by ordinal then email
+     * hash and split into chunks of at most {@link #CHUNK_ENTRIES}. A write copies only the chunk it changes and the
+     * array of chunks, so a large section is not copied whole; readers iterate whichever chunks they last saw.
+     */
+    private static final class SeatIndex {
+        private static final int CHUNK_ENTRIES = 256;
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile long[][] chunks = new long[0][];
+
+        private void add(int ordinal, int reference, long hash) {
+            lock.lock();
+            try {
+                long[][] current = chunks;
+                if (current.length == 0) {
+                    chunks = new long[][] {{(long) ordinal << 32 | reference, hash}};
+                    return;
+                }
+                int c = Math.min(chunkFor(current, ordinal, hash), current.length - 1);
+                long[] chunk = current[c];
+                int at = after(chunk, ordinal, hash);
+                long[] grown = new long[chunk.length + 2];
+                System.arraycopy(chunk, 0, grown, 0, at);
+                grown[at] = (long) ordinal << 32 | reference;
+                grown[at + 1] = hash;
+                System.arraycopy(chunk, at, grown, at + 2, chunk.length - at);
+                if (grown.length <= 2 * CHUNK_ENTRIES) {
+                    long[][] updated = current.clone();
+                    updated[c] = grown;
+                    chunks = updated;
+                    return;
+                }
+                int half = grown.length / 4 * 2;
+                long[][] split = new long[current.length + 1][];
+                System.arraycopy(current, 0, split, 0, c);
+                split[c] = Arrays.copyOfRange(grown, 0, half);
+                split[c + 1] = Arrays.copyOfRange(grown, half, grown.length);
+                System.arraycopy(current, c + 1, split, c + 2, current.length - c - 1);
+                chunks = split;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void remove(int ordinal, int reference, long hash) {
+            lock.lock();
+            try {
+                long[][] current = chunks;
+                int c = chunkFor(current, ordinal, hash);
+                if (c == current.length) {
+                    return;
+                }
+                long[] chunk = current[c];
+                int at = after(chunk, ordinal, hash) - 2;
+                if (at < 0 || chunk[at] != ((long) ordinal << 32 | reference) || chunk[at + 1] != hash) {
+                    return;
+                }
+                if (chunk.length == 2) {
+                    long[][] shrunk = new long[current.length - 1][];
+                    System.arraycopy(current, 0, shrunk, 0, c);
+                    System.arraycopy(current, c + 1, shrunk, c, current.length - c - 1);
+                    chunks = shrunk;
+                    return;
+                }
+                long[] smaller = new long[chunk.length - 2];
+                System.arraycopy(chunk, 0, smaller, 0, at);
+                System.arraycopy(chunk, at + 2, smaller, at, chunk.length - at - 2);
+                long[][] updated = current.clone();
+                updated[c] = smaller;
+                chunks = updated;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Index of the first chunk whose last entry is not ordered before the given one, or the number of chunks.
+         */
+        private static int chunkFor(long[][] chunks, int ordinal, long hash) {
+            int low = 0;
+            int high = chunks.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                long[] chunk = chunks[mid];
+                if (compare(chunk, chunk.length - 2, ordinal, hash) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Offset within the chunk of the first entry ordered after the given ordinal and email hash.
+         */
+        private static int after(long[] chunk, int ordinal, long hash) {
+            int low = 0;
+            int high = chunk.length / 2;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (compare(chunk, 2 * mid, ordinal, hash) <= 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low * 2;
+        }
+
+        private static int compare(long[] chunk, int at, int ordinal, long hash) {
+            int compared = Integer.compare((int) (chunk[at] >>> 32), ordinal);
+            return compared != 0 ? compared : Long.compare(chunk[at + 1], hash);
+        }
+    }
+
+    /**
+     * Train numbers and station names, referenced from slots by id. Id 0 stands for null.
+     */
+    private static final class Names {
+        private final ConcurrentMap<String, Integer> ids = new ConcurrentHashMap<>();
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile String[] values = new String[16];
+        private int count = 1;
+
+        private int intern(String name) {
+            if (name == null) {
+                return 0;
+            }
+            Integer id = ids.get(name);
+            if (id != null) {
+                return id;
+            }
+            lock.lock();
+            try {
+                id = ids.get(name);
+                if (id != null) {
+                    return id;
+                }
+                String[] current = values;
+                if (count == current.length) {
+                    current = Arrays.copyOf(current, count * 2);
+                }
+                current[count] = name;
+                values = current;
+                ids.put(name, count);
+                return count++;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Id of the name, 0 for null, or -1 if it was never interned.
+         */
+        private int find(String name) {
+            if (name == null) {
+                return 0;
+            }
+            Integer id = ids.get(name);
+            return id == null ? -1 : id;
+        }
+
+        private String get(int id) {
+            return values[id];
+        }
+    }
+
+    private final class SectionIterator implements Iterator<Ticket> {
+        private final SectionKey sectionKey;
+        private final long[][] chunks;
+        private int chunk;
+        private int next;
+        private Ticket ticket;
+
+        private SectionIterator(SectionKey sectionKey, long[][] chunks, int chunk, int next) {
+            this.sectionKey = sectionKey;
+            this.chunks = chunks;
+            this.chunk = chunk;
+            this.next = next;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (ticket == null && chunk < chunks.length) {
+                long[] entries = chunks[chunk];
+                if (next == entries.length) {
+                    chunk++;
+                    next = 0;
+                    continue;
+                }
+                int reference = (int) entries[next];
+                ticket = segments[reference >>> SLOT_BITS].readIndexed(reference & SLOT_MASK, sectionKey,
+                        (int) (entries[next] >>> 32), entries[next + 1]);
+                next += 2;
+            }
+            return ticket != null;
+        }
+
+        @Override
+        public Ticket next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Ticket current = ticket;
+            ticket = null;
+            return current;
+        }
+    }
+
+    private final class TicketIterator implements Iterator<Ticket> {
+        private int segment;
+        private int slot;
+        private int limit = segments[0].allocatedSlots();
+        private Ticket ticket;
+
+        @Override
+        public boolean hasNext() {
+            while (ticket == null && segment < segments.length) {
+                if (slot == limit) {
+                    if (++segment == segments.length) {
+                        return false;
+                    }
+                    limit = segments[segment].allocatedSlots();
+                    slot = 0;
+                    continue;
+                }
+                ticket = segments[segment].readIfUsed(slot++);
+            }
+            return ticket != null;
+        }
+
+        @Override
+        public Ticket next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Ticket current = ticket;
+            ticket = null;
+            return current;
+        }
+    }
+}
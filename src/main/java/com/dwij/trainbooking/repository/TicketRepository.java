@@ -1,28 +1,63 @@
 package com.dwij.trainbooking.repository;
 
+import com.dwij.trainbooking.models.Departure;
+import com.dwij.trainbooking.models.Seat;
+import com.dwij.trainbooking.models.Section;
 import com.dwij.trainbooking.models.Ticket;
-import org.springframework.stereotype.Repository;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Collection;
 
-@Repository
-public class TicketRepository {
-    private final Map<String, Ticket> tickets = new HashMap<>();
+/**
+ * Tickets keyed by the holder's email, with a seat-ordered index per departure and section for manifests. The
+ * backend is chosen with {@code booking.tickets.store}.
+ */
+public interface TicketRepository {
 
-    public void save(Ticket ticket) {
-        tickets.put(ticket.getUser().getEmail(), ticket);
-    }
+    /**
+     * Stores the ticket, replacing any ticket held by the same email.
+     */
+    void save(Ticket ticket);
 
-    public Ticket findByUserEmail(String email) {
-        return tickets.get(email);
+    default void saveAll(Collection<Ticket> batch) {
+        for (Ticket ticket : batch) {
+            save(ticket);
+        }
     }
 
-    public void deleteByUserEmail(String email) {
-        tickets.remove(email);
-    }
+    /**
+     * The ticket held by this email, or null if there is none.
+     */
+    Ticket findByUserEmail(String email);
+
+    void deleteByUserEmail(String email);
+
+    /**
+     * Replaces {@code expected} with {@code replacement} only if the holder's stored ticket is still
+     * {@code expected}: the same id at the same version. Returns whether it was replaced.
+     */
+    boolean compareAndSet(Ticket expected, Ticket replacement);
 
-    public Map<String, Ticket> findAll() {
-        return tickets;
+    /**
+     * Deletes the holder's ticket only if it is still {@code expected}, returning whether it was deleted.
+     */
+    boolean compareAndDelete(Ticket expected);
+
+    /**
+     * Tickets of one departure and section in seat order.
+     */
+    default Collection<Ticket> findByDepartureAndSection(Departure departure, Section section) {
+        return findByDepartureAndSection(departure, section, null, null);
     }
+
+    /**
+     * Seat-ordered tickets after the given seat and email, for walking a manifest page by page. A null
+     * {@code afterSeat} starts from the first seat.
+     */
+    Collection<Ticket> findByDepartureAndSection(Departure departure, Section section, Seat afterSeat,
+            String afterEmail);
+
+    /**
+     * Every ticket, in no particular order. The collection is a view and may be materialized while it is iterated.
+     */
+    Collection<Ticket> findAll();
 }
@@ -3,31 +3,40 @@ package com.dwij.trainbooking.repository;
 import com.dwij.trainbooking.exception.UserAlreadyExistsException;
 import com.dwij.trainbooking.exception.UserNotFoundException;
 import com.dwij.trainbooking.models.User;
-import org.springframework.stereotype.Repository;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Collection;
 
-@Repository
-public class UserRepository {
-    private final Map<String, User> users = new HashMap<>();
+/**
+ * Registered users keyed by email. The backend is chosen with {@code booking.users.store}.
+ */
+public interface UserRepository {
 
-    public void save(User user) {
-        if (users.containsKey(user.getEmail())) {
+    /**
+     * Stores the user unless one with the same email exists, returning whether it was stored.
+     */
+    boolean saveIfAbsent(User user);
+
+    /**
+     * The user with this email, or null if there is none.
+     */
+    User findByEmailOrNull(String email);
+
+    /**
+     * Every user, in no particular order. The collection is a view and may be materialized while it is iterated.
+     */
+    Collection<User> findAll();
+
+    default void save(User user) {
+        if (!saveIfAbsent(user)) {
             throw new UserAlreadyExistsException("A user with this email already exists: " + user.getEmail());
         }
-        users.put(user.getEmail(), user);
     }
 
-    public User findByEmail(String email) {
-        User user = users.get(email);
+    default User findByEmail(String email) {
+        User user = findByEmailOrNull(email);
         if (user == null) {
             throw new UserNotFoundException("User with email " + email + " does not exist.");
         }
         return user;
     }
-
-    public Map<String, User> findAll() {
-        return users;
-    }
-}
\ No newline at end of file
+}
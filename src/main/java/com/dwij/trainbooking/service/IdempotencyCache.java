@@ -0,0 +1,163 @@
+package com.dwij.trainbooking.service;
+
+import com.dwij.trainbooking.exception.IdempotencyKeyReuseException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the outcome of client operations by Idempotency-Key so retries replay the original result instead of
+ * booking again. Concurrent requests with the same key wait on the first one's execution rather than running their
+ * own. Only successful results are kept: a failed operation changed nothing, so its key is freed for the retry.
+ * <p>
+ * Every entry lives for the same time-to-live, so insertion order is also expiry order and a single FIFO queue is
+ * enough to both expire entries and cap the cache at {@code maxEntries}, evicting the oldest first. Entries that
+ * fail or are replaced after expiring are only marked dead and dropped once they reach the head, so no path has to
+ * search the queue.
+ */
+public final class IdempotencyCache {
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final Clock clock;
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Queue<Entry> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final LongAdder replays = new LongAdder();
+
+    public IdempotencyCache(int maxEntries, Duration ttl, Clock clock) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Max entries must be positive: " + maxEntries);
+        }
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttl.toMillis();
+        this.clock = clock;
+    }
+
+    /**
+     * Runs {@code operation} once per key. A repeated key replays the stored result, or waits for it while the
+     * first execution is still running. {@code fingerprint} identifies the request the key was first used for;
+     * reusing the key for a different request is rejected. A null key runs the operation without deduplication.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, String fingerprint, Supplier<T> operation) {
+        if (key == null) {
+            return operation.get();
+        }
+        long now = clock.millis();
+        Entry fresh = new Entry(key, fingerprint, now + ttlMillis);
+        Entry[] expired = new Entry[1];
+        Entry entry = entries.compute(key, (k, current) -> {
+            if (current == null || current.isExpired(now)) {
+                expired[0] = current;
+                return fresh;
+            }
+            return current;
+        });
+        if (expired[0] != null) {
+            retire(expired[0]);
+        }
+        if (entry != fresh) {
+            if (!entry.fingerprint.equals(fingerprint)) {
+                throw new IdempotencyKeyReuseException("Idempotency key " + key + " was used for a different request");
+            }
+            replays.increment();
+            return (T) await(entry.result);
+        }
+        insertionOrder.add(fresh);
+        queued.incrementAndGet();
+        evict(now);
+        try {
+            T value = operation.get();
+            fresh.result.complete(value);
+            return value;
+        } catch (RuntimeException | Error ex) {
+            entries.remove(key, fresh);
+            retire(fresh);
+            fresh.result.completeExceptionally(ex);
+            throw ex;
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Requests answered from the cache or by joining an in-flight execution instead of running again.
+     */
+    public long getReplayCount() {
+        return replays.sum();
+    }
+
+    private void evict(long now) {
+        Entry oldest;
+        while ((oldest = insertionOrder.peek()) != null) {
+            if (!oldest.isDead() && !oldest.isExpired(now) && queued.get() <= maxEntries) {
+                return;
+            }
+            if (retire(oldest)) {
+                entries.remove(oldest.key, oldest);
+            }
+            // The entry is at the head, so this unlinks it without walking the queue.
+            insertionOrder.remove(oldest);
+        }
+    }
+
+    /**
+     * Marks an entry dead exactly once, so {@code queued} only counts entries that are still cached. The entry stays
+     * in the queue until {@link #evict} reaches it.
+     */
+    private boolean retire(Entry entry) {
+        if (entry.dead.compareAndSet(false, true)) {
+            queued.decrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    private static Object await(CompletableFuture<Object> result) {
+        try {
+            return result.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (ex.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    private static final class Entry {
+        private final String key;
+        private final String fingerprint;
+        private final long expiresAt;
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+        private final AtomicBoolean dead = new AtomicBoolean();
+
+        private Entry(String key, String fingerprint, long expiresAt) {
+            this.key = key;
+            this.fingerprint = fingerprint;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+
+        private boolean isDead() {
+            return dead.get();
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.dwij.trainbooking.service;
+
+import com.dwij.trainbooking.models.Departure;
+import com.dwij.trainbooking.models.Seat;
+import com.dwij.trainbooking.models.Section;
+
+/**
+ * The Idempotency-Key header and the request fingerprints stored with each key, so a key first sent with one
+ * request cannot be replayed for another.
+ */
+public final class IdempotencyKeys {
+    public static final String HEADER = "Idempotency-Key";
+
+    private IdempotencyKeys() {
+    }
+
+    public static String purchase(Departure departure, String email, Section section, String from, String to) {
+        return "purchase|" + departure + "|" + email + "|" + section + "|" + from + "|" + to;
+    }
+
+    public static String modifySeat(String email, Seat requestedSeat) {
+        return "modify-seat|" + email + "|" + requestedSeat.getSection() + "|" + requestedSeat.getSeatNumber();
+    }
+
+    public static String swapSeats(String firstEmail, String secondEmail) {
+        return "swap-seats|" + firstEmail + "|" + secondEmail;
+    }
+}
@@ -1,15 +1,93 @@
 package com.dwij.trainbooking.service;
 
+import com.dwij.trainbooking.models.Departure;
+import com.dwij.trainbooking.models.Journey;
 import com.dwij.trainbooking.models.Seat;
 import com.dwij.trainbooking.models.Section;
 
 import java.util.List;
 
+/**
+ * Seat inventory operations. A {@code null} journey means the whole route, and the overloads without a
+ * departure act on today's departure of the default train.
+ */
 public interface SeatAllocationStrategy {
-    Seat allocateSeat(Section section);
-    Seat reallocateSeat(Seat currentSeat, Seat newSeat);
-    void releaseSeat(Seat seat);
-    List<Seat> getAvailableSeats(Section section);
-}
+    Departure defaultDeparture();
+
+    Seat allocateSeat(Departure departure, Section section, Journey journey);
+
+    /**
+     * Allocates one seat per requested section in a single pass over the inventory, returning the seats in request
+     * order. Either every seat is allocated or none is.
+     *
+     * @throws com.dwij.trainbooking.exception.SeatUnavailableException if any section runs out of seats
+     */
+    List<Seat> allocateSeats(Departure departure, List<Section> sections, Journey journey);
+
+    /**
+     * Allocates {@code size} seats with consecutive numbers in one section, or the most tightly packed free seats
+     * when no such block is left. Seats are returned in seat order.
+     *
+     * @throws com.dwij.trainbooking.exception.SeatUnavailableException if the section has fewer free seats
+     */
+    List<Seat> allocateBlock(Departure departure, Section section, int size, Journey journey);
+
+    Seat reallocateSeat(Departure departure, Seat currentSeat, Seat newSeat, Journey journey);
+
+    /**
+     * Takes a specific seat for the journey, returning the canonical seat instance.
+     *
+     * @throws com.dwij.trainbooking.exception.SeatUnavailableException if the seat is taken or does not exist
+     */
+    Seat claimSeat(Departure departure, Seat seat, Journey journey);
+
+    void releaseSeat(Departure departure, Seat seat, Journey journey);
+
+    List<Seat> getAvailableSeats(Departure departure, Section section, Journey journey);
+
+    /**
+     * Counter that moves forward whenever seat availability in the section may have changed, for any journey. While
+     * it stays the same, {@link #getAvailableSeats} returns the same seats. Versions are not reused after a restart.
+     */
+    long getAvailabilityVersion(Departure departure, Section section);
 
+    default Seat allocateSeat(Section section) {
+        return allocateSeat(defaultDeparture(), section, null);
+    }
 
+    default Seat allocateSeat(Section section, Journey journey) {
+        return allocateSeat(defaultDeparture(), section, journey);
+    }
+
+    default List<Seat> allocateBlock(Section section, int size) {
+        return allocateBlock(defaultDeparture(), section, size, null);
+    }
+
+    default Seat reallocateSeat(Seat currentSeat, Seat newSeat) {
+        return reallocateSeat(defaultDeparture(), currentSeat, newSeat, null);
+    }
+
+    default Seat reallocateSeat(Seat currentSeat, Seat newSeat, Journey journey) {
+        return reallocateSeat(defaultDeparture(), currentSeat, newSeat, journey);
+    }
+
+    default void releaseSeat(Seat seat) {
+        releaseSeat(defaultDeparture(), seat, null);
+    }
+
+    default void releaseSeat(Seat seat, Journey journey) {
+        releaseSeat(defaultDeparture(), seat, journey);
+    }
+
+    default List<Seat> getAvailableSeats(Section section) {
+        return getAvailableSeats(defaultDeparture(), section, null);
+    }
+
+    default List<Seat> getAvailableSeats(Section section, Journey journey) {
+        return getAvailableSeats(defaultDeparture(), section, journey);
+    }
+
+    default long getAvailabilityVersion(Section section) {
+        return getAvailabilityVersion(defaultDeparture(), section);
+    }
+}
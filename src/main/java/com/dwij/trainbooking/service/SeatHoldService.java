@@ -0,0 +1,26 @@
+package com.dwij.trainbooking.service;
+
+import com.dwij.trainbooking.models.Departure;
+import com.dwij.trainbooking.models.SeatHold;
+import com.dwij.trainbooking.models.Section;
+import com.dwij.trainbooking.models.Ticket;
+
+/**
+ * Two-step checkout: a seat is held for a limited time while the customer pays, then confirmed into a ticket or
+ * released. Holds that are neither confirmed nor released return their seat to the inventory when they expire.
+ */
+public interface SeatHoldService {
+
+    SeatHold placeHold(String email, Section section, String from, String to);
+
+    SeatHold placeHold(Departure departure, String email, Section section, String from, String to);
+
+    SeatHold getHold(String holdId);
+
+    /**
+     * @throws com.dwij.trainbooking.exception.HoldNotFoundException if the hold expired or was already settled
+     */
+    Ticket confirmHold(String holdId);
+
+    void releaseHold(String holdId);
+}
@@ -1,14 +1,23 @@
 package com.dwij.trainbooking.service;
 
-import com.dwij.trainbooking.models.Seat;
-import com.dwij.trainbooking.models.Section;
-import com.dwij.trainbooking.models.Ticket;
+import com.dwij.trainbooking.models.*;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface TicketService {
 
-    Ticket purchaseTicket(String email, Section section);
+    default Ticket purchaseTicket(String email, Section section) {
+        return purchaseTicket(email, section, null, null);
+    }
+
+    Ticket purchaseTicket(String email, Section section, String from, String to);
+
+    Ticket purchaseTicket(Departure departure, String email, Section section, String from, String to);
+
+    BatchPurchaseResult purchaseTickets(List<BatchPurchaseEntry> entries, String from, String to);
+
+    BatchPurchaseResult purchaseTickets(Departure departure, List<BatchPurchaseEntry> entries, String from, String to);
 
     Ticket getTicket(String email);
 
@@ -16,6 +25,37 @@ public interface TicketService {
 
     Ticket modifySeat(String email, Seat requestedSeat);
 
+    /**
+     * Exchanges the seats of two tickets on the same departure: either both tickets move or neither does. Returns
+     * the two updated tickets in argument order.
+     */
+    List<Ticket> swapSeats(String firstEmail, String secondEmail);
+
     List<String> getUsersAndSeatsBySection(Section section);
-    
+
+    List<String> getUsersAndSeatsBySection(Departure departure, Section section);
+
+    ManifestPage getManifestPage(Section section, String cursor, int limit);
+
+    ManifestPage getManifestPage(Departure departure, Section section, String cursor, int limit);
+
+    /**
+     * Lazily walks the seat-ordered manifest; entries are produced as the stream is consumed.
+     */
+    Stream<ManifestEntry> streamManifest(Section section);
+
+    Stream<ManifestEntry> streamManifest(Departure departure, Section section);
+
+    /**
+     * Queues the customer for a seat in a full section. Seats that are cancelled, vacated or released from a hold
+     * go to the longest-waiting customer whose journey they cover, who is issued a ticket automatically.
+     */
+    WaitlistEntry joinWaitlist(String email, Section section, String from, String to);
+
+    WaitlistEntry joinWaitlist(Departure departure, String email, Section section, String from, String to);
+
+    WaitlistEntry getWaitlistEntry(String email);
+
+    void leaveWaitlist(String email);
+
 }
\ No newline at end of file
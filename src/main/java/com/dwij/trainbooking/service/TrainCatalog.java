@@ -0,0 +1,53 @@
+package com.dwij.trainbooking.service;
+
+import com.dwij.trainbooking.exception.DepartureNotFoundException;
+import com.dwij.trainbooking.models.Route;
+import com.dwij.trainbooking.models.Section;
+import com.dwij.trainbooking.models.Train;
+
+import java.util.*;
+
+/**
+ * The trains the system sells seats on, plus the one that backs the legacy single-train endpoints.
+ */
+public class TrainCatalog {
+    public static final String DEFAULT_TRAIN_NUMBER = "LF100";
+
+    private final Map<String, Train> trains;
+    private final String defaultTrainNumber;
+
+    public TrainCatalog(Collection<Train> trains, String defaultTrainNumber) {
+        Map<String, Train> byNumber = new LinkedHashMap<>();
+        for (Train train : trains) {
+            byNumber.put(train.getNumber(), train);
+        }
+        if (!byNumber.containsKey(defaultTrainNumber)) {
+            throw new IllegalArgumentException("Default train " + defaultTrainNumber + " is not configured");
+        }
+        this.trains = Collections.unmodifiableMap(byNumber);
+        this.defaultTrainNumber = defaultTrainNumber;
+    }
+
+    public static TrainCatalog singleTrain(Route route, int seatsPerSection) {
+        Map<Section, Integer> sections = new EnumMap<>(Section.class);
+        sections.put(Section.A, seatsPerSection);
+        sections.put(Section.B, seatsPerSection);
+        return new TrainCatalog(List.of(new Train(DEFAULT_TRAIN_NUMBER, route, sections)), DEFAULT_TRAIN_NUMBER);
+    }
+
+    public Train getTrain(String trainNumber) {
+        Train train = trains.get(trainNumber);
+        if (train == null) {
+            throw new DepartureNotFoundException("Unknown train: " + trainNumber);
+        }
+        return train;
+    }
+
+    public Train getDefaultTrain() {
+        return trains.get(defaultTrainNumber);
+    }
+
+    public Collection<Train> getTrains() {
+        return trains.values();
+    }
+}
@@ -1,9 +1,19 @@
 package com.dwij.trainbooking.service;
 
 import com.dwij.trainbooking.models.User;
+import com.dwij.trainbooking.models.UserImportResult;
+
+import java.util.Iterator;
 
 public interface UserService {
     void addUser(User user);
 
+    /**
+     * Adds users as they are read from {@code users}, rejecting rows without an email or with an email that is
+     * already registered, including earlier in the same import. Rows are not all-or-nothing: if reading fails
+     * part-way, users read before the failure are kept and the failure is rethrown.
+     */
+    UserImportResult importUsers(Iterator<User> users);
+
     User getUserByEmail(String email);
 }
\ No newline at end of file
@@ -0,0 +1,246 @@
+package com.dwij.trainbooking.service.impl;
+
+import com.dwij.trainbooking.exception.SeatUnavailableException;
+import com.dwij.trainbooking.models.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Pushes seat availability to subscribers as a snapshot followed by taken/freed deltas.
+ * <p>
+ * Booking threads only set a bit in their section's shared dirty bitmap. Every dispatch interval the bitmap is
+ * drained once and OR-ed into each subscriber's own dirty bitmap, and subscribers that are not already sending get
+ * a send scheduled. A send re-reads the dirty seats from the inventory and reports only those whose availability
+ * differs from what the subscriber was last told, so a seat taken and freed again in between costs nothing. A slow
+ * subscriber therefore never holds more than one bitmap of pending changes, however far behind it falls.
+ */
+@Service
+public class SeatAvailabilityFeed {
+
+    /**
+     * Transport for one subscriber's events.
+     */
+    @FunctionalInterface
+    public interface Sink {
+        void send(String event, Object data) throws IOException;
+    }
+
+    public interface Subscription {
+        void cancel();
+    }
+
+    private final SimpleSeatAllocationService seatAllocationService;
+    private final Executor senders;
+    private final ConcurrentMap<ChannelKey, Channel> channels = new ConcurrentHashMap<>();
+
+    @Autowired
+    public SeatAvailabilityFeed(SimpleSeatAllocationService seatAllocationService) {
+        this(seatAllocationService, Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    public SeatAvailabilityFeed(SimpleSeatAllocationService seatAllocationService, Executor senders) {
+        this.seatAllocationService = seatAllocationService;
+        this.senders = senders;
+        seatAllocationService.addSeatChangeListener(this::seatChanged);
+    }
+
+    /**
+     * Sends a {@code snapshot} event for the journey straight away, then {@code delta} events as seats change.
+     */
+    public Subscription subscribe(Departure departure, Section section, String from, String to, Sink sink) {
+        int capacity = seatAllocationService.getSectionCapacity(departure, section);
+        if (capacity == 0) {
+            throw new SeatUnavailableException("Section " + section + " is not available on train "
+                    + departure.getTrainNumber());
+        }
+        Route route = seatAllocationService.getRoute(departure);
+        Journey journey = route.resolve(from, to);
+        route.validate(journey);
+
+        ChannelKey key = new ChannelKey(departure, section);
+        Subscriber subscriber = new Subscriber(key, journey, capacity, sink);
+        channels.compute(key, (k, channel) -> {
+            Channel joined = channel != null ? channel : new Channel(capacity);
+            joined.subscribers.add(subscriber);
+            return joined;
+        });
+        try {
+            List<Integer> free = new ArrayList<>();
+            for (Seat seat : seatAllocationService.getAvailableSeats(departure, section, journey)) {
+                subscriber.sent.set(seat.getOrdinal() - 1);
+                free.add(seat.getOrdinal());
+            }
+            sink.send("snapshot", new SeatAvailabilitySnapshot(section, capacity, free));
+        } catch (IOException | RuntimeException e) {
+            subscriber.cancel();
+            throw e instanceof RuntimeException runtime ? runtime : new IllegalStateException(e);
+        }
+        subscriber.sending.set(false);
+        subscriber.flush();
+        return subscriber;
+    }
+
+    @Scheduled(fixedDelayString = "${booking.seat-feed.interval:200ms}")
+    public void dispatch() {
+        for (Channel channel : channels.values()) {
+            long[] changed = channel.drain();
+            if (changed == null) {
+                continue;
+            }
+            for (Subscriber subscriber : channel.subscribers) {
+                subscriber.markDirty(changed);
+                subscriber.flush();
+            }
+        }
+    }
+
+    public int subscriberCount() {
+        int count = 0;
+        for (Channel channel : channels.values()) {
+            count += channel.subscribers.size();
+        }
+        return count;
+    }
+
+    private void seatChanged(Departure departure, Seat seat) {
+        if (channels.isEmpty()) {
+            return;
+        }
+        Channel channel = channels.get(new ChannelKey(departure, seat.getSection()));
+        if (channel != null) {
+            channel.markDirty(seat.getOrdinal() - 1);
+        }
+    }
+
+    private static final class Channel {
+        private final int capacity;
+        private final AtomicLongArray dirty;
+        private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+        private Channel(int capacity) {
+            this.capacity = capacity;
+            this.dirty = new AtomicLongArray((capacity + 63) >>> 6);
+        }
+
+        private void markDirty(int index) {
+            if (index < 0 || index >= capacity) {
+                return;
+            }
+            long mask = 1L << index;
+            if ((dirty.get(index >>> 6) & mask) == 0) {
+                dirty.getAndAccumulate(index >>> 6, mask, (word, bit) -> word | bit);
+            }
+        }
+
+        /**
+         * Takes and clears the changed seats, or returns null if nothing changed.
+         */
+        private long[] drain() {
+            long[] changed = null;
+            for (int w = 0; w < dirty.length(); w++) {
+                if (dirty.get(w) != 0) {
+                    if (changed == null) {
+                        changed = new long[dirty.length()];
+                    }
+                    changed[w] = dirty.getAndSet(w, 0);
+                }
+            }
+            return changed;
+        }
+    }
+
+    private final class Subscriber implements Subscription {
+        private final ChannelKey key;
+        private final Journey journey;
+        private final Sink sink;
+        private final AtomicLongArray pending;
+        private final BitSet sent;
+        // Starts true so no delta can overtake the snapshot.
+        private final AtomicBoolean sending = new AtomicBoolean(true);
+        private volatile boolean cancelled;
+
+        private Subscriber(ChannelKey key, Journey journey, int capacity, Sink sink) {
+            this.key = key;
+            this.journey = journey;
+            this.sink = sink;
+            this.pending = new AtomicLongArray((capacity + 63) >>> 6);
+            this.sent = new BitSet(capacity);
+        }
+
+        private void markDirty(long[] changed) {
+            for (int w = 0; w < changed.length; w++) {
+                if (changed[w] != 0) {
+                    pending.getAndAccumulate(w, changed[w], (word, bits) -> word | bits);
+                }
+            }
+        }
+
+        private void flush() {
+            if (!cancelled && hasPending() && sending.compareAndSet(false, true)) {
+                senders.execute(this::send);
+            }
+        }
+
+        private void send() {
+            try {
+                List<Integer> taken = new ArrayList<>();
+                List<Integer> freed = new ArrayList<>();
+                for (int w = 0; w < pending.length(); w++) {
+                    long word = pending.getAndSet(w, 0);
+                    while (word != 0) {
+                        int index = (w << 6) + Long.numberOfTrailingZeros(word);
+                        boolean free = seatAllocationService.isSeatAvailable(key.departure(),
+                                Seat.of(key.section(), index + 1), journey);
+                        if (free != sent.get(index)) {
+                            sent.set(index, free);
+                            (free ? freed : taken).add(index + 1);
+                        }
+                        word &= word - 1;
+                    }
+                }
+                if (!taken.isEmpty() || !freed.isEmpty()) {
+                    sink.send("delta", new SeatAvailabilityDelta(taken, freed));
+                }
+            } catch (IOException | RuntimeException e) {
+                cancel();
+            } finally {
+                sending.set(false);
+            }
+            flush();
+        }
+
+        private boolean hasPending() {
+            for (int w = 0; w < pending.length(); w++) {
+                if (pending.get(w) != 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            channels.computeIfPresent(key, (k, channel) -> {
+                channel.subscribers.remove(this);
+                return channel.subscribers.isEmpty() ? null : channel;
+            });
+        }
+    }
+
+    private record ChannelKey(Departure departure, Section section) {
+    }
+}
@@ -0,0 +1,192 @@
+package com.dwij.trainbooking.service.impl;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free free-seat bitset for a single section. A set bit means the seat at that index is free;
+ * every state change is a single-word CAS, so concurrent allocators never block each other.
+ */
+public final class SeatBitmap {
+    private final int capacity;
+    private final AtomicLongArray words;
+
+    public SeatBitmap(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.words = new AtomicLongArray((capacity + 63) >>> 6);
+        for (int i = 0; i < words.length(); i++) {
+            words.set(i, initialWord(i));
+        }
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public int wordCount() {
+        return words.length();
+    }
+
+    public long word(int wordIndex) {
+        return words.get(wordIndex);
+    }
+
+    /**
+     * Claims the lowest-numbered free seat, or returns -1 when the section is full.
+     */
+    public int claimLowest() {
+        for (int i = 0; i < words.length(); i++) {
+            long word = words.get(i);
+            while (word != 0) {
+                int bit = Long.numberOfTrailingZeros(word);
+                if (words.compareAndSet(i, word, word & ~(1L << bit))) {
+                    return (i << 6) + bit;
+                }
+                word = words.get(i);
+            }
+        }
+        return -1;
+    }
+
+    public boolean claim(int index) {
+        int wordIndex = index >>> 6;
+        long mask = 1L << index;
+        long word;
+        do {
+            word = words.get(wordIndex);
+            if ((word & mask) == 0) {
+                return false;
+            }
+        } while (!words.compareAndSet(wordIndex, word, word & ~mask));
+        return true;
+    }
+
+    public boolean release(int index) {
+        int wordIndex = index >>> 6;
+        long mask = 1L << index;
+        long word;
+        do {
+            word = words.get(wordIndex);
+            if ((word & mask) != 0) {
+                return false;
+            }
+        } while (!words.compareAndSet(wordIndex, word, word | mask));
+        return true;
+    }
+
+    public boolean isFree(int index) {
+        return (words.get(index >>> 6) & (1L << index)) != 0;
+    }
+
+    public int freeCount() {
+        int count = 0;
+        for (int i = 0; i < words.length(); i++) {
+            count += Long.bitCount(words.get(i));
+        }
+        return count;
+    }
+
+    /**
+     * Start index of the lowest run of {@code length} consecutive set bits in {@code words}, or -1 if there is none.
+     * Runs inside a word are found with shift-and doubling; runs crossing words are stitched from the leading and
+     * trailing ones of neighbouring words, so the scan is one pass over the words.
+     */
+    static int findRun(long[] words, int length) {
+        int run = 0;
+        int runStart = -1;
+        for (int w = 0; w < words.length; w++) {
+            long word = words[w];
+            if (word == -1L) {
+                if (run == 0) {
+                    runStart = w << 6;
+                }
+                run += 64;
+                if (run >= length) {
+                    return runStart;
+                }
+                continue;
+            }
+            if (run > 0 && run + Long.numberOfTrailingZeros(~word) >= length) {
+                return runStart;
+            }
+            if (length < 64) {
+                long starts = runStarts(word, length);
+                if (starts != 0) {
+                    return (w << 6) + Long.numberOfTrailingZeros(starts);
+                }
+            }
+            run = Long.numberOfLeadingZeros(~word);
+            runStart = (w << 6) + 64 - run;
+        }
+        return -1;
+    }
+
+    /**
+     * The {@code count} set bits spanning the narrowest index range, found with a sliding window over the set bits.
+     * Returns null if fewer than {@code count} bits are set.
+     */
+    static int[] tightestCluster(long[] words, int count) {
+        int[] window = new int[count];
+        int seen = 0;
+        int bestEnd = -1;
+        int bestSpan = Integer.MAX_VALUE;
+        for (int w = 0; w < words.length; w++) {
+            long word = words[w];
+            while (word != 0) {
+                int index = (w << 6) + Long.numberOfTrailingZeros(word);
+                window[seen % count] = index;
+                seen++;
+                if (seen >= count) {
+                    int span = index - window[seen % count];
+                    if (span < bestSpan) {
+                        bestSpan = span;
+                        bestEnd = seen;
+                    }
+                }
+                word &= word - 1;
+            }
+        }
+        if (bestEnd < 0) {
+            return null;
+        }
+        return collect(words, bestEnd - count, count);
+    }
+
+    private static int[] collect(long[] words, int skip, int count) {
+        int[] indexes = new int[count];
+        int seen = 0;
+        int collected = 0;
+        for (int w = 0; w < words.length && collected < count; w++) {
+            long word = words[w];
+            if (seen + Long.bitCount(word) <= skip) {
+                seen += Long.bitCount(word);
+                continue;
+            }
+            while (word != 0 && collected < count) {
+                if (seen++ >= skip) {
+                    indexes[collected++] = (w << 6) + Long.numberOfTrailingZeros(word);
+                }
+                word &= word - 1;
+            }
+        }
+        return indexes;
+    }
+
+    private static long runStarts(long word, int length) {
+        long starts = word;
+        int covered = 1;
+        while (covered < length && starts != 0) {
+            int shift = Math.min(covered, length - covered);
+            starts &= starts >>> shift;
+            covered += shift;
+        }
+        return starts;
+    }
+
+    private long initialWord(int wordIndex) {
+        int remaining = capacity - (wordIndex << 6);
+        return remaining >= 64 ? -1L : (1L << remaining) - 1;
+    }
+}
@@ -0,0 +1,174 @@
+package com.dwij.trainbooking.service.impl;
+
+import com.dwij.trainbooking.config.BookingProperties;
+import com.dwij.trainbooking.exception.HoldAlreadyExistsException;
+import com.dwij.trainbooking.exception.HoldNotFoundException;
+import com.dwij.trainbooking.exception.TicketAlreadyExistsException;
+import com.dwij.trainbooking.models.*;
+import com.dwij.trainbooking.repository.TicketRepository;
+import com.dwij.trainbooking.service.SeatHoldService;
+import com.dwij.trainbooking.service.UserService;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds are claimed seats with no ticket behind them. Each hold is settled exactly once, by whichever of confirm,
+ * release or expiry wins the CAS out of {@code PENDING}; only the winner touches the seat, so an expiring hold can
+ * never free a seat that was just confirmed. Expiry deadlines sit on a {@link TimingWheel} ticked by the scheduler.
+ * Holds are not journaled: after a restart their seats are simply free again.
+ */
+@Service
+public class SeatHoldServiceImpl implements SeatHoldService {
+    private enum State { PENDING, CONFIRMED, RELEASED, EXPIRED }
+
+    private final SimpleSeatAllocationService seatAllocationService;
+    private final TicketServiceImpl ticketService;
+    private final TicketRepository ticketRepository;
+    private final UserService userService;
+    private final Clock clock;
+    private final Duration ttl;
+    private final TimingWheel<String> expiries;
+    private final ConcurrentMap<String, ActiveHold> holds = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, String> holdsByEmail = new ConcurrentHashMap<>();
+    private final SecureIds holdIds = SecureIds.forAvailableProcessors();
+
+    public SeatHoldServiceImpl(SimpleSeatAllocationService seatAllocationService, TicketServiceImpl ticketService,
+            TicketRepository ticketRepository, UserService userService, Clock clock, BookingProperties properties) {
+        this.seatAllocationService = seatAllocationService;
+        this.ticketService = ticketService;
+        this.ticketRepository = ticketRepository;
+        this.userService = userService;
+        this.clock = clock;
+        this.ttl = properties.getHolds().getTtl();
+        this.expiries = new TimingWheel<>(properties.getHolds().getTick().toMillis(), clock.millis());
+    }
+
+    @Override
+    public SeatHold placeHold(String email, Section section, String from, String to) {
+        return placeHold(seatAllocationService.defaultDeparture(), email, section, from, to);
+    }
+
+    @Override
+    public SeatHold placeHold(Departure departure, String email, Section section, String from, String to) {
+        userService.getUserByEmail(email);
+        Journey journey = seatAllocationService.getRoute(departure).resolve(from, to);
+        if (ticketRepository.findByUserEmail(email) != null) {
+            throw new TicketAlreadyExistsException("A ticket is already booked for this email: " + email);
+        }
+        // The ID is the only credential for confirming or releasing the hold, so it must not be guessable.
+        String id = holdIds.randomUuid();
+        if (holdsByEmail.putIfAbsent(email, id) != null) {
+            throw new HoldAlreadyExistsException("A seat is already held for this email: " + email);
+        }
+        Seat seat;
+        try {
+            seat = seatAllocationService.allocateSeat(departure, section, journey);
+        } catch (RuntimeException e) {
+            holdsByEmail.remove(email, id);
+            throw e;
+        }
+        Instant expiresAt = clock.instant().plus(ttl);
+        SeatHold hold = new SeatHold(id, email, departure, journey, seat, expiresAt);
+        holds.put(id, new ActiveHold(hold, departure, journey));
+        expiries.schedule(id, expiresAt.toEpochMilli());
+        return hold;
+    }
+
+    @Override
+    public SeatHold getHold(String holdId) {
+        return pending(holdId).hold;
+    }
+
+    @Override
+    public Ticket confirmHold(String holdId) {
+        ActiveHold active = pending(holdId);
+        if (!active.settle(State.CONFIRMED)) {
+            throw new HoldNotFoundException("Hold " + holdId + " has already expired or been settled");
+        }
+        try {
+            return ticketService.purchaseClaimedSeat(active.departure, active.hold.getEmail(), active.journey,
+                    active.hold.getSeat());
+        } catch (RuntimeException e) {
+            releaseSeat(active);
+            throw e;
+        } finally {
+            forget(active);
+        }
+    }
+
+    @Override
+    public void releaseHold(String holdId) {
+        ActiveHold active = pending(holdId);
+        if (!active.settle(State.RELEASED)) {
+            throw new HoldNotFoundException("Hold " + holdId + " has already expired or been settled");
+        }
+        releaseSeat(active);
+        forget(active);
+    }
+
+    @Scheduled(fixedDelayString = "${booking.holds.tick:100ms}")
+    public void expireHolds() {
+        expiries.advance(clock.millis(), this::expire);
+    }
+
+    public int activeHoldCount() {
+        return holds.size();
+    }
+
+    private void expire(String holdId) {
+        ActiveHold active = holds.get(holdId);
+        if (active != null && active.settle(State.EXPIRED)) {
+            releaseSeat(active);
+            forget(active);
+        }
+    }
+
+    /**
+     * The hold if it is still pending. A hold past its deadline is expired here rather than waiting for the next
+     * tick, so it can never be confirmed late.
+     */
+    private ActiveHold pending(String holdId) {
+        ActiveHold active = holds.get(holdId);
+        if (active != null && !clock.instant().isBefore(active.hold.getExpiresAt())) {
+            expire(holdId);
+            active = null;
+        }
+        if (active == null || active.state.get() != State.PENDING) {
+            throw new HoldNotFoundException("No active hold found with id: " + holdId);
+        }
+        return active;
+    }
+
+    private void releaseSeat(ActiveHold active) {
+        ticketService.vacateSeat(active.departure, active.hold.getSeat(), active.journey);
+    }
+
+    private void forget(ActiveHold active) {
+        holds.remove(active.hold.getId(), active);
+        holdsByEmail.remove(active.hold.getEmail(), active.hold.getId());
+    }
+
+    private static final class ActiveHold {
+        private final SeatHold hold;
+        private final Departure departure;
+        private final Journey journey;
+        private final AtomicReference<State> state = new AtomicReference<>(State.PENDING);
+
+        private ActiveHold(SeatHold hold, Departure departure, Journey journey) {
+            this.hold = hold;
+            this.departure = departure;
+            this.journey = journey;
+        }
+
+        private boolean settle(State outcome) {
+            return state.compareAndSet(State.PENDING, outcome);
+        }
+    }
+}
@@ -0,0 +1,452 @@
+package com.dwij.trainbooking.service.impl;
+
+import com.dwij.trainbooking.exception.SeatUnavailableException;
+import com.dwij.trainbooking.models.Journey;
+import com.dwij.trainbooking.models.Route;
+import com.dwij.trainbooking.models.Seat;
+import com.dwij.trainbooking.models.Section;
+import com.dwij.trainbooking.models.Train;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Seat inventory of a single departure, keyed by route segment. Each section keeps one free-seat bitmap per
+ * segment, so a seat vacated at an intermediate station can be resold for the remaining legs. A journey's free
+ * seats are the word-wise AND of the bitmaps of the segments it covers.
+ * <p>
+ * Every section also carries a version that is bumped after each operation that touched its bitmaps, whether it
+ * succeeded or rolled back. A journey's free-seat list is cached against the version it was computed at, so
+ * repeated reads of an unchanged section return the same immutable list without scanning.
+ */
+public final class SeatInventory {
+    private static final int MAX_BLOCK_ATTEMPTS = 8;
+    private final Train train;
+    private final Route route;
+    private final Map<Section, SeatBitmap[]> freeSeats = new EnumMap<>(Section.class);
+    private final Map<Section, Seat[]> seats = new EnumMap<>(Section.class);
+    private final Map<Section, AtomicLong> versions = new EnumMap<>(Section.class);
+    private final Map<Section, ConcurrentMap<Journey, Availability>> availability = new EnumMap<>(Section.class);
+    private final LongAdder contention;
+
+    public SeatInventory(Train train) {
+        this(train, new LongAdder());
+    }
+
+    public SeatInventory(Train train, LongAdder contention) {
+        this(train, contention, 0);
+    }
+
+    /**
+     * @param contention   incremented every time a claim loses a race for a seat and has to retry elsewhere
+     * @param firstVersion version every section starts at
+     */
+    public SeatInventory(Train train, LongAdder contention, long firstVersion) {
+        this.train = train;
+        this.contention = contention;
+        this.route = train.getRoute();
+        train.getSeatsPerSection().forEach((section, capacity) -> {
+            versions.put(section, new AtomicLong(firstVersion));
+            availability.put(section, new ConcurrentHashMap<>());
+            Seat[] sectionSeats = new Seat[capacity];
+            for (int i = 0; i < capacity; i++) {
+                sectionSeats[i] = Seat.of(section, i + 1);
+            }
+            seats.put(section, sectionSeats);
+            SeatBitmap[] segments = new SeatBitmap[route.getSegmentCount()];
+            for (int s = 0; s < segments.length; s++) {
+                segments[s] = new SeatBitmap(capacity);
+            }
+            freeSeats.put(section, segments);
+        });
+    }
+
+    public Route getRoute() {
+        return route;
+    }
+
+    public Journey resolve(Journey journey) {
+        return journey == null ? route.fullJourney() : route.resolve(journey.getFrom(), journey.getTo());
+    }
+
+    public Seat allocate(Section section, Journey journey) {
+        journey = resolve(journey);
+        int from = route.departureIndex(journey);
+        int to = route.arrivalIndex(journey);
+        SeatBitmap[] segments = segments(section);
+        try {
+            for (int w = 0; w < segments[from].wordCount(); w++) {
+                long candidates = freeWord(segments, w, from, to);
+                while (candidates != 0) {
+                    int index = (w << 6) + Long.numberOfTrailingZeros(candidates);
+                    if (claim(segments, index, from, to)) {
+                        return seats.get(section)[index];
+                    }
+                    contention.increment();
+                    candidates = freeWord(segments, w, from, to);
+                }
+            }
+        } finally {
+            changed(section);
+        }
+        throw new SeatUnavailableException("No seats available in section: " + section);
+    }
+
+    /**
+     * Allocates one seat per entry of {@code sections}. Each section's bitmaps are scanned once for all of its
+     * requested seats; if any section falls short, every seat claimed so far is released.
+     */
+    public List<Seat> allocate(List<Section> sections, Journey journey) {
+        journey = resolve(journey);
+        int from = route.departureIndex(journey);
+        int to = route.arrivalIndex(journey);
+        Map<Section, Integer> requested = new EnumMap<>(Section.class);
+        for (Section section : sections) {
+            requested.merge(section, 1, Integer::sum);
+        }
+
+        Map<Section, Deque<Integer>> claimed = new EnumMap<>(Section.class);
+        try {
+            requested.forEach((section, count) -> {
+                SeatBitmap[] segments = segments(section);
+                Deque<Integer> indexes = new ArrayDeque<>(count);
+                claimed.put(section, indexes);
+                for (int w = 0; w < segments[from].wordCount() && indexes.size() < count; w++) {
+                    long candidates = freeWord(segments, w, from, to);
+                    while (candidates != 0 && indexes.size() < count) {
+                        int index = (w << 6) + Long.numberOfTrailingZeros(candidates);
+                        if (claim(segments, index, from, to)) {
+                            indexes.add(index);
+                        } else {
+                            contention.increment();
+                        }
+                        candidates &= candidates - 1;
+                    }
+                }
+                if (indexes.size() < count) {
+                    throw new SeatUnavailableException("Only " + indexes.size() + " of " + count
+                            + " requested seats are available in section: " + section);
+                }
+            });
+        } catch (RuntimeException e) {
+            claimed.forEach((section, indexes) -> {
+                SeatBitmap[] segments = freeSeats.get(section);
+                indexes.forEach(index -> release(segments, index, from, to));
+            });
+            throw e;
+        } finally {
+            claimed.keySet().forEach(this::changed);
+        }
+
+        List<Seat> allocated = new ArrayList<>(sections.size());
+        for (Section section : sections) {
+            allocated.add(seats.get(section)[claimed.get(section).poll()]);
+        }
+        return allocated;
+    }
+
+    /**
+     * Allocates {@code size} adjacent seats, or the tightest cluster of free seats when no adjacent block is left.
+     * The search runs over a snapshot of the journey's free words; if a concurrent booking takes one of the chosen
+     * seats, the claimed ones are released and the search is repeated.
+     */
+    public List<Seat> allocateBlock(Section section, int size, Journey journey) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Block size must be positive: " + size);
+        }
+        journey = resolve(journey);
+        int from = route.departureIndex(journey);
+        int to = route.arrivalIndex(journey);
+        SeatBitmap[] segments = segments(section);
+        try {
+            return claimBlock(section, segments, size, from, to);
+        } finally {
+            changed(section);
+        }
+    }
+
+    private List<Seat> claimBlock(Section section, SeatBitmap[] segments, int size, int from, int to) {
+        long[] free = new long[segments[from].wordCount()];
+        for (int attempt = 0; attempt < MAX_BLOCK_ATTEMPTS; attempt++) {
+            int freeCount = 0;
+            for (int w = 0; w < free.length; w++) {
+                free[w] = freeWord(segments, w, from, to);
+                freeCount += Long.bitCount(free[w]);
+            }
+            if (freeCount < size) {
+                throw new SeatUnavailableException("Only " + freeCount + " seats available in section " + section
+                        + " for a block of " + size);
+            }
+            int start = SeatBitmap.findRun(free, size);
+            int[] block = start >= 0 ? range(start, size) : SeatBitmap.tightestCluster(free, size);
+            if (claimAll(segments, block, from, to)) {
+                Seat[] sectionSeats = seats.get(section);
+                List<Seat> allocated = new ArrayList<>(size);
+                for (int index : block) {
+                    allocated.add(sectionSeats[index]);
+                }
+                return allocated;
+            }
+            contention.increment();
+        }
+        throw new SeatUnavailableException("Could not reserve a block of " + size + " seats in section: " + section);
+    }
+
+    public Seat reallocate(Seat currentSeat, Seat requestedSeat, Journey journey) {
+        if (currentSeat.equals(requestedSeat)) {
+            return currentSeat;
+        }
+
+        Seat claimed = claim(requestedSeat, journey);
+        release(currentSeat, journey);
+        return claimed;
+    }
+
+    public Seat claim(Seat seat, Journey journey) {
+        journey = resolve(journey);
+        int index = indexOf(seat);
+        boolean claimed;
+        try {
+            claimed = index >= 0 && claim(freeSeats.get(seat.getSection()), index,
+                    route.departureIndex(journey), route.arrivalIndex(journey));
+        } finally {
+            changed(seat.getSection());
+        }
+        if (!claimed) {
+            throw new SeatUnavailableException("The requested seat " + seat.getSeatNumber() + " is not available.");
+        }
+        return seats.get(seat.getSection())[index];
+    }
+
+    public boolean isAvailable(Seat seat, Journey journey) {
+        int index = indexOf(seat);
+        if (index < 0) {
+            return false;
+        }
+        journey = resolve(journey);
+        SeatBitmap[] segments = freeSeats.get(seat.getSection());
+        for (int s = route.departureIndex(journey); s < route.arrivalIndex(journey); s++) {
+            if (!segments[s].isFree(index)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void release(Seat seat, Journey journey) {
+        int index = indexOf(seat);
+        if (index >= 0) {
+            journey = resolve(journey);
+            release(freeSeats.get(seat.getSection()), index, route.departureIndex(journey), route.arrivalIndex(journey));
+            changed(seat.getSection());
+        }
+    }
+
+    /**
+     * Hands a claimed seat from journey {@code held} over to journey {@code kept}, which must lie within it. The
+     * legs of {@code kept} stay claimed throughout, so no other booking can take the seat in between; only the
+     * legs outside it are released.
+     */
+    public void transfer(Seat seat, Journey held, Journey kept) {
+        held = resolve(held);
+        kept = resolve(kept);
+        if (!route.covers(held, kept)) {
+            throw new IllegalArgumentException("Journey " + kept + " is not within " + held);
+        }
+        retain(seat, held, kept);
+    }
+
+    /**
+     * Claims the legs of journey {@code wanted} that a seat held for journey {@code held} does not already cover,
+     * so the seat can be handed to a holder travelling {@code wanted} without ever becoming free. Either every
+     * missing leg is claimed or none is.
+     */
+    public void extend(Seat seat, Journey held, Journey wanted) {
+        held = resolve(held);
+        wanted = resolve(wanted);
+        int index = indexOf(seat);
+        if (index < 0) {
+            throw new SeatUnavailableException("The requested seat " + seat.getSeatNumber() + " is not available.");
+        }
+        int from = route.departureIndex(wanted);
+        int to = route.arrivalIndex(wanted);
+        int heldFrom = route.departureIndex(held);
+        int heldTo = route.arrivalIndex(held);
+        SeatBitmap[] segments = freeSeats.get(seat.getSection());
+        boolean claimed;
+        try {
+            claimed = claim(segments, index, from, Math.min(to, heldFrom));
+            if (claimed && !claim(segments, index, Math.max(from, heldTo), to)) {
+                release(segments, index, from, Math.min(to, heldFrom));
+                claimed = false;
+            }
+        } finally {
+            changed(seat.getSection());
+        }
+        if (!claimed) {
+            throw new SeatUnavailableException("The seat " + seat.getSeatNumber() + " is not available from "
+                    + wanted.getFrom() + " to " + wanted.getTo());
+        }
+    }
+
+    /**
+     * Releases the legs of a seat held for journey {@code held} that journey {@code kept} does not cover. The legs
+     * they share stay claimed throughout.
+     */
+    public void retain(Seat seat, Journey held, Journey kept) {
+        held = resolve(held);
+        kept = resolve(kept);
+        int index = indexOf(seat);
+        if (index >= 0) {
+            int from = route.departureIndex(held);
+            int to = route.arrivalIndex(held);
+            SeatBitmap[] segments = freeSeats.get(seat.getSection());
+            release(segments, index, from, Math.min(to, route.departureIndex(kept)));
+            release(segments, index, Math.max(from, route.arrivalIndex(kept)), to);
+            changed(seat.getSection());
+        }
+    }
+
+    public int availableCount(Section section, Journey journey) {
+        SeatBitmap[] segments = freeSeats.get(section);
+        if (segments == null) {
+            return 0;
+        }
+        journey = resolve(journey);
+        int from = route.departureIndex(journey);
+        int to = route.arrivalIndex(journey);
+        int count = 0;
+        for (int w = 0; w < segments[from].wordCount(); w++) {
+            count += Long.bitCount(freeWord(segments, w, from, to));
+        }
+        return count;
+    }
+
+    /**
+     * Version of the section's availability, or -1 if the train has no such section. The version changes after
+     * every operation that may have changed which seats are free, for any journey.
+     */
+    public long version(Section section) {
+        AtomicLong version = versions.get(section);
+        return version == null ? -1 : version.get();
+    }
+
+    /**
+     * Free seats for the journey in seat order, as an immutable list that is shared until the section changes.
+     */
+    public List<Seat> available(Section section, Journey journey) {
+        SeatBitmap[] segments = freeSeats.get(section);
+        if (segments == null) {
+            return List.of();
+        }
+        journey = resolve(journey);
+        // Read the version before scanning: a list cached under a version is never older than that version.
+        long version = versions.get(section).get();
+        ConcurrentMap<Journey, Availability> cache = availability.get(section);
+        Availability cached = cache.get(journey);
+        if (cached != null && cached.version() == version) {
+            return cached.seats();
+        }
+        List<Seat> free = Collections.unmodifiableList(scan(section, segments, journey));
+        cache.merge(journey, new Availability(version, free),
+                (current, fresh) -> current.version() >= fresh.version() ? current : fresh);
+        return free;
+    }
+
+    private List<Seat> scan(Section section, SeatBitmap[] segments, Journey journey) {
+        int from = route.departureIndex(journey);
+        int to = route.arrivalIndex(journey);
+        Seat[] sectionSeats = seats.get(section);
+        List<Seat> available = new ArrayList<>();
+        for (int w = 0; w < segments[from].wordCount(); w++) {
+            long word = freeWord(segments, w, from, to);
+            while (word != 0) {
+                available.add(sectionSeats[(w << 6) + Long.numberOfTrailingZeros(word)]);
+                word &= word - 1;
+            }
+        }
+        return available;
+    }
+
+    private void changed(Section section) {
+        AtomicLong version = versions.get(section);
+        if (version != null) {
+            version.incrementAndGet();
+        }
+    }
+
+    private SeatBitmap[] segments(Section section) {
+        SeatBitmap[] segments = freeSeats.get(section);
+        if (segments == null) {
+            throw new SeatUnavailableException("Section " + section + " is not available on train " + train.getNumber());
+        }
+        return segments;
+    }
+
+    private static long freeWord(SeatBitmap[] segments, int wordIndex, int from, int to) {
+        long word = -1L;
+        for (int s = from; s < to && word != 0; s++) {
+            word &= segments[s].word(wordIndex);
+        }
+        return word;
+    }
+
+    private static boolean claim(SeatBitmap[] segments, int index, int from, int to) {
+        for (int s = from; s < to; s++) {
+            if (!segments[s].claim(index)) {
+                for (int r = from; r < s; r++) {
+                    segments[r].release(index);
+                }
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean claimAll(SeatBitmap[] segments, int[] indexes, int from, int to) {
+        for (int i = 0; i < indexes.length; i++) {
+            if (!claim(segments, indexes[i], from, to)) {
+                for (int r = 0; r < i; r++) {
+                    release(segments, indexes[r], from, to);
+                }
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int[] range(int start, int size) {
+        int[] indexes = new int[size];
+        for (int i = 0; i < size; i++) {
+            indexes[i] = start + i;
+        }
+        return indexes;
+    }
+
+    private static void release(SeatBitmap[] segments, int index, int from, int to) {
+        for (int s = from; s < to; s++) {
+            segments[s].release(index);
+        }
+    }
+
+    private int indexOf(Seat seat) {
+        if (seat == null || seat.getSection() == null) {
+            return -1;
+        }
+        Seat[] sectionSeats = seats.get(seat.getSection());
+        int ordinal = seat.getOrdinal();
+        return sectionSeats != null && ordinal >= 1 && ordinal <= sectionSeats.length ? ordinal - 1 : -1;
+    }
+
+    private record Availability(long version, List<Seat> seats) {
+    }
+}
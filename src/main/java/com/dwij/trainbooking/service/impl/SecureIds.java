@@ -0,0 +1,59 @@
+package com.dwij.trainbooking.service.impl;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Unguessable version 4 UUIDs for IDs that act as credentials. {@code UUID.randomUUID()} draws from one shared
+ * SecureRandom whose monitor pins virtual threads under contention; here each stripe owns its own DRBG behind a
+ * ReentrantLock, so the generator's internal monitor is never contended and a waiting thread unmounts instead.
+ */
+final class SecureIds {
+    private final SecureRandom[] generators;
+    private final ReentrantLock[] locks;
+
+    SecureIds(int stripes) {
+        generators = new SecureRandom[stripes];
+        locks = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            generators[i] = newGenerator();
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    static SecureIds forAvailableProcessors() {
+        return new SecureIds(Runtime.getRuntime().availableProcessors());
+    }
+
+    String randomUuid() {
+        byte[] bytes = new byte[16];
+        int stripe = ThreadLocalRandom.current().nextInt(generators.length);
+        ReentrantLock lock = locks[stripe];
+        lock.lock();
+        try {
+            generators[stripe].nextBytes(bytes);
+        } finally {
+            lock.unlock();
+        }
+        long mostSigBits = 0;
+        long leastSigBits = 0;
+        for (int i = 0; i < 8; i++) {
+            mostSigBits = (mostSigBits << 8) | (bytes[i] & 0xFF);
+            leastSigBits = (leastSigBits << 8) | (bytes[i + 8] & 0xFF);
+        }
+        mostSigBits = (mostSigBits & ~0xF000L) | 0x4000L;
+        leastSigBits = (leastSigBits & ~(0xC000L << 48)) | (0x8000L << 48);
+        return new UUID(mostSigBits, leastSigBits).toString();
+    }
+
+    private static SecureRandom newGenerator() {
+        try {
+            return SecureRandom.getInstance("DRBG");
+        } catch (NoSuchAlgorithmException e) {
+            return new SecureRandom();
+        }
+    }
+}
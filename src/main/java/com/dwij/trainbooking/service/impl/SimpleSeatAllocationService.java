@@ -1,64 +1,222 @@
 package com.dwij.trainbooking.service.impl;
 
-import com.dwij.trainbooking.exception.SeatUnavailableException;
-import com.dwij.trainbooking.models.Seat;
-import com.dwij.trainbooking.models.Section;
+import com.dwij.trainbooking.exception.DepartureNotFoundException;
+import com.dwij.trainbooking.models.*;
 import com.dwij.trainbooking.service.SeatAllocationStrategy;
+import com.dwij.trainbooking.service.TrainCatalog;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.util.*;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * Routes seat operations to one {@link SeatInventory} shard per departure. Shards are created on first use and
+ * share no state, so bookings on different departures never contend. Shards for departed trains are evicted.
+ */
 @Service
 public class SimpleSeatAllocationService implements SeatAllocationStrategy {
     private static final int MAX_SEATS_PER_SECTION = 10;
-    private final Map<Section, Queue<Seat>> availableSeats = new EnumMap<>(Section.class);
+    private static final int VERSION_SHIFT = 20;
+    private final TrainCatalog trainCatalog;
+    private final Clock clock;
+    private final ConcurrentMap<Departure, SeatInventory> inventories = new ConcurrentHashMap<>();
+    private final LongAdder contention = new LongAdder();
+    private final List<SeatChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Told about every seat whose availability may have changed, after the change. Called on the booking thread,
+     * so implementations must only record the change and return.
+     */
+    @FunctionalInterface
+    public interface SeatChangeListener {
+        void seatChanged(Departure departure, Seat seat);
+    }
 
     public SimpleSeatAllocationService() {
-        for (Section section : Section.values()) {
-            PriorityQueue<Seat> seats = new PriorityQueue<>(Comparator.comparingInt(seat -> 
-                Integer.parseInt(seat.getSeatNumber().replaceAll("\\D", ""))));
-            for (int i = 1; i <= MAX_SEATS_PER_SECTION; i++) {
-                seats.add(new Seat(section.name() + i, section));
-            }
-            availableSeats.put(section, seats);
-        }
+        this(MAX_SEATS_PER_SECTION);
+    }
+
+    public SimpleSeatAllocationService(int seatsPerSection) {
+        this(Route.of("London", "France"), seatsPerSection);
+    }
+
+    public SimpleSeatAllocationService(Route route, int seatsPerSection) {
+        this(TrainCatalog.singleTrain(route, seatsPerSection), Clock.systemDefaultZone());
+    }
+
+    @Autowired
+    public SimpleSeatAllocationService(TrainCatalog trainCatalog, Clock clock) {
+        this.trainCatalog = trainCatalog;
+        this.clock = clock;
     }
 
     @Override
-    public Seat allocateSeat(Section section) {
-        Seat seat = availableSeats.get(section).poll();
-        if (seat == null) {
-            throw new SeatUnavailableException("No seats available in section: " + section);
-        }
+    public Departure defaultDeparture() {
+        return Departure.of(trainCatalog.getDefaultTrain().getNumber(), LocalDate.now(clock));
+    }
+
+    public Route getRoute() {
+        return getRoute(defaultDeparture());
+    }
+
+    public Route getRoute(Departure departure) {
+        return trainCatalog.getTrain(departure.getTrainNumber()).getRoute();
+    }
+
+    public boolean hasSection(Departure departure, Section section) {
+        return trainCatalog.getTrain(departure.getTrainNumber()).getSeatsPerSection().containsKey(section);
+    }
+
+    public int getSectionCapacity(Departure departure, Section section) {
+        return trainCatalog.getTrain(departure.getTrainNumber()).getSeatsPerSection().getOrDefault(section, 0);
+    }
+
+    public void addSeatChangeListener(SeatChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public Seat allocateSeat(Departure departure, Section section, Journey journey) {
+        return changed(departure, inventory(departure).allocate(section, journey));
+    }
+
+    @Override
+    public List<Seat> allocateSeats(Departure departure, List<Section> sections, Journey journey) {
+        return changed(departure, inventory(departure).allocate(sections, journey));
+    }
+
+    @Override
+    public List<Seat> allocateBlock(Departure departure, Section section, int size, Journey journey) {
+        return changed(departure, inventory(departure).allocateBlock(section, size, journey));
+    }
+
+    @Override
+    public Seat reallocateSeat(Departure departure, Seat currentSeat, Seat requestedSeat, Journey journey) {
+        Seat seat = changed(departure, inventory(departure).reallocate(currentSeat, requestedSeat, journey));
+        changed(departure, currentSeat);
         return seat;
     }
 
     @Override
-    public Seat reallocateSeat(Seat currentSeat, Seat requestedSeat) {
-        if (currentSeat.equals(requestedSeat)) {
-                    return currentSeat;
-        }
+    public Seat claimSeat(Departure departure, Seat seat, Journey journey) {
+        return changed(departure, inventory(departure).claim(seat, journey));
+    }
 
-        if (!isSeatAvailable(requestedSeat)) {
-            throw new SeatUnavailableException("The requested seat " + requestedSeat.getSeatNumber() + " is not available.");
+    public boolean isSeatAvailable(Seat seat) {
+        return isSeatAvailable(defaultDeparture(), seat, null);
+    }
+
+    public boolean isSeatAvailable(Seat seat, Journey journey) {
+        return isSeatAvailable(defaultDeparture(), seat, journey);
+    }
+
+    public boolean isSeatAvailable(Departure departure, Seat seat, Journey journey) {
+        return inventory(departure).isAvailable(seat, journey);
+    }
+
+    @Override
+    public void releaseSeat(Departure departure, Seat seat, Journey journey) {
+        SeatInventory inventory = inventories.get(departure);
+        if (inventory == null && !isDeparted(departure)) {
+            inventory = inventory(departure);
+        }
+        if (inventory != null) {
+            inventory.release(seat, journey);
+            changed(departure, seat);
         }
-    
-        releaseSeat(currentSeat);
-        availableSeats.get(requestedSeat.getSection()).remove(requestedSeat);
-        return requestedSeat;
     }
 
-    public boolean isSeatAvailable(Seat seat) {
-        return availableSeats.get(seat.getSection()).contains(seat);
+    /**
+     * Moves a claimed seat from one journey to a shorter one within it without ever freeing the shared legs.
+     */
+    public void transferSeat(Departure departure, Seat seat, Journey held, Journey kept) {
+        inventory(departure).transfer(seat, held, kept);
+        changed(departure, seat);
+    }
+
+    /**
+     * Widens a seat held for journey {@code held} to also cover {@code wanted}, claiming only the missing legs.
+     */
+    public void extendSeat(Departure departure, Seat seat, Journey held, Journey wanted) {
+        inventory(departure).extend(seat, held, wanted);
+        changed(departure, seat);
+    }
+
+    /**
+     * Narrows a seat held for journey {@code held} down to the legs it shares with {@code kept}.
+     */
+    public void retainSeat(Departure departure, Seat seat, Journey held, Journey kept) {
+        inventory(departure).retain(seat, held, kept);
+        changed(departure, seat);
     }
 
     @Override
-    public void releaseSeat(Seat seat) {
-        availableSeats.get(seat.getSection()).offer(seat);
+    public List<Seat> getAvailableSeats(Departure departure, Section section, Journey journey) {
+        return inventory(departure).available(section, journey);
     }
 
     @Override
-    public List<Seat> getAvailableSeats(Section section) {
-        return new ArrayList<>(availableSeats.get(section));
+    public long getAvailabilityVersion(Departure departure, Section section) {
+        return inventory(departure).version(section);
+    }
+
+    public int countAvailableSeats(Departure departure, Section section, Journey journey) {
+        return inventory(departure).availableCount(section, journey);
+    }
+
+    /**
+     * Number of times a seat claim lost a CAS race to a concurrent booking and retried, across all departures.
+     */
+    public long getContentionCount() {
+        return contention.sum();
+    }
+
+    @Scheduled(cron = "${booking.inventory.eviction-cron:0 5 0 * * *}")
+    public void evictDepartedInventories() {
+        inventories.keySet().removeIf(this::isDeparted);
+    }
+
+    int inventoryCount() {
+        return inventories.size();
+    }
+
+    private SeatInventory inventory(Departure departure) {
+        SeatInventory inventory = inventories.get(departure);
+        if (inventory != null) {
+            return inventory;
+        }
+        Train train = trainCatalog.getTrain(departure.getTrainNumber());
+        if (isDeparted(departure)) {
+            throw new DepartureNotFoundException("Departure " + departure + " has already left");
+        }
+        // Versions start from the shard's creation time, so a restarted service never hands out a version that a
+        // client may still hold for different seats.
+        return inventories.computeIfAbsent(departure,
+                key -> new SeatInventory(train, contention, clock.millis() << VERSION_SHIFT));
+    }
+
+    private Seat changed(Departure departure, Seat seat) {
+        for (SeatChangeListener listener : listeners) {
+            listener.seatChanged(departure, seat);
+        }
+        return seat;
+    }
+
+    private List<Seat> changed(Departure departure, List<Seat> seats) {
+        if (!listeners.isEmpty()) {
+            seats.forEach(seat -> changed(departure, seat));
+        }
+        return seats;
+    }
+
+    public boolean isDeparted(Departure departure) {
+        return departure.getDate().isBefore(LocalDate.now(clock));
     }
 }
@@ -0,0 +1,49 @@
+package com.dwij.trainbooking.service.impl;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed pool of locks indexed by key hash, so operations on the same email serialize while
+ * unrelated emails proceed in parallel without a global lock.
+ */
+public final class StripedLocks {
+    private final ReentrantLock[] locks;
+    private final int mask;
+
+    public StripedLocks(int minimumStripes) {
+        int stripes = Integer.highestOneBit(Math.max(1, minimumStripes - 1)) << 1;
+        this.locks = new ReentrantLock[stripes];
+        this.mask = stripes - 1;
+        for (int i = 0; i < stripes; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    public static StripedLocks forAvailableProcessors() {
+        return new StripedLocks(Runtime.getRuntime().availableProcessors() * 16);
+    }
+
+    public ReentrantLock lockFor(String key) {
+        return locks[indexFor(key)];
+    }
+
+    /**
+     * The distinct locks guarding {@code keys}, in stripe order. Acquiring them in the returned order cannot
+     * deadlock with another caller doing the same.
+     */
+    public List<ReentrantLock> locksFor(Collection<String> keys) {
+        return keys.stream()
+                .mapToInt(this::indexFor)
+                .distinct()
+                .sorted()
+                .mapToObj(index -> locks[index])
+                .toList();
+    }
+
+    int indexFor(String key) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
@@ -1,53 +1,236 @@
 package com.dwij.trainbooking.service.impl;
 
+import com.dwij.trainbooking.exception.DepartureNotFoundException;
+import com.dwij.trainbooking.exception.InvalidCursorException;
+import com.dwij.trainbooking.exception.InvalidSwapException;
+import com.dwij.trainbooking.exception.SeatUnavailableException;
 import com.dwij.trainbooking.exception.TicketAlreadyExistsException;
+import com.dwij.trainbooking.exception.TicketConflictException;
 import com.dwij.trainbooking.exception.TicketNotFoundException;
+import com.dwij.trainbooking.exception.UserNotFoundException;
+import com.dwij.trainbooking.exception.WaitlistEntryNotFoundException;
+import com.dwij.trainbooking.journal.BookingJournal;
+import com.dwij.trainbooking.journal.JournalEvent;
+import com.dwij.trainbooking.journal.JournalException;
 import com.dwij.trainbooking.models.*;
 import com.dwij.trainbooking.repository.TicketRepository;
 import com.dwij.trainbooking.service.TicketService;
 import com.dwij.trainbooking.service.UserService;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
-import java.util.UUID;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
+@Timed(value = "booking.tickets", histogram = true)
 public class TicketServiceImpl implements TicketService {
+    private static final int MAX_COMMIT_ATTEMPTS = 4;
+    private static final long CONFLICT_BACKOFF_NANOS = 50_000;
     private final TicketRepository ticketRepository;
     private final SimpleSeatAllocationService seatAllocationService;
     private final UserService userService;
+    private final BookingJournal journal;
+    private final StripedLocks emailLocks = StripedLocks.forAvailableProcessors();
+    private final Waitlists waitlists = new Waitlists();
+    private final LongAdder conflicts = new LongAdder();
 
     public TicketServiceImpl(TicketRepository ticketRepository, SimpleSeatAllocationService seatAllocationService,
             UserService userService) {
+        this(ticketRepository, seatAllocationService, userService, BookingJournal.disabled());
+    }
+
+    @Autowired
+    public TicketServiceImpl(TicketRepository ticketRepository, SimpleSeatAllocationService seatAllocationService,
+            UserService userService, BookingJournal journal) {
         this.ticketRepository = ticketRepository;
         this.seatAllocationService = seatAllocationService;
         this.userService = userService;
+        this.journal = journal;
     }
 
     @Override
-    public Ticket purchaseTicket(String email, Section section) {
+    public Ticket purchaseTicket(String email, Section section, String from, String to) {
+        return purchaseTicket(seatAllocationService.defaultDeparture(), email, section, from, to);
+    }
+
+    @Override
+    public Ticket purchaseTicket(Departure departure, String email, Section section, String from, String to) {
         User user = userService.getUserByEmail(email);
+        Journey journey = seatAllocationService.getRoute(departure).resolve(from, to);
 
-        Ticket existingTicket = ticketRepository.findByUserEmail(email);
+        Ticket ticket;
+        CompletableFuture<Void> commit;
+        Lock lock = emailLocks.lockFor(email);
+        lock.lock();
+        try {
+            Ticket existingTicket = ticketRepository.findByUserEmail(email);
 
-        if (existingTicket != null) {
-            throw new TicketAlreadyExistsException("A ticket is already booked for this email: " + email);
+            if (existingTicket != null) {
+                throw new TicketAlreadyExistsException("A ticket is already booked for this email: " + email);
+            }
+
+            Seat seat = seatAllocationService.allocateSeat(departure, section, journey);
+            try {
+                ticket = newTicket(departure, user, journey, seat);
+                ticketRepository.save(ticket);
+            } catch (RuntimeException e) {
+                seatAllocationService.releaseSeat(departure, seat, journey);
+                throw e;
+            }
+            commit = record(JournalEvent.TicketPurchased.of(ticket));
+        } finally {
+            lock.unlock();
+        }
+        try {
+            BookingJournal.awaitDurable(commit);
+        } catch (JournalException e) {
+            if (undoPurchases(List.of(ticket))) {
+                vacateSeat(departure, ticket.getSeat(), journey);
+                throw e;
+            }
         }
+        return ticket;
+    }
 
-        Seat seat = seatAllocationService.allocateSeat(section);
+    /**
+     * Issues a ticket for a seat the caller has already claimed, such as a confirmed hold. The seat is left claimed
+     * if this throws; releasing it is up to the caller.
+     */
+    public Ticket purchaseClaimedSeat(Departure departure, String email, Journey journey, Seat seat) {
+        User user = userService.getUserByEmail(email);
+        Ticket ticket;
+        CompletableFuture<Void> commit;
+        Lock lock = emailLocks.lockFor(email);
+        lock.lock();
+        try {
+            if (ticketRepository.findByUserEmail(email) != null) {
+                throw new TicketAlreadyExistsException("A ticket is already booked for this email: " + email);
+            }
+            ticket = newTicket(departure, user, journey, seat);
+            ticketRepository.save(ticket);
+            commit = record(JournalEvent.TicketPurchased.of(ticket));
+        } finally {
+            lock.unlock();
+        }
+        try {
+            BookingJournal.awaitDurable(commit);
+        } catch (JournalException e) {
+            if (undoPurchases(List.of(ticket))) {
+                throw e;
+            }
+        }
+        return ticket;
+    }
 
-        Ticket ticket = Ticket.builder()
-                .id(UUID.randomUUID().toString())
-                .user(user)
-                .from("London")
-                .to("France")
-                .pricePaid(20.0)
-                .seat(seat)
-                .build();
+    @Override
+    public BatchPurchaseResult purchaseTickets(List<BatchPurchaseEntry> entries, String from, String to) {
+        return purchaseTickets(seatAllocationService.defaultDeparture(), entries, from, to);
+    }
 
-        ticketRepository.save(ticket);
-        return ticket;
+    /**
+     * Books a group in one pass: the entries' email locks are taken once, in stripe order, every seat comes from a
+     * single allocator call and the tickets are saved and journaled together. Any rejected entry rolls back the
+     * whole batch.
+     */
+    @Override
+    public BatchPurchaseResult purchaseTickets(Departure departure, List<BatchPurchaseEntry> entries, String from,
+            String to) {
+        Journey journey = seatAllocationService.getRoute(departure).resolve(from, to);
+        Map<Integer, String> rejections = new HashMap<>();
+        List<User> users = new ArrayList<>(entries.size());
+        Set<String> emails = new HashSet<>();
+        for (int i = 0; i < entries.size(); i++) {
+            BatchPurchaseEntry entry = entries.get(i);
+            User user = null;
+            if (entry.getEmail() == null || entry.getSection() == null) {
+                rejections.put(i, "Email and section are required");
+            } else if (!emails.add(entry.getEmail())) {
+                rejections.put(i, "Duplicate email in batch: " + entry.getEmail());
+            } else {
+                try {
+                    user = userService.getUserByEmail(entry.getEmail());
+                } catch (UserNotFoundException e) {
+                    rejections.put(i, e.getMessage());
+                }
+            }
+            users.add(user);
+        }
+        if (!rejections.isEmpty()) {
+            return rolledBack(entries, rejections, "Another entry in the batch was rejected");
+        }
+
+        List<Ticket> tickets = new ArrayList<>(entries.size());
+        CompletableFuture<Void> commit;
+        List<ReentrantLock> locks = emailLocks.locksFor(emails);
+        locks.forEach(Lock::lock);
+        try {
+            for (int i = 0; i < entries.size(); i++) {
+                if (ticketRepository.findByUserEmail(entries.get(i).getEmail()) != null) {
+                    rejections.put(i, "A ticket is already booked for this email: " + entries.get(i).getEmail());
+                }
+            }
+            if (!rejections.isEmpty()) {
+                return rolledBack(entries, rejections, "Another entry in the batch was rejected");
+            }
+
+            List<Seat> seats;
+            try {
+                seats = seatAllocationService.allocateSeats(departure,
+                        entries.stream().map(BatchPurchaseEntry::getSection).toList(), journey);
+            } catch (SeatUnavailableException e) {
+                return rolledBack(entries, rejections, e.getMessage());
+            }
+            for (int i = 0; i < entries.size(); i++) {
+                tickets.add(newTicket(departure, users.get(i), journey, seats.get(i)));
+            }
+            try {
+                ticketRepository.saveAll(tickets);
+            } catch (RuntimeException e) {
+                emails.forEach(ticketRepository::deleteByUserEmail);
+                seats.forEach(seat -> seatAllocationService.releaseSeat(departure, seat, journey));
+                throw e;
+            }
+            commit = CompletableFuture.allOf(tickets.stream()
+                    .map(ticket -> record(JournalEvent.TicketPurchased.of(ticket)))
+                    .toArray(CompletableFuture[]::new));
+        } finally {
+            for (int i = locks.size() - 1; i >= 0; i--) {
+                locks.get(i).unlock();
+            }
+        }
+        try {
+            BookingJournal.awaitDurable(commit);
+        } catch (JournalException e) {
+            if (undoPurchases(tickets)) {
+                tickets.forEach(ticket -> vacateSeat(departure, ticket.getSeat(), journey));
+                throw e;
+            }
+        }
+        return new BatchPurchaseResult(true, tickets.stream().map(BatchPurchaseResult.EntryResult::booked).toList());
+    }
+
+    private static BatchPurchaseResult rolledBack(List<BatchPurchaseEntry> entries, Map<Integer, String> rejections,
+            String reason) {
+        List<BatchPurchaseResult.EntryResult> results = new ArrayList<>(entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            String email = entries.get(i).getEmail();
+            String rejection = rejections.get(i);
+            results.add(rejection != null
+                    ? BatchPurchaseResult.EntryResult.rejected(email, rejection)
+                    : BatchPurchaseResult.EntryResult.rolledBack(email, reason));
+        }
+        return new BatchPurchaseResult(false, results);
     }
 
     @Override
@@ -59,35 +242,508 @@ public class TicketServiceImpl implements TicketService {
         return ticket;
     }
 
+    /**
+     * Deletes the ticket only if it has not changed since it was read, retrying on a fresh read otherwise.
+     */
     @Override
     public void cancelTicket(String email) {
-        Ticket ticket = ticketRepository.findByUserEmail(email);
-        if (ticket == null) {
-            throw new TicketNotFoundException("No ticket found for email: " + email);
+        for (int attempt = 1; ; attempt++) {
+            Ticket ticket = getTicket(email);
+            CompletableFuture<Void> commit;
+            Lock lock = emailLocks.lockFor(email);
+            lock.lock();
+            try {
+                commit = ticketRepository.compareAndDelete(ticket)
+                        ? record(new JournalEvent.TicketCancelled(email))
+                        : null;
+            } finally {
+                lock.unlock();
+            }
+            if (commit == null) {
+                conflicted(email, attempt);
+                continue;
+            }
+            // The seat stays claimed until the cancellation is durable, so a failed one can put the ticket back.
+            try {
+                BookingJournal.awaitDurable(commit);
+            } catch (JournalException e) {
+                if (undoCancel(ticket)) {
+                    throw e;
+                }
+            }
+            vacateSeat(departureOf(ticket), ticket.getSeat(), journeyOf(ticket));
+            return;
         }
-        seatAllocationService.releaseSeat(ticket.getSeat());
-        ticketRepository.deleteByUserEmail(email);
     }
 
+    /**
+     * Claims the requested seat without holding any lock, then commits the move only if the ticket is still at the
+     * version it was read at. If a concurrent change or cancellation got there first, the claimed seat is released
+     * and the change retried on a fresh read, up to {@link #MAX_COMMIT_ATTEMPTS} times. The email lock is held only
+     * around the commit, so the journal records changes to one ticket in the order they were made.
+     */
     @Override
     public Ticket modifySeat(String email, Seat requestedSeat) {
-        Ticket ticket = getTicket(email);
-        Seat newSeat = seatAllocationService.reallocateSeat(ticket.getSeat(), requestedSeat);
-        Ticket updatedTicket = ticket.withSeat(newSeat);
-        ticketRepository.save(updatedTicket);
-        return updatedTicket;
+        for (int attempt = 1; ; attempt++) {
+            Ticket ticket = getTicket(email);
+            if (ticket.getSeat().equals(requestedSeat)) {
+                return ticket;
+            }
+            Departure departure = departureOf(ticket);
+            Journey journey = journeyOf(ticket);
+            Seat newSeat = seatAllocationService.claimSeat(departure, requestedSeat, journey);
+            Ticket updatedTicket = ticket.withSeat(newSeat);
+            CompletableFuture<Void> commit = null;
+            Lock lock = emailLocks.lockFor(email);
+            lock.lock();
+            try {
+                boolean replaced;
+                try {
+                    replaced = ticketRepository.compareAndSet(ticket, updatedTicket);
+                } catch (RuntimeException e) {
+                    seatAllocationService.releaseSeat(departure, newSeat, journey);
+                    throw e;
+                }
+                if (replaced) {
+                    commit = record(new JournalEvent.SeatModified(email, newSeat.getSection(),
+                            newSeat.getSeatNumber()));
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (commit == null) {
+                seatAllocationService.releaseSeat(departure, newSeat, journey);
+                conflicted(email, attempt);
+                continue;
+            }
+            try {
+                BookingJournal.awaitDurable(commit);
+            } catch (JournalException e) {
+                if (undoMove(List.of(updatedTicket), List.of(ticket))) {
+                    vacateSeat(departure, newSeat, journey);
+                    throw e;
+                }
+            }
+            vacateSeat(departure, ticket.getSeat(), journey);
+            return updatedTicket;
+        }
+    }
+
+    /**
+     * Swaps two seats without a section-wide lock and without either seat becoming free in between. Each seat is
+     * first extended to the legs its new holder needs that its current holder does not cover, so tickets on the
+     * same journey swap without touching the inventory at all. Both tickets are then replaced under their email
+     * locks, taken in stripe order, only if neither changed since it was read; otherwise the extensions are undone
+     * and the swap retried like a seat change. Legs only the old holder needed are released last.
+     */
+    @Override
+    public List<Ticket> swapSeats(String firstEmail, String secondEmail) {
+        if (firstEmail.equals(secondEmail)) {
+            throw new InvalidSwapException("A ticket cannot swap seats with itself: " + firstEmail);
+        }
+        for (int attempt = 1; ; attempt++) {
+            Ticket first = getTicket(firstEmail);
+            Ticket second = getTicket(secondEmail);
+            Departure departure = departureOf(first);
+            if (!departure.equals(departureOf(second))) {
+                throw new InvalidSwapException("The tickets for " + firstEmail + " and " + secondEmail
+                        + " are on different departures");
+            }
+            Journey firstJourney = journeyOf(first);
+            Journey secondJourney = journeyOf(second);
+            seatAllocationService.extendSeat(departure, second.getSeat(), secondJourney, firstJourney);
+            try {
+                seatAllocationService.extendSeat(departure, first.getSeat(), firstJourney, secondJourney);
+            } catch (RuntimeException e) {
+                seatAllocationService.retainSeat(departure, second.getSeat(), firstJourney, secondJourney);
+                throw e;
+            }
+            Ticket firstSwapped = first.withSeat(second.getSeat());
+            Ticket secondSwapped = second.withSeat(first.getSeat());
+            boolean swapped = false;
+            CompletableFuture<Void> commit = null;
+            List<ReentrantLock> locks = emailLocks.locksFor(List.of(firstEmail, secondEmail));
+            locks.forEach(Lock::lock);
+            try {
+                if (ticketRepository.compareAndSet(first, firstSwapped)) {
+                    swapped = ticketRepository.compareAndSet(second, secondSwapped);
+                    if (!swapped) {
+                        ticketRepository.compareAndSet(firstSwapped, first);
+                    }
+                }
+                if (swapped) {
+                    commit = record(JournalEvent.SeatsSwapped.of(firstSwapped, secondSwapped));
+                }
+            } finally {
+                for (int i = locks.size() - 1; i >= 0; i--) {
+                    locks.get(i).unlock();
+                }
+                if (!swapped) {
+                    seatAllocationService.retainSeat(departure, second.getSeat(), firstJourney, secondJourney);
+                    seatAllocationService.retainSeat(departure, first.getSeat(), secondJourney, firstJourney);
+                }
+            }
+            if (!swapped) {
+                conflicted(firstEmail, attempt);
+                continue;
+            }
+            try {
+                BookingJournal.awaitDurable(commit);
+            } catch (JournalException e) {
+                if (undoMove(List.of(firstSwapped, secondSwapped), List.of(first, second))) {
+                    seatAllocationService.retainSeat(departure, second.getSeat(), firstJourney, secondJourney);
+                    seatAllocationService.retainSeat(departure, first.getSeat(), secondJourney, firstJourney);
+                    throw e;
+                }
+            }
+            seatAllocationService.retainSeat(departure, first.getSeat(), firstJourney, secondJourney);
+            seatAllocationService.retainSeat(departure, second.getSeat(), secondJourney, firstJourney);
+            if (!firstJourney.equals(secondJourney)) {
+                promoteWaiters(departure, first.getSeat().getSection());
+                promoteWaiters(departure, second.getSeat().getSection());
+            }
+            return List.of(firstSwapped, secondSwapped);
+        }
+    }
+
+    /**
+     * Appends to the journal, turning an append the journal refuses outright into a failed commit so the change is
+     * undone like any other that did not become durable.
+     */
+    private CompletableFuture<Void> record(JournalEvent event) {
+        try {
+            return journal.append(event);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Journals the reverse of a change whose own record failed, in case that record reached the disk anyway. Not
+     * awaited: the journal is already failing and the change has been undone in memory.
+     */
+    private void recordUndo(JournalEvent event) {
+        try {
+            journal.append(event);
+        } catch (RuntimeException ignored) {
+            // nothing more to do than the in-memory undo that already happened
+        }
+    }
+
+    /**
+     * Deletes tickets whose purchase record failed, all or none. Like the other undos, it applies only if the
+     * tickets are still exactly as the change left them: once a later change has built on one, the change stands
+     * and its fate rests with the later change's record. Seats are left to the caller, which releases them only if
+     * the undo applied.
+     */
+    private boolean undoPurchases(List<Ticket> tickets) {
+        List<ReentrantLock> locks = emailLocks.locksFor(tickets.stream().map(ticket -> ticket.getUser().getEmail())
+                .toList());
+        locks.forEach(Lock::lock);
+        try {
+            for (Ticket ticket : tickets) {
+                if (!isCurrent(ticket)) {
+                    return false;
+                }
+            }
+            for (Ticket ticket : tickets) {
+                ticketRepository.compareAndDelete(ticket);
+                recordUndo(new JournalEvent.TicketCancelled(ticket.getUser().getEmail()));
+            }
+            return true;
+        } finally {
+            for (int i = locks.size() - 1; i >= 0; i--) {
+                locks.get(i).unlock();
+            }
+        }
+    }
+
+    /**
+     * Puts back a ticket whose cancellation record failed, unless the holder has booked again since.
+     */
+    private boolean undoCancel(Ticket ticket) {
+        String email = ticket.getUser().getEmail();
+        Lock lock = emailLocks.lockFor(email);
+        lock.lock();
+        try {
+            if (ticketRepository.findByUserEmail(email) != null) {
+                return false;
+            }
+            ticketRepository.save(ticket);
+            recordUndo(JournalEvent.TicketPurchased.of(ticket));
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Puts tickets moved to other seats back to {@code originals}, all or none.
+     */
+    private boolean undoMove(List<Ticket> moved, List<Ticket> originals) {
+        List<ReentrantLock> locks = emailLocks.locksFor(moved.stream().map(ticket -> ticket.getUser().getEmail())
+                .toList());
+        locks.forEach(Lock::lock);
+        try {
+            for (Ticket ticket : moved) {
+                if (!isCurrent(ticket)) {
+                    return false;
+                }
+            }
+            for (int i = 0; i < moved.size(); i++) {
+                ticketRepository.compareAndSet(moved.get(i), originals.get(i));
+            }
+            recordUndo(originals.size() == 2
+                    ? JournalEvent.SeatsSwapped.of(originals.get(0), originals.get(1))
+                    : new JournalEvent.SeatModified(originals.get(0).getUser().getEmail(),
+                            originals.get(0).getSeat().getSection(), originals.get(0).getSeat().getSeatNumber()));
+            return true;
+        } finally {
+            for (int i = locks.size() - 1; i >= 0; i--) {
+                locks.get(i).unlock();
+            }
+        }
+    }
+
+    private boolean isCurrent(Ticket ticket) {
+        Ticket stored = ticketRepository.findByUserEmail(ticket.getUser().getEmail());
+        return stored != null && stored.getId().equals(ticket.getId()) && stored.getVersion() == ticket.getVersion();
+    }
+
+    /**
+     * Number of seat changes, swaps and cancellations that found the ticket changed when committing and retried.
+     */
+    public long getConflictCount() {
+        return conflicts.sum();
+    }
+
+    /**
+     * Gives up once {@link #MAX_COMMIT_ATTEMPTS} commits have lost, otherwise waits a random, growing backoff so
+     * racing writers spread out before re-reading.
+     */
+    private void conflicted(String email, int attempt) {
+        conflicts.increment();
+        if (attempt >= MAX_COMMIT_ATTEMPTS) {
+            throw new TicketConflictException("The ticket for " + email
+                    + " kept changing while it was being updated; retry the request");
+        }
+        LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(CONFLICT_BACKOFF_NANOS << attempt));
     }
 
     @Override
     public List<String> getUsersAndSeatsBySection(Section section) {
-        return ticketRepository.findAll().values().stream()
-                .filter(ticket -> ticket.getSeat().getSection() == section)
-                .sorted((t1, t2) -> {
-                    int seatNumber1 = Integer.parseInt(t1.getSeat().getSeatNumber().replaceAll("\\D", ""));
-                    int seatNumber2 = Integer.parseInt(t2.getSeat().getSeatNumber().replaceAll("\\D", ""));
-                    return Integer.compare(seatNumber1, seatNumber2);
-                })
+        return getUsersAndSeatsBySection(seatAllocationService.defaultDeparture(), section);
+    }
+
+    @Override
+    public List<String> getUsersAndSeatsBySection(Departure departure, Section section) {
+        return ticketRepository.findByDepartureAndSection(departure, section).stream()
                 .map(ticket -> "User: " + ticket.getUser().getEmail() + ", Seat: " + ticket.getSeat().getSeatNumber())
                 .collect(Collectors.toList());
     }
-}
\ No newline at end of file
+
+    @Override
+    public ManifestPage getManifestPage(Section section, String cursor, int limit) {
+        return getManifestPage(seatAllocationService.defaultDeparture(), section, cursor, limit);
+    }
+
+    @Override
+    public ManifestPage getManifestPage(Departure departure, Section section, String cursor, int limit) {
+        Seat afterSeat = null;
+        String afterEmail = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            String[] position = decodeCursor(cursor);
+            afterSeat = Seat.of(position[0], section);
+            afterEmail = position[1];
+        }
+        List<ManifestEntry> entries = new ArrayList<>(limit);
+        Iterator<Ticket> tickets = ticketRepository.findByDepartureAndSection(departure, section, afterSeat, afterEmail)
+                .iterator();
+        Ticket last = null;
+        while (entries.size() < limit && tickets.hasNext()) {
+            last = tickets.next();
+            entries.add(ManifestEntry.of(last));
+        }
+        String nextCursor = last != null && tickets.hasNext() ? encodeCursor(last) : null;
+        return new ManifestPage(entries, nextCursor);
+    }
+
+    @Override
+    public Stream<ManifestEntry> streamManifest(Section section) {
+        return streamManifest(seatAllocationService.defaultDeparture(), section);
+    }
+
+    @Override
+    public Stream<ManifestEntry> streamManifest(Departure departure, Section section) {
+        return ticketRepository.findByDepartureAndSection(departure, section).stream().map(ManifestEntry::of);
+    }
+
+    @Override
+    public WaitlistEntry joinWaitlist(String email, Section section, String from, String to) {
+        return joinWaitlist(seatAllocationService.defaultDeparture(), email, section, from, to);
+    }
+
+    @Override
+    public WaitlistEntry joinWaitlist(Departure departure, String email, Section section, String from, String to) {
+        userService.getUserByEmail(email);
+        Route route = seatAllocationService.getRoute(departure);
+        Journey journey = route.resolve(from, to);
+        route.validate(journey);
+        if (seatAllocationService.isDeparted(departure)) {
+            throw new DepartureNotFoundException("Departure " + departure + " has already left");
+        }
+        if (!seatAllocationService.hasSection(departure, section)) {
+            throw new SeatUnavailableException("Section " + section + " is not available on train "
+                    + departure.getTrainNumber());
+        }
+        if (ticketRepository.findByUserEmail(email) != null) {
+            throw new TicketAlreadyExistsException("A ticket is already booked for this email: " + email);
+        }
+        Waitlists.Waiter waiter;
+        Lock lock = emailLocks.lockFor(email);
+        lock.lock();
+        try {
+            waiter = waitlists.join(departure, section, email, journey);
+        } finally {
+            lock.unlock();
+        }
+        // A seat freed just before the join was released to the pool rather than handed over; pick it up now.
+        promoteWaiters(departure, section);
+        return entryOf(waiter);
+    }
+
+    @Override
+    public WaitlistEntry getWaitlistEntry(String email) {
+        Waitlists.Waiter waiter = waitlists.find(email);
+        if (waiter == null) {
+            throw new WaitlistEntryNotFoundException("No waitlist entry found for email: " + email);
+        }
+        return entryOf(waiter);
+    }
+
+    @Override
+    public void leaveWaitlist(String email) {
+        if (!waitlists.leave(email)) {
+            throw new WaitlistEntryNotFoundException("No waitlist entry found for email: " + email);
+        }
+    }
+
+    public int waitlistSize() {
+        return waitlists.size();
+    }
+
+    /**
+     * Drops the waitlists of departed trains, alongside the eviction of their seat inventories.
+     */
+    @Scheduled(cron = "${booking.inventory.eviction-cron:0 5 0 * * *}")
+    public void evictDepartedWaitlists() {
+        waitlists.evict(seatAllocationService::isDeparted);
+    }
+
+    /**
+     * Gives up a claimed seat. If someone is waiting for a journey the seat covers, the seat is transferred to them
+     * and ticketed without ever becoming free, so it cannot be taken by a concurrent booking first. Otherwise it is
+     * released and any waiters the inventory can now serve are promoted. Must not be called while holding an email
+     * lock, since promotion takes the waiter's.
+     */
+    public void vacateSeat(Departure departure, Seat seat, Journey journey) {
+        Waitlists.Waiter waiter = waitlists.claimNext(departure, seat.getSection(),
+                waiting -> seatAllocationService.getRoute(departure).covers(journey, waiting));
+        if (waiter != null) {
+            seatAllocationService.transferSeat(departure, seat, journey, waiter.journey());
+            if (promote(waiter, seat)) {
+                return;
+            }
+        } else {
+            seatAllocationService.releaseSeat(departure, seat, journey);
+        }
+        promoteWaiters(departure, seat.getSection());
+    }
+
+    private void promoteWaiters(Departure departure, Section section) {
+        Waitlists.Waiter waiter;
+        while ((waiter = waitlists.claimNext(departure, section, journey -> true)) != null) {
+            Seat seat;
+            try {
+                seat = seatAllocationService.allocateSeat(departure, section, waiter.journey());
+            } catch (SeatUnavailableException e) {
+                waitlists.abandon(waiter);
+                return;
+            }
+            promote(waiter, seat);
+        }
+    }
+
+    /**
+     * Tickets a waiter on a seat already claimed for their journey. A waiter that can no longer be ticketed, for
+     * example because they booked directly in the meantime, is dropped from the waitlist and the seat released.
+     */
+    private boolean promote(Waitlists.Waiter waiter, Seat seat) {
+        try {
+            purchaseClaimedSeat(waiter.departure(), waiter.email(), waiter.journey(), seat);
+            return true;
+        } catch (RuntimeException e) {
+            seatAllocationService.releaseSeat(waiter.departure(), seat, waiter.journey());
+            return false;
+        } finally {
+            waitlists.complete(waiter);
+        }
+    }
+
+    private WaitlistEntry entryOf(Waitlists.Waiter waiter) {
+        int position = waitlists.position(waiter);
+        return new WaitlistEntry(waiter.email(), waiter.departure(), waiter.section(), waiter.journey(),
+                position > 0 ? WaitlistEntry.Status.WAITING : WaitlistEntry.Status.PROMOTED, position);
+    }
+
+    private static String encodeCursor(Ticket ticket) {
+        String position = ticket.getSeat().getSeatNumber() + '\n' + ticket.getUser().getEmail();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = position.indexOf('\n');
+            if (separator > 0) {
+                return new String[]{position.substring(0, separator), position.substring(separator + 1)};
+            }
+        } catch (IllegalArgumentException e) {
+            // fall through to the rejection below
+        }
+        throw new InvalidCursorException("Invalid manifest cursor: " + cursor);
+    }
+
+    /**
+     * Random version 4 UUID drawn from {@link ThreadLocalRandom}. {@code UUID.randomUUID()} goes through a shared
+     * SecureRandom whose monitor would pin virtual threads under concurrent purchases. The result is predictable,
+     * so it is only fit for ticket IDs, which are never used as credentials.
+     */
+    private static String randomUuid() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long mostSigBits = (random.nextLong() & ~0xF000L) | 0x4000L;
+        long leastSigBits = (random.nextLong() & ~(0xC000L << 48)) | (0x8000L << 48);
+        return new UUID(mostSigBits, leastSigBits).toString();
+    }
+
+    private static Ticket newTicket(Departure departure, User user, Journey journey, Seat seat) {
+        return Ticket.builder()
+                .id(randomUuid())
+                .user(user)
+                .trainNumber(departure.getTrainNumber())
+                .departureDate(departure.getDate())
+                .from(journey.getFrom())
+                .to(journey.getTo())
+                .pricePaid(20.0)
+                .seat(seat)
+                .build();
+    }
+
+    private static Departure departureOf(Ticket ticket) {
+        return Departure.of(ticket.getTrainNumber(), ticket.getDepartureDate());
+    }
+
+    private static Journey journeyOf(Ticket ticket) {
+        return Journey.of(ticket.getFrom(), ticket.getTo());
+    }
+}
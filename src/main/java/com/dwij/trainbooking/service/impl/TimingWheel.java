@@ -0,0 +1,133 @@
+package com.dwij.trainbooking.service.impl;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel. Level 0 has one slot per tick, and each level above covers 64 times the span of the
+ * one below, so any deadline lands in a slot in O(1). When a lower level wraps, the matching slot of the level above
+ * is cascaded down; an entry moves at most once per level before it fires.
+ * <p>
+ * {@link #schedule} may be called from any thread: entries go through a lock-free inbox and are only placed on the
+ * wheel by {@link #advance}, which is meant to be driven by a single ticking thread. There is no cancel; callers
+ * ignore firings for entries that were settled in the meantime.
+ */
+public final class TimingWheel<T> {
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = (Long.SIZE + SLOT_BITS - 1) / SLOT_BITS;
+
+    private final long tickMillis;
+    private final Queue<Timer<T>> inbox = new ConcurrentLinkedQueue<>();
+    @SuppressWarnings("unchecked")
+    private final ArrayDeque<Timer<T>>[][] levels = (ArrayDeque<Timer<T>>[][]) new ArrayDeque<?>[LEVELS][];
+    private final ArrayDeque<Timer<T>> due = new ArrayDeque<>();
+    private final ReentrantLock advanceLock = new ReentrantLock();
+    private final AtomicInteger pending = new AtomicInteger();
+    private long currentTick;
+
+    public TimingWheel(long tickMillis, long startMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("Tick must be positive: " + tickMillis);
+        }
+        this.tickMillis = tickMillis;
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    /**
+     * Fires {@code item} on the first {@link #advance} at or after {@code deadlineMillis}, rounded up to a tick.
+     */
+    public void schedule(T item, long deadlineMillis) {
+        inbox.add(new Timer<>(item, Math.ceilDiv(deadlineMillis, tickMillis)));
+        pending.incrementAndGet();
+    }
+
+    /**
+     * Moves the wheel forward to {@code nowMillis}, handing every entry whose deadline has passed to {@code expired}.
+     */
+    public void advance(long nowMillis, Consumer<? super T> expired) {
+        advanceLock.lock();
+        try {
+            Timer<T> timer;
+            while ((timer = inbox.poll()) != null) {
+                place(timer);
+            }
+            fire(expired);
+            long targetTick = nowMillis / tickMillis;
+            while (currentTick < targetTick) {
+                currentTick++;
+                for (int level = cascadeLevel(currentTick); level > 0; level--) {
+                    drain(levels[level], slot(currentTick, level), this::place);
+                }
+                drain(levels[0], slot(currentTick, 0), due::add);
+                fire(expired);
+            }
+        } finally {
+            advanceLock.unlock();
+        }
+    }
+
+    /**
+     * Entries scheduled but not yet fired.
+     */
+    public int size() {
+        return pending.get();
+    }
+
+    private void place(Timer<T> timer) {
+        long delta = timer.tick - currentTick;
+        if (delta <= 0) {
+            due.add(timer);
+            return;
+        }
+        int level = (Long.SIZE - 1 - Long.numberOfLeadingZeros(delta)) / SLOT_BITS;
+        if (levels[level] == null) {
+            @SuppressWarnings("unchecked")
+            ArrayDeque<Timer<T>>[] slots = (ArrayDeque<Timer<T>>[]) new ArrayDeque<?>[SLOTS];
+            levels[level] = slots;
+        }
+        int slot = slot(timer.tick, level);
+        ArrayDeque<Timer<T>> bucket = levels[level][slot];
+        if (bucket == null) {
+            bucket = new ArrayDeque<>();
+            levels[level][slot] = bucket;
+        }
+        bucket.add(timer);
+    }
+
+    private void fire(Consumer<? super T> expired) {
+        Timer<T> timer;
+        while ((timer = due.poll()) != null) {
+            pending.decrementAndGet();
+            expired.accept(timer.item);
+        }
+    }
+
+    private static <T> void drain(ArrayDeque<Timer<T>>[] slots, int slot, Consumer<Timer<T>> target) {
+        if (slots == null || slots[slot] == null || slots[slot].isEmpty()) {
+            return;
+        }
+        ArrayDeque<Timer<T>> bucket = slots[slot];
+        slots[slot] = null;
+        bucket.forEach(target);
+    }
+
+    /**
+     * Highest level whose slot boundary {@code tick} sits on, i.e. the levels that wrap below it on this tick.
+     */
+    private static int cascadeLevel(long tick) {
+        return Math.min(LEVELS - 1, Long.numberOfTrailingZeros(tick) / SLOT_BITS);
+    }
+
+    private static int slot(long tick, int level) {
+        return (int) (tick >>> (level * SLOT_BITS)) & SLOT_MASK;
+    }
+
+    private record Timer<T>(T item, long tick) {
+    }
+}
@@ -0,0 +1,167 @@
+package com.dwij.trainbooking.service.impl;
+
+import com.dwij.trainbooking.journal.BookingJournal;
+import com.dwij.trainbooking.journal.JournalEvent;
+import com.dwij.trainbooking.models.User;
+import com.dwij.trainbooking.models.UserImportResult;
+import com.dwij.trainbooking.repository.UserRepository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Inserts a stream of users in parallel. Rows are partitioned by email hash and each partition is a serial lane of
+ * batches, so lanes never share an email and the first occurrence of a duplicate always wins. The reader blocks
+ * once a bounded number of batches are in flight, so a payload is never buffered whole. Journal appends are not
+ * awaited per user: group commit makes them durable in order, and the import waits for each lane's last one.
+ */
+final class UserImporter {
+    private static final int MAX_REPORTED_REJECTIONS = 1000;
+    private static final int BATCHES_IN_FLIGHT_PER_LANE = 2;
+
+    private final UserRepository userRepository;
+    private final BookingJournal journal;
+    private final Executor executor;
+    private final int lanes;
+    private final int batchSize;
+
+    UserImporter(UserRepository userRepository, BookingJournal journal, Executor executor, int lanes, int batchSize) {
+        if (lanes <= 0 || batchSize <= 0) {
+            throw new IllegalArgumentException("Lanes and batch size must be positive: " + lanes + ", " + batchSize);
+        }
+        this.userRepository = userRepository;
+        this.journal = journal;
+        this.executor = executor;
+        this.lanes = lanes;
+        this.batchSize = batchSize;
+    }
+
+    UserImportResult importAll(Iterator<User> users) {
+        Run run = new Run();
+        try {
+            long row = 0;
+            while (users.hasNext() && !run.failed()) {
+                run.add(new Row(++row, users.next()));
+            }
+        } finally {
+            run.finish();
+        }
+        return run.result();
+    }
+
+    private final class Run {
+        private final Semaphore inFlight = new Semaphore(lanes * BATCHES_IN_FLIGHT_PER_LANE);
+        @SuppressWarnings("unchecked")
+        private final List<Row>[] pending = (List<Row>[]) new List<?>[lanes];
+        private final CompletableFuture<?>[] tails = new CompletableFuture<?>[lanes];
+        @SuppressWarnings("unchecked")
+        private final CompletableFuture<Void>[] commits = (CompletableFuture<Void>[]) new CompletableFuture<?>[lanes];
+        private final LongAdder created = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final Queue<UserImportResult.Rejection> rejections = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger reported = new AtomicInteger();
+
+        private Run() {
+            for (int lane = 0; lane < lanes; lane++) {
+                pending[lane] = new ArrayList<>(batchSize);
+                tails[lane] = CompletableFuture.completedFuture(null);
+                commits[lane] = CompletableFuture.completedFuture(null);
+            }
+        }
+
+        private void add(Row row) {
+            String email = row.user().getEmail();
+            int lane = email == null ? 0 : Math.floorMod(email.hashCode(), lanes);
+            pending[lane].add(row);
+            if (pending[lane].size() == batchSize) {
+                submit(lane);
+            }
+        }
+
+        private void submit(int lane) {
+            List<Row> batch = pending[lane];
+            if (batch.isEmpty()) {
+                return;
+            }
+            pending[lane] = new ArrayList<>(batchSize);
+            inFlight.acquireUninterruptibly();
+            tails[lane] = tails[lane].thenRunAsync(() -> {
+                try {
+                    insert(lane, batch);
+                } finally {
+                    inFlight.release();
+                }
+            }, executor);
+        }
+
+        private void insert(int lane, List<Row> batch) {
+            for (Row row : batch) {
+                User user = row.user();
+                if (user.getEmail() == null || user.getEmail().isBlank()) {
+                    reject(row, "Email is required");
+                } else if (!userRepository.saveIfAbsent(user)) {
+                    reject(row, "A user with this email already exists: " + user.getEmail());
+                } else {
+                    commits[lane] = journal.append(JournalEvent.UserCreated.of(user));
+                    created.increment();
+                }
+            }
+        }
+
+        private void reject(Row row, String error) {
+            rejected.increment();
+            if (reported.getAndIncrement() < MAX_REPORTED_REJECTIONS) {
+                rejections.add(new UserImportResult.Rejection(row.number(), row.user().getEmail(), error));
+            }
+        }
+
+        private boolean failed() {
+            for (CompletableFuture<?> tail : tails) {
+                if (tail.isCompletedExceptionally()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Hands over the partial batches and waits for every lane, so the repository and journal are settled
+         * whether the import completed or reading failed part-way.
+         */
+        private void finish() {
+            for (int lane = 0; lane < lanes; lane++) {
+                submit(lane);
+            }
+            try {
+                CompletableFuture.allOf(tails).join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+            for (CompletableFuture<Void> commit : commits) {
+                BookingJournal.awaitDurable(commit);
+            }
+        }
+
+        private UserImportResult result() {
+            List<UserImportResult.Rejection> listed = new ArrayList<>(rejections);
+            listed.sort(Comparator.comparingLong(UserImportResult.Rejection::getRow));
+            return new UserImportResult(created.sum(), rejected.sum(), listed);
+        }
+    }
+
+    private record Row(long number, User user) {
+    }
+}
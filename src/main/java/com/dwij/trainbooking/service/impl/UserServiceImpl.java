@@ -1,22 +1,48 @@
 package com.dwij.trainbooking.service.impl;
 
 import com.dwij.trainbooking.exception.UserNotFoundException;
+import com.dwij.trainbooking.journal.BookingJournal;
+import com.dwij.trainbooking.journal.JournalEvent;
 import com.dwij.trainbooking.models.User;
+import com.dwij.trainbooking.models.UserImportResult;
 import com.dwij.trainbooking.repository.UserRepository;
 import com.dwij.trainbooking.service.UserService;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.Iterator;
+import java.util.concurrent.ForkJoinPool;
+
 @Service
+@Timed(value = "booking.users", histogram = true)
 public class UserServiceImpl implements UserService {
+    private static final int IMPORT_BATCH_SIZE = 1024;
     private final UserRepository userRepository;
+    private final BookingJournal journal;
+    private final UserImporter importer;
 
     public UserServiceImpl(UserRepository userRepository) {
+        this(userRepository, BookingJournal.disabled());
+    }
+
+    @Autowired
+    public UserServiceImpl(UserRepository userRepository, BookingJournal journal) {
         this.userRepository = userRepository;
+        this.journal = journal;
+        this.importer = new UserImporter(userRepository, journal, ForkJoinPool.commonPool(),
+                Runtime.getRuntime().availableProcessors(), IMPORT_BATCH_SIZE);
     }
 
     @Override
     public void addUser(User user) {
         userRepository.save(user);
+        BookingJournal.awaitDurable(journal.append(JournalEvent.UserCreated.of(user)));
+    }
+
+    @Override
+    public UserImportResult importUsers(Iterator<User> users) {
+        return importer.importAll(users);
     }
 
     @Override
@@ -0,0 +1,270 @@
+package com.dwij.trainbooking.service.impl;
+
+import com.dwij.trainbooking.exception.WaitlistEntryAlreadyExistsException;
+import com.dwij.trainbooking.models.Departure;
+import com.dwij.trainbooking.models.Journey;
+import com.dwij.trainbooking.models.Section;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+/**
+ * FIFO waitlists, grouped by departure so a departed train's waiters go with it in {@link #evict}. Each section
+ * keeps its waiters in a linked list, so leaving unlinks in constant time, and numbers them in join order; a
+ * Fenwick tree over those numbers counts the waiters still ahead for {@link #position} without walking the list.
+ * <p>
+ * A waiter is handed out to at most one promoter by a CAS from {@code WAITING} to {@code PROMOTING}; it stays in
+ * the list, keeping its place, until the promotion is completed or abandoned. Leaving and promotion race on the
+ * same CAS.
+ */
+final class Waitlists {
+    private static final int WAITING = 0;
+    private static final int PROMOTING = 1;
+    private static final int DONE = 2;
+
+    private final ConcurrentMap<Departure, Board> boards = new ConcurrentHashMap<>();
+
+    /**
+     * Adds a waiter. An email waits on one departure at a time; callers serialise joins for the same email.
+     */
+    Waiter join(Departure departure, Section section, String email, Journey journey) {
+        if (find(email) != null) {
+            throw new WaitlistEntryAlreadyExistsException("Already on a waitlist: " + email);
+        }
+        Board board = boards.computeIfAbsent(departure, key -> new Board());
+        Lane lane = board.lanes.computeIfAbsent(section, key -> new Lane());
+        Waiter waiter = new Waiter(departure, section, email, journey, lane);
+        if (board.byEmail.putIfAbsent(email, waiter) != null) {
+            throw new WaitlistEntryAlreadyExistsException("Already on a waitlist: " + email);
+        }
+        lane.append(waiter);
+        return waiter;
+    }
+
+    Waiter find(String email) {
+        for (Board board : boards.values()) {
+            Waiter waiter = board.byEmail.get(email);
+            if (waiter != null) {
+                return waiter;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Removes a waiter that is not being promoted right now.
+     */
+    boolean leave(String email) {
+        Waiter waiter = find(email);
+        if (waiter == null || !waiter.state.compareAndSet(WAITING, DONE)) {
+            return false;
+        }
+        remove(waiter);
+        return true;
+    }
+
+    /**
+     * Claims the longest-waiting waiter whose journey satisfies {@code fits}, or returns null.
+     */
+    Waiter claimNext(Departure departure, Section section, Predicate<Journey> fits) {
+        Board board = boards.get(departure);
+        Lane lane = board == null ? null : board.lanes.get(section);
+        return lane == null ? null : lane.claimNext(fits);
+    }
+
+    void complete(Waiter waiter) {
+        waiter.state.set(DONE);
+        remove(waiter);
+    }
+
+    /**
+     * Puts a claimed waiter back in its original place.
+     */
+    void abandon(Waiter waiter) {
+        waiter.state.compareAndSet(PROMOTING, WAITING);
+    }
+
+    /**
+     * One-based place of the waiter in its queue, or 0 if it is no longer waiting.
+     */
+    int position(Waiter waiter) {
+        return waiter.lane.position(waiter);
+    }
+
+    int size() {
+        int size = 0;
+        for (Board board : boards.values()) {
+            size += board.byEmail.size();
+        }
+        return size;
+    }
+
+    /**
+     * Drops every waitlist of the departures matching {@code departed}.
+     */
+    void evict(Predicate<Departure> departed) {
+        boards.keySet().removeIf(departed);
+    }
+
+    private void remove(Waiter waiter) {
+        Board board = boards.get(waiter.departure);
+        if (board != null) {
+            board.byEmail.remove(waiter.email, waiter);
+        }
+        waiter.lane.unlink(waiter);
+    }
+
+    static final class Waiter {
+        private final Departure departure;
+        private final Section section;
+        private final String email;
+        private final Journey journey;
+        private final Lane lane;
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+        // Guarded by the lane's lock.
+        private int sequence;
+        private boolean linked;
+        private Waiter previous;
+        private Waiter next;
+
+        private Waiter(Departure departure, Section section, String email, Journey journey, Lane lane) {
+            this.departure = departure;
+            this.section = section;
+            this.email = email;
+            this.journey = journey;
+            this.lane = lane;
+        }
+
+        Departure departure() {
+            return departure;
+        }
+
+        Section section() {
+            return section;
+        }
+
+        String email() {
+            return email;
+        }
+
+        Journey journey() {
+            return journey;
+        }
+    }
+
+    private static final class Board {
+        private final ConcurrentMap<String, Waiter> byEmail = new ConcurrentHashMap<>();
+        private final ConcurrentMap<Section, Lane> lanes = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * One section's waiters in join order. {@code counts} is a Fenwick tree over join sequence numbers holding 1 for
+     * every waiter still linked; its length minus one is always a power of two so it can double in place.
+     */
+    private static final class Lane {
+        private final ReentrantLock lock = new ReentrantLock();
+        private Waiter head;
+        private Waiter tail;
+        private int lastSequence;
+        private int[] counts = new int[17];
+
+        void append(Waiter waiter) {
+            lock.lock();
+            try {
+                waiter.sequence = ++lastSequence;
+                if (waiter.sequence >= counts.length) {
+                    grow();
+                }
+                add(waiter.sequence, 1);
+                waiter.previous = tail;
+                if (tail == null) {
+                    head = waiter;
+                } else {
+                    tail.next = waiter;
+                }
+                tail = waiter;
+                waiter.linked = true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void unlink(Waiter waiter) {
+            lock.lock();
+            try {
+                if (!waiter.linked) {
+                    return;
+                }
+                if (waiter.previous == null) {
+                    head = waiter.next;
+                } else {
+                    waiter.previous.next = waiter.next;
+                }
+                if (waiter.next == null) {
+                    tail = waiter.previous;
+                } else {
+                    waiter.next.previous = waiter.previous;
+                }
+                waiter.previous = null;
+                waiter.next = null;
+                waiter.linked = false;
+                add(waiter.sequence, -1);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        Waiter claimNext(Predicate<Journey> fits) {
+            lock.lock();
+            try {
+                for (Waiter waiter = head; waiter != null; waiter = waiter.next) {
+                    if (waiter.state.get() == WAITING && fits.test(waiter.journey)
+                            && waiter.state.compareAndSet(WAITING, PROMOTING)) {
+                        return waiter;
+                    }
+                }
+                return null;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int position(Waiter waiter) {
+            lock.lock();
+            try {
+                return waiter.linked && waiter.state.get() != DONE ? countUpTo(waiter.sequence) : 0;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void add(int sequence, int delta) {
+            for (int i = sequence; i < counts.length; i += i & -i) {
+                counts[i] += delta;
+            }
+        }
+
+        private int countUpTo(int sequence) {
+            int count = 0;
+            for (int i = sequence; i > 0; i -= i & -i) {
+                count += counts[i];
+            }
+            return count;
+        }
+
+        /**
+         * Doubles the tree. Every new node below the top covers only new, empty sequence numbers; the top one covers
+         * them all, so it starts at the current total.
+         */
+        private void grow() {
+            int size = counts.length - 1;
+            int total = countUpTo(size);
+            counts = Arrays.copyOf(counts, 2 * size + 1);
+            counts[2 * size] = total;
+        }
+    }
+}
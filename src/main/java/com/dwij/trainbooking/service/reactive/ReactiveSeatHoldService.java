@@ -0,0 +1,49 @@
+package com.dwij.trainbooking.service.reactive;
+
+import com.dwij.trainbooking.models.Departure;
+import com.dwij.trainbooking.models.SeatHold;
+import com.dwij.trainbooking.models.Section;
+import com.dwij.trainbooking.models.Ticket;
+import com.dwij.trainbooking.service.SeatHoldService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * Non-blocking view of {@link SeatHoldService}. Confirming a hold waits for the journal, so writes run on the
+ * booking scheduler.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveSeatHoldService {
+    private final SeatHoldService seatHoldService;
+    private final Scheduler bookingScheduler;
+
+    public ReactiveSeatHoldService(SeatHoldService seatHoldService, Scheduler bookingScheduler) {
+        this.seatHoldService = seatHoldService;
+        this.bookingScheduler = bookingScheduler;
+    }
+
+    public Mono<SeatHold> placeHold(String email, Section section, String from, String to) {
+        return Mono.fromCallable(() -> seatHoldService.placeHold(email, section, from, to))
+                .subscribeOn(bookingScheduler);
+    }
+
+    public Mono<SeatHold> placeHold(Departure departure, String email, Section section, String from, String to) {
+        return Mono.fromCallable(() -> seatHoldService.placeHold(departure, email, section, from, to))
+                .subscribeOn(bookingScheduler);
+    }
+
+    public Mono<SeatHold> getHold(String holdId) {
+        return Mono.fromSupplier(() -> seatHoldService.getHold(holdId));
+    }
+
+    public Mono<Ticket> confirmHold(String holdId) {
+        return Mono.fromCallable(() -> seatHoldService.confirmHold(holdId)).subscribeOn(bookingScheduler);
+    }
+
+    public Mono<Void> releaseHold(String holdId) {
+        return Mono.<Void>fromRunnable(() -> seatHoldService.releaseHold(holdId)).subscribeOn(bookingScheduler);
+    }
+}
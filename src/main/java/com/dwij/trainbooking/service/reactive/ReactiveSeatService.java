@@ -0,0 +1,45 @@
+package com.dwij.trainbooking.service.reactive;
+
+import com.dwij.trainbooking.models.Departure;
+import com.dwij.trainbooking.models.Journey;
+import com.dwij.trainbooking.models.Seat;
+import com.dwij.trainbooking.models.Section;
+import com.dwij.trainbooking.service.SeatAllocationStrategy;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking view of seat availability. Availability is read from lock-free bitmaps, so it never needs to
+ * leave the calling thread.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveSeatService {
+    private final SeatAllocationStrategy seatAllocationService;
+
+    public ReactiveSeatService(SeatAllocationStrategy seatAllocationService) {
+        this.seatAllocationService = seatAllocationService;
+    }
+
+    public Mono<Departure> defaultDeparture() {
+        return Mono.fromSupplier(seatAllocationService::defaultDeparture);
+    }
+
+    public Mono<Long> getAvailabilityVersion(Section section) {
+        return Mono.fromSupplier(() -> seatAllocationService.getAvailabilityVersion(section));
+    }
+
+    public Mono<Long> getAvailabilityVersion(Departure departure, Section section) {
+        return Mono.fromSupplier(() -> seatAllocationService.getAvailabilityVersion(departure, section));
+    }
+
+    public Flux<Seat> getAvailableSeats(Section section, Journey journey) {
+        return Flux.defer(() -> Flux.fromIterable(seatAllocationService.getAvailableSeats(section, journey)));
+    }
+
+    public Flux<Seat> getAvailableSeats(Departure departure, Section section, Journey journey) {
+        return Flux.defer(() -> Flux.fromIterable(seatAllocationService.getAvailableSeats(departure, section, journey)));
+    }
+}
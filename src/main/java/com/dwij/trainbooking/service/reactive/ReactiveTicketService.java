@@ -0,0 +1,125 @@
+package com.dwij.trainbooking.service.reactive;
+
+import com.dwij.trainbooking.models.*;
+import com.dwij.trainbooking.service.IdempotencyCache;
+import com.dwij.trainbooking.service.IdempotencyKeys;
+import com.dwij.trainbooking.service.TicketService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Non-blocking view of {@link TicketService}. Writes can wait for the journal, so they run on the booking
+ * scheduler; reads only touch in-memory state and run on the subscribing thread.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveTicketService {
+    private final TicketService ticketService;
+    private final IdempotencyCache idempotencyCache;
+    private final Scheduler bookingScheduler;
+
+    public ReactiveTicketService(TicketService ticketService, IdempotencyCache idempotencyCache,
+            Scheduler bookingScheduler) {
+        this.ticketService = ticketService;
+        this.idempotencyCache = idempotencyCache;
+        this.bookingScheduler = bookingScheduler;
+    }
+
+    /**
+     * Purchases at most once per idempotency key; retries with the same key replay the first ticket. Duplicates
+     * wait for the first execution on the booking scheduler, never on the event loop.
+     */
+    public Mono<Ticket> purchaseTicket(String email, Section section, String from, String to, String idempotencyKey) {
+        return write(() -> idempotencyCache.execute(idempotencyKey,
+                IdempotencyKeys.purchase(null, email, section, from, to),
+                () -> ticketService.purchaseTicket(email, section, from, to)));
+    }
+
+    public Mono<Ticket> purchaseTicket(Departure departure, String email, Section section, String from, String to,
+            String idempotencyKey) {
+        return write(() -> idempotencyCache.execute(idempotencyKey,
+                IdempotencyKeys.purchase(departure, email, section, from, to),
+                () -> ticketService.purchaseTicket(departure, email, section, from, to)));
+    }
+
+    public Mono<BatchPurchaseResult> purchaseTickets(List<BatchPurchaseEntry> entries, String from, String to) {
+        return write(() -> ticketService.purchaseTickets(entries, from, to));
+    }
+
+    public Mono<BatchPurchaseResult> purchaseTickets(Departure departure, List<BatchPurchaseEntry> entries,
+            String from, String to) {
+        return write(() -> ticketService.purchaseTickets(departure, entries, from, to));
+    }
+
+    public Mono<Ticket> getTicket(String email) {
+        return Mono.fromSupplier(() -> ticketService.getTicket(email));
+    }
+
+    public Mono<Void> cancelTicket(String email) {
+        return Mono.<Void>fromRunnable(() -> ticketService.cancelTicket(email)).subscribeOn(bookingScheduler);
+    }
+
+    public Mono<Ticket> modifySeat(String email, Seat requestedSeat, String idempotencyKey) {
+        return write(() -> idempotencyCache.execute(idempotencyKey, IdempotencyKeys.modifySeat(email, requestedSeat),
+                () -> ticketService.modifySeat(email, requestedSeat)));
+    }
+
+    public Mono<List<Ticket>> swapSeats(String firstEmail, String secondEmail, String idempotencyKey) {
+        return write(() -> idempotencyCache.execute(idempotencyKey, IdempotencyKeys.swapSeats(firstEmail, secondEmail),
+                () -> ticketService.swapSeats(firstEmail, secondEmail)));
+    }
+
+    public Mono<WaitlistEntry> joinWaitlist(String email, Section section, String from, String to) {
+        return write(() -> ticketService.joinWaitlist(email, section, from, to));
+    }
+
+    public Mono<WaitlistEntry> joinWaitlist(Departure departure, String email, Section section, String from,
+            String to) {
+        return write(() -> ticketService.joinWaitlist(departure, email, section, from, to));
+    }
+
+    public Mono<WaitlistEntry> getWaitlistEntry(String email) {
+        return Mono.fromSupplier(() -> ticketService.getWaitlistEntry(email));
+    }
+
+    public Mono<Void> leaveWaitlist(String email) {
+        return Mono.<Void>fromRunnable(() -> ticketService.leaveWaitlist(email)).subscribeOn(bookingScheduler);
+    }
+
+    public Mono<List<String>> getUsersAndSeatsBySection(Section section) {
+        return Mono.fromSupplier(() -> ticketService.getUsersAndSeatsBySection(section));
+    }
+
+    public Mono<List<String>> getUsersAndSeatsBySection(Departure departure, Section section) {
+        return Mono.fromSupplier(() -> ticketService.getUsersAndSeatsBySection(departure, section));
+    }
+
+    public Mono<ManifestPage> getManifestPage(Section section, String cursor, int limit) {
+        return Mono.fromSupplier(() -> ticketService.getManifestPage(section, cursor, limit));
+    }
+
+    public Mono<ManifestPage> getManifestPage(Departure departure, Section section, String cursor, int limit) {
+        return Mono.fromSupplier(() -> ticketService.getManifestPage(departure, section, cursor, limit));
+    }
+
+    /**
+     * Emits the manifest as the seat-ordered index is walked, honouring downstream demand.
+     */
+    public Flux<ManifestEntry> streamManifest(Section section) {
+        return Flux.fromStream(() -> ticketService.streamManifest(section));
+    }
+
+    public Flux<ManifestEntry> streamManifest(Departure departure, Section section) {
+        return Flux.fromStream(() -> ticketService.streamManifest(departure, section));
+    }
+
+    private <T> Mono<T> write(Callable<T> operation) {
+        return Mono.fromCallable(operation).subscribeOn(bookingScheduler);
+    }
+}
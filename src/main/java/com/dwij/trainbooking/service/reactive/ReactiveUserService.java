@@ -0,0 +1,54 @@
+package com.dwij.trainbooking.service.reactive;
+
+import com.dwij.trainbooking.exception.InvalidImportException;
+import com.dwij.trainbooking.models.User;
+import com.dwij.trainbooking.models.UserImportResult;
+import com.dwij.trainbooking.service.UserService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+@Profile("reactive")
+public class ReactiveUserService {
+    private static final int IMPORT_PREFETCH = 256;
+    private final UserService userService;
+    private final Scheduler bookingScheduler;
+
+    public ReactiveUserService(UserService userService, Scheduler bookingScheduler) {
+        this.userService = userService;
+        this.bookingScheduler = bookingScheduler;
+    }
+
+    public Mono<User> addUser(User user) {
+        return Mono.fromCallable(() -> {
+            userService.addUser(user);
+            return user;
+        }).subscribeOn(bookingScheduler);
+    }
+
+    /**
+     * Imports users as the body is decoded. The import pulls users from the body a batch at a time on the booking
+     * scheduler, so the payload is never held in memory.
+     */
+    public Mono<UserImportResult> importUsers(Flux<User> users) {
+        return Mono.fromCallable(() -> {
+            AtomicLong row = new AtomicLong();
+            Flux<User> rows = users.doOnNext(user -> row.incrementAndGet())
+                    .onErrorMap(e -> e instanceof DecodingException || e instanceof ServerWebInputException,
+                            e -> new InvalidImportException("Import stopped at row " + (row.get() + 1)
+                                    + ", not a valid user. Earlier rows were imported."));
+            return userService.importUsers(rows.toIterable(IMPORT_PREFETCH).iterator());
+        }).subscribeOn(bookingScheduler);
+    }
+
+    public Mono<User> getUserByEmail(String email) {
+        return Mono.fromSupplier(() -> userService.getUserByEmail(email));
+    }
+}
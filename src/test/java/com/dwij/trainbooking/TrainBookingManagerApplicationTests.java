@@ -1,12 +1,37 @@
 package com.dwij.trainbooking;
 
+import com.dwij.trainbooking.exception.UserNotFoundException;
+import com.dwij.trainbooking.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "booking.journal.directory=target/test-journal")
 class TrainBookingManagerApplicationTests {
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private UserService userService;
+
     @Test
     void contextLoads() {
     }
+
+    @Test
+    void shouldPublishBookingMetrics() {
+        assertThatThrownBy(() -> userService.getUserByEmail("nobody@example.com"))
+                .isInstanceOf(UserNotFoundException.class);
+
+        assertThat(meterRegistry.get("booking.users").tag("method", "getUserByEmail")
+                .tag("exception", "UserNotFoundException").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("booking.seats.free").tag("section", "A").gauge().value()).isBetween(0.0, 10.0);
+        assertThat(meterRegistry.get("booking.allocator.contention").functionCounter().count()).isZero();
+        assertThat(meterRegistry.get("booking.recovery.duration").timeGauge()).isNotNull();
+    }
 }
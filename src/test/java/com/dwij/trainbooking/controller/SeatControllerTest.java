@@ -1,9 +1,15 @@
 package com.dwij.trainbooking.controller;
 
+import com.dwij.trainbooking.models.Departure;
+import com.dwij.trainbooking.models.Journey;
+import com.dwij.trainbooking.models.ManifestEntry;
+import com.dwij.trainbooking.models.ManifestPage;
 import com.dwij.trainbooking.models.Seat;
+import com.dwij.trainbooking.models.SeatAvailabilitySnapshot;
 import com.dwij.trainbooking.models.Section;
 import com.dwij.trainbooking.service.SeatAllocationStrategy;
 import com.dwij.trainbooking.service.TicketService;
+import com.dwij.trainbooking.service.impl.SeatAvailabilityFeed;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -12,17 +18,31 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
-
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(SeatController.class)
 class SeatControllerTest {
+    private static final Departure DEPARTURE = Departure.of("LF100", LocalDate.of(2030, 1, 1));
 
     @Autowired
     private MockMvc mockMvc;
@@ -33,9 +53,12 @@ class SeatControllerTest {
     @MockitoBean
     private TicketService ticketService;
 
+    @MockitoBean
+    private SeatAvailabilityFeed availabilityFeed;
+
     @BeforeEach
     void setUp() {
-        Mockito.reset(seatAllocationService, ticketService);
+        Mockito.reset(seatAllocationService, ticketService, availabilityFeed);
     }
 
     @Test
@@ -97,4 +120,91 @@ class SeatControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$").isEmpty());
     }
+
+    @Test
+    void shouldReturnAvailableSeatsForJourney() throws Exception {
+        when(seatAllocationService.getAvailableSeats(Section.A, Journey.of("London", "Calais")))
+                .thenReturn(List.of(new Seat("A3", Section.A)));
+
+        mockMvc.perform(get("/api/seats/available/A")
+                        .param("from", "London")
+                        .param("to", "Calais")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].seatNumber").value("A3"));
+    }
+
+    @Test
+    void shouldTagAvailableSeatsWithSectionVersion() throws Exception {
+        when(seatAllocationService.getAvailabilityVersion(DEPARTURE, Section.A)).thenReturn(42L);
+        when(seatAllocationService.getAvailableSeats(DEPARTURE, Section.A, Journey.of(null, null)))
+                .thenReturn(List.of(new Seat("A1", Section.A)));
+
+        mockMvc.perform(get("/api/seats/trains/LF100/2030-01-01/available/A"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"2a\""))
+                .andExpect(jsonPath("$[0].seatNumber").value("A1"));
+    }
+
+    @Test
+    void shouldAnswerNotModifiedWithoutReadingUnchangedSection() throws Exception {
+        when(seatAllocationService.getAvailabilityVersion(Section.A)).thenReturn(42L);
+
+        mockMvc.perform(get("/api/seats/available/A").header("If-None-Match", "\"2a\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"2a\""));
+
+        verify(seatAllocationService, never()).getAvailableSeats(any(Section.class));
+        verify(seatAllocationService, never()).getAvailableSeats(any(), any(), any());
+    }
+
+    @Test
+    void shouldReturnManifestPageWithCursor() throws Exception {
+        when(ticketService.getManifestPage(Section.A, "abc", 2)).thenReturn(new ManifestPage(
+                List.of(new ManifestEntry("john.doe@example.com", "A3"), new ManifestEntry("jane.smith@example.com", "A4")),
+                "next"));
+
+        mockMvc.perform(get("/api/seats/allocated/A/page")
+                        .param("cursor", "abc")
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.entries[1].seatNumber").value("A4"))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+    }
+
+    @Test
+    void shouldStreamManifestAsNdjson() throws Exception {
+        when(ticketService.streamManifest(Section.B)).thenReturn(Stream.of(
+                new ManifestEntry("john.doe@example.com", "B1"), new ManifestEntry("jane.smith@example.com", "B2")));
+
+        MvcResult result = mockMvc.perform(get("/api/seats/allocated/B/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(content().string("{\"email\":\"john.doe@example.com\",\"seatNumber\":\"B1\"}\n"
+                        + "{\"email\":\"jane.smith@example.com\",\"seatNumber\":\"B2\"}\n"));
+    }
+
+    @Test
+    void shouldStreamAvailabilitySnapshotAsServerSentEvent() throws Exception {
+        when(seatAllocationService.defaultDeparture()).thenReturn(DEPARTURE);
+        when(availabilityFeed.subscribe(eq(DEPARTURE), eq(Section.A), isNull(), isNull(), any()))
+                .thenAnswer(invocation -> {
+                    SeatAvailabilityFeed.Sink sink = invocation.getArgument(4);
+                    sink.send("snapshot", new SeatAvailabilitySnapshot(Section.A, 4, List.of(1, 3)));
+                    return (SeatAvailabilityFeed.Subscription) () -> { };
+                });
+
+        MvcResult result = mockMvc.perform(get("/api/seats/available/A/events")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        assertThat(result.getResponse().getContentAsString())
+                .contains("event:snapshot")
+                .contains("data:{\"section\":\"A\",\"capacity\":4,\"free\":[1,3]}");
+    }
 }
\ No newline at end of file
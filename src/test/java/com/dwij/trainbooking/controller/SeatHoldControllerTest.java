@@ -0,0 +1,85 @@
+package com.dwij.trainbooking.controller;
+
+import com.dwij.trainbooking.exception.GlobalExceptionHandler;
+import com.dwij.trainbooking.exception.HoldNotFoundException;
+import com.dwij.trainbooking.models.*;
+import com.dwij.trainbooking.service.SeatHoldService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(SeatHoldController.class)
+@Import(GlobalExceptionHandler.class)
+class SeatHoldControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private SeatHoldService seatHoldService;
+
+    @BeforeEach
+    void setUp() {
+        Mockito.reset(seatHoldService);
+    }
+
+    @Test
+    void shouldPlaceHold() throws Exception {
+        SeatHold hold = new SeatHold("h1", "john.doe@example.com", Departure.of("LF100", LocalDate.of(2030, 1, 1)),
+                Journey.of("London", "France"), new Seat("A1", Section.A), Instant.parse("2030-01-01T09:10:00Z"));
+        when(seatHoldService.placeHold("john.doe@example.com", Section.A, null, null)).thenReturn(hold);
+
+        mockMvc.perform(post("/api/holds")
+                        .param("email", "john.doe@example.com")
+                        .param("section", "A"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value("h1"))
+                .andExpect(jsonPath("$.seat.seatNumber").value("A1"))
+                .andExpect(jsonPath("$.expiresAt").value("2030-01-01T09:10:00Z"));
+    }
+
+    @Test
+    void shouldConfirmHoldIntoTicket() throws Exception {
+        Ticket ticket = Ticket.builder()
+                .id("1")
+                .seat(new Seat("A1", Section.A))
+                .build();
+        when(seatHoldService.confirmHold("h1")).thenReturn(ticket);
+
+        mockMvc.perform(post("/api/holds/{holdId}/confirm", "h1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.seat.seatNumber").value("A1"));
+    }
+
+    @Test
+    void shouldReturnNotFoundForExpiredHold() throws Exception {
+        when(seatHoldService.confirmHold("expired"))
+                .thenThrow(new HoldNotFoundException("No active hold found with id: expired"));
+
+        mockMvc.perform(post("/api/holds/{holdId}/confirm", "expired"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void shouldReleaseHold() throws Exception {
+        mockMvc.perform(delete("/api/holds/{holdId}", "h1"))
+                .andExpect(status().isNoContent());
+
+        verify(seatHoldService).releaseHold("h1");
+    }
+}
@@ -1,10 +1,14 @@
 package com.dwij.trainbooking.controller;
 
 import com.dwij.trainbooking.exception.GlobalExceptionHandler;
+import com.dwij.trainbooking.exception.InvalidSwapException;
 import com.dwij.trainbooking.exception.TicketNotFoundException;
+import com.dwij.trainbooking.models.BatchPurchaseResult;
+import com.dwij.trainbooking.models.Departure;
 import com.dwij.trainbooking.models.Seat;
 import com.dwij.trainbooking.models.Section;
 import com.dwij.trainbooking.models.Ticket;
+import com.dwij.trainbooking.service.IdempotencyTestConfiguration;
 import com.dwij.trainbooking.service.TicketService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -16,6 +20,11 @@ import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.times;
@@ -29,7 +38,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(TicketController.class)
-@Import(GlobalExceptionHandler.class)
+@Import({GlobalExceptionHandler.class, IdempotencyTestConfiguration.class})
 class TicketControllerTest {
 
     @Autowired
@@ -53,7 +62,7 @@ class TicketControllerTest {
                 .seat(new Seat("A1", Section.A))
                 .build();
 
-        when(ticketService.purchaseTicket("john.doe@example.com", Section.A)).thenReturn(ticket);
+        when(ticketService.purchaseTicket("john.doe@example.com", Section.A, null, null)).thenReturn(ticket);
 
         mockMvc.perform(post("/api/tickets/purchase")
                         .param("email", "john.doe@example.com")
@@ -67,7 +76,7 @@ class TicketControllerTest {
                 .andExpect(jsonPath("$.seat.seatNumber").value("A1"))
                 .andExpect(jsonPath("$.seat.section").value("A"));
 
-        verify(ticketService, times(1)).purchaseTicket("john.doe@example.com", Section.A);
+        verify(ticketService, times(1)).purchaseTicket("john.doe@example.com", Section.A, null, null);
     }
 
     @Test
@@ -144,4 +153,124 @@ class TicketControllerTest {
 
         verify(ticketService, times(1)).modifySeat(eq("john.doe@example.com"), eq(requestedSeat));
     }
+
+    @Test
+    void shouldSwapSeats() throws Exception {
+        when(ticketService.swapSeats("john.doe@example.com", "jane.roe@example.com")).thenReturn(List.of(
+                Ticket.builder().id("1").seat(new Seat("B1", Section.B)).build(),
+                Ticket.builder().id("2").seat(new Seat("A1", Section.A)).build()));
+
+        mockMvc.perform(post("/api/tickets/swap")
+                        .param("firstEmail", "john.doe@example.com")
+                        .param("secondEmail", "jane.roe@example.com"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value("1"))
+                .andExpect(jsonPath("$[0].seat.seatNumber").value("B1"))
+                .andExpect(jsonPath("$[1].seat.seatNumber").value("A1"));
+    }
+
+    @Test
+    void shouldRejectInvalidSwapsAsBadRequest() throws Exception {
+        when(ticketService.swapSeats("john.doe@example.com", "john.doe@example.com")).thenThrow(
+                new InvalidSwapException("A ticket cannot swap seats with itself: john.doe@example.com"));
+        when(ticketService.swapSeats("john.doe@example.com", "jane.roe@example.com")).thenThrow(
+                new InvalidSwapException("The tickets for john.doe@example.com and jane.roe@example.com are on"
+                        + " different departures"));
+
+        mockMvc.perform(post("/api/tickets/swap")
+                        .param("firstEmail", "john.doe@example.com")
+                        .param("secondEmail", "john.doe@example.com"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/tickets/swap")
+                        .param("firstEmail", "john.doe@example.com")
+                        .param("secondEmail", "jane.roe@example.com"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldPurchaseTicketOnSpecificDeparture() throws Exception {
+        Departure departure = Departure.of("LB200", LocalDate.of(2030, 5, 1));
+        Ticket ticket = Ticket.builder()
+                .id("2")
+                .trainNumber("LB200")
+                .departureDate(departure.getDate())
+                .from("London")
+                .to("Brussels")
+                .pricePaid(20.0)
+                .seat(new Seat("C1", Section.C))
+                .build();
+
+        when(ticketService.purchaseTicket(departure, "john.doe@example.com", Section.C, null, null)).thenReturn(ticket);
+
+        mockMvc.perform(post("/api/tickets/trains/{trainNumber}/{date}/purchase", "LB200", "2030-05-01")
+                        .param("email", "john.doe@example.com")
+                        .param("section", "C"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.trainNumber").value("LB200"))
+                .andExpect(jsonPath("$.departureDate").value("2030-05-01"))
+                .andExpect(jsonPath("$.seat.seatNumber").value("C1"));
+    }
+
+    @Test
+    void shouldReturnConflictWhenBatchIsRolledBack() throws Exception {
+        BatchPurchaseResult result = new BatchPurchaseResult(false, List.of(
+                BatchPurchaseResult.EntryResult.rolledBack("john.doe@example.com", "Another entry in the batch was rejected"),
+                BatchPurchaseResult.EntryResult.rejected("jane.doe@example.com", "No user found")));
+        when(ticketService.purchaseTickets(anyList(), eq(null), eq(null))).thenReturn(result);
+
+        mockMvc.perform(post("/api/tickets/purchase/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"email\":\"john.doe@example.com\",\"section\":\"A\"},"
+                                + "{\"email\":\"jane.doe@example.com\",\"section\":\"B\"}]"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.booked").value(false))
+                .andExpect(jsonPath("$.results[0].status").value("ROLLED_BACK"))
+                .andExpect(jsonPath("$.results[1].status").value("REJECTED"))
+                .andExpect(jsonPath("$.results[1].error").value("No user found"));
+    }
+
+    @Test
+    void shouldReplayPurchaseRetriedWithSameIdempotencyKey() throws Exception {
+        Ticket ticket = Ticket.builder()
+                .id("3")
+                .from("London")
+                .to("France")
+                .pricePaid(20.0)
+                .seat(new Seat("A3", Section.A))
+                .build();
+        when(ticketService.purchaseTicket("retry@example.com", Section.A, null, null)).thenReturn(ticket);
+
+        for (int attempt = 0; attempt < 2; attempt++) {
+            mockMvc.perform(post("/api/tickets/purchase")
+                            .header("Idempotency-Key", "purchase-retry-1")
+                            .param("email", "retry@example.com")
+                            .param("section", "A"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.id").value("3"));
+        }
+
+        verify(ticketService, times(1)).purchaseTicket("retry@example.com", Section.A, null, null);
+    }
+
+    @Test
+    void shouldRejectIdempotencyKeyReusedForDifferentRequest() throws Exception {
+        Seat requestedSeat = new Seat("B2", Section.B);
+        when(ticketService.modifySeat("john.doe@example.com", requestedSeat)).thenReturn(Ticket.builder()
+                .id("1")
+                .seat(requestedSeat)
+                .build());
+
+        mockMvc.perform(put("/api/tickets/{email}/modify-seat", "john.doe@example.com")
+                        .header("Idempotency-Key", "modify-reuse-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"seatNumber\":\"B2\",\"section\":\"B\"}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(put("/api/tickets/{email}/modify-seat", "john.doe@example.com")
+                        .header("Idempotency-Key", "modify-reuse-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"seatNumber\":\"B3\",\"section\":\"B\"}"))
+                .andExpect(status().isUnprocessableEntity());
+
+        verify(ticketService, times(1)).modifySeat(eq("john.doe@example.com"), any());
+    }
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package com.dwij.trainbooking.controller;
 
 import com.dwij.trainbooking.exception.GlobalExceptionHandler;
 import com.dwij.trainbooking.models.User;
+import com.dwij.trainbooking.models.UserImportResult;
 import com.dwij.trainbooking.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,6 +14,11 @@ import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.times;
@@ -20,6 +26,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -85,4 +92,56 @@ class UserControllerTest {
 
         verify(userService, times(1)).getUserByEmail(email);
     }
+
+    @Test
+    void shouldImportUsersFromNdjson() throws Exception {
+        List<User> imported = recordImport();
+
+        mockMvc.perform(post("/api/users/import")
+                        .contentType("application/x-ndjson")
+                        .content("""
+                                {"firstName":"John","lastName":"Doe","email":"john.doe@example.com"}
+                                {"firstName":"Jane","lastName":"Smith","email":"jane.smith@example.com"}
+                                """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.rejected").value(0));
+        assertThat(imported).extracting(User::getEmail)
+                .containsExactly("john.doe@example.com", "jane.smith@example.com");
+    }
+
+    @Test
+    void shouldImportUsersFromJsonArray() throws Exception {
+        List<User> imported = recordImport();
+
+        mockMvc.perform(post("/api/users/import")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"firstName\":\"John\",\"email\":\"john.doe@example.com\"},"
+                                + "{\"firstName\":\"Jane\",\"email\":\"jane.smith@example.com\"}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2));
+        assertThat(imported).extracting(User::getFirstName).containsExactly("John", "Jane");
+    }
+
+    @Test
+    void shouldRejectMalformedImportRow() throws Exception {
+        recordImport();
+
+        mockMvc.perform(post("/api/users/import")
+                        .contentType("application/x-ndjson")
+                        .content("{\"email\":\"john.doe@example.com\"}\n[1, 2]\n"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string(
+                        "Import stopped at row 2, not a JSON object. Earlier rows were imported."));
+    }
+
+    private List<User> recordImport() {
+        List<User> imported = new ArrayList<>();
+        when(userService.importUsers(any())).thenAnswer(invocation -> {
+            Iterator<User> users = invocation.getArgument(0);
+            users.forEachRemaining(imported::add);
+            return new UserImportResult(imported.size(), 0, List.of());
+        });
+        return imported;
+    }
 }
\ No newline at end of file
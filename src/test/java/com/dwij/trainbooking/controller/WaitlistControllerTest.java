@@ -0,0 +1,65 @@
+package com.dwij.trainbooking.controller;
+
+import com.dwij.trainbooking.exception.GlobalExceptionHandler;
+import com.dwij.trainbooking.exception.WaitlistEntryNotFoundException;
+import com.dwij.trainbooking.models.Departure;
+import com.dwij.trainbooking.models.Journey;
+import com.dwij.trainbooking.models.Section;
+import com.dwij.trainbooking.models.WaitlistEntry;
+import com.dwij.trainbooking.service.TicketService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(WaitlistController.class)
+@Import(GlobalExceptionHandler.class)
+class WaitlistControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private TicketService ticketService;
+
+    @BeforeEach
+    void setUp() {
+        Mockito.reset(ticketService);
+    }
+
+    @Test
+    void shouldJoinWaitlist() throws Exception {
+        WaitlistEntry entry = new WaitlistEntry("john.doe@example.com", Departure.of("LF100", LocalDate.of(2030, 1, 1)),
+                Section.A, Journey.of("London", "France"), WaitlistEntry.Status.WAITING, 3);
+        when(ticketService.joinWaitlist("john.doe@example.com", Section.A, null, null)).thenReturn(entry);
+
+        mockMvc.perform(post("/api/waitlist")
+                        .param("email", "john.doe@example.com")
+                        .param("section", "A"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("WAITING"))
+                .andExpect(jsonPath("$.position").value(3));
+    }
+
+    @Test
+    void shouldReturnNotFoundWhenLeavingWithoutEntry() throws Exception {
+        doThrow(new WaitlistEntryNotFoundException("No waitlist entry found for email: x@y.z"))
+                .when(ticketService).leaveWaitlist("x@y.z");
+
+        mockMvc.perform(delete("/api/waitlist/{email}", "x@y.z"))
+                .andExpect(status().isNotFound());
+    }
+}
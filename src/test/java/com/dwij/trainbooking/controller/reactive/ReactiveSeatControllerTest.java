@@ -0,0 +1,178 @@
+package com.dwij.trainbooking.controller.reactive;
+
+import com.dwij.trainbooking.config.ReactiveConfiguration;
+import com.dwij.trainbooking.exception.GlobalExceptionHandler;
+import com.dwij.trainbooking.models.Departure;
+import com.dwij.trainbooking.models.Journey;
+import com.dwij.trainbooking.models.ManifestEntry;
+import com.dwij.trainbooking.models.ManifestPage;
+import com.dwij.trainbooking.models.Seat;
+import com.dwij.trainbooking.models.SeatAvailabilitySnapshot;
+import com.dwij.trainbooking.models.Section;
+import com.dwij.trainbooking.service.SeatAllocationStrategy;
+import com.dwij.trainbooking.service.IdempotencyTestConfiguration;
+import com.dwij.trainbooking.service.TicketService;
+import com.dwij.trainbooking.service.impl.SeatAvailabilityFeed;
+import com.dwij.trainbooking.service.reactive.ReactiveSeatService;
+import com.dwij.trainbooking.service.reactive.ReactiveTicketService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(ReactiveSeatController.class)
+@ActiveProfiles("reactive")
+@Import({ReactiveSeatService.class, ReactiveTicketService.class, ReactiveConfiguration.class,
+        GlobalExceptionHandler.class, IdempotencyTestConfiguration.class})
+class ReactiveSeatControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockitoBean
+    private SeatAllocationStrategy seatAllocationService;
+
+    @MockitoBean
+    private TicketService ticketService;
+
+    @MockitoBean
+    private SeatAvailabilityFeed availabilityFeed;
+
+    @BeforeEach
+    void setUp() {
+        Mockito.reset(seatAllocationService, ticketService, availabilityFeed);
+    }
+
+    @Test
+    void shouldReturnAvailableSeatsAsJsonArray() {
+        when(seatAllocationService.getAvailableSeats(Section.A, null))
+                .thenReturn(List.of(new Seat("A1", Section.A), new Seat("A2", Section.A)));
+
+        webTestClient.get().uri("/api/seats/available/A")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[1].seatNumber").isEqualTo("A2");
+    }
+
+    @Test
+    void shouldTagAvailableSeatsWithSectionVersion() {
+        Departure departure = Departure.of("LF100", LocalDate.of(2030, 1, 1));
+        when(seatAllocationService.getAvailabilityVersion(departure, Section.A)).thenReturn(42L);
+        when(seatAllocationService.getAvailableSeats(departure, Section.A, Journey.of(null, null)))
+                .thenReturn(List.of(new Seat("A1", Section.A)));
+
+        webTestClient.get().uri("/api/seats/trains/LF100/2030-01-01/available/A")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("ETag", "\"2a\"")
+                .expectBody()
+                .jsonPath("$[0].seatNumber").isEqualTo("A1");
+    }
+
+    @Test
+    void shouldAnswerNotModifiedWithoutReadingUnchangedSection() {
+        when(seatAllocationService.getAvailabilityVersion(Section.A)).thenReturn(42L);
+
+        webTestClient.get().uri("/api/seats/available/A")
+                .header("If-None-Match", "\"2a\"")
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals("ETag", "\"2a\"");
+
+        verify(seatAllocationService, never()).getAvailableSeats(any(Section.class), any());
+        verify(seatAllocationService, never()).getAvailableSeats(any(), any(), any());
+    }
+
+    @Test
+    void shouldReturnAllocatedSeatsAsJsonArray() {
+        when(ticketService.getUsersAndSeatsBySection(Section.A)).thenReturn(List.of("a@example.com: A1"));
+
+        webTestClient.get().uri("/api/seats/allocated/A")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0]").isEqualTo("a@example.com: A1");
+    }
+
+    @Test
+    void shouldClampManifestPageSize() {
+        when(ticketService.getManifestPage(Section.A, null, 1000))
+                .thenReturn(new ManifestPage(List.of(new ManifestEntry("a@example.com", "A1")), null));
+
+        webTestClient.get().uri("/api/seats/allocated/A/page?limit=5000")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.entries[0].seatNumber").isEqualTo("A1");
+    }
+
+    @Test
+    void shouldStreamManifestAsNdjson() {
+        when(ticketService.streamManifest(Section.A)).thenReturn(Stream.of(
+                new ManifestEntry("a@example.com", "A1"),
+                new ManifestEntry("b@example.com", "A2")));
+
+        String body = webTestClient.get().uri("/api/seats/allocated/A/stream")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBody(String.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertThat(body.lines()).containsExactly(
+                "{\"email\":\"a@example.com\",\"seatNumber\":\"A1\"}",
+                "{\"email\":\"b@example.com\",\"seatNumber\":\"A2\"}");
+    }
+
+    @Test
+    void shouldStreamAvailabilityAsServerSentEventsAndCancelFeedOnDisconnect() throws Exception {
+        Departure departure = Departure.of("LF100", LocalDate.of(2030, 1, 1));
+        CountDownLatch cancelled = new CountDownLatch(1);
+        when(seatAllocationService.defaultDeparture()).thenReturn(departure);
+        when(availabilityFeed.subscribe(eq(departure), eq(Section.A), isNull(), isNull(), any()))
+                .thenAnswer(invocation -> {
+                    SeatAvailabilityFeed.Sink sink = invocation.getArgument(4);
+                    sink.send("snapshot", new SeatAvailabilitySnapshot(Section.A, 4, List.of(1, 3)));
+                    return (SeatAvailabilityFeed.Subscription) cancelled::countDown;
+                });
+
+        ServerSentEvent<String> event = webTestClient.get().uri("/api/seats/available/A/events")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(new ParameterizedTypeReference<ServerSentEvent<String>>() { })
+                .getResponseBody()
+                .blockFirst(Duration.ofSeconds(5));
+
+        assertThat(event.event()).isEqualTo("snapshot");
+        assertThat(event.data()).isEqualTo("{\"section\":\"A\",\"capacity\":4,\"free\":[1,3]}");
+        assertThat(cancelled.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+}
@@ -0,0 +1,77 @@
+package com.dwij.trainbooking.controller.reactive;
+
+import com.dwij.trainbooking.config.ReactiveConfiguration;
+import com.dwij.trainbooking.exception.GlobalExceptionHandler;
+import com.dwij.trainbooking.exception.HoldNotFoundException;
+import com.dwij.trainbooking.models.*;
+import com.dwij.trainbooking.service.SeatHoldService;
+import com.dwij.trainbooking.service.reactive.ReactiveSeatHoldService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(ReactiveSeatHoldController.class)
+@ActiveProfiles("reactive")
+@Import({ReactiveSeatHoldService.class, ReactiveConfiguration.class, GlobalExceptionHandler.class})
+class ReactiveSeatHoldControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockitoBean
+    private SeatHoldService seatHoldService;
+
+    @BeforeEach
+    void setUp() {
+        Mockito.reset(seatHoldService);
+    }
+
+    @Test
+    void shouldPlaceAndConfirmHold() {
+        SeatHold hold = new SeatHold("h1", "john.doe@example.com", Departure.of("LF100", LocalDate.of(2030, 1, 1)),
+                Journey.of("London", "France"), new Seat("A1", Section.A), Instant.parse("2030-01-01T09:10:00Z"));
+        when(seatHoldService.placeHold("john.doe@example.com", Section.A, null, null)).thenReturn(hold);
+        when(seatHoldService.confirmHold("h1")).thenReturn(Ticket.builder()
+                .id("1")
+                .seat(new Seat("A1", Section.A))
+                .build());
+
+        webTestClient.post().uri("/api/holds?email={email}&section=A", "john.doe@example.com")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo("h1")
+                .jsonPath("$.expiresAt").isEqualTo("2030-01-01T09:10:00Z");
+        webTestClient.post().uri("/api/holds/{holdId}/confirm", "h1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.seat.seatNumber").isEqualTo("A1");
+    }
+
+    @Test
+    void shouldReleaseHoldAndReportMissingOnes() {
+        doThrow(new HoldNotFoundException("No active hold: h2")).when(seatHoldService).releaseHold("h2");
+
+        webTestClient.delete().uri("/api/holds/{holdId}", "h1")
+                .exchange()
+                .expectStatus().isNoContent();
+        webTestClient.delete().uri("/api/holds/{holdId}", "h2")
+                .exchange()
+                .expectStatus().isNotFound();
+        verify(seatHoldService).releaseHold("h1");
+    }
+}
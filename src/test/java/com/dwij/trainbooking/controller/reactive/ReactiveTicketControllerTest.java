@@ -0,0 +1,111 @@
+package com.dwij.trainbooking.controller.reactive;
+
+import com.dwij.trainbooking.config.ReactiveConfiguration;
+import com.dwij.trainbooking.exception.GlobalExceptionHandler;
+import com.dwij.trainbooking.exception.TicketNotFoundException;
+import com.dwij.trainbooking.models.BatchPurchaseResult;
+import com.dwij.trainbooking.models.Seat;
+import com.dwij.trainbooking.models.Section;
+import com.dwij.trainbooking.models.Ticket;
+import com.dwij.trainbooking.service.IdempotencyTestConfiguration;
+import com.dwij.trainbooking.service.TicketService;
+import com.dwij.trainbooking.service.reactive.ReactiveTicketService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(ReactiveTicketController.class)
+@ActiveProfiles("reactive")
+@Import({ReactiveTicketService.class, ReactiveConfiguration.class, GlobalExceptionHandler.class,
+        IdempotencyTestConfiguration.class})
+class ReactiveTicketControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockitoBean
+    private TicketService ticketService;
+
+    @BeforeEach
+    void setUp() {
+        Mockito.reset(ticketService);
+    }
+
+    @Test
+    void shouldPurchaseTicketOnBookingScheduler() {
+        Ticket ticket = Ticket.builder()
+                .id("1")
+                .from("London")
+                .to("France")
+                .pricePaid(20.0)
+                .seat(new Seat("A1", Section.A))
+                .build();
+        when(ticketService.purchaseTicket("john.doe@example.com", Section.A, null, null)).thenReturn(ticket);
+
+        webTestClient.post().uri("/api/tickets/purchase?email={email}&section=A", "john.doe@example.com")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo("1")
+                .jsonPath("$.seat.seatNumber").isEqualTo("A1");
+    }
+
+    @Test
+    void shouldReturnNotFoundForMissingReceipt() {
+        when(ticketService.getTicket("missing@example.com"))
+                .thenThrow(new TicketNotFoundException("Ticket not found for user"));
+
+        webTestClient.get().uri("/api/tickets/{email}/receipt", "missing@example.com")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void shouldCancelTicketWithNoContent() {
+        webTestClient.delete().uri("/api/tickets/{email}/remove", "john.doe@example.com")
+                .exchange()
+                .expectStatus().isNoContent();
+
+        verify(ticketService).cancelTicket("john.doe@example.com");
+    }
+
+    @Test
+    void shouldReturnNotFoundWhenCancellingMissingTicket() {
+        doThrow(new TicketNotFoundException("Ticket not found for user")).when(ticketService).cancelTicket("x@y.z");
+
+        webTestClient.delete().uri("/api/tickets/{email}/remove", "x@y.z")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void shouldReturnConflictWhenBatchIsRolledBack() {
+        BatchPurchaseResult result = new BatchPurchaseResult(false, List.of(
+                BatchPurchaseResult.EntryResult.rolledBack("a@example.com", "Batch rolled back")));
+        when(ticketService.purchaseTickets(anyList(), eq(null), eq(null))).thenReturn(result);
+
+        webTestClient.post().uri("/api/tickets/purchase/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("[{\"email\":\"a@example.com\",\"section\":\"A\"}]")
+                .exchange()
+                .expectStatus().isEqualTo(409)
+                .expectBody()
+                .jsonPath("$.booked").isEqualTo(false)
+                .jsonPath("$.results[0].status").isEqualTo("ROLLED_BACK");
+    }
+}
@@ -0,0 +1,92 @@
+package com.dwij.trainbooking.controller.reactive;
+
+import com.dwij.trainbooking.config.ReactiveConfiguration;
+import com.dwij.trainbooking.exception.GlobalExceptionHandler;
+import com.dwij.trainbooking.models.User;
+import com.dwij.trainbooking.models.UserImportResult;
+import com.dwij.trainbooking.service.UserService;
+import com.dwij.trainbooking.service.reactive.ReactiveUserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(ReactiveUserController.class)
+@ActiveProfiles("reactive")
+@Import({ReactiveUserService.class, ReactiveConfiguration.class, GlobalExceptionHandler.class})
+class ReactiveUserControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockitoBean
+    private UserService userService;
+
+    @BeforeEach
+    void setUp() {
+        Mockito.reset(userService);
+    }
+
+    @Test
+    void shouldImportUsersFromNdjsonAndJsonArray() {
+        List<User> imported = recordImport();
+
+        webTestClient.post().uri("/api/users/import")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .bodyValue("""
+                        {"firstName":"John","lastName":"Doe","email":"john.doe@example.com"}
+                        {"firstName":"Jane","lastName":"Smith","email":"jane.smith@example.com"}
+                        """)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.created").isEqualTo(2);
+        webTestClient.post().uri("/api/users/import")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("[{\"email\":\"a@example.com\"},{\"email\":\"b@example.com\"}]")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.created").isEqualTo(4);
+
+        assertThat(imported).extracting(User::getEmail).containsExactly("john.doe@example.com",
+                "jane.smith@example.com", "a@example.com", "b@example.com");
+    }
+
+    @Test
+    void shouldRejectMalformedImportRow() {
+        recordImport();
+
+        webTestClient.post().uri("/api/users/import")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .bodyValue("{\"email\":\"john.doe@example.com\"}\n[1, 2]\n")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(String.class)
+                .isEqualTo("Import stopped at row 2, not a valid user. Earlier rows were imported.");
+    }
+
+    private List<User> recordImport() {
+        List<User> imported = new ArrayList<>();
+        when(userService.importUsers(any())).thenAnswer(invocation -> {
+            Iterator<User> users = invocation.getArgument(0);
+            users.forEachRemaining(imported::add);
+            return new UserImportResult(imported.size(), 0, List.of());
+        });
+        return imported;
+    }
+}
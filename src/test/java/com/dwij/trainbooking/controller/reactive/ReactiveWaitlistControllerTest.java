@@ -0,0 +1,68 @@
+package com.dwij.trainbooking.controller.reactive;
+
+import com.dwij.trainbooking.config.ReactiveConfiguration;
+import com.dwij.trainbooking.exception.GlobalExceptionHandler;
+import com.dwij.trainbooking.exception.WaitlistEntryNotFoundException;
+import com.dwij.trainbooking.models.Departure;
+import com.dwij.trainbooking.models.Journey;
+import com.dwij.trainbooking.models.Section;
+import com.dwij.trainbooking.models.WaitlistEntry;
+import com.dwij.trainbooking.service.IdempotencyTestConfiguration;
+import com.dwij.trainbooking.service.TicketService;
+import com.dwij.trainbooking.service.reactive.ReactiveTicketService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.LocalDate;
+
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(ReactiveWaitlistController.class)
+@ActiveProfiles("reactive")
+@Import({ReactiveTicketService.class, ReactiveConfiguration.class, GlobalExceptionHandler.class,
+        IdempotencyTestConfiguration.class})
+class ReactiveWaitlistControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockitoBean
+    private TicketService ticketService;
+
+    @BeforeEach
+    void setUp() {
+        Mockito.reset(ticketService);
+    }
+
+    @Test
+    void shouldJoinWaitlist() {
+        WaitlistEntry entry = new WaitlistEntry("john.doe@example.com", Departure.of("LF100", LocalDate.of(2030, 1, 1)),
+                Section.A, Journey.of("London", "France"), WaitlistEntry.Status.WAITING, 3);
+        when(ticketService.joinWaitlist("john.doe@example.com", Section.A, null, null)).thenReturn(entry);
+
+        webTestClient.post().uri("/api/waitlist?email={email}&section=A", "john.doe@example.com")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo("WAITING")
+                .jsonPath("$.position").isEqualTo(3);
+    }
+
+    @Test
+    void shouldReturnNotFoundWhenLeavingWithoutEntry() {
+        doThrow(new WaitlistEntryNotFoundException("No waitlist entry found for email: x@y.z"))
+                .when(ticketService).leaveWaitlist("x@y.z");
+
+        webTestClient.delete().uri("/api/waitlist/{email}", "x@y.z")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+}
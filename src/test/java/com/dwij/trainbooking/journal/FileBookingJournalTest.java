@@ -0,0 +1,206 @@
+package com.dwij.trainbooking.journal;
+
+import com.dwij.trainbooking.models.*;
+import com.dwij.trainbooking.repository.InMemoryTicketRepository;
+import com.dwij.trainbooking.repository.TicketRepository;
+import com.dwij.trainbooking.repository.InMemoryUserRepository;
+import com.dwij.trainbooking.repository.UserRepository;
+import com.dwij.trainbooking.service.impl.SimpleSeatAllocationService;
+import com.dwij.trainbooking.service.impl.TicketServiceImpl;
+import com.dwij.trainbooking.service.impl.UserServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileBookingJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @ParameterizedTest
+    @EnumSource(FsyncPolicy.class)
+    void shouldReplayEventsInAppendOrder(FsyncPolicy policy) throws IOException {
+        Path file = directory.resolve("bookings.journal");
+        try (FileBookingJournal journal = FileBookingJournal.open(file, policy, Duration.ofMillis(5), event -> { })) {
+            BookingJournal.awaitDurable(journal.append(new JournalEvent.UserCreated("john.doe@example.com", "John", "Doe")));
+            BookingJournal.awaitDurable(journal.append(new JournalEvent.SeatModified("john.doe@example.com", Section.B, "B4")));
+            BookingJournal.awaitDurable(journal.append(new JournalEvent.SeatsSwapped("john.doe@example.com", Section.A, "A2",
+                    "jane@example.com", Section.B, "B4")));
+            BookingJournal.awaitDurable(journal.append(new JournalEvent.TicketCancelled("john.doe@example.com")));
+        }
+
+        List<JournalEvent> replayed = new ArrayList<>();
+        try (FileBookingJournal journal = FileBookingJournal.open(file, policy, Duration.ofMillis(5), replayed::add)) {
+            assertThat(journal.getReplayedRecords()).isEqualTo(4);
+        }
+
+        assertThat(replayed).containsExactly(
+                new JournalEvent.UserCreated("john.doe@example.com", "John", "Doe"),
+                new JournalEvent.SeatModified("john.doe@example.com", Section.B, "B4"),
+                new JournalEvent.SeatsSwapped("john.doe@example.com", Section.A, "A2",
+                        "jane@example.com", Section.B, "B4"),
+                new JournalEvent.TicketCancelled("john.doe@example.com"));
+    }
+
+    @Test
+    void shouldCoalesceConcurrentAppendsIntoGroupCommits() throws Exception {
+        Path file = directory.resolve("bookings.journal");
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try (FileBookingJournal journal = FileBookingJournal.open(file, FsyncPolicy.BATCHED, Duration.ofMillis(5),
+                event -> { })) {
+            List<CompletableFuture<Void>> commits = new ArrayList<>();
+            for (int i = 0; i < 2000; i++) {
+                String email = "user" + i + "@example.com";
+                commits.add(CompletableFuture.supplyAsync(
+                        () -> journal.append(new JournalEvent.TicketCancelled(email)), executor).thenCompose(c -> c));
+            }
+            CompletableFuture.allOf(commits.toArray(CompletableFuture[]::new)).join();
+        } finally {
+            executor.shutdown();
+        }
+
+        List<JournalEvent> replayed = new ArrayList<>();
+        FileBookingJournal.open(file, FsyncPolicy.BATCHED, Duration.ofMillis(5), replayed::add).close();
+        assertThat(replayed).hasSize(2000);
+    }
+
+    @Test
+    void shouldTruncateTornTailAndKeepAppending() throws IOException {
+        Path file = directory.resolve("bookings.journal");
+        try (FileBookingJournal journal = FileBookingJournal.open(file, FsyncPolicy.PER_OP, Duration.ofMillis(5),
+                event -> { })) {
+            journal.append(new JournalEvent.TicketCancelled("first@example.com"));
+            journal.append(new JournalEvent.TicketCancelled("second@example.com"));
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(Files.size(file) - 3);
+        }
+
+        try (FileBookingJournal journal = FileBookingJournal.open(file, FsyncPolicy.PER_OP, Duration.ofMillis(5),
+                event -> { })) {
+            assertThat(journal.getReplayedRecords()).isEqualTo(1);
+            journal.append(new JournalEvent.TicketCancelled("third@example.com"));
+        }
+
+        List<JournalEvent> replayed = new ArrayList<>();
+        FileBookingJournal.open(file, FsyncPolicy.PER_OP, Duration.ofMillis(5), replayed::add).close();
+        assertThat(replayed).containsExactly(
+                new JournalEvent.TicketCancelled("first@example.com"),
+                new JournalEvent.TicketCancelled("third@example.com"));
+    }
+
+    @Test
+    void shouldRestoreRepositoriesAndSeatInventoryFromJournal() throws IOException {
+        Path file = directory.resolve("bookings.journal");
+        try (FileBookingJournal journal = FileBookingJournal.open(file, FsyncPolicy.BATCHED, Duration.ofMillis(5),
+                event -> { })) {
+            UserRepository userRepository = new InMemoryUserRepository();
+            UserServiceImpl userService = new UserServiceImpl(userRepository, journal);
+            TicketServiceImpl ticketService = new TicketServiceImpl(new InMemoryTicketRepository(),
+                    new SimpleSeatAllocationService(), userService, journal);
+            userService.addUser(User.builder().firstName("John").lastName("Doe").email("john@example.com").build());
+            userService.addUser(User.builder().firstName("Jane").lastName("Roe").email("jane@example.com").build());
+            ticketService.purchaseTicket("john@example.com", Section.A);
+            ticketService.purchaseTicket("jane@example.com", Section.A);
+            ticketService.modifySeat("john@example.com", new Seat("B3", Section.B));
+            ticketService.cancelTicket("jane@example.com");
+        }
+
+        UserRepository userRepository = new InMemoryUserRepository();
+        TicketRepository ticketRepository = new InMemoryTicketRepository();
+        SimpleSeatAllocationService seatService = new SimpleSeatAllocationService();
+        JournalReplayer replayer = new JournalReplayer(userRepository, ticketRepository, seatService);
+        FileBookingJournal.open(file, FsyncPolicy.BATCHED, Duration.ofMillis(5), replayer::apply).close();
+        replayer.rebuildSeatInventory();
+
+        assertThat(userRepository.findAll()).extracting(User::getEmail)
+                .containsExactlyInAnyOrder("john@example.com", "jane@example.com");
+        assertThat(ticketRepository.findAll()).extracting(ticket -> ticket.getUser().getEmail())
+                .containsExactly("john@example.com");
+        Ticket ticket = ticketRepository.findByUserEmail("john@example.com");
+        assertThat(ticket.getSeat().getSeatNumber()).isEqualTo("B3");
+        assertThat(ticket.getUser().getFirstName()).isEqualTo("John");
+        assertThat(seatService.isSeatAvailable(new Seat("B3", Section.B))).isFalse();
+        assertThat(seatService.getAvailableSeats(Section.A)).hasSize(10);
+    }
+
+    @Test
+    void shouldRestoreSwappedSeatsFromJournal() throws IOException {
+        Path file = directory.resolve("bookings.journal");
+        Ticket john;
+        Ticket jane;
+        try (FileBookingJournal journal = FileBookingJournal.open(file, FsyncPolicy.BATCHED, Duration.ofMillis(5),
+                event -> { })) {
+            UserServiceImpl userService = new UserServiceImpl(new InMemoryUserRepository(), journal);
+            TicketServiceImpl ticketService = new TicketServiceImpl(new InMemoryTicketRepository(),
+                    new SimpleSeatAllocationService(), userService, journal);
+            userService.addUser(User.builder().email("john@example.com").build());
+            userService.addUser(User.builder().email("jane@example.com").build());
+            john = ticketService.purchaseTicket("john@example.com", Section.A);
+            jane = ticketService.purchaseTicket("jane@example.com", Section.B);
+            ticketService.swapSeats("john@example.com", "jane@example.com");
+        }
+
+        TicketRepository ticketRepository = new InMemoryTicketRepository();
+        SimpleSeatAllocationService seatService = new SimpleSeatAllocationService();
+        JournalReplayer replayer = new JournalReplayer(new InMemoryUserRepository(), ticketRepository, seatService);
+        FileBookingJournal.open(file, FsyncPolicy.BATCHED, Duration.ofMillis(5), replayer::apply).close();
+        replayer.rebuildSeatInventory();
+
+        assertThat(ticketRepository.findByUserEmail("john@example.com").getSeat()).isEqualTo(jane.getSeat());
+        assertThat(ticketRepository.findByUserEmail("jane@example.com").getSeat()).isEqualTo(john.getSeat());
+        assertThat(seatService.getAvailableSeats(Section.A)).hasSize(9);
+        assertThat(seatService.getAvailableSeats(Section.B)).hasSize(9);
+    }
+
+    @Test
+    void shouldReplaySameSwapTwiceWithoutUndoingIt() {
+        TicketRepository ticketRepository = new InMemoryTicketRepository();
+        JournalReplayer replayer = new JournalReplayer(new InMemoryUserRepository(), ticketRepository,
+                new SimpleSeatAllocationService());
+        replayer.apply(new JournalEvent.TicketPurchased("1", "john@example.com", "LF100", null, "London", "France",
+                20.0, Section.A, "A1"));
+        replayer.apply(new JournalEvent.TicketPurchased("2", "jane@example.com", "LF100", null, "London", "France",
+                20.0, Section.B, "B1"));
+        JournalEvent swap = new JournalEvent.SeatsSwapped("john@example.com", Section.B, "B1", "jane@example.com",
+                Section.A, "A1");
+
+        replayer.apply(swap);
+        replayer.apply(swap);
+
+        assertThat(ticketRepository.findByUserEmail("john@example.com").getSeat()).isEqualTo(Seat.of(Section.B, 1));
+        assertThat(ticketRepository.findByUserEmail("jane@example.com").getSeat()).isEqualTo(Seat.of(Section.A, 1));
+    }
+
+    @Test
+    void shouldLinkTicketReplayedBeforeItsUserToThatUser() {
+        UserRepository userRepository = new InMemoryUserRepository();
+        TicketRepository ticketRepository = new InMemoryTicketRepository();
+        JournalReplayer replayer = new JournalReplayer(userRepository, ticketRepository,
+                new SimpleSeatAllocationService());
+
+        replayer.apply(new JournalEvent.TicketPurchased("1", "john@example.com", "LF100", null, "London", "France",
+                20.0, Section.A, "A1"));
+        replayer.apply(new JournalEvent.UserCreated("john@example.com", "John", "Doe"));
+
+        User holder = ticketRepository.findByUserEmail("john@example.com").getUser();
+        assertThat(holder.getFirstName()).isEqualTo("John");
+        assertThat(holder.getLastName()).isEqualTo("Doe");
+        assertThat(ticketRepository.findByUserEmail("john@example.com").getSeat()).isEqualTo(Seat.of(Section.A, 1));
+    }
+}
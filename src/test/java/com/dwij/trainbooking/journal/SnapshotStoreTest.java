@@ -0,0 +1,142 @@
+package com.dwij.trainbooking.journal;
+
+import com.dwij.trainbooking.models.Seat;
+import com.dwij.trainbooking.models.Section;
+import com.dwij.trainbooking.models.Ticket;
+import com.dwij.trainbooking.models.User;
+import com.dwij.trainbooking.repository.InMemoryTicketRepository;
+import com.dwij.trainbooking.repository.TicketRepository;
+import com.dwij.trainbooking.repository.InMemoryUserRepository;
+import com.dwij.trainbooking.repository.UserRepository;
+import com.dwij.trainbooking.service.impl.SimpleSeatAllocationService;
+import com.dwij.trainbooking.service.impl.TicketServiceImpl;
+import com.dwij.trainbooking.service.impl.UserServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SnapshotStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldRoundTripUsersAndTicketsThroughGrowingMapping() throws IOException {
+        SnapshotStore store = new SnapshotStore(directory);
+        List<User> users = IntStream.range(0, 5000)
+                .mapToObj(i -> User.builder().firstName("First" + i).lastName("Last" + i).email("user" + i + "@example.com").build())
+                .toList();
+        List<Ticket> tickets = users.stream()
+                .map(user -> Ticket.builder().id(user.getEmail()).user(user).from("London").to("France").pricePaid(20.0)
+                        .seat(new Seat("A1", Section.A)).build())
+                .toList();
+
+        SnapshotStore.SnapshotInfo written = store.write(42, users, tickets);
+
+        List<JournalEvent> loaded = new ArrayList<>();
+        SnapshotStore.SnapshotInfo read = store.loadLatest(loaded::add).orElseThrow();
+        assertThat(read.journalPosition()).isEqualTo(42);
+        assertThat(read.users()).isEqualTo(5000);
+        assertThat(read.tickets()).isEqualTo(5000);
+        assertThat(read.createdAt()).isEqualTo(written.createdAt().truncatedTo(ChronoUnit.MILLIS));
+        assertThat(loaded).hasSize(10000);
+        assertThat(loaded.get(0)).isEqualTo(new JournalEvent.UserCreated("user0@example.com", "First0", "Last0"));
+        assertThat(loaded.get(5000)).isEqualTo(JournalEvent.TicketPurchased.of(tickets.get(0)));
+    }
+
+    @Test
+    void shouldFallBackToOlderSnapshotWhenLatestIsCorrupt() throws IOException {
+        SnapshotStore store = new SnapshotStore(directory);
+        User user = User.builder().firstName("John").lastName("Doe").email("john@example.com").build();
+        store.write(10, List.of(user), List.of());
+        Path latest = store.write(20, List.of(user), List.of()).file();
+        try (FileChannel channel = FileChannel.open(latest, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0x7f}), Files.size(latest) - 1);
+        }
+
+        assertThat(store.loadLatest(event -> { }).orElseThrow().journalPosition()).isEqualTo(10);
+    }
+
+    @Test
+    void shouldRejectSnapshotOverSizeLimitAndKeepPreviousOne() throws IOException {
+        SnapshotStore store = new SnapshotStore(directory, 4096);
+        User user = User.builder().firstName("John").lastName("Doe").email("john@example.com").build();
+        store.write(10, List.of(user), List.of());
+        List<User> users = IntStream.range(0, 200)
+                .mapToObj(i -> User.builder().email("user" + i + "@example.com").build())
+                .toList();
+
+        assertThatThrownBy(() -> store.write(20, users, List.of()))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("4096 byte limit");
+
+        assertThat(store.loadLatest(event -> { }).orElseThrow().journalPosition()).isEqualTo(10);
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files).hasSize(1);
+        }
+    }
+
+    @Test
+    void shouldSkipSnapshotsOverSizeLimitOnLoad() throws IOException {
+        User user = User.builder().firstName("John").lastName("Doe").email("john@example.com").build();
+        new SnapshotStore(directory).write(10, List.of(user), List.of());
+
+        assertThat(new SnapshotStore(directory, 16).loadLatest(event -> { })).isEmpty();
+    }
+
+    @Test
+    void shouldRecoverFromSnapshotAndReplayOnlyJournalTail() throws IOException {
+        Path file = directory.resolve("bookings.journal");
+        SnapshotStore store = new SnapshotStore(directory);
+        try (FileBookingJournal journal = FileBookingJournal.open(file, FsyncPolicy.PER_OP, Duration.ofMillis(5),
+                event -> { })) {
+            UserRepository userRepository = new InMemoryUserRepository();
+            TicketRepository ticketRepository = new InMemoryTicketRepository();
+            UserServiceImpl userService = new UserServiceImpl(userRepository, journal);
+            TicketServiceImpl ticketService = new TicketServiceImpl(ticketRepository, new SimpleSeatAllocationService(),
+                    userService, journal);
+            userService.addUser(User.builder().firstName("John").lastName("Doe").email("john@example.com").build());
+            ticketService.purchaseTicket("john@example.com", Section.A);
+
+            store.write(journal.writtenPosition(), userRepository.findAll(), ticketRepository.findAll());
+
+            userService.addUser(User.builder().firstName("Jane").lastName("Roe").email("jane@example.com").build());
+            ticketService.purchaseTicket("jane@example.com", Section.B);
+            ticketService.modifySeat("john@example.com", new Seat("A5", Section.A));
+        }
+
+        UserRepository userRepository = new InMemoryUserRepository();
+        TicketRepository ticketRepository = new InMemoryTicketRepository();
+        SimpleSeatAllocationService seatService = new SimpleSeatAllocationService();
+        BookingRecovery recovery = new BookingRecovery(store,
+                new JournalReplayer(userRepository, ticketRepository, seatService), Clock.systemUTC());
+        recovery.recover(file, FsyncPolicy.PER_OP, Duration.ofMillis(5)).close();
+
+        RecoveryReport report = recovery.getReport();
+        assertThat(report.hasSnapshot()).isTrue();
+        assertThat(report.snapshotTickets()).isEqualTo(1);
+        assertThat(report.replayedRecords()).isEqualTo(3);
+        assertThat(userRepository.findAll()).extracting(User::getEmail)
+                .containsExactlyInAnyOrder("john@example.com", "jane@example.com");
+        assertThat(ticketRepository.findByUserEmail("john@example.com").getSeat().getSeatNumber()).isEqualTo("A5");
+        assertThat(seatService.isSeatAvailable(new Seat("A5", Section.A))).isFalse();
+        assertThat(seatService.isSeatAvailable(new Seat("A1", Section.A))).isTrue();
+        assertThat(seatService.getAvailableSeats(Section.B)).hasSize(9);
+    }
+}
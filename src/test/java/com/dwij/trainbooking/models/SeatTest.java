@@ -0,0 +1,41 @@
+package com.dwij.trainbooking.models;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SeatTest {
+
+    @Test
+    void shouldParseOrdinalAndLayoutOnce() {
+        Seat seat = new Seat("A70", Section.A);
+
+        assertThat(seat.getOrdinal()).isEqualTo(70);
+        assertThat(seat.getCoach()).isEqualTo(2);
+        assertThat(seat.getRow()).isEqualTo(2);
+        assertThat(seat.getPosition()).isEqualTo(2);
+        assertThat(new Seat("C1", Section.A).getOrdinal()).isEqualTo(-1);
+        assertThat(new Seat("A1x", Section.A).getOrdinal()).isEqualTo(-1);
+    }
+
+    @Test
+    void shouldReturnCanonicalInstances() {
+        Seat seat = Seat.of(Section.B, 130);
+
+        assertThat(Seat.of(Section.B, 130)).isSameAs(seat);
+        assertThat(Seat.of("B130", Section.B)).isSameAs(seat);
+        assertThat(seat.getSeatNumber()).isEqualTo("B130");
+        assertThat(new Seat("B130", Section.B)).isEqualTo(seat).hasSameHashCodeAs(seat);
+        assertThat(new Seat("B130", Section.C)).isNotEqualTo(seat);
+    }
+
+    @Test
+    void shouldNotInternSeatsAboveBound() {
+        Seat seat = Seat.of("A200000000", Section.A);
+
+        assertThat(seat.getOrdinal()).isEqualTo(200_000_000);
+        assertThat(Seat.of("A200000000", Section.A)).isNotSameAs(seat).isEqualTo(seat);
+        assertThat(Seat.of(Section.A, Seat.MAX_INTERNED_ORDINAL))
+                .isSameAs(Seat.of(Section.A, Seat.MAX_INTERNED_ORDINAL));
+    }
+}
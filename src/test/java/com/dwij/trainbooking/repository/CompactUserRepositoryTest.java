@@ -0,0 +1,111 @@
+package com.dwij.trainbooking.repository;
+
+import com.dwij.trainbooking.exception.UserAlreadyExistsException;
+import com.dwij.trainbooking.exception.UserNotFoundException;
+import com.dwij.trainbooking.models.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CompactUserRepositoryTest {
+    private CompactUserRepository userRepository;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = new CompactUserRepository();
+    }
+
+    @Test
+    void shouldRoundTripUserFields() {
+        userRepository.save(User.builder().firstName("Zoë").lastName("Ødegård").email("zoë@example.com").build());
+        userRepository.save(User.builder().email("nameless@example.com").build());
+
+        User user = userRepository.findByEmail("zoë@example.com");
+        assertThat(user.getFirstName()).isEqualTo("Zoë");
+        assertThat(user.getLastName()).isEqualTo("Ødegård");
+        assertThat(user.getEmail()).isEqualTo("zoë@example.com");
+
+        User nameless = userRepository.findByEmail("nameless@example.com");
+        assertThat(nameless.getFirstName()).isNull();
+        assertThat(nameless.getLastName()).isNull();
+    }
+
+    @Test
+    void shouldStoreEmailsWithRareDomainsInline() {
+        for (int i = 0; i < 6_000; i++) {
+            userRepository.save(new User("First" + i, "Last" + i, "user@domain" + i + ".example"));
+        }
+        userRepository.save(new User("No", "Domain", "not-an-email"));
+
+        assertThat(userRepository.findByEmail("user@domain10.example").getFirstName()).isEqualTo("First10");
+        assertThat(userRepository.findByEmail("user@domain5999.example").getFirstName()).isEqualTo("First5999");
+        assertThat(userRepository.findByEmail("not-an-email").getLastName()).isEqualTo("Domain");
+        assertThat(userRepository.findByEmailOrNull("user@domain6000.example")).isNull();
+        assertThat(userRepository.findByEmailOrNull("not-an-email@")).isNull();
+        assertThat(userRepository.findAll()).extracting(User::getEmail).contains("user@domain5999.example");
+    }
+
+    @Test
+    void shouldRejectDuplicateEmail() {
+        userRepository.save(User.builder().firstName("John").email("john.doe@example.com").build());
+
+        assertThatThrownBy(() -> userRepository.save(User.builder().firstName("Jack").email("john.doe@example.com")
+                .build())).isInstanceOf(UserAlreadyExistsException.class);
+        assertThat(userRepository.findByEmail("john.doe@example.com").getFirstName()).isEqualTo("John");
+        assertThat(userRepository.saveIfAbsent(User.builder().email("John.Doe@example.com").build())).isTrue();
+    }
+
+    @Test
+    void shouldThrowWhenUserNotFound() {
+        assertThat(userRepository.findByEmailOrNull("nonexistent@example.com")).isNull();
+        assertThatThrownBy(() -> userRepository.findByEmail("nonexistent@example.com"))
+                .isInstanceOf(UserNotFoundException.class);
+    }
+
+    @Test
+    void shouldKeepEveryUserAcrossResizesAndPages() {
+        for (int i = 0; i < 50_000; i++) {
+            userRepository.save(new User("First" + i, "Last" + i, "user" + i + "@example.com"));
+        }
+
+        assertThat(userRepository.findAll()).hasSize(50_000);
+        assertThat(userRepository.findAll()).extracting(User::getEmail).doesNotHaveDuplicates();
+        assertThat(userRepository.findByEmail("user31337@example.com").getLastName()).isEqualTo("Last31337");
+    }
+
+    @Test
+    void shouldStoreEachEmailOnceUnderConcurrentSaves() throws Exception {
+        AtomicInteger stored = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 5_000; i++) {
+                        if (userRepository.saveIfAbsent(new User("First", "Last", "user" + i + "@example.com"))) {
+                            stored.incrementAndGet();
+                        }
+                        assertThat(userRepository.findByEmailOrNull("user" + i + "@example.com")).isNotNull();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(stored).hasValue(5_000);
+        assertThat(userRepository.findAll()).hasSize(5_000);
+    }
+}
@@ -4,14 +4,17 @@ import com.dwij.trainbooking.models.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.LocalDate;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
-class TicketRepositoryTest {
+class InMemoryTicketRepositoryTest {
     private TicketRepository ticketRepository;
 
     @BeforeEach
     void setUp() {
-        ticketRepository = new TicketRepository();
+        ticketRepository = new InMemoryTicketRepository();
     }
 
     @Test
@@ -135,4 +138,55 @@ class TicketRepositoryTest {
         Ticket retrievedTicket = ticketRepository.findByUserEmail("alice.brown@example.com");
         assertNull(retrievedTicket);
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldKeepSectionIndexInSeatOrderAcrossSeatChangesAndDeletes() {
+        Departure departure = Departure.of("LF100", LocalDate.of(2030, 1, 1));
+        ticketRepository.save(ticket("a@example.com", departure, new Seat("A10", Section.A)));
+        ticketRepository.save(ticket("b@example.com", departure, new Seat("A2", Section.A)));
+        ticketRepository.save(ticket("c@example.com", departure, new Seat("A1", Section.A)));
+        ticketRepository.save(ticket("d@example.com", Departure.of("LF100", LocalDate.of(2030, 1, 2)),
+                new Seat("A3", Section.A)));
+
+        ticketRepository.save(ticket("c@example.com", departure, new Seat("B1", Section.B)));
+        ticketRepository.deleteByUserEmail("b@example.com");
+        ticketRepository.save(ticket("e@example.com", departure, new Seat("A9", Section.A)));
+
+        assertEquals(List.of("A9", "A10"), ticketRepository.findByDepartureAndSection(departure, Section.A).stream()
+                .map(ticket -> ticket.getSeat().getSeatNumber())
+                .toList());
+        assertEquals(1, ticketRepository.findByDepartureAndSection(departure, Section.B).size());
+        assertTrue(ticketRepository.findByDepartureAndSection(departure, Section.C).isEmpty());
+    }
+
+    @Test
+    void shouldReplaceAndDeleteOnlyTheVersionThatWasRead() {
+        Departure departure = Departure.of("LF100", LocalDate.of(2030, 1, 1));
+        Ticket original = ticket("a@example.com", departure, new Seat("A1", Section.A));
+        ticketRepository.save(original);
+        Ticket moved = original.withSeat(new Seat("A2", Section.A));
+
+        assertTrue(ticketRepository.compareAndSet(original, moved));
+        assertFalse(ticketRepository.compareAndSet(original, original.withSeat(new Seat("A3", Section.A))));
+        assertFalse(ticketRepository.compareAndDelete(original));
+        assertEquals("A2", ticketRepository.findByUserEmail("a@example.com").getSeat().getSeatNumber());
+        assertEquals(List.of("A2"), ticketRepository.findByDepartureAndSection(departure, Section.A).stream()
+                .map(ticket -> ticket.getSeat().getSeatNumber())
+                .toList());
+
+        assertTrue(ticketRepository.compareAndDelete(moved));
+        assertNull(ticketRepository.findByUserEmail("a@example.com"));
+        assertFalse(ticketRepository.compareAndSet(moved, moved.withSeat(new Seat("A4", Section.A))));
+        assertNull(ticketRepository.findByUserEmail("a@example.com"));
+    }
+
+    private static Ticket ticket(String email, Departure departure, Seat seat) {
+        return Ticket.builder()
+                .id(email)
+                .user(User.builder().email(email).build())
+                .trainNumber(departure.getTrainNumber())
+                .departureDate(departure.getDate())
+                .seat(seat)
+                .build();
+    }
+}
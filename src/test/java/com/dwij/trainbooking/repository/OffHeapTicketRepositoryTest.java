@@ -0,0 +1,242 @@
+package com.dwij.trainbooking.repository;
+
+import com.dwij.trainbooking.models.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OffHeapTicketRepositoryTest {
+    private static final Departure DEPARTURE = Departure.of("LP300", LocalDate.of(2030, 1, 1));
+
+    private UserRepository userRepository;
+    private OffHeapTicketRepository ticketRepository;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = new InMemoryUserRepository();
+        ticketRepository = new OffHeapTicketRepository(userRepository);
+    }
+
+    @Test
+    void shouldRoundTripTicketFields() {
+        User user = new User("Zoë", "Ødegård", "zoë@example.com");
+        userRepository.save(user);
+        String id = UUID.randomUUID().toString();
+        ticketRepository.save(Ticket.builder()
+                .id(id)
+                .user(user)
+                .trainNumber("LP300")
+                .departureDate(DEPARTURE.getDate())
+                .from("London")
+                .to("Paris")
+                .pricePaid(42.5)
+                .seat(Seat.of(Section.B, 17))
+                .build());
+
+        Ticket ticket = ticketRepository.findByUserEmail("zoë@example.com");
+        assertThat(ticket.getId()).isEqualTo(id);
+        assertThat(ticket.getUser().getFirstName()).isEqualTo("Zoë");
+        assertThat(ticket.getUser().getLastName()).isEqualTo("Ødegård");
+        assertThat(ticket.getTrainNumber()).isEqualTo("LP300");
+        assertThat(ticket.getDepartureDate()).isEqualTo(DEPARTURE.getDate());
+        assertThat(ticket.getFrom()).isEqualTo("London");
+        assertThat(ticket.getTo()).isEqualTo("Paris");
+        assertThat(ticket.getPricePaid()).isEqualTo(42.5);
+        assertThat(ticket.getSeat()).isSameAs(Seat.of(Section.B, 17));
+        assertThat(ticketRepository.findByUserEmail("nonexistent@example.com")).isNull();
+    }
+
+    @Test
+    void shouldKeepFieldsThatDoNotFitTheSlot() {
+        String email = "a.very.long.local.part.that.does.not.fit@subdomain.example.com";
+        ticketRepository.save(Ticket.builder()
+                .id("ticket-1")
+                .user(User.builder().email(email).build())
+                .seat(new Seat("A07", Section.A))
+                .build());
+
+        assertThat(ticketRepository.overflowCount()).isOne();
+
+        Ticket ticket = ticketRepository.findByUserEmail(email);
+        assertThat(ticket.getId()).isEqualTo("ticket-1");
+        assertThat(ticket.getUser().getEmail()).isEqualTo(email);
+        assertThat(ticket.getSeat().getSeatNumber()).isEqualTo("A07");
+        assertThat(ticket.getTrainNumber()).isNull();
+        assertThat(ticket.getDepartureDate()).isNull();
+
+        ticketRepository.save(ticket.withSeat(Seat.of(Section.A, 7)));
+        assertThat(ticketRepository.findByUserEmail(email).getSeat()).isSameAs(Seat.of(Section.A, 7));
+        assertThat(ticketRepository.findByUserEmail(email).getId()).isEqualTo("ticket-1");
+    }
+
+    @Test
+    void shouldReuseFreedSlots() {
+        for (int i = 0; i < 20_000; i++) {
+            ticketRepository.save(ticket("user" + i + "@example.com", DEPARTURE, Seat.of(Section.A, 1)));
+        }
+        long reserved = ticketRepository.reservedBytes();
+        for (int i = 0; i < 20_000; i++) {
+            ticketRepository.deleteByUserEmail("user" + i + "@example.com");
+        }
+        for (int i = 0; i < 20_000; i++) {
+            ticketRepository.save(ticket("other" + i + "@example.com", DEPARTURE, Seat.of(Section.A, 1)));
+        }
+
+        assertThat(ticketRepository.reservedBytes()).isEqualTo(reserved);
+        assertThat(ticketRepository.findAll()).hasSize(20_000);
+        assertThat(ticketRepository.findByUserEmail("user19999@example.com")).isNull();
+        assertThat(ticketRepository.findByUserEmail("other19999@example.com")).isNotNull();
+    }
+
+    @Test
+    void shouldKeepOnlyTheSeatIndexOnHeap() {
+        for (int i = 0; i < 20_000; i++) {
+            ticketRepository.save(ticket("user" + i + "@example.com", DEPARTURE, Seat.of(Section.A, 1 + i % 64)));
+        }
+
+        assertThat(ticketRepository.heapIndexBytes()).isBetween(16L * 20_000, 17L * 20_000);
+        assertThat(ticketRepository.overflowCount()).isZero();
+    }
+
+    @Test
+    void shouldFindRemainingTicketsAfterDeletes() {
+        for (int i = 0; i < 50_000; i++) {
+            ticketRepository.save(ticket("user" + i + "@example.com", DEPARTURE, Seat.of(Section.A, 1 + i % 64)));
+        }
+        for (int i = 0; i < 50_000; i += 2) {
+            ticketRepository.deleteByUserEmail("user" + i + "@example.com");
+        }
+
+        for (int i = 0; i < 50_000; i++) {
+            Ticket ticket = ticketRepository.findByUserEmail("user" + i + "@example.com");
+            assertThat(ticket == null).as("user" + i + " deleted").isEqualTo(i % 2 == 0);
+        }
+        assertThat(ticketRepository.findAll()).hasSize(25_000)
+                .extracting(ticket -> ticket.getUser().getEmail()).doesNotHaveDuplicates();
+        assertThat(ticketRepository.findByDepartureAndSection(DEPARTURE, Section.A)).hasSize(25_000)
+                .extracting(ticket -> ticket.getSeat().getOrdinal()).isSorted();
+        Ticket middle = ticketRepository.findByUserEmail("user25001@example.com");
+        assertThat(ticketRepository.findByDepartureAndSection(DEPARTURE, Section.A, middle.getSeat(),
+                middle.getUser().getEmail())).allMatch(ticket -> ticket.getSeat().getOrdinal()
+                >= middle.getSeat().getOrdinal()).extracting(ticket -> ticket.getUser().getEmail())
+                .isNotEmpty().doesNotContain("user25001@example.com");
+    }
+
+    @Test
+    void shouldKeepSectionIndexInSeatOrderAcrossSeatChangesAndDeletes() {
+        ticketRepository.save(ticket("a@example.com", DEPARTURE, new Seat("A10", Section.A)));
+        ticketRepository.save(ticket("b@example.com", DEPARTURE, new Seat("A2", Section.A)));
+        ticketRepository.save(ticket("c@example.com", DEPARTURE, new Seat("A1", Section.A)));
+        ticketRepository.save(ticket("d@example.com", Departure.of("LP300", LocalDate.of(2030, 1, 2)),
+                new Seat("A3", Section.A)));
+
+        ticketRepository.save(ticket("c@example.com", DEPARTURE, new Seat("B1", Section.B)));
+        ticketRepository.deleteByUserEmail("b@example.com");
+        ticketRepository.save(ticket("e@example.com", DEPARTURE, new Seat("A9", Section.A)));
+
+        assertThat(ticketRepository.findByDepartureAndSection(DEPARTURE, Section.A))
+                .extracting(ticket -> ticket.getSeat().getSeatNumber()).containsExactly("A9", "A10");
+        assertThat(ticketRepository.findByDepartureAndSection(DEPARTURE, Section.B)).hasSize(1);
+        assertThat(ticketRepository.findByDepartureAndSection(DEPARTURE, Section.C)).isEmpty();
+        assertThat(ticketRepository.findByDepartureAndSection(Departure.of("XX1", DEPARTURE.getDate()), Section.A))
+                .isEmpty();
+    }
+
+    @Test
+    void shouldResumeSectionAfterCursorAndSkipTicketsMovedSinceTheSnapshot() {
+        for (int i = 1; i <= 5; i++) {
+            ticketRepository.save(ticket("first" + i + "@example.com", DEPARTURE, Seat.of(Section.A, i)));
+            ticketRepository.save(ticket("second" + i + "@example.com", DEPARTURE, Seat.of(Section.A, i)));
+        }
+        List<Ticket> firstPage = new ArrayList<>();
+        Iterator<Ticket> tickets = ticketRepository.findByDepartureAndSection(DEPARTURE, Section.A).iterator();
+        for (int i = 0; i < 4; i++) {
+            firstPage.add(tickets.next());
+        }
+        Ticket last = firstPage.get(3);
+
+        ticketRepository.deleteByUserEmail("first5@example.com");
+        ticketRepository.save(ticket("second5@example.com", DEPARTURE, Seat.of(Section.B, 1)));
+
+        assertThat(firstPage).extracting(ticket -> ticket.getSeat().getOrdinal()).containsExactly(1, 1, 2, 2);
+        assertThat(tickets).toIterable().extracting(ticket -> ticket.getSeat().getOrdinal())
+                .containsExactly(3, 3, 4, 4);
+        assertThat(ticketRepository.findByDepartureAndSection(DEPARTURE, Section.A, last.getSeat(),
+                last.getUser().getEmail())).extracting(ticket -> ticket.getSeat().getOrdinal())
+                .containsExactly(3, 3, 4, 4);
+    }
+
+    @Test
+    void shouldReplaceAndDeleteOnlyTheVersionThatWasRead() {
+        ticketRepository.save(ticket("a@example.com", DEPARTURE, Seat.of(Section.A, 1)));
+        Ticket original = ticketRepository.findByUserEmail("a@example.com");
+        Ticket moved = original.withSeat(Seat.of(Section.A, 2));
+        Ticket rebooked = ticket("a@example.com", DEPARTURE, Seat.of(Section.A, 3));
+
+        assertThat(ticketRepository.compareAndSet(original, moved)).isTrue();
+        assertThat(ticketRepository.findByUserEmail("a@example.com").getVersion()).isEqualTo(1);
+        assertThat(ticketRepository.compareAndSet(original, original.withSeat(Seat.of(Section.A, 4)))).isFalse();
+        assertThat(ticketRepository.compareAndDelete(original)).isFalse();
+        assertThat(ticketRepository.findByDepartureAndSection(DEPARTURE, Section.A))
+                .extracting(ticket -> ticket.getSeat().getOrdinal()).containsExactly(2);
+
+        ticketRepository.deleteByUserEmail("a@example.com");
+        ticketRepository.save(rebooked);
+        assertThat(ticketRepository.compareAndSet(moved.withSeat(Seat.of(Section.A, 5)), rebooked)).isFalse();
+        assertThat(ticketRepository.compareAndDelete(rebooked)).isTrue();
+        assertThat(ticketRepository.findByUserEmail("a@example.com")).isNull();
+    }
+
+    @Test
+    void shouldKeepOneTicketPerEmailUnderConcurrentWrites() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 5_000; i++) {
+                        String email = "user" + i + "@example.com";
+                        ticketRepository.save(ticket(email, DEPARTURE, Seat.of(Section.A, 1 + (i + thread) % 32)));
+                        if ((i + thread) % 3 == 0) {
+                            ticketRepository.deleteByUserEmail(email);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(ticketRepository.findAll()).extracting(ticket -> ticket.getUser().getEmail())
+                .doesNotHaveDuplicates();
+        assertThat(ticketRepository.findByDepartureAndSection(DEPARTURE, Section.A))
+                .hasSameSizeAs(ticketRepository.findAll());
+    }
+
+    private static Ticket ticket(String email, Departure departure, Seat seat) {
+        return Ticket.builder()
+                .id(UUID.randomUUID().toString())
+                .user(User.builder().email(email).build())
+                .trainNumber(departure.getTrainNumber())
+                .departureDate(departure.getDate())
+                .from("London")
+                .to("Paris")
+                .pricePaid(10.0)
+                .seat(seat)
+                .build();
+    }
+}
@@ -0,0 +1,182 @@
+package com.dwij.trainbooking.service;
+
+import com.dwij.trainbooking.exception.IdempotencyKeyReuseException;
+import com.dwij.trainbooking.exception.SeatUnavailableException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdempotencyCacheTest {
+
+    @Test
+    void shouldReplayResultForRepeatedKey() {
+        IdempotencyCache cache = new IdempotencyCache(10, Duration.ofMinutes(1), Clock.systemUTC());
+        AtomicInteger executions = new AtomicInteger();
+
+        String first = cache.execute("key", "request", () -> "ticket-" + executions.incrementAndGet());
+        String second = cache.execute("key", "request", () -> "ticket-" + executions.incrementAndGet());
+
+        assertThat(first).isEqualTo("ticket-1");
+        assertThat(second).isEqualTo("ticket-1");
+        assertThat(executions).hasValue(1);
+        assertThat(cache.getReplayCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldRunEveryRequestWithoutKey() {
+        IdempotencyCache cache = new IdempotencyCache(10, Duration.ofMinutes(1), Clock.systemUTC());
+        AtomicInteger executions = new AtomicInteger();
+
+        cache.execute(null, "request", executions::incrementAndGet);
+        cache.execute(null, "request", executions::incrementAndGet);
+
+        assertThat(executions).hasValue(2);
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void shouldRejectKeyReusedForDifferentRequest() {
+        IdempotencyCache cache = new IdempotencyCache(10, Duration.ofMinutes(1), Clock.systemUTC());
+        cache.execute("key", "purchase A", () -> "ticket");
+
+        assertThatThrownBy(() -> cache.execute("key", "purchase B", () -> "other"))
+                .isInstanceOf(IdempotencyKeyReuseException.class);
+    }
+
+    @Test
+    void shouldForgetFailedExecutionSoRetryRunsAgain() {
+        IdempotencyCache cache = new IdempotencyCache(10, Duration.ofMinutes(1), Clock.systemUTC());
+
+        assertThatThrownBy(() -> cache.execute("key", "request", () -> {
+            throw new SeatUnavailableException("No available seats in section A");
+        })).isInstanceOf(SeatUnavailableException.class);
+
+        assertThat(cache.execute("key", "request", () -> "ticket")).isEqualTo("ticket");
+    }
+
+    @Test
+    void shouldExpireEntriesAfterTtl() {
+        MutableClock clock = new MutableClock();
+        IdempotencyCache cache = new IdempotencyCache(10, Duration.ofSeconds(30), clock);
+        AtomicInteger executions = new AtomicInteger();
+
+        cache.execute("key", "request", executions::incrementAndGet);
+        clock.advance(Duration.ofSeconds(31));
+        cache.execute("key", "request", executions::incrementAndGet);
+
+        assertThat(executions).hasValue(2);
+    }
+
+    @Test
+    void shouldEvictOldestEntriesBeyondCapacity() {
+        IdempotencyCache cache = new IdempotencyCache(3, Duration.ofMinutes(1), Clock.systemUTC());
+        AtomicInteger executions = new AtomicInteger();
+
+        for (int i = 0; i < 5; i++) {
+            cache.execute("key-" + i, "request", executions::incrementAndGet);
+        }
+        cache.execute("key-4", "request", executions::incrementAndGet);
+        cache.execute("key-0", "request", executions::incrementAndGet);
+
+        assertThat(cache.size()).isEqualTo(3);
+        assertThat(executions).hasValue(6);
+    }
+
+    @Test
+    void shouldNotCountFailedOrExpiredExecutionsTowardsCapacity() {
+        MutableClock clock = new MutableClock();
+        IdempotencyCache cache = new IdempotencyCache(3, Duration.ofSeconds(30), clock);
+        AtomicInteger executions = new AtomicInteger();
+        cache.execute("success", "request", executions::incrementAndGet);
+        cache.execute("expiring", "request", executions::incrementAndGet);
+        clock.advance(Duration.ofSeconds(20));
+        cache.execute("kept", "request", executions::incrementAndGet);
+        clock.advance(Duration.ofSeconds(11));
+        cache.execute("expiring", "request", executions::incrementAndGet);
+
+        for (int i = 0; i < 3; i++) {
+            String key = "sold-out-" + i;
+            assertThatThrownBy(() -> cache.execute(key, "request", () -> {
+                throw new SeatUnavailableException("No available seats in section A");
+            })).isInstanceOf(SeatUnavailableException.class);
+        }
+        cache.execute("kept", "request", executions::incrementAndGet);
+        cache.execute("expiring", "request", executions::incrementAndGet);
+
+        assertThat(executions).hasValue(4);
+        assertThat(cache.size()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldCoalesceConcurrentDuplicatesOntoOneExecution() throws Exception {
+        IdempotencyCache cache = new IdempotencyCache(10, Duration.ofMinutes(1), Clock.systemUTC());
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            Future<Integer> first = executor.submit(() -> cache.execute("key", "request", () -> {
+                started.countDown();
+                await(release);
+                return executions.incrementAndGet();
+            }));
+            started.await(5, TimeUnit.SECONDS);
+            Future<Integer> duplicate = executor.submit(() -> cache.execute("key", "request",
+                    executions::incrementAndGet));
+            Thread.sleep(50);
+            assertThat(duplicate).isNotDone();
+
+            release.countDown();
+
+            assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+            assertThat(duplicate.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+            assertThat(executions).hasValue(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2030-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
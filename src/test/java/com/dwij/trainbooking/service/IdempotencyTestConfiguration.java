@@ -0,0 +1,16 @@
+package com.dwij.trainbooking.service;
+
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import java.time.Clock;
+import java.time.Duration;
+
+@TestConfiguration
+public class IdempotencyTestConfiguration {
+
+    @Bean
+    public IdempotencyCache idempotencyCache() {
+        return new IdempotencyCache(1000, Duration.ofMinutes(5), Clock.systemUTC());
+    }
+}
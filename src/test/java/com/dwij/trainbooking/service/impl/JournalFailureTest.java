@@ -0,0 +1,137 @@
+package com.dwij.trainbooking.service.impl;
+
+import com.dwij.trainbooking.journal.BookingJournal;
+import com.dwij.trainbooking.journal.JournalEvent;
+import com.dwij.trainbooking.journal.JournalException;
+import com.dwij.trainbooking.models.*;
+import com.dwij.trainbooking.repository.InMemoryTicketRepository;
+import com.dwij.trainbooking.repository.InMemoryUserRepository;
+import com.dwij.trainbooking.repository.TicketRepository;
+import com.dwij.trainbooking.service.TrainCatalog;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JournalFailureTest {
+    private static final Departure DEPARTURE = Departure.of("LP300", LocalDate.of(2030, 1, 1));
+
+    private final List<JournalEvent> journaled = new CopyOnWriteArrayList<>();
+    private volatile boolean failing;
+    private SimpleSeatAllocationService seatAllocationService;
+    private TicketRepository ticketRepository;
+    private UserServiceImpl userService;
+    private TicketServiceImpl ticketService;
+
+    @BeforeEach
+    void setUp() {
+        Train train = new Train("LP300", Route.of("London", "Lille", "Paris"), Map.of(Section.A, 2, Section.B, 2));
+        Clock clock = Clock.fixed(DEPARTURE.getDate().atStartOfDay().toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        seatAllocationService = new SimpleSeatAllocationService(new TrainCatalog(List.of(train), "LP300"), clock);
+        ticketRepository = new InMemoryTicketRepository();
+        userService = new UserServiceImpl(new InMemoryUserRepository());
+        BookingJournal journal = event -> {
+            if (failing) {
+                failing = false;
+                return CompletableFuture.failedFuture(new IOException("No space left on device"));
+            }
+            journaled.add(event);
+            return CompletableFuture.completedFuture(null);
+        };
+        ticketService = new TicketServiceImpl(ticketRepository, seatAllocationService, userService, journal);
+        for (String email : List.of("a", "b", "c")) {
+            userService.addUser(User.builder().email(email).build());
+        }
+    }
+
+    @Test
+    void shouldUndoPurchaseWhoseRecordFailed() {
+        failing = true;
+
+        assertThatThrownBy(() -> ticketService.purchaseTicket("a", Section.A)).isInstanceOf(JournalException.class);
+
+        assertThat(ticketRepository.findByUserEmail("a")).isNull();
+        assertThat(seatAllocationService.countAvailableSeats(DEPARTURE, Section.A, null)).isEqualTo(2);
+        assertThat(journaled).containsExactly(new JournalEvent.TicketCancelled("a"));
+    }
+
+    @Test
+    void shouldUndoWholeBatchWhenItsRecordsFailed() {
+        failing = true;
+
+        assertThatThrownBy(() -> ticketService.purchaseTickets(DEPARTURE,
+                List.of(new BatchPurchaseEntry("a", Section.A), new BatchPurchaseEntry("b", Section.A)), null, null))
+                .isInstanceOf(JournalException.class);
+
+        assertThat(ticketRepository.findByUserEmail("a")).isNull();
+        assertThat(ticketRepository.findByUserEmail("b")).isNull();
+        assertThat(seatAllocationService.countAvailableSeats(DEPARTURE, Section.A, null)).isEqualTo(2);
+    }
+
+    @Test
+    void shouldKeepTicketWhoseCancellationRecordFailed() {
+        Ticket ticket = ticketService.purchaseTicket("a", Section.A);
+        ticketService.purchaseTicket("c", Section.A);
+        ticketService.joinWaitlist(DEPARTURE, "b", Section.A, null, null);
+        failing = true;
+
+        assertThatThrownBy(() -> ticketService.cancelTicket("a")).isInstanceOf(JournalException.class);
+
+        assertThat(ticketRepository.findByUserEmail("a")).isEqualTo(ticket);
+        assertThat(ticketRepository.findByUserEmail("b")).isNull();
+        assertThat(seatAllocationService.isSeatAvailable(DEPARTURE, ticket.getSeat(), null)).isFalse();
+    }
+
+    @Test
+    void shouldMoveTicketBackWhenSeatChangeRecordFailed() {
+        Ticket ticket = ticketService.purchaseTicket("a", Section.A);
+        Seat requested = Seat.of(Section.B, 1);
+        failing = true;
+
+        assertThatThrownBy(() -> ticketService.modifySeat("a", requested)).isInstanceOf(JournalException.class);
+
+        assertThat(ticketRepository.findByUserEmail("a").getSeat()).isEqualTo(ticket.getSeat());
+        assertThat(seatAllocationService.isSeatAvailable(DEPARTURE, ticket.getSeat(), null)).isFalse();
+        assertThat(seatAllocationService.isSeatAvailable(DEPARTURE, requested, null)).isTrue();
+        assertThat(journaled).endsWith(new JournalEvent.SeatModified("a", Section.A, ticket.getSeat().getSeatNumber()));
+    }
+
+    @Test
+    void shouldSwapBackWhenSwapRecordFailed() {
+        Ticket a = ticketService.purchaseTicket(DEPARTURE, "a", Section.A, "London", "Paris");
+        Ticket b = ticketService.purchaseTicket(DEPARTURE, "b", Section.B, "London", "Lille");
+        failing = true;
+
+        assertThatThrownBy(() -> ticketService.swapSeats("a", "b")).isInstanceOf(JournalException.class);
+
+        assertThat(ticketRepository.findByUserEmail("a").getSeat()).isEqualTo(a.getSeat());
+        assertThat(ticketRepository.findByUserEmail("b").getSeat()).isEqualTo(b.getSeat());
+        assertThat(seatAllocationService.isSeatAvailable(DEPARTURE, b.getSeat(), Journey.of("Lille", "Paris")))
+                .isTrue();
+        assertThat(seatAllocationService.isSeatAvailable(DEPARTURE, a.getSeat(), Journey.of("Lille", "Paris")))
+                .isFalse();
+    }
+
+    @Test
+    void shouldTreatRefusedAppendAsFailedRecord() {
+        BookingJournal closed = event -> {
+            throw new IllegalStateException("Journal is closed");
+        };
+        TicketServiceImpl service = new TicketServiceImpl(ticketRepository, seatAllocationService, userService, closed);
+
+        assertThatThrownBy(() -> service.purchaseTicket("a", Section.A)).isInstanceOf(JournalException.class);
+
+        assertThat(ticketRepository.findByUserEmail("a")).isNull();
+        assertThat(seatAllocationService.countAvailableSeats(DEPARTURE, Section.A, null)).isEqualTo(2);
+    }
+}
@@ -0,0 +1,112 @@
+package com.dwij.trainbooking.service.impl;
+
+import com.dwij.trainbooking.exception.SeatUnavailableException;
+import com.dwij.trainbooking.models.*;
+import com.dwij.trainbooking.service.TrainCatalog;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SeatAvailabilityFeedTest {
+    private static final Departure DEPARTURE = Departure.of("LP300", LocalDate.of(2030, 1, 1));
+    private static final Journey WHOLE_ROUTE = Journey.of("London", "Paris");
+
+    private SimpleSeatAllocationService seatAllocationService;
+    private SeatAvailabilityFeed feed;
+    private List<Object> events;
+
+    @BeforeEach
+    void setUp() {
+        Train train = new Train("LP300", Route.of("London", "Lille", "Paris"), Map.of(Section.A, 3));
+        Clock clock = Clock.fixed(DEPARTURE.getDate().atStartOfDay().toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        seatAllocationService = new SimpleSeatAllocationService(new TrainCatalog(List.of(train), "LP300"), clock);
+        feed = new SeatAvailabilityFeed(seatAllocationService, Runnable::run);
+        events = new ArrayList<>();
+    }
+
+    @Test
+    void shouldSendSnapshotOnSubscribe() {
+        seatAllocationService.allocateSeat(DEPARTURE, Section.A, WHOLE_ROUTE);
+
+        feed.subscribe(DEPARTURE, Section.A, null, null, this::record);
+
+        assertThat(events).singleElement().usingRecursiveComparison()
+                .isEqualTo(new SeatAvailabilitySnapshot(Section.A, 3, List.of(2, 3)));
+        assertThat(feed.subscriberCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldSendTakenAndFreedSeatsOnDispatch() {
+        Seat first = seatAllocationService.allocateSeat(DEPARTURE, Section.A, WHOLE_ROUTE);
+        feed.subscribe(DEPARTURE, Section.A, null, null, this::record);
+
+        seatAllocationService.allocateSeat(DEPARTURE, Section.A, WHOLE_ROUTE);
+        seatAllocationService.releaseSeat(DEPARTURE, first, WHOLE_ROUTE);
+        feed.dispatch();
+
+        assertThat(events).hasSize(2);
+        assertThat(events.get(1)).usingRecursiveComparison()
+                .isEqualTo(new SeatAvailabilityDelta(List.of(2), List.of(1)));
+    }
+
+    @Test
+    void shouldCoalesceSeatTakenAndFreedBetweenDispatches() {
+        feed.subscribe(DEPARTURE, Section.A, null, null, this::record);
+
+        Seat seat = seatAllocationService.allocateSeat(DEPARTURE, Section.A, WHOLE_ROUTE);
+        seatAllocationService.releaseSeat(DEPARTURE, seat, WHOLE_ROUTE);
+        feed.dispatch();
+
+        assertThat(events).hasSize(1);
+    }
+
+    @Test
+    void shouldReportAvailabilityForSubscribedJourney() {
+        List<Object> firstLeg = new ArrayList<>();
+        feed.subscribe(DEPARTURE, Section.A, "London", "Lille", (event, data) -> firstLeg.add(data));
+        feed.subscribe(DEPARTURE, Section.A, "Lille", "Paris", this::record);
+
+        seatAllocationService.allocateSeat(DEPARTURE, Section.A, Journey.of("London", "Lille"));
+        feed.dispatch();
+
+        assertThat(firstLeg).hasSize(2);
+        assertThat(firstLeg.get(1)).usingRecursiveComparison()
+                .isEqualTo(new SeatAvailabilityDelta(List.of(1), List.of()));
+        assertThat(events).hasSize(1);
+    }
+
+    @Test
+    void shouldCancelSubscriptionWhenSendFails() {
+        feed.subscribe(DEPARTURE, Section.A, null, null, (event, data) -> {
+            if (event.equals("delta")) {
+                throw new IOException("Broken pipe");
+            }
+        });
+
+        seatAllocationService.allocateSeat(DEPARTURE, Section.A, WHOLE_ROUTE);
+        feed.dispatch();
+
+        assertThat(feed.subscriberCount()).isZero();
+    }
+
+    @Test
+    void shouldRejectUnknownSection() {
+        assertThatThrownBy(() -> feed.subscribe(DEPARTURE, Section.B, null, null, this::record))
+                .isInstanceOf(SeatUnavailableException.class);
+        assertThat(feed.subscriberCount()).isZero();
+    }
+
+    private void record(String event, Object data) {
+        events.add(data);
+    }
+}
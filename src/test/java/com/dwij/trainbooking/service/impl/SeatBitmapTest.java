@@ -0,0 +1,92 @@
+package com.dwij.trainbooking.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+
+class SeatBitmapTest {
+
+    @Test
+    void shouldStartWithEverySeatFree() {
+        SeatBitmap bitmap = new SeatBitmap(130);
+
+        assertThat(bitmap.wordCount()).isEqualTo(3);
+        assertThat(bitmap.freeCount()).isEqualTo(130);
+        assertThat(bitmap.isFree(129)).isTrue();
+    }
+
+    @Test
+    void shouldClaimLowestFreeSeatAcrossWords() {
+        SeatBitmap bitmap = new SeatBitmap(70);
+        for (int i = 0; i < 64; i++) {
+            assertThat(bitmap.claim(i)).isTrue();
+        }
+
+        assertThat(bitmap.claimLowest()).isEqualTo(64);
+        assertThat(bitmap.freeCount()).isEqualTo(5);
+    }
+
+    @Test
+    void shouldRejectDoubleClaimAndDoubleRelease() {
+        SeatBitmap bitmap = new SeatBitmap(10);
+
+        assertThat(bitmap.claim(3)).isTrue();
+        assertThat(bitmap.claim(3)).isFalse();
+        assertThat(bitmap.release(3)).isTrue();
+        assertThat(bitmap.release(3)).isFalse();
+    }
+
+    @Test
+    void shouldReturnMinusOneWhenFull() {
+        SeatBitmap bitmap = new SeatBitmap(2);
+        bitmap.claimLowest();
+        bitmap.claimLowest();
+
+        assertThat(bitmap.claimLowest()).isEqualTo(-1);
+    }
+
+    @Test
+    void shouldFindRunsThatCrossWordBoundaries() {
+        long[] words = {0xF000_0000_0000_0000L, -1L, 0x3L, 0L};
+
+        assertThat(SeatBitmap.findRun(words, 4)).isEqualTo(60);
+        assertThat(SeatBitmap.findRun(words, 70)).isEqualTo(60);
+        assertThat(SeatBitmap.findRun(words, 71)).isEqualTo(-1);
+    }
+
+    @Test
+    void shouldMatchNaiveRunSearchOnFragmentedWords() {
+        Random random = new Random(7);
+        for (int trial = 0; trial < 500; trial++) {
+            long[] words = new long[4];
+            for (int w = 0; w < words.length; w++) {
+                words[w] = random.nextLong() | random.nextLong() | random.nextLong();
+            }
+            int length = 1 + random.nextInt(80);
+
+            assertThat(SeatBitmap.findRun(words, length)).isEqualTo(naiveRun(words, length));
+        }
+    }
+
+    @Test
+    void shouldPickTightestClusterWhenNoRunExists() {
+        long[] words = {0b1000_0010_0101L, 1L << 3};
+
+        assertThat(SeatBitmap.tightestCluster(words, 3)).containsExactly(0, 2, 5);
+        assertThat(SeatBitmap.tightestCluster(words, 5)).containsExactly(0, 2, 5, 11, 67);
+        assertThat(SeatBitmap.tightestCluster(words, 6)).isNull();
+    }
+
+    private static int naiveRun(long[] words, int length) {
+        int run = 0;
+        for (int i = 0; i < words.length * 64; i++) {
+            run = (words[i >>> 6] & (1L << i)) != 0 ? run + 1 : 0;
+            if (run == length) {
+                return i - length + 1;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,173 @@
+package com.dwij.trainbooking.service.impl;
+
+import com.dwij.trainbooking.config.BookingProperties;
+import com.dwij.trainbooking.exception.HoldAlreadyExistsException;
+import com.dwij.trainbooking.exception.HoldNotFoundException;
+import com.dwij.trainbooking.exception.TicketAlreadyExistsException;
+import com.dwij.trainbooking.models.*;
+import com.dwij.trainbooking.repository.InMemoryTicketRepository;
+import com.dwij.trainbooking.repository.TicketRepository;
+import com.dwij.trainbooking.repository.InMemoryUserRepository;
+import com.dwij.trainbooking.service.TrainCatalog;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SeatHoldServiceImplTest {
+    private MutableClock clock;
+    private SimpleSeatAllocationService seatAllocationService;
+    private TicketRepository ticketRepository;
+    private TicketServiceImpl ticketService;
+    private SeatHoldServiceImpl holdService;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2030-01-01T09:00:00Z"));
+        seatAllocationService = new SimpleSeatAllocationService(
+                TrainCatalog.singleTrain(Route.of("London", "France"), 2), clock);
+        ticketRepository = new InMemoryTicketRepository();
+        UserServiceImpl userService = new UserServiceImpl(new InMemoryUserRepository());
+        userService.addUser(User.builder().email("a@example.com").build());
+        userService.addUser(User.builder().email("b@example.com").build());
+        ticketService = new TicketServiceImpl(ticketRepository, seatAllocationService, userService);
+        BookingProperties properties = new BookingProperties();
+        properties.getHolds().setTtl(Duration.ofMinutes(5));
+        properties.getHolds().setTick(Duration.ofMillis(100));
+        holdService = new SeatHoldServiceImpl(seatAllocationService, ticketService, ticketRepository, userService,
+                clock, properties);
+    }
+
+    @Test
+    void shouldTakeSeatOutOfInventoryWhileHeld() {
+        SeatHold hold = holdService.placeHold("a@example.com", Section.A, null, null);
+
+        assertThat(hold.getSeat().getSeatNumber()).isEqualTo("A1");
+        assertThat(hold.getExpiresAt()).isEqualTo(Instant.parse("2030-01-01T09:05:00Z"));
+        assertThat(seatAllocationService.isSeatAvailable(hold.getSeat())).isFalse();
+        assertThat(holdService.getHold(hold.getId()).getEmail()).isEqualTo("a@example.com");
+    }
+
+    @Test
+    void shouldIssueRandomVersionFourHoldIds() {
+        SeatHold first = holdService.placeHold("a@example.com", Section.A, null, null);
+        SeatHold second = holdService.placeHold("b@example.com", Section.A, null, null);
+
+        UUID id = UUID.fromString(first.getId());
+        assertThat(id.version()).isEqualTo(4);
+        assertThat(id.variant()).isEqualTo(2);
+        assertThat(second.getId()).isNotEqualTo(first.getId());
+    }
+
+    @Test
+    void shouldConfirmHoldIntoTicketForHeldSeat() {
+        SeatHold hold = holdService.placeHold("a@example.com", Section.A, null, null);
+
+        Ticket ticket = holdService.confirmHold(hold.getId());
+
+        assertThat(ticket.getSeat()).isEqualTo(hold.getSeat());
+        assertThat(ticketRepository.findByUserEmail("a@example.com")).isEqualTo(ticket);
+        assertThat(seatAllocationService.isSeatAvailable(hold.getSeat())).isFalse();
+        assertThatThrownBy(() -> holdService.confirmHold(hold.getId())).isInstanceOf(HoldNotFoundException.class);
+        assertThat(holdService.activeHoldCount()).isZero();
+    }
+
+    @Test
+    void shouldReturnSeatWhenReleased() {
+        SeatHold hold = holdService.placeHold("a@example.com", Section.A, null, null);
+
+        holdService.releaseHold(hold.getId());
+
+        assertThat(seatAllocationService.isSeatAvailable(hold.getSeat())).isTrue();
+        assertThatThrownBy(() -> holdService.getHold(hold.getId())).isInstanceOf(HoldNotFoundException.class);
+    }
+
+    @Test
+    void shouldReturnSeatWhenHoldExpires() {
+        SeatHold hold = holdService.placeHold("a@example.com", Section.A, null, null);
+
+        clock.advance(Duration.ofMinutes(4));
+        holdService.expireHolds();
+        assertThat(seatAllocationService.isSeatAvailable(hold.getSeat())).isFalse();
+
+        clock.advance(Duration.ofMinutes(1));
+        holdService.expireHolds();
+        assertThat(seatAllocationService.isSeatAvailable(hold.getSeat())).isTrue();
+        assertThat(holdService.activeHoldCount()).isZero();
+        assertThatThrownBy(() -> holdService.confirmHold(hold.getId())).isInstanceOf(HoldNotFoundException.class);
+    }
+
+    @Test
+    void shouldNotConfirmHoldPastDeadlineBeforeNextTick() {
+        SeatHold hold = holdService.placeHold("a@example.com", Section.A, null, null);
+        clock.advance(Duration.ofMinutes(6));
+
+        assertThatThrownBy(() -> holdService.confirmHold(hold.getId())).isInstanceOf(HoldNotFoundException.class);
+        assertThat(seatAllocationService.isSeatAvailable(hold.getSeat())).isTrue();
+        assertThat(ticketRepository.findByUserEmail("a@example.com")).isNull();
+    }
+
+    @Test
+    void shouldNotReleaseConfirmedSeatOnLaterExpiry() {
+        SeatHold hold = holdService.placeHold("a@example.com", Section.A, null, null);
+        holdService.confirmHold(hold.getId());
+
+        clock.advance(Duration.ofMinutes(10));
+        holdService.expireHolds();
+
+        assertThat(seatAllocationService.isSeatAvailable(hold.getSeat())).isFalse();
+    }
+
+    @Test
+    void shouldAllowOneHoldPerEmail() {
+        holdService.placeHold("a@example.com", Section.A, null, null);
+
+        assertThatThrownBy(() -> holdService.placeHold("a@example.com", Section.B, null, null))
+                .isInstanceOf(HoldAlreadyExistsException.class);
+    }
+
+    @Test
+    void shouldReleaseSeatWhenConfirmationFails() {
+        SeatHold hold = holdService.placeHold("a@example.com", Section.A, null, null);
+        ticketService.purchaseTicket("a@example.com", Section.B);
+
+        assertThatThrownBy(() -> holdService.confirmHold(hold.getId()))
+                .isInstanceOf(TicketAlreadyExistsException.class);
+        assertThat(seatAllocationService.isSeatAvailable(hold.getSeat())).isTrue();
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.dwij.trainbooking.service.impl;
+
+import com.dwij.trainbooking.exception.InvalidSwapException;
+import com.dwij.trainbooking.exception.SeatUnavailableException;
+import com.dwij.trainbooking.exception.TicketConflictException;
+import com.dwij.trainbooking.exception.TicketNotFoundException;
+import com.dwij.trainbooking.models.*;
+import com.dwij.trainbooking.repository.InMemoryTicketRepository;
+import com.dwij.trainbooking.repository.InMemoryUserRepository;
+import com.dwij.trainbooking.repository.TicketRepository;
+import com.dwij.trainbooking.service.TrainCatalog;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SeatSwapTest {
+    private static final Departure DEPARTURE = Departure.of("LP300", LocalDate.of(2030, 1, 1));
+    private static final Journey LONDON_LILLE = Journey.of("London", "Lille");
+    private static final Journey LILLE_PARIS = Journey.of("Lille", "Paris");
+
+    private SimpleSeatAllocationService seatAllocationService;
+    private TicketRepository ticketRepository;
+    private UserServiceImpl userService;
+    private TicketServiceImpl ticketService;
+
+    @BeforeEach
+    void setUp() {
+        Train train = new Train("LP300", Route.of("London", "Lille", "Paris"), Map.of(Section.A, 4, Section.B, 4));
+        Clock clock = Clock.fixed(DEPARTURE.getDate().atStartOfDay().toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        seatAllocationService = new SimpleSeatAllocationService(new TrainCatalog(List.of(train), "LP300"), clock);
+        ticketRepository = new InMemoryTicketRepository();
+        userService = new UserServiceImpl(new InMemoryUserRepository());
+        ticketService = new TicketServiceImpl(ticketRepository, seatAllocationService, userService);
+    }
+
+    @Test
+    void shouldSwapSeatsWithoutTouchingInventoryForTheSameJourney() {
+        addUsers("a", "b");
+        Ticket a = ticketService.purchaseTicket("a", Section.A);
+        Ticket b = ticketService.purchaseTicket("b", Section.B);
+
+        List<Ticket> swapped = ticketService.swapSeats("a", "b");
+
+        assertThat(swapped).extracting(Ticket::getSeat).containsExactly(b.getSeat(), a.getSeat());
+        assertThat(ticketRepository.findByUserEmail("a").getSeat()).isEqualTo(b.getSeat());
+        assertThat(ticketRepository.findByUserEmail("b").getSeat()).isEqualTo(a.getSeat());
+        assertThat(ticketRepository.findByUserEmail("a").getVersion()).isEqualTo(a.getVersion() + 1);
+        assertThat(seatAllocationService.getAvailableSeats(DEPARTURE, Section.A, null)).hasSize(3);
+        assertThat(seatAllocationService.getAvailableSeats(DEPARTURE, Section.B, null)).hasSize(3);
+    }
+
+    @Test
+    void shouldMoveOnlyTheLegsEachPassengerNeeds() {
+        addUsers("a", "b");
+        Ticket full = ticketService.purchaseTicket("a", Section.A);
+        Ticket half = ticketService.purchaseTicket(DEPARTURE, "b", Section.B, "London", "Lille");
+
+        ticketService.swapSeats("a", "b");
+
+        assertThat(ticketRepository.findByUserEmail("a").getSeat()).isEqualTo(half.getSeat());
+        assertThat(ticketRepository.findByUserEmail("b").getSeat()).isEqualTo(full.getSeat());
+        assertThat(seatAllocationService.isSeatAvailable(DEPARTURE, half.getSeat(), null)).isFalse();
+        assertThat(seatAllocationService.isSeatAvailable(DEPARTURE, full.getSeat(), LONDON_LILLE)).isFalse();
+        assertThat(seatAllocationService.isSeatAvailable(DEPARTURE, full.getSeat(), LILLE_PARIS)).isTrue();
+    }
+
+    @Test
+    void shouldLeaveBothTicketsWhenTheLongerJourneyIsTaken() {
+        addUsers("a", "b", "c");
+        Ticket full = ticketService.purchaseTicket("a", Section.A);
+        Ticket half = ticketService.purchaseTicket(DEPARTURE, "b", Section.B, "London", "Lille");
+        Ticket other = ticketService.purchaseTicket(DEPARTURE, "c", Section.B, "Lille", "Paris");
+        assertThat(other.getSeat()).isEqualTo(half.getSeat());
+
+        assertThatThrownBy(() -> ticketService.swapSeats("a", "b")).isInstanceOf(SeatUnavailableException.class);
+
+        assertThat(ticketRepository.findByUserEmail("a")).isEqualTo(full);
+        assertThat(ticketRepository.findByUserEmail("b")).isEqualTo(half);
+        assertThat(seatAllocationService.isSeatAvailable(DEPARTURE, full.getSeat(), LONDON_LILLE)).isFalse();
+        assertThat(seatAllocationService.isSeatAvailable(DEPARTURE, full.getSeat(), LILLE_PARIS)).isFalse();
+        assertThat(seatAllocationService.getAvailableSeats(DEPARTURE, Section.B, null)).hasSize(3);
+    }
+
+    @Test
+    void shouldPromoteWaiterIntoLegsFreedBySwap() {
+        Train train = new Train("LP300", Route.of("London", "Lille", "Paris"), Map.of(Section.A, 1, Section.B, 1));
+        Clock clock = Clock.fixed(DEPARTURE.getDate().atStartOfDay().toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        seatAllocationService = new SimpleSeatAllocationService(new TrainCatalog(List.of(train), "LP300"), clock);
+        ticketService = new TicketServiceImpl(ticketRepository, seatAllocationService, userService);
+        addUsers("a", "b", "c");
+        Ticket full = ticketService.purchaseTicket("a", Section.A);
+        ticketService.purchaseTicket(DEPARTURE, "b", Section.B, "London", "Lille");
+        ticketService.joinWaitlist(DEPARTURE, "c", Section.A, "Lille", "Paris");
+
+        ticketService.swapSeats("a", "b");
+
+        assertThat(ticketRepository.findByUserEmail("c").getSeat()).isEqualTo(full.getSeat());
+        assertThat(seatAllocationService.getAvailableSeats(DEPARTURE, Section.A, null)).isEmpty();
+    }
+
+    @Test
+    void shouldRejectSwapsThatCannotBeMade() {
+        addUsers("a", "b");
+        ticketService.purchaseTicket("a", Section.A);
+
+        assertThatThrownBy(() -> ticketService.swapSeats("a", "a")).isInstanceOf(InvalidSwapException.class);
+        assertThatThrownBy(() -> ticketService.swapSeats("a", "b")).isInstanceOf(TicketNotFoundException.class);
+        ticketService.purchaseTicket(Departure.of("LP300", DEPARTURE.getDate().plusDays(1)), "b", Section.A, null, null);
+        assertThatThrownBy(() -> ticketService.swapSeats("a", "b"))
+                .isInstanceOf(InvalidSwapException.class)
+                .hasMessageContaining("different departures");
+    }
+
+    @Test
+    void shouldKeepEverySeatHeldOnceUnderConcurrentSwapsAndSeatChanges() throws Exception {
+        String[] emails = {"a", "b", "c", "d"};
+        addUsers(emails);
+        for (String email : emails) {
+            ticketService.purchaseTicket(email, Section.A);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        String first = emails[(thread + i) % 4];
+                        String second = emails[(thread + i + 1 + i % 3) % 4];
+                        try {
+                            if (i % 5 == 0) {
+                                ticketService.modifySeat(first, Seat.of(Section.B, 1 + (thread + i) % 4));
+                            } else {
+                                ticketService.swapSeats(first, second);
+                            }
+                        } catch (TicketConflictException | SeatUnavailableException e) {
+                            // lost the race; the invariants below must hold regardless
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        List<Seat> held = new ArrayList<>();
+        for (String email : emails) {
+            Seat seat = ticketRepository.findByUserEmail(email).getSeat();
+            held.add(seat);
+            assertThat(seatAllocationService.isSeatAvailable(DEPARTURE, seat, null)).isFalse();
+        }
+        assertThat(held).doesNotHaveDuplicates();
+        int free = seatAllocationService.getAvailableSeats(DEPARTURE, Section.A, null).size()
+                + seatAllocationService.getAvailableSeats(DEPARTURE, Section.B, null).size();
+        assertThat(free).isEqualTo(4);
+    }
+
+    private void addUsers(String... emails) {
+        for (String email : emails) {
+            userService.addUser(User.builder().email(email).build());
+        }
+    }
+}
@@ -1,15 +1,34 @@
 package com.dwij.trainbooking.service.impl;
 
+import com.dwij.trainbooking.exception.DepartureNotFoundException;
+import com.dwij.trainbooking.exception.InvalidJourneyException;
+import com.dwij.trainbooking.models.Departure;
 import com.dwij.trainbooking.exception.SeatUnavailableException;
+import com.dwij.trainbooking.models.Journey;
+import com.dwij.trainbooking.models.Route;
 import com.dwij.trainbooking.models.Seat;
 import com.dwij.trainbooking.models.Section;
+import com.dwij.trainbooking.models.Train;
+import com.dwij.trainbooking.service.TrainCatalog;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import static org.assertj.core.api.Assertions.*;
 
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.ArrayList;
 
 class SimpleSeatAllocationServiceTest {
 
@@ -98,4 +117,269 @@ class SimpleSeatAllocationServiceTest {
         assertThat(allocatedSeat).isEqualTo(currentSeat);
         assertThat(seatService.isSeatAvailable(currentSeat)).isFalse();
     }
+
+    @Test
+    void shouldAllocateLowestFreeSeatAfterRelease() {
+        Seat first = seatService.allocateSeat(Section.A);
+        seatService.allocateSeat(Section.A);
+        seatService.releaseSeat(first);
+
+        assertThat(seatService.allocateSeat(Section.A).getSeatNumber()).isEqualTo("A1");
+        assertThat(seatService.allocateSeat(Section.A).getSeatNumber()).isEqualTo("A3");
+    }
+
+    @Test
+    void shouldTreatUnknownSeatAsUnavailable() {
+        Seat currentSeat = seatService.allocateSeat(Section.A);
+
+        assertThat(seatService.isSeatAvailable(new Seat("A11", Section.A))).isFalse();
+        assertThat(seatService.isSeatAvailable(new Seat("B1", Section.A))).isFalse();
+        assertThatThrownBy(() -> seatService.reallocateSeat(currentSeat, new Seat("A0", Section.A)))
+                .isInstanceOf(SeatUnavailableException.class);
+    }
+
+    @Test
+    void shouldNeverHandOutTheSameSeatTwiceUnderContention() throws Exception {
+        SimpleSeatAllocationService largeService = new SimpleSeatAllocationService(5000);
+        Set<String> allocated = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 625; i++) {
+                        assertThat(allocated.add(largeService.allocateSeat(Section.A).getSeatNumber())).isTrue();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(allocated).hasSize(5000);
+        assertThat(largeService.getAvailableSeats(Section.A)).isEmpty();
+        assertThatThrownBy(() -> largeService.allocateSeat(Section.A))
+                .isInstanceOf(SeatUnavailableException.class);
+    }
+
+    @Test
+    void shouldResellSeatForNonOverlappingLegs() {
+        SimpleSeatAllocationService routeService = new SimpleSeatAllocationService(
+                Route.of("London", "Ashford", "Calais", "France"), 2);
+
+        Seat firstLeg = routeService.allocateSeat(Section.A, Journey.of("London", "Calais"));
+        Seat secondLeg = routeService.allocateSeat(Section.A, Journey.of("Calais", "France"));
+        Seat fullRoute = routeService.allocateSeat(Section.A, Journey.of("London", "France"));
+
+        assertThat(firstLeg.getSeatNumber()).isEqualTo("A1");
+        assertThat(secondLeg.getSeatNumber()).isEqualTo("A1");
+        assertThat(fullRoute.getSeatNumber()).isEqualTo("A2");
+        assertThat(routeService.getAvailableSeats(Section.A, Journey.of("Ashford", "France"))).isEmpty();
+        assertThatThrownBy(() -> routeService.allocateSeat(Section.A, Journey.of("Ashford", "Calais")))
+                .isInstanceOf(SeatUnavailableException.class);
+    }
+
+    @Test
+    void shouldFreeOnlyTheReleasedLegs() {
+        SimpleSeatAllocationService routeService = new SimpleSeatAllocationService(
+                Route.of("London", "Ashford", "Calais", "France"), 1);
+        Seat seat = routeService.allocateSeat(Section.B, Journey.of("London", "France"));
+
+        routeService.releaseSeat(seat, Journey.of("London", "Ashford"));
+
+        assertThat(routeService.isSeatAvailable(seat, Journey.of("London", "Ashford"))).isTrue();
+        assertThat(routeService.isSeatAvailable(seat, Journey.of("London", "Calais"))).isFalse();
+        assertThat(routeService.isSeatAvailable(seat)).isFalse();
+    }
+
+    @Test
+    void shouldExtendAndNarrowSeatByLegs() {
+        SimpleSeatAllocationService routeService = new SimpleSeatAllocationService(
+                Route.of("London", "Ashford", "Calais", "France"), 1);
+        Departure departure = routeService.defaultDeparture();
+        Journey held = Journey.of("Ashford", "Calais");
+        Seat seat = routeService.allocateSeat(Section.A, held);
+        routeService.allocateSeat(Section.A, Journey.of("Calais", "France"));
+
+        assertThatThrownBy(() -> routeService.extendSeat(departure, seat, held, Journey.of("London", "France")))
+                .isInstanceOf(SeatUnavailableException.class);
+        assertThat(routeService.isSeatAvailable(seat, Journey.of("London", "Ashford"))).isTrue();
+
+        routeService.extendSeat(departure, seat, held, Journey.of("London", "Calais"));
+        assertThat(routeService.isSeatAvailable(seat, Journey.of("London", "Ashford"))).isFalse();
+
+        routeService.retainSeat(departure, seat, Journey.of("London", "Calais"), Journey.of("London", "Ashford"));
+        assertThat(routeService.isSeatAvailable(seat, Journey.of("London", "Ashford"))).isFalse();
+        assertThat(routeService.isSeatAvailable(seat, held)).isTrue();
+    }
+
+    @Test
+    void shouldRejectJourneysThatDoNotFollowTheRoute() {
+        assertThatThrownBy(() -> seatService.allocateSeat(Section.A, Journey.of("France", "London")))
+                .isInstanceOf(InvalidJourneyException.class);
+        assertThatThrownBy(() -> seatService.allocateSeat(Section.A, Journey.of("London", "Berlin")))
+                .isInstanceOf(InvalidJourneyException.class);
+    }
+
+    @Test
+    void shouldKeepSeparateInventoryPerTrainAndDate() {
+        LocalDate today = LocalDate.of(2030, 5, 1);
+        SimpleSeatAllocationService multiTrain = new SimpleSeatAllocationService(twoTrainCatalog(), fixedClock(today));
+
+        Seat first = multiTrain.allocateSeat(Departure.of("LF100", today), Section.A, null);
+        Seat nextDay = multiTrain.allocateSeat(Departure.of("LF100", today.plusDays(1)), Section.A, null);
+        Seat otherTrain = multiTrain.allocateSeat(Departure.of("LB200", today), Section.C, null);
+
+        assertThat(first.getSeatNumber()).isEqualTo("A1");
+        assertThat(nextDay.getSeatNumber()).isEqualTo("A1");
+        assertThat(otherTrain.getSeatNumber()).isEqualTo("C1");
+        assertThat(multiTrain.getAvailableSeats(Departure.of("LB200", today), Section.C, null)).hasSize(2);
+        assertThatThrownBy(() -> multiTrain.allocateSeat(Departure.of("LB200", today), Section.A, null))
+                .isInstanceOf(SeatUnavailableException.class);
+    }
+
+    @Test
+    void shouldRejectUnknownTrainsAndPastDepartures() {
+        LocalDate today = LocalDate.of(2030, 5, 1);
+        SimpleSeatAllocationService multiTrain = new SimpleSeatAllocationService(twoTrainCatalog(), fixedClock(today));
+
+        assertThatThrownBy(() -> multiTrain.allocateSeat(Departure.of("XX999", today), Section.A, null))
+                .isInstanceOf(DepartureNotFoundException.class);
+        assertThatThrownBy(() -> multiTrain.allocateSeat(Departure.of("LF100", today.minusDays(1)), Section.A, null))
+                .isInstanceOf(DepartureNotFoundException.class);
+    }
+
+    @Test
+    void shouldEvictInventoryOfDepartedTrains() {
+        LocalDate today = LocalDate.of(2030, 5, 1);
+        MutableClock clock = new MutableClock(today);
+        SimpleSeatAllocationService multiTrain = new SimpleSeatAllocationService(twoTrainCatalog(), clock);
+        multiTrain.allocateSeat(Departure.of("LF100", today), Section.A, null);
+        multiTrain.allocateSeat(Departure.of("LF100", today.plusDays(1)), Section.A, null);
+
+        clock.date = today.plusDays(1);
+        multiTrain.evictDepartedInventories();
+
+        assertThat(multiTrain.inventoryCount()).isEqualTo(1);
+        multiTrain.releaseSeat(Departure.of("LF100", today), new Seat("A1", Section.A), null);
+        assertThat(multiTrain.inventoryCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldAllocateBatchInRequestOrder() {
+        List<Seat> seats = seatService.allocateSeats(seatService.defaultDeparture(),
+                List.of(Section.B, Section.A, Section.B), null);
+
+        assertThat(seats).extracting(Seat::getSeatNumber).containsExactly("B1", "A1", "B2");
+        assertThat(seatService.getAvailableSeats(Section.B)).hasSize(8);
+    }
+
+    @Test
+    void shouldReleaseWholeBatchWhenAnySectionRunsOut() {
+        for (int i = 0; i < 9; i++) {
+            seatService.allocateSeat(Section.B);
+        }
+
+        assertThatThrownBy(() -> seatService.allocateSeats(seatService.defaultDeparture(),
+                List.of(Section.A, Section.A, Section.B, Section.B), null))
+                .isInstanceOf(SeatUnavailableException.class)
+                .hasMessageContaining("Only 1 of 2 requested seats are available in section: B");
+        assertThat(seatService.getAvailableSeats(Section.A)).hasSize(10);
+        assertThat(seatService.getAvailableSeats(Section.B)).hasSize(1);
+    }
+
+    @Test
+    void shouldShareAvailableSeatsUntilSectionChanges() {
+        long version = seatService.getAvailabilityVersion(Section.A);
+        List<Seat> before = seatService.getAvailableSeats(Section.A);
+
+        assertThat(seatService.getAvailableSeats(Section.A)).isSameAs(before);
+        assertThatThrownBy(() -> before.remove(0)).isInstanceOf(UnsupportedOperationException.class);
+
+        Seat seat = seatService.allocateSeat(Section.A);
+
+        assertThat(seatService.getAvailabilityVersion(Section.A)).isGreaterThan(version);
+        assertThat(seatService.getAvailabilityVersion(Section.B)).isEqualTo(version);
+        assertThat(seatService.getAvailableSeats(Section.A)).hasSize(9).doesNotContain(seat);
+        assertThat(before).hasSize(10);
+    }
+
+    @Test
+    void shouldBumpVersionWhenAllocationRollsBack() {
+        for (int i = 0; i < 9; i++) {
+            seatService.allocateSeat(Section.B);
+        }
+        long version = seatService.getAvailabilityVersion(Section.A);
+
+        assertThatThrownBy(() -> seatService.allocateSeats(seatService.defaultDeparture(),
+                List.of(Section.A, Section.B, Section.B), null))
+                .isInstanceOf(SeatUnavailableException.class);
+
+        assertThat(seatService.getAvailabilityVersion(Section.A)).isGreaterThan(version);
+        assertThat(seatService.getAvailableSeats(Section.A)).hasSize(10);
+    }
+
+    @Test
+    void shouldAllocateAdjacentBlockInFragmentedSection() {
+        SimpleSeatAllocationService large = new SimpleSeatAllocationService(2000);
+        for (int i = 1; i <= 2000; i++) {
+            if (i % 3 != 0 && i < 1500) {
+                large.claimSeat(large.defaultDeparture(), new Seat("A" + i, Section.A), null);
+            }
+        }
+
+        List<Seat> block = large.allocateBlock(Section.A, 4);
+
+        assertThat(block).extracting(Seat::getSeatNumber).containsExactly("A1500", "A1501", "A1502", "A1503");
+    }
+
+    @Test
+    void shouldFallBackToNearestClusterWhenNoBlockFits() {
+        for (String seat : List.of("A2", "A4", "A5", "A7", "A9")) {
+            seatService.claimSeat(seatService.defaultDeparture(), new Seat(seat, Section.A), null);
+        }
+
+        List<Seat> block = seatService.allocateBlock(Section.A, 3);
+
+        assertThat(block).extracting(Seat::getSeatNumber).containsExactly("A6", "A8", "A10");
+        assertThatThrownBy(() -> seatService.allocateBlock(Section.A, 3))
+                .isInstanceOf(SeatUnavailableException.class)
+                .hasMessageContaining("Only 2 seats available in section A for a block of 3");
+    }
+
+    private static TrainCatalog twoTrainCatalog() {
+        return new TrainCatalog(List.of(
+                new Train("LF100", Route.of("London", "France"), Map.of(Section.A, 2, Section.B, 2)),
+                new Train("LB200", Route.of("London", "Brussels"), Map.of(Section.C, 3))), "LF100");
+    }
+
+    private static Clock fixedClock(LocalDate date) {
+        return Clock.fixed(date.atStartOfDay().toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+    }
+
+    private static final class MutableClock extends Clock {
+        private LocalDate date;
+
+        private MutableClock(LocalDate date) {
+            this.date = date;
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return date.atStartOfDay().toInstant(ZoneOffset.UTC);
+        }
+    }
 }
@@ -1,16 +1,28 @@
 package com.dwij.trainbooking.service.impl;
 
+import com.dwij.trainbooking.exception.InvalidCursorException;
 import com.dwij.trainbooking.exception.SeatUnavailableException;
 import com.dwij.trainbooking.exception.TicketAlreadyExistsException;
+import com.dwij.trainbooking.exception.TicketConflictException;
 import com.dwij.trainbooking.exception.TicketNotFoundException;
 import com.dwij.trainbooking.models.*;
+import com.dwij.trainbooking.repository.InMemoryTicketRepository;
 import com.dwij.trainbooking.repository.TicketRepository;
 import com.dwij.trainbooking.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import com.dwij.trainbooking.repository.InMemoryUserRepository;
+import com.dwij.trainbooking.repository.UserRepository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -21,12 +33,18 @@ class TicketServiceImplTest {
     private UserService userService;
     private TicketServiceImpl ticketService;
 
+    private static final Route ROUTE = Route.of("London", "France");
+    private static final Journey FULL_JOURNEY = Journey.of("London", "France");
+    private static final Departure DEPARTURE = Departure.of("LF100", LocalDate.of(2030, 1, 1));
+
     @BeforeEach
     void setUp() {
         ticketRepository = mock(TicketRepository.class);
         seatAllocationService = mock(SimpleSeatAllocationService.class);
         userService = mock(UserService.class);
         ticketService = new TicketServiceImpl(ticketRepository, seatAllocationService, userService);
+        when(seatAllocationService.defaultDeparture()).thenReturn(DEPARTURE);
+        when(seatAllocationService.getRoute(DEPARTURE)).thenReturn(ROUTE);
     }
 
     @Test
@@ -40,7 +58,7 @@ class TicketServiceImplTest {
         Seat seat = new Seat("A1", Section.A);
 
         when(ticketRepository.findByUserEmail(email)).thenReturn(null);
-        when(seatAllocationService.allocateSeat(section)).thenReturn(seat);
+        when(seatAllocationService.allocateSeat(DEPARTURE, section, FULL_JOURNEY)).thenReturn(seat);
         when(userService.getUserByEmail(email)).thenReturn(user);
 
         Ticket ticket = ticketService.purchaseTicket(email, section);
@@ -72,7 +90,7 @@ class TicketServiceImplTest {
         Section section = Section.A;
 
         when(ticketRepository.findByUserEmail(email)).thenReturn(null);
-        when(seatAllocationService.allocateSeat(section)).thenThrow(new SeatUnavailableException("No seats available in section: " + section));
+        when(seatAllocationService.allocateSeat(DEPARTURE, section, FULL_JOURNEY)).thenThrow(new SeatUnavailableException("No seats available in section: " + section));
 
         SeatUnavailableException exception = assertThrows(SeatUnavailableException.class,
                 () -> ticketService.purchaseTicket(email, section));
@@ -101,6 +119,8 @@ class TicketServiceImplTest {
                 .user(User.builder()
                         .email(email)
                         .build())
+                .trainNumber("LF100")
+                .departureDate(DEPARTURE.getDate())
                 .from("London")
                 .to("France")
                 .pricePaid(20.0)
@@ -108,11 +128,12 @@ class TicketServiceImplTest {
                 .build();
 
         when(ticketRepository.findByUserEmail(email)).thenReturn(ticket);
+        when(ticketRepository.compareAndDelete(ticket)).thenReturn(true);
 
         ticketService.cancelTicket(email);
 
-        verify(seatAllocationService, times(1)).releaseSeat(ticket.getSeat());
-        verify(ticketRepository, times(1)).deleteByUserEmail(email);
+        verify(seatAllocationService, times(1)).releaseSeat(DEPARTURE, ticket.getSeat(), FULL_JOURNEY);
+        verify(ticketRepository, times(1)).compareAndDelete(ticket);
     }
 
     @Test
@@ -137,6 +158,8 @@ class TicketServiceImplTest {
                 .user(User.builder()
                         .email(email)
                         .build())
+                .trainNumber("LF100")
+                .departureDate(DEPARTURE.getDate())
                 .from("London")
                 .to("France")
                 .pricePaid(20.0)
@@ -147,14 +170,69 @@ class TicketServiceImplTest {
 
         when(ticketRepository.findByUserEmail(email)).thenReturn(ticket);
         when(seatAllocationService.isSeatAvailable(requestedSeat)).thenReturn(true);
-        when(seatAllocationService.reallocateSeat(ticket.getSeat(), requestedSeat)).thenReturn(requestedSeat);
+        when(seatAllocationService.claimSeat(DEPARTURE, requestedSeat, FULL_JOURNEY)).thenReturn(requestedSeat);
+        when(ticketRepository.compareAndSet(eq(ticket), any(Ticket.class))).thenReturn(true);
 
         Ticket updatedTicket = ticketService.modifySeat(email, requestedSeat);
 
         assertNotNull(updatedTicket);
         assertEquals("B1", updatedTicket.getSeat().getSeatNumber());
         assertEquals(Section.B, updatedTicket.getSeat().getSection());
-        verify(ticketRepository, times(1)).save(updatedTicket);
+        assertEquals(ticket.getVersion() + 1, updatedTicket.getVersion());
+        verify(ticketRepository, times(1)).compareAndSet(ticket, updatedTicket);
+    }
+
+    @Test
+    void shouldRetrySeatChangeWhenTicketChangedBeforeCommit() {
+        String email = "john.doe@example.com";
+        Seat requestedSeat = new Seat("B1", Section.B);
+        Ticket ticket = Ticket.builder()
+                .id("1")
+                .user(User.builder().email(email).build())
+                .trainNumber("LF100")
+                .departureDate(DEPARTURE.getDate())
+                .from("London")
+                .to("France")
+                .seat(new Seat("A1", Section.A))
+                .build();
+        Ticket changed = ticket.withSeat(new Seat("A2", Section.A));
+
+        when(ticketRepository.findByUserEmail(email)).thenReturn(ticket, changed);
+        when(seatAllocationService.claimSeat(DEPARTURE, requestedSeat, FULL_JOURNEY)).thenReturn(requestedSeat);
+        when(ticketRepository.compareAndSet(eq(ticket), any(Ticket.class))).thenReturn(false);
+        when(ticketRepository.compareAndSet(eq(changed), any(Ticket.class))).thenReturn(true);
+
+        Ticket updatedTicket = ticketService.modifySeat(email, requestedSeat);
+
+        assertEquals(2, updatedTicket.getVersion());
+        assertEquals(1, ticketService.getConflictCount());
+        verify(seatAllocationService, times(1)).releaseSeat(DEPARTURE, requestedSeat, FULL_JOURNEY);
+        verify(seatAllocationService, times(1)).releaseSeat(DEPARTURE, changed.getSeat(), FULL_JOURNEY);
+        verify(seatAllocationService, never()).releaseSeat(DEPARTURE, ticket.getSeat(), FULL_JOURNEY);
+    }
+
+    @Test
+    void shouldGiveUpSeatChangeAfterRepeatedConflicts() {
+        String email = "john.doe@example.com";
+        Seat requestedSeat = new Seat("B1", Section.B);
+        Ticket ticket = Ticket.builder()
+                .id("1")
+                .user(User.builder().email(email).build())
+                .trainNumber("LF100")
+                .departureDate(DEPARTURE.getDate())
+                .from("London")
+                .to("France")
+                .seat(new Seat("A1", Section.A))
+                .build();
+
+        when(ticketRepository.findByUserEmail(email)).thenReturn(ticket);
+        when(seatAllocationService.claimSeat(DEPARTURE, requestedSeat, FULL_JOURNEY)).thenReturn(requestedSeat);
+
+        assertThrows(TicketConflictException.class, () -> ticketService.modifySeat(email, requestedSeat));
+
+        verify(ticketRepository, times(4)).compareAndSet(eq(ticket), any(Ticket.class));
+        verify(seatAllocationService, times(4)).releaseSeat(DEPARTURE, requestedSeat, FULL_JOURNEY);
+        verify(seatAllocationService, never()).releaseSeat(DEPARTURE, ticket.getSeat(), FULL_JOURNEY);
     }
 
     @Test
@@ -166,6 +244,8 @@ class TicketServiceImplTest {
                 .user(User.builder()
                         .email("john.doe@example.com")
                         .build())
+                .trainNumber("LF100")
+                .departureDate(DEPARTURE.getDate())
                 .seat(new Seat("A1", Section.A))
                 .build();
 
@@ -174,12 +254,12 @@ class TicketServiceImplTest {
                 .user(User.builder()
                         .email("jane.smith@example.com")
                         .build())
+                .trainNumber("LF100")
+                .departureDate(DEPARTURE.getDate())
                 .seat(new Seat("A2", Section.A))
                 .build();
 
-        when(ticketRepository.findAll()).thenReturn(Map.of(
-                "1", ticket1,
-                "2", ticket2));
+        when(ticketRepository.findByDepartureAndSection(DEPARTURE, section)).thenReturn(List.of(ticket1, ticket2));
 
         List<String> result = ticketService.getUsersAndSeatsBySection(section);
 
@@ -192,10 +272,226 @@ class TicketServiceImplTest {
     void shouldReturnEmptyListWhenNoUsersInSection() {
         Section section = Section.B;
 
-        when(ticketRepository.findAll()).thenReturn(Map.of());
+        when(ticketRepository.findByDepartureAndSection(DEPARTURE, section)).thenReturn(List.of());
 
         List<String> result = ticketService.getUsersAndSeatsBySection(section);
 
         assertEquals(0, result.size());
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldReleaseSeatWhenSavingPurchaseFails() {
+        String email = "john.doe@example.com";
+        Seat seat = new Seat("A1", Section.A);
+
+        when(userService.getUserByEmail(email)).thenReturn(User.builder().email(email).build());
+        when(seatAllocationService.allocateSeat(DEPARTURE, Section.A, FULL_JOURNEY)).thenReturn(seat);
+        doThrow(new IllegalStateException("store unavailable")).when(ticketRepository).save(any(Ticket.class));
+
+        assertThrows(IllegalStateException.class, () -> ticketService.purchaseTicket(email, Section.A));
+
+        verify(seatAllocationService, times(1)).releaseSeat(DEPARTURE, seat, FULL_JOURNEY);
+    }
+
+    @Test
+    void shouldKeepOriginalSeatWhenSavingModificationFails() {
+        String email = "john.doe@example.com";
+        Seat currentSeat = new Seat("A1", Section.A);
+        Seat requestedSeat = new Seat("B1", Section.B);
+        Ticket ticket = Ticket.builder()
+                .id("1")
+                .user(User.builder().email(email).build())
+                .trainNumber("LF100")
+                .departureDate(DEPARTURE.getDate())
+                .from("London")
+                .to("France")
+                .seat(currentSeat)
+                .build();
+
+        when(ticketRepository.findByUserEmail(email)).thenReturn(ticket);
+        when(seatAllocationService.claimSeat(DEPARTURE, requestedSeat, FULL_JOURNEY)).thenReturn(requestedSeat);
+        doThrow(new IllegalStateException("store unavailable")).when(ticketRepository)
+                .compareAndSet(any(Ticket.class), any(Ticket.class));
+
+        assertThrows(IllegalStateException.class, () -> ticketService.modifySeat(email, requestedSeat));
+
+        verify(seatAllocationService, times(1)).releaseSeat(DEPARTURE, requestedSeat, FULL_JOURNEY);
+        verify(seatAllocationService, never()).releaseSeat(DEPARTURE, currentSeat, FULL_JOURNEY);
+    }
+
+    @Test
+    void shouldBookOnlyOneTicketPerEmailUnderConcurrentPurchases() throws Exception {
+        UserRepository userRepository = new InMemoryUserRepository();
+        userRepository.save(User.builder().email("john.doe@example.com").build());
+        TicketRepository realTicketRepository = new InMemoryTicketRepository();
+        SimpleSeatAllocationService realSeatService = new SimpleSeatAllocationService();
+        TicketServiceImpl service = new TicketServiceImpl(realTicketRepository, realSeatService,
+                new UserServiceImpl(userRepository));
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        int successes = 0;
+        try {
+            List<Future<Ticket>> futures = new ArrayList<>();
+            Callable<Ticket> purchase = () -> service.purchaseTicket("john.doe@example.com", Section.A);
+            for (int i = 0; i < 32; i++) {
+                futures.add(executor.submit(purchase));
+            }
+            for (Future<Ticket> future : futures) {
+                try {
+                    future.get();
+                    successes++;
+                } catch (ExecutionException e) {
+                    assertInstanceOf(TicketAlreadyExistsException.class, e.getCause());
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(1, successes);
+        assertEquals(1, realTicketRepository.findAll().size());
+        assertEquals(9, realSeatService.getAvailableSeats(Section.A).size());
+    }
+
+    @Test
+    void shouldNotLeakSeatsWhenSeatChangesRaceWithCancellation() throws Exception {
+        String email = "john.doe@example.com";
+        UserRepository userRepository = new InMemoryUserRepository();
+        userRepository.save(User.builder().email(email).build());
+        TicketRepository realTicketRepository = new InMemoryTicketRepository();
+        SimpleSeatAllocationService realSeatService = new SimpleSeatAllocationService(16);
+        TicketServiceImpl service = new TicketServiceImpl(realTicketRepository, realSeatService,
+                new UserServiceImpl(userRepository));
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            for (int round = 0; round < 50; round++) {
+                service.purchaseTicket(email, Section.A);
+                List<Future<?>> futures = new ArrayList<>();
+                for (int i = 1; i <= 8; i++) {
+                    Seat seat = Seat.of(Section.A, i);
+                    futures.add(executor.submit(() -> service.modifySeat(email, seat)));
+                }
+                futures.add(executor.submit(() -> service.cancelTicket(email)));
+                for (Future<?> future : futures) {
+                    try {
+                        future.get();
+                    } catch (ExecutionException e) {
+                        assertTrue(e.getCause() instanceof TicketNotFoundException
+                                || e.getCause() instanceof SeatUnavailableException
+                                || e.getCause() instanceof TicketConflictException, e.getCause().toString());
+                    }
+                }
+
+                Ticket ticket = realTicketRepository.findByUserEmail(email);
+                if (ticket != null) {
+                    assertFalse(realSeatService.isSeatAvailable(realSeatService.defaultDeparture(), ticket.getSeat(),
+                            null));
+                    service.cancelTicket(email);
+                }
+                assertEquals(16, realSeatService.getAvailableSeats(Section.A).size());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void shouldPurchaseBatchWithSingleAllocation() {
+        User john = User.builder().email("john@example.com").build();
+        User jane = User.builder().email("jane@example.com").build();
+        when(userService.getUserByEmail("john@example.com")).thenReturn(john);
+        when(userService.getUserByEmail("jane@example.com")).thenReturn(jane);
+        when(seatAllocationService.allocateSeats(DEPARTURE, List.of(Section.A, Section.B), FULL_JOURNEY))
+                .thenReturn(List.of(new Seat("A1", Section.A), new Seat("B1", Section.B)));
+
+        BatchPurchaseResult result = ticketService.purchaseTickets(List.of(
+                new BatchPurchaseEntry("john@example.com", Section.A),
+                new BatchPurchaseEntry("jane@example.com", Section.B)), null, null);
+
+        assertTrue(result.isBooked());
+        assertEquals("A1", result.getResults().get(0).getTicket().getSeat().getSeatNumber());
+        assertEquals("B1", result.getResults().get(1).getTicket().getSeat().getSeatNumber());
+        verify(ticketRepository, times(1)).saveAll(anyList());
+        verify(seatAllocationService, never()).allocateSeat(any(), any(), any());
+    }
+
+    @Test
+    void shouldRollBackBatchWhenAnEntryAlreadyHasTicket() {
+        when(userService.getUserByEmail(anyString())).thenAnswer(invocation ->
+                User.builder().email(invocation.getArgument(0)).build());
+        when(ticketRepository.findByUserEmail("jane@example.com")).thenReturn(Ticket.builder().build());
+
+        BatchPurchaseResult result = ticketService.purchaseTickets(List.of(
+                new BatchPurchaseEntry("john@example.com", Section.A),
+                new BatchPurchaseEntry("jane@example.com", Section.A)), null, null);
+
+        assertFalse(result.isBooked());
+        assertEquals(BatchPurchaseResult.Status.ROLLED_BACK, result.getResults().get(0).getStatus());
+        assertEquals(BatchPurchaseResult.Status.REJECTED, result.getResults().get(1).getStatus());
+        verify(seatAllocationService, never()).allocateSeats(any(), anyList(), any());
+        verify(ticketRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void shouldRejectDuplicateEmailsInBatch() {
+        when(userService.getUserByEmail("john@example.com")).thenReturn(User.builder().email("john@example.com").build());
+
+        BatchPurchaseResult result = ticketService.purchaseTickets(List.of(
+                new BatchPurchaseEntry("john@example.com", Section.A),
+                new BatchPurchaseEntry("john@example.com", Section.B)), null, null);
+
+        assertFalse(result.isBooked());
+        assertEquals(BatchPurchaseResult.Status.REJECTED, result.getResults().get(1).getStatus());
+        assertEquals("Duplicate email in batch: john@example.com", result.getResults().get(1).getError());
+        verify(ticketRepository, never()).findByUserEmail(anyString());
+    }
+
+    @Test
+    void shouldRollBackBatchWhenSeatsRunOut() {
+        when(userService.getUserByEmail(anyString())).thenAnswer(invocation ->
+                User.builder().email(invocation.getArgument(0)).build());
+        when(seatAllocationService.allocateSeats(DEPARTURE, List.of(Section.A, Section.A), FULL_JOURNEY))
+                .thenThrow(new SeatUnavailableException("Only 1 of 2 requested seats are available in section: A"));
+
+        BatchPurchaseResult result = ticketService.purchaseTickets(List.of(
+                new BatchPurchaseEntry("john@example.com", Section.A),
+                new BatchPurchaseEntry("jane@example.com", Section.A)), null, null);
+
+        assertFalse(result.isBooked());
+        assertTrue(result.getResults().stream()
+                .allMatch(entry -> entry.getStatus() == BatchPurchaseResult.Status.ROLLED_BACK));
+        verify(ticketRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void shouldWalkManifestPageByPageInSeatOrder() {
+        TicketRepository realTicketRepository = new InMemoryTicketRepository();
+        TicketServiceImpl service = new TicketServiceImpl(realTicketRepository, seatAllocationService, userService);
+        for (int seat = 12; seat >= 1; seat--) {
+            realTicketRepository.save(Ticket.builder()
+                    .user(User.builder().email("user" + seat + "@example.com").build())
+                    .trainNumber(DEPARTURE.getTrainNumber())
+                    .departureDate(DEPARTURE.getDate())
+                    .seat(Seat.of(Section.A, seat))
+                    .build());
+        }
+
+        List<String> walked = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            ManifestPage page = service.getManifestPage(Section.A, cursor, 5);
+            page.getEntries().forEach(entry -> walked.add(entry.getSeatNumber()));
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(3, pages);
+        assertEquals(12, walked.size());
+        assertEquals("A1", walked.get(0));
+        assertEquals("A12", walked.get(11));
+        assertEquals(walked, service.streamManifest(Section.A).map(ManifestEntry::getSeatNumber).toList());
+        assertThrows(InvalidCursorException.class, () -> service.getManifestPage(Section.A, "not a cursor", 5));
+    }
+}
@@ -0,0 +1,79 @@
+package com.dwij.trainbooking.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimingWheelTest {
+
+    @Test
+    void shouldFireEntryOnFirstAdvancePastDeadline() {
+        TimingWheel<String> wheel = new TimingWheel<>(10, 0);
+        List<String> fired = new ArrayList<>();
+        wheel.schedule("hold", 95);
+
+        wheel.advance(90, fired::add);
+        assertThat(fired).isEmpty();
+
+        wheel.advance(100, fired::add);
+        assertThat(fired).containsExactly("hold");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void shouldFirePastDeadlinesImmediately() {
+        TimingWheel<String> wheel = new TimingWheel<>(10, 1_000);
+        List<String> fired = new ArrayList<>();
+        wheel.schedule("late", 500);
+
+        wheel.advance(1_000, fired::add);
+
+        assertThat(fired).containsExactly("late");
+    }
+
+    @Test
+    void shouldCascadeDeadlinesFromHigherLevels() {
+        TimingWheel<Long> wheel = new TimingWheel<>(1, 0);
+        long[] deadlines = {63, 64, 65, 4_095, 4_096, 4_097, 262_143, 262_144, 300_000, 16_777_300};
+        for (long deadline : deadlines) {
+            wheel.schedule(deadline, deadline);
+        }
+
+        for (long deadline : deadlines) {
+            List<Long> fired = new ArrayList<>();
+            wheel.advance(deadline - 1, fired::add);
+            assertThat(fired).as("before %d", deadline).doesNotContain(deadline);
+            wheel.advance(deadline, fired::add);
+            assertThat(fired).as("at %d", deadline).contains(deadline);
+        }
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void shouldFireRandomDeadlinesInTickOrderWithoutLoss() {
+        TimingWheel<Long> wheel = new TimingWheel<>(1, 0);
+        Random random = new Random(42);
+        int count = 20_000;
+        for (int i = 0; i < count; i++) {
+            long deadline = 1 + random.nextInt(500_000);
+            wheel.schedule(deadline, deadline);
+        }
+
+        List<Long> fired = new ArrayList<>();
+        long now = 0;
+        while (fired.size() < count) {
+            now += 1 + random.nextInt(2_000);
+            long tickNow = now;
+            wheel.advance(now, deadline -> {
+                assertThat(deadline).isLessThanOrEqualTo(tickNow);
+                fired.add(deadline);
+            });
+        }
+
+        assertThat(fired).isSorted().hasSize(count);
+    }
+}
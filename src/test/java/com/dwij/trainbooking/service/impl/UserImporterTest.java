@@ -0,0 +1,96 @@
+package com.dwij.trainbooking.service.impl;
+
+import com.dwij.trainbooking.journal.BookingJournal;
+import com.dwij.trainbooking.journal.JournalEvent;
+import com.dwij.trainbooking.models.User;
+import com.dwij.trainbooking.models.UserImportResult;
+import com.dwij.trainbooking.repository.InMemoryUserRepository;
+import com.dwij.trainbooking.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UserImporterTest {
+    private UserRepository userRepository;
+    private Queue<JournalEvent> journaled;
+    private UserImporter importer;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = new InMemoryUserRepository();
+        journaled = new ConcurrentLinkedQueue<>();
+        BookingJournal journal = event -> {
+            journaled.add(event);
+            return CompletableFuture.completedFuture(null);
+        };
+        importer = new UserImporter(userRepository, journal, ForkJoinPool.commonPool(), 4, 8);
+    }
+
+    @Test
+    void shouldImportEveryUserAcrossLanes() {
+        UserImportResult result = importer.importAll(IntStream.range(0, 1000)
+                .mapToObj(i -> user("First" + i, "user" + i + "@example.com")).iterator());
+
+        assertThat(result.getCreated()).isEqualTo(1000);
+        assertThat(result.getRejected()).isZero();
+        assertThat(userRepository.findAll()).hasSize(1000);
+        assertThat(journaled).hasSize(1000);
+    }
+
+    @Test
+    void shouldKeepFirstOccurrenceOfDuplicateEmail() {
+        userRepository.save(user("Existing", "taken@example.com"));
+
+        UserImportResult result = importer.importAll(List.of(
+                user("First", "dup@example.com"),
+                user("Second", "dup@example.com"),
+                user("Third", "taken@example.com"),
+                user("Fourth", null)).iterator());
+
+        assertThat(result.getCreated()).isEqualTo(1);
+        assertThat(result.getRejected()).isEqualTo(3);
+        assertThat(result.getRejections()).extracting(UserImportResult.Rejection::getRow).containsExactly(2L, 3L, 4L);
+        assertThat(result.getRejections().get(2).getError()).isEqualTo("Email is required");
+        assertThat(userRepository.findByEmail("dup@example.com").getFirstName()).isEqualTo("First");
+        assertThat(userRepository.findByEmail("taken@example.com").getFirstName()).isEqualTo("Existing");
+    }
+
+    @Test
+    void shouldKeepRowsReadBeforeFailure() {
+        Iterator<User> users = Stream.iterate(0, i -> i + 1)
+                .map(i -> {
+                    if (i == 20) {
+                        throw new IllegalStateException("Broken row");
+                    }
+                    return user("First" + i, "user" + i + "@example.com");
+                })
+                .iterator();
+
+        assertThatThrownBy(() -> importer.importAll(users)).hasMessage("Broken row");
+        assertThat(userRepository.findAll()).hasSize(20);
+    }
+
+    @Test
+    void shouldCapListedRejections() {
+        UserImportResult result = importer.importAll(IntStream.range(0, 1500)
+                .mapToObj(i -> user("First" + i, null)).iterator());
+
+        assertThat(result.getRejected()).isEqualTo(1500);
+        assertThat(result.getRejections()).hasSize(1000);
+    }
+
+    private static User user(String firstName, String email) {
+        return User.builder().firstName(firstName).lastName("Doe").email(email).build();
+    }
+}
@@ -0,0 +1,78 @@
+package com.dwij.trainbooking.service.impl;
+
+import com.dwij.trainbooking.exception.SeatUnavailableException;
+import com.dwij.trainbooking.exception.TicketAlreadyExistsException;
+import com.dwij.trainbooking.exception.TicketNotFoundException;
+import com.dwij.trainbooking.journal.FileBookingJournal;
+import com.dwij.trainbooking.journal.FsyncPolicy;
+import com.dwij.trainbooking.models.Seat;
+import com.dwij.trainbooking.models.Section;
+import com.dwij.trainbooking.models.User;
+import com.dwij.trainbooking.repository.InMemoryTicketRepository;
+import com.dwij.trainbooking.repository.InMemoryUserRepository;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.ArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VirtualThreadPinningTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldNotPinCarrierThreadsOnTheBookingPath() throws Exception {
+        List<RecordedEvent> pinned = new CopyOnWriteArrayList<>();
+        try (RecordingStream recording = new RecordingStream();
+             FileBookingJournal journal = FileBookingJournal.open(directory.resolve("bookings.journal"),
+                     FsyncPolicy.BATCHED, Duration.ofMillis(1), event -> { })) {
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+            recording.onEvent("jdk.VirtualThreadPinned", pinned::add);
+            recording.startAsync();
+
+            UserServiceImpl userService = new UserServiceImpl(new InMemoryUserRepository(), journal);
+            TicketServiceImpl ticketService = new TicketServiceImpl(new InMemoryTicketRepository(),
+                    new SimpleSeatAllocationService(4), userService, journal);
+            for (int i = 0; i < 8; i++) {
+                userService.addUser(User.builder().firstName("User").lastName("" + i).email(i + "@example.com").build());
+            }
+
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Future<?>> clients = new ArrayList<>();
+                for (int client = 0; client < 64; client++) {
+                    String email = (client % 8) + "@example.com";
+                    Seat seat = Seat.of(Section.B, client % 4 + 1);
+                    clients.add(executor.submit(() -> {
+                        for (int round = 0; round < 50; round++) {
+                            try {
+                                ticketService.purchaseTicket(email, Section.A);
+                                ticketService.modifySeat(email, seat);
+                                ticketService.cancelTicket(email);
+                            } catch (TicketAlreadyExistsException | TicketNotFoundException
+                                     | SeatUnavailableException expected) {
+                                // contention between clients sharing an email or seat is part of the workload
+                            }
+                        }
+                    }));
+                }
+                for (Future<?> client : clients) {
+                    client.get();
+                }
+            }
+            recording.stop();
+        }
+
+        assertThat(pinned).as("virtual thread pinned events").isEmpty();
+    }
+}
@@ -0,0 +1,260 @@
+package com.dwij.trainbooking.service.impl;
+
+import com.dwij.trainbooking.exception.DepartureNotFoundException;
+import com.dwij.trainbooking.exception.TicketAlreadyExistsException;
+import com.dwij.trainbooking.exception.WaitlistEntryAlreadyExistsException;
+import com.dwij.trainbooking.exception.WaitlistEntryNotFoundException;
+import com.dwij.trainbooking.models.*;
+import com.dwij.trainbooking.repository.InMemoryTicketRepository;
+import com.dwij.trainbooking.repository.TicketRepository;
+import com.dwij.trainbooking.repository.InMemoryUserRepository;
+import com.dwij.trainbooking.service.TrainCatalog;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WaitlistPromotionTest {
+    private static final Departure DEPARTURE = Departure.of("LP300", LocalDate.of(2030, 1, 1));
+
+    private MutableClock clock;
+    private SimpleSeatAllocationService seatAllocationService;
+    private TicketRepository ticketRepository;
+    private UserServiceImpl userService;
+    private TicketServiceImpl ticketService;
+
+    @BeforeEach
+    void setUp() {
+        Train train = new Train("LP300", Route.of("London", "Lille", "Paris"), Map.of(Section.A, 1));
+        clock = new MutableClock(DEPARTURE.getDate().atStartOfDay().toInstant(ZoneOffset.UTC));
+        seatAllocationService = new SimpleSeatAllocationService(new TrainCatalog(List.of(train), "LP300"), clock);
+        ticketRepository = new InMemoryTicketRepository();
+        userService = new UserServiceImpl(new InMemoryUserRepository());
+        ticketService = new TicketServiceImpl(ticketRepository, seatAllocationService, userService);
+    }
+
+    @Test
+    void shouldHandCancelledSeatToHeadOfWaitlist() {
+        addUsers("a", "b", "c");
+        Ticket original = ticketService.purchaseTicket("a", Section.A);
+
+        assertThat(ticketService.joinWaitlist("b", Section.A, null, null).getPosition()).isEqualTo(1);
+        assertThat(ticketService.joinWaitlist("c", Section.A, null, null).getPosition()).isEqualTo(2);
+
+        ticketService.cancelTicket("a");
+
+        assertThat(ticketRepository.findByUserEmail("b").getSeat()).isEqualTo(original.getSeat());
+        assertThat(ticketRepository.findByUserEmail("c")).isNull();
+        assertThat(ticketService.getWaitlistEntry("c").getPosition()).isEqualTo(1);
+        assertThatThrownBy(() -> ticketService.getWaitlistEntry("b"))
+                .isInstanceOf(WaitlistEntryNotFoundException.class);
+        assertThat(seatAllocationService.isSeatAvailable(DEPARTURE, original.getSeat(), null)).isFalse();
+    }
+
+    @Test
+    void shouldTransferOnlyTheLegsTheWaiterNeeds() {
+        addUsers("a", "b");
+        Ticket original = ticketService.purchaseTicket("a", Section.A);
+        ticketService.joinWaitlist("b", Section.A, "Lille", "Paris");
+
+        ticketService.cancelTicket("a");
+
+        Ticket promoted = ticketRepository.findByUserEmail("b");
+        assertThat(promoted.getSeat()).isEqualTo(original.getSeat());
+        assertThat(promoted.getFrom()).isEqualTo("Lille");
+        assertThat(seatAllocationService.isSeatAvailable(DEPARTURE, original.getSeat(), Journey.of("London", "Lille")))
+                .isTrue();
+        assertThat(seatAllocationService.isSeatAvailable(DEPARTURE, original.getSeat(), Journey.of("Lille", "Paris")))
+                .isFalse();
+    }
+
+    @Test
+    void shouldSkipWaitersWhoseJourneyTheSeatDoesNotCover() {
+        addUsers("a", "b", "c");
+        ticketService.purchaseTicket("a", Section.A, "London", "Lille");
+        ticketService.purchaseTicket(DEPARTURE, "c", Section.A, "Lille", "Paris");
+        ticketService.joinWaitlist("b", Section.A, null, null);
+
+        ticketService.cancelTicket("a");
+
+        assertThat(ticketRepository.findByUserEmail("b")).isNull();
+        assertThat(ticketService.getWaitlistEntry("b").getStatus()).isEqualTo(WaitlistEntry.Status.WAITING);
+
+        ticketService.cancelTicket("c");
+
+        assertThat(ticketRepository.findByUserEmail("b").getFrom()).isEqualTo("London");
+    }
+
+    @Test
+    void shouldPromoteImmediatelyWhenSeatIsFreeOnJoin() {
+        addUsers("a");
+
+        WaitlistEntry entry = ticketService.joinWaitlist("a", Section.A, null, null);
+
+        assertThat(entry.getStatus()).isEqualTo(WaitlistEntry.Status.PROMOTED);
+        assertThat(ticketRepository.findByUserEmail("a")).isNotNull();
+    }
+
+    @Test
+    void shouldPassSeatOverWaiterWhoLeft() {
+        addUsers("a", "b", "c");
+        ticketService.purchaseTicket("a", Section.A);
+        ticketService.joinWaitlist("b", Section.A, null, null);
+        ticketService.joinWaitlist("c", Section.A, null, null);
+        ticketService.leaveWaitlist("b");
+
+        ticketService.cancelTicket("a");
+
+        assertThat(ticketRepository.findByUserEmail("b")).isNull();
+        assertThat(ticketRepository.findByUserEmail("c")).isNotNull();
+    }
+
+    @Test
+    void shouldKeepPositionsWhenWaitersLeaveFromTheMiddle() {
+        List<String> emails = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            emails.add("user" + i + "@example.com");
+        }
+        addUsers(emails.toArray(String[]::new));
+        ticketService.purchaseTicket(emails.get(0), Section.A);
+        for (String email : emails.subList(1, emails.size())) {
+            ticketService.joinWaitlist(email, Section.A, null, null);
+        }
+
+        for (int i = 2; i < emails.size(); i += 2) {
+            ticketService.leaveWaitlist(emails.get(i));
+        }
+
+        assertThat(ticketService.getWaitlistEntry(emails.get(1)).getPosition()).isEqualTo(1);
+        assertThat(ticketService.getWaitlistEntry(emails.get(3)).getPosition()).isEqualTo(2);
+        assertThat(ticketService.getWaitlistEntry(emails.get(39)).getPosition()).isEqualTo(20);
+        assertThat(ticketService.waitlistSize()).isEqualTo(20);
+
+        ticketService.cancelTicket(emails.get(0));
+
+        assertThat(ticketRepository.findByUserEmail(emails.get(1))).isNotNull();
+        assertThat(ticketService.getWaitlistEntry(emails.get(39)).getPosition()).isEqualTo(19);
+    }
+
+    @Test
+    void shouldDropWaitlistsOfDepartedTrains() {
+        addUsers("a", "b");
+        ticketService.purchaseTicket("a", Section.A);
+        ticketService.joinWaitlist("b", Section.A, null, null);
+
+        clock.advance(Duration.ofDays(1));
+        ticketService.evictDepartedWaitlists();
+
+        assertThat(ticketService.waitlistSize()).isZero();
+        assertThatThrownBy(() -> ticketService.getWaitlistEntry("b"))
+                .isInstanceOf(WaitlistEntryNotFoundException.class);
+        assertThatThrownBy(() -> ticketService.joinWaitlist(DEPARTURE, "b", Section.A, null, null))
+                .isInstanceOf(DepartureNotFoundException.class);
+        Departure next = Departure.of("LP300", DEPARTURE.getDate().plusDays(1));
+        assertThat(ticketService.joinWaitlist(next, "b", Section.A, null, null).getStatus())
+                .isEqualTo(WaitlistEntry.Status.PROMOTED);
+    }
+
+    @Test
+    void shouldRejectDuplicateJoinAndJoinWithTicket() {
+        addUsers("a", "b");
+        ticketService.purchaseTicket("a", Section.A);
+        ticketService.joinWaitlist("b", Section.A, null, null);
+
+        assertThatThrownBy(() -> ticketService.joinWaitlist("b", Section.A, null, null))
+                .isInstanceOf(WaitlistEntryAlreadyExistsException.class);
+        assertThatThrownBy(() -> ticketService.joinWaitlist("a", Section.A, null, null))
+                .isInstanceOf(TicketAlreadyExistsException.class);
+    }
+
+    @Test
+    void shouldNeverLoseSeatsUnderConcurrentCancelAndJoin() throws Exception {
+        int customers = 200;
+        List<String> emails = new ArrayList<>();
+        for (int i = 0; i < customers; i++) {
+            emails.add("user" + i + "@example.com");
+        }
+        addUsers(emails.toArray(String[]::new));
+        ticketService.purchaseTicket(emails.get(0), Section.A);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 1; i < customers; i++) {
+                String email = emails.get(i);
+                futures.add(executor.submit(() -> ticketService.joinWaitlist(email, Section.A, null, null)));
+            }
+            for (int round = 0; round < customers; round++) {
+                futures.add(executor.submit(() -> emails.stream()
+                        .filter(email -> ticketRepository.findByUserEmail(email) != null)
+                        .findFirst()
+                        .ifPresent(email -> {
+                            try {
+                                ticketService.cancelTicket(email);
+                            } catch (RuntimeException ignored) {
+                                // another round cancelled it first
+                            }
+                        })));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        long ticketed = emails.stream().filter(email -> ticketRepository.findByUserEmail(email) != null).count();
+        int free = seatAllocationService.countAvailableSeats(DEPARTURE, Section.A, null);
+        assertThat(ticketed + free).isEqualTo(1);
+        if (free == 1) {
+            assertThat(ticketService.waitlistSize()).isZero();
+        }
+    }
+
+    private void addUsers(String... emails) {
+        for (String email : emails) {
+            userService.addUser(User.builder().email(email).build());
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}